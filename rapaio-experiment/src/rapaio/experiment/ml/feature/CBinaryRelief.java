@@ -26,9 +26,13 @@ import java.util.List;
 import java.util.Random;
 import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import rapaio.core.stat.Maximum;
 import rapaio.core.stat.Minimum;
+import rapaio.darray.DArray;
+import rapaio.darray.DArrays;
+import rapaio.darray.Shape;
 import rapaio.data.Frame;
 import rapaio.data.Var;
 import rapaio.data.VarType;
@@ -36,6 +40,9 @@ import rapaio.experiment.math.linear.DMatrix;
 import rapaio.experiment.ml.feature.relief.ReliefDifferenceFunction;
 import rapaio.experiment.ml.feature.relief.ReliefDistanceFunction;
 import rapaio.experiment.ml.feature.relief.ReliefImportance;
+import rapaio.ml.common.distance.EuclideanDistance;
+import rapaio.ml.common.index.NeighborIndex;
+import rapaio.ml.common.index.Neighbors;
 import rapaio.util.collection.Ints;
 
 /**
@@ -57,6 +64,7 @@ public class CBinaryRelief {
     private boolean[] numeric;
     private double[] weights;
     private boolean[] target;
+    private boolean indexed;
 
     private DMatrix x;
 
@@ -131,6 +139,14 @@ public class CBinaryRelief {
             }
         }
 
+        // without nominal inputs and missing values the relief distance ranks rows as the euclidean distance
+        indexed = true;
+        for (int i = 0; i < inputNames.size() && indexed; i++) {
+            for (int j = 0; j < df.rowCount() && indexed; j++) {
+                indexed = numeric[i] && !Double.isNaN(x.get(j, i));
+            }
+        }
+
         target = new boolean[df.rowCount()];
         for (int i = 0; i < df.rowCount(); i++) {
             target[i] = df.getInt(i, targetName) == 1;
@@ -168,17 +184,6 @@ public class CBinaryRelief {
                 }
             }
 
-            // compute distance matrix within sample
-
-            DMatrix dm = DMatrix.empty(rlen, rlen);
-            for (int i = 0; i < rlen; i++) {
-                for (int j = i + 1; j < rlen; j++) {
-                    double dist = distFun.distance(x, numeric, rows[i], rows[j]);
-                    dm.set(i, j, dist);
-                    dm.set(j, i, dist);
-                }
-            }
-
             // find nearest hit and nearest miss for each row
 
             int[] hit = new int[rlen];
@@ -187,23 +192,10 @@ public class CBinaryRelief {
             Arrays.fill(hit, -1);
             Arrays.fill(miss, -1);
 
-            for (int row = 0; row < rlen; row++) {
-                for (int col = 0; col < rlen; col++) {
-                    if (row == col) {
-                        continue;
-                    }
-                    if (target[rows[row]] == target[rows[col]]) {
-                        // hit
-                        if (hit[row] == -1 || dm.get(row, col) < dm.get(row, hit[row])) {
-                            hit[row] = col;
-                        }
-                    } else {
-                        // miss
-                        if (miss[row] == -1 || dm.get(row, col) < dm.get(row, miss[row])) {
-                            miss[row] = col;
-                        }
-                    }
-                }
+            if (indexed) {
+                nearestFromIndexes(rows, hit, miss);
+            } else {
+                nearestFromDistances(rows, hit, miss);
             }
 
             // update weights
@@ -223,6 +215,81 @@ public class CBinaryRelief {
         return new ReliefImportance(inputNames.toArray(new String[0]), weights);
     }
 
+    /**
+     * Finds the nearest hit and miss of each sampled row from the matrix of relief distances between sampled rows.
+     * Positions in the sample are stored in {@code hit} and {@code miss}, ties being broken by the smallest position.
+     */
+    private void nearestFromDistances(int[] rows, int[] hit, int[] miss) {
+        int rlen = rows.length;
+        DMatrix dm = DMatrix.empty(rlen, rlen);
+        for (int i = 0; i < rlen; i++) {
+            for (int j = i + 1; j < rlen; j++) {
+                double dist = distFun.distance(x, numeric, rows[i], rows[j]);
+                dm.set(i, j, dist);
+                dm.set(j, i, dist);
+            }
+        }
+        for (int row = 0; row < rlen; row++) {
+            for (int col = 0; col < rlen; col++) {
+                if (row == col) {
+                    continue;
+                }
+                if (target[rows[row]] == target[rows[col]]) {
+                    // hit
+                    if (hit[row] == -1 || dm.get(row, col) < dm.get(row, hit[row])) {
+                        hit[row] = col;
+                    }
+                } else {
+                    // miss
+                    if (miss[row] == -1 || dm.get(row, col) < dm.get(row, miss[row])) {
+                        miss[row] = col;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the nearest hit and miss of each sampled row with a neighbour index built over the sampled rows
+     * of each class. Neighbours are sorted by distance and position in the sample, thus the results are the same
+     * as the ones obtained from the matrix of distances.
+     */
+    private void nearestFromIndexes(int[] rows, int[] hit, int[] miss) {
+        int dim = inputNames.size();
+        int[][] groups = new int[2][];
+        NeighborIndex[] indexes = new NeighborIndex[2];
+        for (int g = 0; g < 2; g++) {
+            boolean value = g == 1;
+            groups[g] = IntStream.range(0, rows.length).filter(i -> target[rows[i]] == value).toArray();
+            if (groups[g].length == 0) {
+                continue;
+            }
+            DArray<Double> m = DArrays.zeros(Shape.of(groups[g].length, dim));
+            for (int i = 0; i < groups[g].length; i++) {
+                for (int k = 0; k < dim; k++) {
+                    m.setDouble(x.get(rows[groups[g][i]], k), i, k);
+                }
+            }
+            indexes[g] = NeighborIndex.of(m, new EuclideanDistance());
+        }
+        double[] q = new double[dim];
+        for (int row = 0; row < rows.length; row++) {
+            for (int k = 0; k < dim; k++) {
+                q[k] = x.get(rows[row], k);
+            }
+            int g = target[rows[row]] ? 1 : 0;
+            if (groups[g].length > 1) {
+                // the row itself is one of the two closest rows from its class
+                Neighbors nn = indexes[g].knn(q, 2);
+                int first = groups[g][nn.index(0)];
+                hit[row] = first != row ? first : groups[g][nn.index(1)];
+            }
+            if (groups[1 - g].length > 0) {
+                miss[row] = groups[1 - g][indexes[1 - g].knn(q, 1).index(0)];
+            }
+        }
+    }
+
     public ReliefImportance getImportance() {
         return new ReliefImportance(inputNames.toArray(new String[0]), weights);
     }
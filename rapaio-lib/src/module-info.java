@@ -17,6 +17,8 @@ module rapaio.lib {
     exports rapaio.data;
     exports rapaio.data.transform;
     exports rapaio.data.format;
+    exports rapaio.data.filter;
+    exports rapaio.data.filter.expr;
     exports rapaio.data.finance;
     exports rapaio.data.group;
     exports rapaio.data.group.function;
@@ -68,6 +70,7 @@ module rapaio.lib {
 
     exports rapaio.ml.common;
     exports rapaio.ml.common.distance;
+    exports rapaio.ml.common.index;
     exports rapaio.ml.common.kernel;
     exports rapaio.ml.common.kernel.cache;
     exports rapaio.ml.loss;
@@ -95,6 +98,7 @@ module rapaio.lib {
     exports rapaio.ml.model.tree.ctree;
     exports rapaio.ml.model.tree.rtree;
     exports rapaio.ml.model.tree.rowpredicate;
+    exports rapaio.ml.tune;
 
 
     exports rapaio.printer;
@@ -0,0 +1,391 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+
+package rapaio.core.stat;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Arrays;
+
+import rapaio.data.Var;
+
+/**
+ * Mergeable sketch which estimates quantiles of a stream of values using bounded memory.
+ * <p>
+ * The implementation follows the KLL algorithm (Karnin, Lang, Liberty - Optimal Quantile Approximation in Streams).
+ * Values are kept in a hierarchy of compactors. A value from level {@code h} stands for {@code 2^h} original
+ * values. When the retained values exceed the capacity, the lowest full level is sorted and every second value
+ * is promoted to the next level. Capacities decrease geometrically from the top level down, which bounds the
+ * memory to {@code O(1/eps)} values.
+ * <p>
+ * The rank error of an estimated quantile is bounded by about {@code eps * n} with high probability.
+ * As long as no compaction happened, which is the case when the number of values is below the capacity
+ * of the sketch, the estimates are exact and identical with the default {@link Quantiles.Type#R7} quantiles.
+ * <p>
+ * Two sketches built with the same error bound can be merged with {@link #update(QuantileSketch)},
+ * which makes possible to build sketches in parallel on partitions of data, or on batches from a stream.
+ * Missing values are ignored.
+ */
+public class QuantileSketch implements Serializable {
+
+    /**
+     * Builds an empty sketch.
+     *
+     * @param eps error bound for normalized rank, a value in interval {@code (0, 1)}
+     * @return new empty sketch
+     */
+    public static QuantileSketch empty(double eps) {
+        if (!(eps > 0 && eps < 1)) {
+            throw new IllegalArgumentException("Error bound eps must be in interval (0,1).");
+        }
+        return new QuantileSketch(Math.max(MIN_WIDTH, (int) Math.ceil(2.0 / eps)));
+    }
+
+    /**
+     * Builds a sketch with the non-missing values of a variable.
+     *
+     * @param var source variable
+     * @param eps error bound for normalized rank
+     * @return new sketch
+     */
+    public static QuantileSketch of(Var var, double eps) {
+        QuantileSketch sketch = empty(eps);
+        sketch.update(var);
+        return sketch;
+    }
+
+    @Serial
+    private static final long serialVersionUID = 4512980023148311095L;
+
+    private static final int MIN_WIDTH = 8;
+    private static final double DECAY = 2.0 / 3.0;
+
+    private final int k;
+    private double[][] levels = new double[][] {new double[MIN_WIDTH]};
+    private int[] sizes = new int[1];
+    private int retained = 0;
+    private long n = 0;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+    private long coins = 0;
+
+    // sorted view over retained values, built lazily for queries
+    private transient double[] sortedValues;
+    private transient double[] sortedCenters;
+
+    private QuantileSketch(int k) {
+        this.k = k;
+    }
+
+    /**
+     * @return width parameter of the top compactor
+     */
+    public int k() {
+        return k;
+    }
+
+    /**
+     * @return number of values added to the sketch
+     */
+    public long n() {
+        return n;
+    }
+
+    /**
+     * @return number of values retained in memory
+     */
+    public int retained() {
+        return retained;
+    }
+
+    public double min() {
+        return min;
+    }
+
+    public double max() {
+        return max;
+    }
+
+    /**
+     * @return true if the sketch retains all the values, in which case the estimations are exact
+     */
+    public boolean isExact() {
+        return levels.length == 1;
+    }
+
+    /**
+     * Adds a value to the sketch. Missing values are ignored.
+     *
+     * @param x value to be added
+     * @return sketch instance
+     */
+    public QuantileSketch update(double x) {
+        if (Double.isNaN(x)) {
+            return this;
+        }
+        if (n == 0) {
+            min = x;
+            max = x;
+        } else {
+            min = Math.min(min, x);
+            max = Math.max(max, x);
+        }
+        n++;
+        append(0, x);
+        if (retained >= totalCapacity()) {
+            compress();
+        }
+        sortedValues = null;
+        return this;
+    }
+
+    /**
+     * Adds all the non-missing values of a variable to the sketch.
+     *
+     * @param var source variable
+     * @return sketch instance
+     */
+    public QuantileSketch update(Var var) {
+        for (int i = 0; i < var.size(); i++) {
+            if (!var.isMissing(i)) {
+                update(var.getDouble(i));
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Merges the content of another sketch into this one. The other sketch is not changed.
+     *
+     * @param other sketch to be merged
+     * @return sketch instance
+     */
+    public QuantileSketch update(QuantileSketch other) {
+        if (other.k != k) {
+            throw new IllegalArgumentException("Cannot merge sketches with different error bounds.");
+        }
+        if (other.n == 0) {
+            return this;
+        }
+        min = n == 0 ? other.min : Math.min(min, other.min);
+        max = n == 0 ? other.max : Math.max(max, other.max);
+        n += other.n;
+        for (int h = 0; h < other.levels.length; h++) {
+            for (int i = 0; i < other.sizes[h]; i++) {
+                append(h, other.levels[h][i]);
+            }
+        }
+        coins ^= other.coins;
+        while (retained >= totalCapacity()) {
+            compress();
+        }
+        sortedValues = null;
+        return this;
+    }
+
+    /**
+     * Estimates a quantile. Between the retained values the quantile is linearly interpolated,
+     * in the same way as {@link Quantiles.Type#R7}.
+     *
+     * @param p probability of the quantile, in interval {@code [0,1]}
+     * @return estimated quantile or {@code NaN} if the sketch is empty
+     */
+    public double quantile(double p) {
+        if (n == 0) {
+            return Double.NaN;
+        }
+        if (p <= 0) {
+            return min;
+        }
+        if (p >= 1) {
+            return max;
+        }
+        buildSortedView();
+        double target = p * (n - 1);
+        int pos = Arrays.binarySearch(sortedCenters, target);
+        if (pos >= 0) {
+            return sortedValues[pos];
+        }
+        int hi = -pos - 1;
+        if (hi == 0) {
+            return interpolate(0, min, sortedCenters[0], sortedValues[0], target);
+        }
+        if (hi == sortedCenters.length) {
+            return interpolate(sortedCenters[hi - 1], sortedValues[hi - 1], n - 1, max, target);
+        }
+        return interpolate(sortedCenters[hi - 1], sortedValues[hi - 1], sortedCenters[hi], sortedValues[hi], target);
+    }
+
+    /**
+     * Estimates multiple quantiles.
+     *
+     * @param percentiles probabilities of the quantiles
+     * @return array of estimated quantiles
+     */
+    public double[] quantiles(double... percentiles) {
+        double[] values = new double[percentiles.length];
+        for (int i = 0; i < percentiles.length; i++) {
+            values[i] = quantile(percentiles[i]);
+        }
+        return values;
+    }
+
+    /**
+     * Estimates the normalized rank of a value, which is the fraction of values less or equal with the given value.
+     *
+     * @param x given value
+     * @return estimated normalized rank in interval {@code [0,1]}
+     */
+    public double rank(double x) {
+        if (n == 0) {
+            return Double.NaN;
+        }
+        double weight = 0;
+        for (int h = 0; h < levels.length; h++) {
+            long w = 1L << h;
+            for (int i = 0; i < sizes[h]; i++) {
+                if (levels[h][i] <= x) {
+                    weight += w;
+                }
+            }
+        }
+        return weight / n;
+    }
+
+    /**
+     * Computes cut points which splits the values in bins with approximately equal number of values.
+     * Duplicate cut points are removed, thus the number of cut points can be smaller than {@code bins - 1}.
+     * The cut points can be used to build histograms with equal frequency bins.
+     *
+     * @param bins number of bins
+     * @return strictly increasing cut points
+     */
+    public double[] cutPoints(int bins) {
+        if (bins < 1) {
+            throw new IllegalArgumentException("Number of bins must be positive.");
+        }
+        double[] cuts = new double[bins - 1];
+        int len = 0;
+        for (int i = 1; i < bins; i++) {
+            double q = quantile(i / (double) bins);
+            if (Double.isNaN(q)) {
+                continue;
+            }
+            if (len == 0 || cuts[len - 1] < q) {
+                cuts[len++] = q;
+            }
+        }
+        return Arrays.copyOf(cuts, len);
+    }
+
+    private static double interpolate(double x1, double y1, double x2, double y2, double x) {
+        if (x2 <= x1) {
+            return y2;
+        }
+        return y1 + (x - x1) * (y2 - y1) / (x2 - x1);
+    }
+
+    private int capacity(int level) {
+        int depth = levels.length - level - 1;
+        return Math.max(MIN_WIDTH, (int) Math.ceil(k * Math.pow(DECAY, depth)));
+    }
+
+    private int totalCapacity() {
+        int total = 0;
+        for (int h = 0; h < levels.length; h++) {
+            total += capacity(h);
+        }
+        return total;
+    }
+
+    private void append(int level, double x) {
+        while (level >= levels.length) {
+            levels = Arrays.copyOf(levels, levels.length + 1);
+            levels[levels.length - 1] = new double[MIN_WIDTH];
+            sizes = Arrays.copyOf(sizes, sizes.length + 1);
+        }
+        if (sizes[level] == levels[level].length) {
+            levels[level] = Arrays.copyOf(levels[level], levels[level].length * 2);
+        }
+        levels[level][sizes[level]++] = x;
+        retained++;
+    }
+
+    private void compress() {
+        for (int h = 0; h < levels.length; h++) {
+            if (sizes[h] < capacity(h)) {
+                continue;
+            }
+            double[] level = levels[h];
+            int size = sizes[h];
+            Arrays.sort(level, 0, size);
+
+            // an odd item remains at the current level, the rest are compacted in pairs
+            int pairs = size / 2;
+            int offset = (int) ((coins >>> (h & 63)) & 1L);
+            coins ^= 1L << (h & 63);
+            int start = size - 2 * pairs;
+            for (int i = 0; i < pairs; i++) {
+                append(h + 1, level[start + 2 * i + offset]);
+            }
+            sizes[h] = start;
+            retained -= 2 * pairs;
+            return;
+        }
+    }
+
+    private void buildSortedView() {
+        if (sortedValues != null) {
+            return;
+        }
+        // levels are sorted independently and merged in a single sorted sequence
+        double[] values = new double[0];
+        long[] weights = new long[0];
+        for (int h = 0; h < levels.length; h++) {
+            double[] level = Arrays.copyOf(levels[h], sizes[h]);
+            Arrays.sort(level);
+            double[] mergedValues = new double[values.length + level.length];
+            long[] mergedWeights = new long[mergedValues.length];
+            int i = 0;
+            int j = 0;
+            for (int pos = 0; pos < mergedValues.length; pos++) {
+                if (j == level.length || (i < values.length && values[i] <= level[j])) {
+                    mergedValues[pos] = values[i];
+                    mergedWeights[pos] = weights[i++];
+                } else {
+                    mergedValues[pos] = level[j++];
+                    mergedWeights[pos] = 1L << h;
+                }
+            }
+            values = mergedValues;
+            weights = mergedWeights;
+        }
+        double[] centers = new double[values.length];
+        double cumulative = 0;
+        for (int i = 0; i < values.length; i++) {
+            centers[i] = cumulative + (weights[i] - 1) / 2.0;
+            cumulative += weights[i];
+        }
+        sortedCenters = centers;
+        sortedValues = values;
+    }
+}
@@ -24,6 +24,7 @@ package rapaio.core.stat;
 import static rapaio.printer.Format.floatFlex;
 
 import java.util.Arrays;
+import java.util.stream.IntStream;
 
 import rapaio.data.Var;
 import rapaio.printer.Printable;
@@ -57,6 +58,53 @@ public class Quantiles implements Printable {
         return new Quantiles(var, type, percentiles);
     }
 
+    /**
+     * Estimates quantiles using a {@link QuantileSketch}, without sorting a copy of the values.
+     * For large variables the sketch is built in parallel on chunks of rows which are merged afterward.
+     * The estimates are exact for small variables and interpolated as in {@link Type#R7}.
+     *
+     * @param var         source variable
+     * @param eps         error bound for the normalized rank of the estimated quantiles
+     * @param percentiles probabilities of the quantiles
+     * @return estimated quantiles
+     */
+    public static Quantiles approx(Var var, double eps, double... percentiles) {
+        QuantileSketch sketch = sketch(var, eps);
+        int complete = (int) sketch.n();
+        double[] values = complete == 0 ? Doubles.newFill(percentiles.length, Double.NaN) : sketch.quantiles(percentiles);
+        return new Quantiles(var.name(), Type.R7, percentiles, values, complete, var.size() - complete);
+    }
+
+    /**
+     * Builds a quantile sketch from the values of a variable. Chunks of rows are processed in parallel
+     * and the partial sketches are merged.
+     *
+     * @param var source variable
+     * @param eps error bound for the normalized rank
+     * @return sketch with all non-missing values
+     */
+    public static QuantileSketch sketch(Var var, double eps) {
+        int chunks = (var.size() + SKETCH_CHUNK - 1) / SKETCH_CHUNK;
+        if (chunks <= 1) {
+            return QuantileSketch.of(var, eps);
+        }
+        return IntStream.range(0, chunks).parallel()
+                .mapToObj(chunk -> {
+                    QuantileSketch partial = QuantileSketch.empty(eps);
+                    int end = Math.min(var.size(), (chunk + 1) * SKETCH_CHUNK);
+                    for (int i = chunk * SKETCH_CHUNK; i < end; i++) {
+                        if (!var.isMissing(i)) {
+                            partial.update(var.getDouble(i));
+                        }
+                    }
+                    return partial;
+                })
+                .reduce(QuantileSketch::update)
+                .orElseGet(() -> QuantileSketch.empty(eps));
+    }
+
+    private static final int SKETCH_CHUNK = 1 << 16;
+
     private final String varName;
     private final double[] percentiles;
     private final double[] quantiles;
@@ -71,6 +119,15 @@ public class Quantiles implements Printable {
         this.quantiles = compute(var);
     }
 
+    private Quantiles(String varName, Type type, double[] percentiles, double[] quantiles, int completeCount, int missingCount) {
+        this.varName = varName;
+        this.type = type;
+        this.percentiles = percentiles;
+        this.quantiles = quantiles;
+        this.completeCount = completeCount;
+        this.missingCount = missingCount;
+    }
+
     private double[] compute(final Var var) {
 
         double[] x = new double[var.size()];
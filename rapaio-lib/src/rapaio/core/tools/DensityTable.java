@@ -111,6 +111,36 @@ public final class DensityTable<U, V> implements Printable, Serializable {
         return dt;
     }
 
+    /**
+     * Builds a density table from two variables using label representation, using only the rows
+     * from the segment {@code [start, end)} of the given array of rows.
+     * <p>
+     * The values from density table are number of instances if the weights are null. Otherwise,
+     * the values are the corresponding weights.
+     *
+     * @param withMissing true if using the first row and col, false otherwise
+     * @param rowVar      row var
+     * @param colVar      col var
+     * @param weights     weights used instead of counts, if not null
+     * @param rows        array of variable rows
+     * @param start       start position in the array of rows, inclusive
+     * @param end         end position in the array of rows, exclusive
+     */
+    public static DensityTable<String, String> fromLabels(boolean withMissing, Var rowVar, Var colVar, Var weights,
+            int[] rows, int start, int end) {
+        var rowIndex = IndexLabel.fromVarLevels(withMissing, rowVar);
+        var colIndex = IndexLabel.fromVarLevels(withMissing, colVar);
+        var dt = new DensityTable<>(rowIndex, colIndex);
+        for (int i = start; i < end; i++) {
+            int r = rowIndex.getIndex(rowVar, rows[i]);
+            int c = colIndex.getIndex(colVar, rows[i]);
+            if (r >= 0 && c >= 0) {
+                dt.inc(r, c, weights != null ? weights.getDouble(rows[i]) : 1);
+            }
+        }
+        return dt;
+    }
+
     /**
      * Builds a density table with a binary split on rows from two variables.
      * The first row contains instances which have label equal with given row level.
@@ -133,6 +133,51 @@ public class DensityVector<T> implements Printable, Serializable {
         return dv;
     }
 
+    /**
+     * Builds a distribution vector with the counts of each level of a nominal variable,
+     * using only the rows from the segment {@code [start, end)} of the given array of rows.
+     *
+     * @param var   given nominal variable
+     * @param rows  array of variable rows
+     * @param start start position in the array of rows, inclusive
+     * @param end   end position in the array of rows, exclusive
+     * @return new distribution vector filled with counts
+     */
+    public static DensityVector<String> fromLevelCounts(boolean useMissing, Var var, int[] rows, int start, int end) {
+        IndexLabel index = IndexLabel.fromVarLevels(useMissing, var);
+        DensityVector<String> dv = new DensityVector<>(index);
+        for (int i = start; i < end; i++) {
+            int pos = index.getIndex(var, rows[i]);
+            if (pos >= 0) {
+                dv.increment(pos, 1);
+            }
+        }
+        return dv;
+    }
+
+    /**
+     * Builds a distribution vector with the sum of weights of each level of a nominal variable,
+     * using only the rows from the segment {@code [start, end)} of the given array of rows.
+     *
+     * @param var     given nominal variable
+     * @param weights given numeric weights, indexed by variable rows
+     * @param rows    array of variable rows
+     * @param start   start position in the array of rows, inclusive
+     * @param end     end position in the array of rows, exclusive
+     * @return new distribution variable
+     */
+    public static DensityVector<String> fromLevelWeights(boolean useMissing, Var var, Var weights, int[] rows, int start, int end) {
+        IndexLabel index = IndexLabel.fromVarLevels(useMissing, var);
+        DensityVector<String> dv = new DensityVector<>(index);
+        for (int i = start; i < end; i++) {
+            int pos = index.getIndex(var, rows[i]);
+            if (pos >= 0) {
+                dv.increment(pos, weights.getDouble(rows[i]));
+            }
+        }
+        return dv;
+    }
+
     @Serial
     private static final long serialVersionUID = -546802690694348698L;
     private final Index<T> index;
@@ -29,12 +29,14 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.DoubleStream;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import rapaio.darray.DArray;
 import rapaio.darray.DArrays;
 import rapaio.darray.Shape;
+import rapaio.data.filter.Expr;
 import rapaio.data.stream.FSpot;
 import rapaio.data.stream.FSpots;
 import rapaio.data.transform.RefSort;
@@ -272,6 +274,17 @@ public interface Frame extends Serializable, Printable {
      */
     Frame mapRows(Mapping mapping);
 
+    /**
+     * Builds a new mapped frame with rows which satisfy the given filter expression.
+     * The expression is evaluated column at a time, in parallel over row ranges.
+     *
+     * @param expr filter expression
+     * @return new mapped frame with selected rows
+     */
+    default Frame filter(Expr expr) {
+        return mapRows(expr.mapping(this));
+    }
+
     /**
      * Returns double value corresponding to given row and var index
      *
@@ -483,6 +496,26 @@ public interface Frame extends Serializable, Printable {
         return new FSpots(this);
     }
 
+    /**
+     * Builds a stream of row indexes. The stream splits in balanced ranges when parallel
+     * and does not allocate spot objects.
+     *
+     * @return stream of row indexes
+     */
+    default IntStream rowStream() {
+        return IntStream.range(0, rowCount());
+    }
+
+    /**
+     * Builds a stream with the double values of a variable.
+     *
+     * @param varName variable name
+     * @return stream of double values
+     */
+    default DoubleStream doubleStream(String varName) {
+        return rvar(varName).doubleStream();
+    }
+
     /**
      * Returns a list of FSpots, one spot for each frame row
      *
@@ -37,6 +37,7 @@ import rapaio.data.group.function.GroupFunMax;
 import rapaio.data.group.function.GroupFunMean;
 import rapaio.data.group.function.GroupFunMin;
 import rapaio.data.group.function.GroupFunNUnique;
+import rapaio.data.group.function.GroupFunQuantile;
 import rapaio.data.group.function.GroupFunSkewness;
 import rapaio.data.group.function.GroupFunStd;
 import rapaio.data.group.function.GroupFunSum;
@@ -142,6 +143,20 @@ public final class Group implements Printable {
         return new GroupFunNUnique(normalizeLevel, Arrays.asList(varNames));
     }
 
+    public static GroupFun median(String... varNames) {
+        return quantile(0.5, varNames);
+    }
+
+    public static GroupFun quantile(double p, String... varNames) {
+        return quantile(p, DEFAULT_QUANTILE_EPS, -1, varNames);
+    }
+
+    public static GroupFun quantile(double p, double eps, int normalizeLevel, String... varNames) {
+        return new GroupFunQuantile(p, eps, normalizeLevel, Arrays.asList(varNames));
+    }
+
+    private static final double DEFAULT_QUANTILE_EPS = 0.001;
+
     ///// AGGREGATE /////
 
     public Aggregate aggregate(GroupFun... functions) {
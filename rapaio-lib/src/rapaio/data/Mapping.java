@@ -22,6 +22,7 @@
 package rapaio.data;
 
 import java.io.Serializable;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.PrimitiveIterator;
 import java.util.Random;
@@ -34,7 +35,9 @@ import java.util.stream.Collector;
 import java.util.stream.IntStream;
 
 import rapaio.data.mapping.ArrayMapping;
+import rapaio.data.mapping.BitmapMapping;
 import rapaio.data.mapping.IntervalMapping;
+import rapaio.data.mapping.SliceMapping;
 import rapaio.util.function.Int2IntFunction;
 
 /**
@@ -108,6 +111,18 @@ public interface Mapping extends Iterable<Integer>, Serializable {
         return new ArrayMapping(mapping.elements(), 0, mapping.size(), fun);
     }
 
+    /**
+     * Builds a mapping which is a view over a range of positions of a shared array of rows, without copy.
+     *
+     * @param array shared array of rows, which must not be modified afterward
+     * @param start first position, inclusive
+     * @param end   last position, exclusive
+     * @return new mapping with rows from the given range of positions
+     */
+    static Mapping slice(int[] array, int start, int end) {
+        return new SliceMapping(array, start, end);
+    }
+
     static Mapping range(int end) {
         return range(0, end);
     }
@@ -116,6 +131,61 @@ public interface Mapping extends Iterable<Integer>, Serializable {
         return new IntervalMapping(start, end);
     }
 
+    /**
+     * Builds a mapping from a bitmap of selected rows, where bit {@code i} of word {@code i >> 6}
+     * marks row {@code i} as selected. The representation is chosen by density: a range if the
+     * selected rows are contiguous, a bitmap for dense selections and an int array for sparse ones.
+     * <p>
+     * The mapping takes ownership of the bitmap, which is used without copy and must not be modified
+     * afterward by the caller. Bits for rows past {@code rows} are cleared.
+     *
+     * @param words bitmap words
+     * @param rows  number of rows described by the bitmap
+     * @return new mapping with selected rows in increasing order
+     */
+    static Mapping fromBitmap(long[] words, int rows) {
+        int len = Math.min(words.length, (rows + 63) >>> 6);
+        if (len < words.length) {
+            Arrays.fill(words, len, words.length, 0L);
+        }
+        if ((rows & 63) != 0 && len == (rows + 63) >>> 6) {
+            words[len - 1] &= (1L << (rows & 63)) - 1;
+        }
+        int count = 0;
+        int first = -1;
+        int last = -1;
+        for (int i = 0; i < len; i++) {
+            long word = words[i];
+            if (word != 0) {
+                count += Long.bitCount(word);
+                if (first < 0) {
+                    first = (i << 6) + Long.numberOfTrailingZeros(word);
+                }
+                last = (i << 6) + 63 - Long.numberOfLeadingZeros(word);
+            }
+        }
+        if (count == 0) {
+            return empty();
+        }
+        if (last - first + 1 == count) {
+            return range(first, last + 1);
+        }
+        // a bitmap costs 64 bits plus 32 bits of rank per word, an array costs 32 bits per row
+        if (count < 3 * len) {
+            int[] array = new int[count];
+            int pos = 0;
+            for (int i = 0; i < len; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    array[pos++] = (i << 6) + Long.numberOfTrailingZeros(word);
+                    word &= word - 1;
+                }
+            }
+            return ArrayMapping.wrapArray(array);
+        }
+        return new BitmapMapping(words);
+    }
+
     /**
      * @return the size of mapping
      */
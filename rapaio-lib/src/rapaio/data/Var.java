@@ -31,6 +31,8 @@ import java.util.function.Consumer;
 import java.util.function.DoubleConsumer;
 import java.util.function.IntConsumer;
 import java.util.stream.Collectors;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
 
 import rapaio.core.SamplingTools;
 import rapaio.darray.DArray;
@@ -452,12 +454,48 @@ public interface Var extends Serializable, Printable {
         return new VSpots(this);
     }
 
+    /**
+     * Builds a stream of row indexes. The stream splits in balanced ranges when parallel
+     * and does not allocate spot objects.
+     *
+     * @return stream of row indexes
+     */
+    default IntStream rowStream() {
+        return IntStream.range(0, size());
+    }
+
+    /**
+     * Builds a stream of double values, using {@link #getDouble(int)}. The stream splits
+     * in balanced ranges when parallel and does not allocate spot objects.
+     *
+     * @return stream of double values
+     */
+    default DoubleStream doubleStream() {
+        return rowStream().mapToDouble(this::getDouble);
+    }
+
     default void forEachSpot(Consumer<VSpot> consumer) {
         for (int i = 0; i < size(); i++) {
             consumer.accept(new VSpot(i, this));
         }
     }
 
+    /**
+     * Calls the consumer for the spot of each row, with rows processed in parallel over balanced
+     * row ranges. The consumer is called from multiple threads and can update the value of its own row.
+     * If the variable type does not support concurrent updates of distinct rows, see
+     * {@link VarType#supportsConcurrentRowUpdates()}, rows are processed sequentially.
+     *
+     * @param consumer spot consumer
+     */
+    default void parallelForEachSpot(Consumer<VSpot> consumer) {
+        if (!type().supportsConcurrentRowUpdates()) {
+            forEachSpot(consumer);
+            return;
+        }
+        rowStream().parallel().forEach(row -> consumer.accept(new VSpot(row, this)));
+    }
+
     default void forEachInt(IntConsumer consumer) {
         for (int i = 0; i < size(); i++) {
             consumer.accept(getInt(i));
@@ -40,6 +40,7 @@ import java.util.function.BinaryOperator;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collector;
+import java.util.stream.DoubleStream;
 
 import rapaio.core.distributions.Distribution;
 import rapaio.darray.DArray;
@@ -420,6 +421,11 @@ public final class VarDouble extends AbstractVar implements Iterable<Double> {
         return data;
     }
 
+    @Override
+    public DoubleStream doubleStream() {
+        return Arrays.stream(data, 0, rows);
+    }
+
     @Override
     public void addRows(int rowCount) {
         ensureCapacity(rows + rowCount);
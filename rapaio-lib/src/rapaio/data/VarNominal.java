@@ -28,7 +28,6 @@ import java.io.Serial;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -48,7 +47,7 @@ import rapaio.text.Parser;
 import rapaio.text.Parsers;
 
 /**
- * Categorical variable type. The nominal variable type is represented as a string label and/or as an short
+ * Categorical variable type. The nominal variable type is represented as a string label and/or as an int
  * index value, assigned to each string label. Nominal variable contains values for categorical observations
  * where order of labels is not important.
  * <p>
@@ -59,10 +58,11 @@ import rapaio.text.Parsers;
  * string values.
  * <p>
  * The index representation is based on the term levels and is used often for performance reasons instead of label
- * representation, where the actual label value does not matter. Even if index values is a short number the
- * order of the indexes for nominal variables is irrelevant.
+ * representation, where the actual label value does not matter. The order of the indexes for nominal
+ * variables is irrelevant.
  * <p>
- * Additionally the nominal variable is limited to 32767 levels, including missing label index.
+ * Indexes are stored in an int array, and the reverse index from labels to indexes is an open addressing
+ * hash table of ints, thus there is no practical limit on the number of levels.
  *
  * @author <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>
  */
@@ -104,11 +104,10 @@ public final class VarNominal extends AbstractVar {
                 continue;
             }
             used.add(next);
-            nominal.dict.add(next);
-            nominal.reverse.put(next, (short) nominal.reverse.size());
+            nominal.addLevel(next);
         }
-        nominal.data = new short[rows];
-        Arrays.fill(nominal.data, (short) -1);
+        nominal.data = new int[rows];
+        Arrays.fill(nominal.data, MISSING_INDEX);
         nominal.rows = rows;
         return nominal;
     }
@@ -160,24 +159,93 @@ public final class VarNominal extends AbstractVar {
     }
 
     @Serial
-    private static final long serialVersionUID = -7541719735879481349L;
+    private static final long serialVersionUID = -7541719735879481350L;
     public static final String MISSING_VALUE = "?";
     private static final int MISSING_INDEX = -1;
 
     private int rows;
     private ArrayList<String> dict;
-    private short[] data;
-    private HashMap<String, Short> reverse;
+    private int[] data;
+    /**
+     * Open addressing hash table with linear probing, which stores level indexes, or -1 for empty slots.
+     * Its length is a power of two, kept at least twice the number of levels.
+     */
+    private int[] reverse;
     private Parser<String> parser = Parsers.DEFAULT_VAR_NOMINAL_PARSER;
     private Formatter<String> formatter = Formatters.DEFAULT_VAR_NOMINAL_FORMATTER;
 
     private VarNominal() {
-        this.reverse = new HashMap<>();
+        this.reverse = emptyReverse(0);
         this.dict = new ArrayList<>();
-        data = new short[0];
+        data = new int[0];
         rows = 0;
     }
 
+    private static int[] emptyReverse(int levels) {
+        int len = 16;
+        while (len < 2 * levels) {
+            len <<= 1;
+        }
+        int[] table = new int[len];
+        Arrays.fill(table, MISSING_INDEX);
+        return table;
+    }
+
+    private static int slot(String value, int mask) {
+        int h = value.hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    /**
+     * @return index of the level, or -1 if there is no such level
+     */
+    private int levelIndex(String value) {
+        int mask = reverse.length - 1;
+        int pos = slot(value, mask);
+        while (true) {
+            int index = reverse[pos];
+            if (index == MISSING_INDEX) {
+                return MISSING_INDEX;
+            }
+            if (dict.get(index).equals(value)) {
+                return index;
+            }
+            pos = (pos + 1) & mask;
+        }
+    }
+
+    /**
+     * Adds a new level, which must not be already present in the dictionary.
+     *
+     * @return index of the new level
+     */
+    private int addLevel(String value) {
+        int index = dict.size();
+        dict.add(value);
+        if (2 * dict.size() > reverse.length) {
+            rebuildReverse();
+        } else {
+            insertReverse(reverse, value, index);
+        }
+        return index;
+    }
+
+    private void rebuildReverse() {
+        reverse = emptyReverse(dict.size());
+        for (int i = 0; i < dict.size(); i++) {
+            insertReverse(reverse, dict.get(i), i);
+        }
+    }
+
+    private static void insertReverse(int[] table, String value, int index) {
+        int mask = table.length - 1;
+        int pos = slot(value, mask);
+        while (table[pos] != MISSING_INDEX) {
+            pos = (pos + 1) & mask;
+        }
+        table[pos] = index;
+    }
+
     public Parser<String> getParser() {
         return parser;
     }
@@ -283,10 +351,10 @@ public final class VarNominal extends AbstractVar {
 
     @Override
     public void setInt(int row, int value) {
-        if (value > Short.MAX_VALUE - 1 || value < -1) {
+        if (value < -1) {
             throw new IllegalArgumentException("Invalid value for nominal index.");
         }
-        data[row] = (short) value;
+        data[row] = value;
     }
 
     @Override
@@ -340,14 +408,8 @@ public final class VarNominal extends AbstractVar {
             data[row] = MISSING_INDEX;
             return;
         }
-        if (!reverse.containsKey(value)) {
-            if (dict.size() == Short.MAX_VALUE - 1) {
-                throw new IllegalStateException("Cannot add new label since dictionary achieved it's maximum size.");
-            }
-            dict.add(value);
-            reverse.put(value, (short) reverse.size());
-        }
-        data[row] = reverse.get(value);
+        int index = levelIndex(value);
+        data[row] = index == MISSING_INDEX ? addLevel(value) : index;
     }
 
     @Override
@@ -358,15 +420,8 @@ public final class VarNominal extends AbstractVar {
             data[rows++] = MISSING_INDEX;
             return;
         }
-        if (!reverse.containsKey(value)) {
-            if (dict.size() == Short.MAX_VALUE - 1) {
-                throw new IllegalStateException(
-                        "Cannot add new label since dictionary achieved it's maximum size for variable: %s.".formatted(name()));
-            }
-            dict.add(value);
-            reverse.put(value, (short) reverse.size());
-        }
-        data[rows++] = reverse.get(value);
+        int index = levelIndex(value);
+        data[rows++] = index == MISSING_INDEX ? addLevel(value) : index;
     }
 
     @Override
@@ -382,17 +437,17 @@ public final class VarNominal extends AbstractVar {
         }
 
         this.dict = new ArrayList<>();
-        this.reverse = new HashMap<>(dict.length);
+        this.reverse = emptyReverse(dict.length);
 
-        short[] pos = new short[oldDict.size()];
+        int[] pos = new int[oldDict.size()];
         for (int i = 0; i < dict.length; i++) {
             String term = dict[i];
-            if (!reverse.containsKey(term)) {
-                this.dict.add(term);
-                this.reverse.put(term, (short) this.reverse.size());
+            int index = levelIndex(term);
+            if (index == MISSING_INDEX) {
+                index = addLevel(term);
             }
             if (i < oldDict.size()) {
-                pos[i] = this.reverse.get(term);
+                pos[i] = index;
             }
         }
 
@@ -466,7 +521,7 @@ public final class VarNominal extends AbstractVar {
             out.writeUTF(factor);
         }
         for (int i = 0; i < size(); i++) {
-            out.writeShort(data[i]);
+            out.writeInt(data[i]);
         }
         out.writeObject(parser);
         out.writeObject(formatter);
@@ -477,15 +532,14 @@ public final class VarNominal extends AbstractVar {
     private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
         rows = in.readInt();
         dict = new ArrayList<>();
-        reverse = new HashMap<>();
         int len = in.readInt();
         for (int i = 0; i < len; i++) {
             dict.add(in.readUTF());
-            reverse.put(dict.get(i), (short) i);
         }
-        data = new short[rows];
+        rebuildReverse();
+        data = new int[rows];
         for (int i = 0; i < rows; i++) {
-            data[i] = in.readShort();
+            data[i] = in.readInt();
         }
         parser = (Parser<String>) in.readObject();
         formatter = (Formatter<String>) in.readObject();
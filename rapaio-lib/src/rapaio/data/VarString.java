@@ -22,12 +22,11 @@
 package rapaio.data;
 
 import java.io.Serial;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
 
 import rapaio.printer.Printer;
 import rapaio.printer.TextTable;
@@ -36,9 +35,21 @@ import rapaio.text.Formatter;
 import rapaio.text.Formatters;
 import rapaio.text.Parser;
 import rapaio.text.Parsers;
+import rapaio.util.collection.Utf8Dictionary;
 import rapaio.util.function.SFunction;
 
 /**
+ * Variable which holds string values.
+ * <p>
+ * Values are not stored as string objects. With plain encoding, which is the default, values are stored
+ * as UTF-8 bytes in a single byte arena, and each row keeps the offset and length of its value.
+ * With dictionary encoding, each distinct value is stored once in a {@link Utf8Dictionary} and each
+ * row keeps only the int code of its value. Dictionary encoding is preferable when values repeat often,
+ * plain encoding when most values are distinct. The encoding can be changed at any time with
+ * {@link #withDictionaryEncoding(boolean)}.
+ * <p>
+ * String objects are created on demand, each time a value is read.
+ *
  * @author <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>
  */
 public class VarString extends AbstractVar {
@@ -55,26 +66,35 @@ public class VarString extends AbstractVar {
 
     public static VarString copy(String... values) {
         VarString text = new VarString(0);
-        text.values = Arrays.stream(values).collect(Collectors.toList());
+        for (String value : values) {
+            text.addLabel(value);
+        }
         return text;
     }
 
     public static VarString copy(List<String> values) {
         VarString text = new VarString(0);
-        text.values = new ArrayList<>(values);
+        for (String value : values) {
+            text.addLabel(value);
+        }
         return text;
     }
 
+    /**
+     * Builds a string variable with the given values. Since values are encoded, later
+     * changes of the list are not reflected into the variable.
+     *
+     * @param values list of values
+     * @return new string variable
+     */
     public static VarString wrap(List<String> values) {
-        VarString text = new VarString(0);
-        text.values = values;
-        return text;
+        return copy(values);
     }
 
     public static VarString from(int rows, Supplier<String> supplier) {
         VarString text = new VarString(rows);
         for (int i = 0; i < rows; i++) {
-            text.values.set(i, supplier.get());
+            text.setLabel(i, supplier.get());
         }
         return text;
     }
@@ -82,22 +102,50 @@ public class VarString extends AbstractVar {
     public static VarString from(int rows, SFunction<Integer, String> function) {
         VarString text = new VarString(rows);
         for (int i = 0; i < rows; i++) {
-            text.values.set(i, function.apply(i));
+            text.setLabel(i, function.apply(i));
         }
         return text;
     }
 
     @Serial
-    private static final long serialVersionUID = -7130782019269889796L;
-    private List<String> values;
+    private static final long serialVersionUID = -7130782019269889797L;
+
+    /**
+     * Marker used as length or code for null values.
+     */
+    private static final int NULL = -1;
+    /**
+     * Plain arena is compacted when more than half of it and at least this number of bytes are unused.
+     */
+    private static final int COMPACT_THRESHOLD = 1 << 16;
+
+    private int rows;
+    private boolean dictionaryEncoded;
+
+    // plain encoding
+    private byte[] arena;
+    private int arenaSize;
+    private int wasted;
+    private int[] starts;
+    private int[] lengths;
+
+    // dictionary encoding
+    private Utf8Dictionary dictionary;
+    private int[] codes;
+    private int missingCode;
+
     private Parser<String> parser = Parsers.DEFAULT_VAR_STRING_PARSER;
     private Formatter<String> formatter = Formatters.DEFAULT_VAR_STRING_FORMATTER;
 
     private VarString(int rows) {
-        values = new ArrayList<>(rows);
-        for (int i = 0; i < rows; i++) {
-            values.add(null);
-        }
+        this.rows = 0;
+        this.dictionaryEncoded = false;
+        this.arena = new byte[0];
+        this.arenaSize = 0;
+        this.wasted = 0;
+        this.starts = new int[0];
+        this.lengths = new int[0];
+        addRows(rows);
     }
 
     public Parser<String> getParser() {
@@ -128,26 +176,171 @@ public class VarString extends AbstractVar {
         return VarType.STRING;
     }
 
+    /**
+     * @return true if values are dictionary encoded, false if values are plain encoded
+     */
+    public boolean isDictionaryEncoded() {
+        return dictionaryEncoded;
+    }
+
+    /**
+     * Changes the encoding of the values. If the variable already has the required encoding
+     * nothing happens, otherwise all values are encoded again.
+     *
+     * @param dictionaryEncoded true for dictionary encoding, false for plain encoding
+     * @return this variable instance
+     */
+    public VarString withDictionaryEncoding(boolean dictionaryEncoded) {
+        if (this.dictionaryEncoded == dictionaryEncoded) {
+            return this;
+        }
+        String[] values = new String[rows];
+        for (int i = 0; i < rows; i++) {
+            values[i] = getLabel(i);
+        }
+        int size = rows;
+        this.dictionaryEncoded = dictionaryEncoded;
+        if (dictionaryEncoded) {
+            arena = null;
+            starts = null;
+            lengths = null;
+            dictionary = new Utf8Dictionary();
+            codes = new int[size];
+            missingCode = NULL;
+        } else {
+            dictionary = null;
+            codes = null;
+            arena = new byte[0];
+            starts = new int[size];
+            lengths = new int[size];
+        }
+        arenaSize = 0;
+        wasted = 0;
+        for (int i = 0; i < size; i++) {
+            put(i, values[i]);
+        }
+        return this;
+    }
+
     @Override
     public int size() {
-        return values.size();
+        return rows;
+    }
+
+    private void ensureCapacity(int minCapacity) {
+        int capacity = dictionaryEncoded ? codes.length : starts.length;
+        if (minCapacity <= capacity) {
+            return;
+        }
+        int newCapacity = Math.max(minCapacity, capacity + (capacity >> 1));
+        if (dictionaryEncoded) {
+            codes = Arrays.copyOf(codes, newCapacity);
+        } else {
+            starts = Arrays.copyOf(starts, newCapacity);
+            lengths = Arrays.copyOf(lengths, newCapacity);
+        }
+    }
+
+    private String decode(int row) {
+        if (row < 0 || row >= rows) {
+            throw new IndexOutOfBoundsException("Index " + row + " out of bounds for length " + rows);
+        }
+        if (dictionaryEncoded) {
+            int code = codes[row];
+            return code == NULL ? null : dictionary.get(code);
+        }
+        int len = lengths[row];
+        return len == NULL ? null : new String(arena, starts[row], len, StandardCharsets.UTF_8);
+    }
+
+    private void put(int row, String value) {
+        if (dictionaryEncoded) {
+            if (value == null) {
+                codes[row] = NULL;
+                return;
+            }
+            int code = dictionary.add(value);
+            if (missingCode == NULL && MISSING_VALUE.equals(value)) {
+                missingCode = code;
+            }
+            codes[row] = code;
+            return;
+        }
+        if (lengths[row] > 0) {
+            wasted += lengths[row];
+        }
+        lengths[row] = NULL;
+        if (value == null) {
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (wasted > COMPACT_THRESHOLD && 2 * wasted > arenaSize) {
+            compact();
+        }
+        if (arenaSize + bytes.length > arena.length) {
+            arena = Arrays.copyOf(arena, Math.max(arenaSize + bytes.length, arena.length + (arena.length >> 1)));
+        }
+        System.arraycopy(bytes, 0, arena, arenaSize, bytes.length);
+        starts[row] = arenaSize;
+        lengths[row] = bytes.length;
+        arenaSize += bytes.length;
+    }
+
+    private void compact() {
+        byte[] copy = new byte[arenaSize - wasted];
+        int pos = 0;
+        for (int i = 0; i < rows; i++) {
+            int len = lengths[i];
+            if (len != NULL) {
+                // empty values are rebased too, their old offset can be past the end of the compacted arena
+                System.arraycopy(arena, starts[i], copy, pos, len);
+                starts[i] = pos;
+                pos += len;
+            }
+        }
+        arena = copy;
+        arenaSize = pos;
+        wasted = 0;
     }
 
     @Override
     public void addRows(int rowCount) {
-        for (int i = 0; i < rowCount; i++) {
-            values.add(null);
+        ensureCapacity(rows + rowCount);
+        if (dictionaryEncoded) {
+            Arrays.fill(codes, rows, rows + rowCount, NULL);
+        } else {
+            Arrays.fill(lengths, rows, rows + rowCount, NULL);
         }
+        rows += rowCount;
     }
 
     @Override
     public void removeRow(int row) {
-        values.remove(row);
+        if (row < 0 || row >= rows) {
+            throw new IndexOutOfBoundsException("Index " + row + " out of bounds for length " + rows);
+        }
+        int numMoved = rows - row - 1;
+        if (dictionaryEncoded) {
+            System.arraycopy(codes, row + 1, codes, row, numMoved);
+        } else {
+            if (lengths[row] > 0) {
+                wasted += lengths[row];
+            }
+            System.arraycopy(starts, row + 1, starts, row, numMoved);
+            System.arraycopy(lengths, row + 1, lengths, row, numMoved);
+        }
+        rows--;
     }
 
     @Override
     public void clearRows() {
-        values.clear();
+        rows = 0;
+        arenaSize = 0;
+        wasted = 0;
+        if (dictionaryEncoded) {
+            dictionary = new Utf8Dictionary();
+            missingCode = NULL;
+        }
     }
 
     @Override
@@ -197,17 +390,24 @@ public class VarString extends AbstractVar {
 
     @Override
     public String getLabel(int row) {
-        return values.get(row);
+        return decode(row);
     }
 
     @Override
     public void setLabel(int row, String value) {
-        values.set(row, value);
+        if (row < 0 || row >= rows) {
+            throw new IndexOutOfBoundsException("Index " + row + " out of bounds for length " + rows);
+        }
+        put(row, value);
     }
 
     @Override
     public void addLabel(String value) {
-        values.add(value);
+        ensureCapacity(rows + 1);
+        if (!dictionaryEncoded) {
+            lengths[rows] = NULL;
+        }
+        put(rows++, value);
     }
 
     @Override
@@ -252,17 +452,23 @@ public class VarString extends AbstractVar {
 
     @Override
     public boolean isMissing(int row) {
-        return MISSING_VALUE.equals(values.get(row));
+        if (row < 0 || row >= rows) {
+            throw new IndexOutOfBoundsException("Index " + row + " out of bounds for length " + rows);
+        }
+        if (dictionaryEncoded) {
+            return codes[row] != NULL && codes[row] == missingCode;
+        }
+        return lengths[row] == 1 && arena[starts[row]] == '?';
     }
 
     @Override
     public void setMissing(int row) {
-        values.set(row, MISSING_VALUE);
+        setLabel(row, MISSING_VALUE);
     }
 
     @Override
     public void addMissing() {
-        values.add(MISSING_VALUE);
+        addLabel(MISSING_VALUE);
     }
 
     @Override
@@ -273,7 +479,10 @@ public class VarString extends AbstractVar {
     @Override
     public VarString copy() {
         VarString copy = new VarString(0).name(name());
-        copy.values = new ArrayList<>(values);
+        copy.withDictionaryEncoding(dictionaryEncoded);
+        for (int i = 0; i < rows; i++) {
+            copy.addLabel(getLabel(i));
+        }
         return copy;
     }
 
@@ -282,11 +491,11 @@ public class VarString extends AbstractVar {
         if (var.type() != VarType.STRING) {
             return false;
         }
-        if (var.size() != values.size()) {
+        if (var.size() != rows) {
             return false;
         }
-        for (int i = 0; i < values.size(); i++) {
-            String val1 = values.get(i);
+        for (int i = 0; i < rows; i++) {
+            String val1 = getLabel(i);
             String val2 = var.getLabel(i);
 
             if (val1 == null && val2 != null) {
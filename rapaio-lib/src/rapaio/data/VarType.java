@@ -124,6 +124,18 @@ public enum VarType {
         return newInstanceFunction.apply(rows);
     }
 
+    /**
+     * Variables of these types store the value of each row in a separate element of an array,
+     * thus values from distinct rows can be updated concurrently. Nominal variables share their
+     * dictionary and binary variables share memory words between rows, which makes
+     * concurrent updates unsafe.
+     *
+     * @return true if values of distinct rows can be updated concurrently
+     */
+    public boolean supportsConcurrentRowUpdates() {
+        return this == DOUBLE || this == INT || this == FLOAT || this == LONG || this == INSTANT;
+    }
+
     public static boolean isNumeric(VarType type) {
         return type == DOUBLE || type == INT || type == BINARY;
     }
@@ -0,0 +1,161 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.data.filter;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import rapaio.data.Frame;
+import rapaio.data.Mapping;
+import rapaio.data.filter.expr.And;
+import rapaio.data.filter.expr.LabelInSet;
+import rapaio.data.filter.expr.Missing;
+import rapaio.data.filter.expr.Not;
+import rapaio.data.filter.expr.NumCompare;
+import rapaio.data.filter.expr.Or;
+
+/**
+ * Row filter expression evaluated column at a time.
+ * <p>
+ * An expression does not test rows one by one. Instead, it is evaluated over a range
+ * of rows and writes the result into a bitmap, where bit {@code i} of word {@code i >> 6}
+ * marks row {@code start + i} as selected. Numeric comparisons over double variables
+ * are evaluated with vector compare masks.
+ * <p>
+ * The frame is split into row ranges which are evaluated in parallel, and the
+ * resulting bitmap is turned into a compact {@link Mapping} with {@link Mapping#fromBitmap(long[], int)}.
+ */
+public interface Expr extends Serializable {
+
+    /**
+     * Number of rows evaluated as a single task, multiple of 64 to keep ranges word aligned.
+     */
+    int CHUNK_SIZE = 1 << 14;
+
+    /**
+     * Evaluates the expression over the rows in range {@code [start, end)}.
+     *
+     * @param df    data frame
+     * @param start first row (inclusive)
+     * @param end   last row (exclusive)
+     * @param bits  zero filled bitmap of length at least {@code (end - start + 63) / 64},
+     *              where bit {@code i} corresponds to row {@code start + i}
+     */
+    void eval(Frame df, int start, int end, long[] bits);
+
+    /**
+     * Evaluates the expression over all rows of the frame, in parallel over row ranges.
+     *
+     * @param df data frame
+     * @return bitmap with selected rows
+     */
+    default long[] mask(Frame df) {
+        int rows = df.rowCount();
+        long[] words = new long[(rows + 63) >>> 6];
+        int chunks = (rows + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        if (chunks <= 1) {
+            eval(df, 0, rows, words);
+            return words;
+        }
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            int start = chunk * CHUNK_SIZE;
+            int end = Math.min(rows, start + CHUNK_SIZE);
+            long[] local = new long[(end - start + 63) >>> 6];
+            eval(df, start, end, local);
+            System.arraycopy(local, 0, words, start >>> 6, local.length);
+        });
+        return words;
+    }
+
+    /**
+     * Evaluates the expression over all rows of the frame.
+     *
+     * @param df data frame
+     * @return mapping with the positions of selected rows
+     */
+    default Mapping mapping(Frame df) {
+        return Mapping.fromBitmap(mask(df), df.rowCount());
+    }
+
+    default Expr and(Expr expr) {
+        return new And(List.of(this, expr));
+    }
+
+    default Expr or(Expr expr) {
+        return new Or(List.of(this, expr));
+    }
+
+    default Expr negate() {
+        return new Not(this);
+    }
+
+    static Expr lt(String varName, double value) {
+        return new NumCompare(varName, NumCompare.Op.LT, value);
+    }
+
+    static Expr le(String varName, double value) {
+        return new NumCompare(varName, NumCompare.Op.LE, value);
+    }
+
+    static Expr gt(String varName, double value) {
+        return new NumCompare(varName, NumCompare.Op.GT, value);
+    }
+
+    static Expr ge(String varName, double value) {
+        return new NumCompare(varName, NumCompare.Op.GE, value);
+    }
+
+    static Expr eq(String varName, double value) {
+        return new NumCompare(varName, NumCompare.Op.EQ, value);
+    }
+
+    static Expr ne(String varName, double value) {
+        return new NumCompare(varName, NumCompare.Op.NE, value);
+    }
+
+    static Expr in(String varName, String... labels) {
+        return new LabelInSet(varName, new HashSet<>(Arrays.asList(labels)));
+    }
+
+    static Expr missing(String varName) {
+        return new Missing(varName);
+    }
+
+    static Expr notMissing(String varName) {
+        return new Not(new Missing(varName));
+    }
+
+    static Expr allOf(Expr... exprs) {
+        return new And(List.of(exprs));
+    }
+
+    static Expr anyOf(Expr... exprs) {
+        return new Or(List.of(exprs));
+    }
+
+    static Expr not(Expr expr) {
+        return new Not(expr);
+    }
+}
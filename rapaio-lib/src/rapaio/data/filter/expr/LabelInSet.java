@@ -0,0 +1,77 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.data.filter.expr;
+
+import java.io.Serial;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import rapaio.data.Frame;
+import rapaio.data.Var;
+import rapaio.data.VarNominal;
+import rapaio.data.filter.Expr;
+
+/**
+ * Selects rows for which the label of a variable belongs to a given set. Missing values
+ * match only if the set contains the missing label {@link VarNominal#MISSING_VALUE}.
+ * <p>
+ * For nominal variables the set is resolved once against the levels and rows are
+ * matched on their integer codes.
+ */
+public record LabelInSet(String varName, Set<String> labels) implements Expr {
+
+    @Serial
+    private static final long serialVersionUID = 2419338417290633911L;
+
+    @Override
+    public void eval(Frame df, int start, int end, long[] bits) {
+        Var var = df.rvar(varName);
+        boolean matchMissing = labels.contains(VarNominal.MISSING_VALUE);
+        if (var instanceof VarNominal nom) {
+            List<String> levels = nom.levels();
+            boolean[] hits = new boolean[levels.size()];
+            for (int i = 0; i < hits.length; i++) {
+                hits[i] = labels.contains(nom.getFormatter().format(levels.get(i)));
+            }
+            for (int row = start; row < end; row++) {
+                int code = nom.getInt(row);
+                if (code < 0 ? matchMissing : hits[code]) {
+                    int i = row - start;
+                    bits[i >>> 6] |= 1L << i;
+                }
+            }
+            return;
+        }
+        for (int row = start; row < end; row++) {
+            if (var.isMissing(row) ? matchMissing : labels.contains(var.getLabel(row))) {
+                int i = row - start;
+                bits[i >>> 6] |= 1L << i;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return varName + " in [" + labels.stream().map(s -> '\'' + s + '\'').collect(Collectors.joining(",")) + ']';
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.data.filter.expr;
+
+import java.io.Serial;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+import rapaio.darray.Simd;
+import rapaio.data.Frame;
+import rapaio.data.Var;
+import rapaio.data.VarDouble;
+import rapaio.data.filter.Expr;
+
+/**
+ * Selects rows with missing values for a given variable.
+ */
+public record Missing(String varName) implements Expr {
+
+    @Serial
+    private static final long serialVersionUID = 6042367405434585871L;
+
+    @Override
+    public void eval(Frame df, int start, int end, long[] bits) {
+        Var var = df.rvar(varName);
+        int i = 0;
+        if (var instanceof VarDouble vd) {
+            double[] array = vd.elements();
+            VectorSpecies<Double> vs = Simd.vsDouble;
+            int bound = vs.loopBound(end - start);
+            for (; i < bound; i += vs.length()) {
+                long mask = DoubleVector.fromArray(vs, array, start + i).test(VectorOperators.IS_NAN).toLong();
+                bits[i >>> 6] |= mask << (i & 63);
+            }
+        }
+        for (; start + i < end; i++) {
+            if (var.isMissing(start + i)) {
+                bits[i >>> 6] |= 1L << i;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "missing(" + varName + ")";
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.data.filter.expr;
+
+import java.io.Serial;
+
+import rapaio.data.Frame;
+import rapaio.data.filter.Expr;
+
+/**
+ * Logical negation of an expression.
+ */
+public record Not(Expr expr) implements Expr {
+
+    @Serial
+    private static final long serialVersionUID = -1637245960127227565L;
+
+    @Override
+    public void eval(Frame df, int start, int end, long[] bits) {
+        int len = end - start;
+        int words = (len + 63) >>> 6;
+        expr.eval(df, start, end, bits);
+        for (int i = 0; i < words; i++) {
+            bits[i] = ~bits[i];
+        }
+        // clear bits past the end of the range
+        if ((len & 63) != 0) {
+            bits[words - 1] &= (1L << (len & 63)) - 1;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "not " + expr;
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.data.filter.expr;
+
+import java.io.Serial;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+import rapaio.darray.Simd;
+import rapaio.data.Frame;
+import rapaio.data.Var;
+import rapaio.data.VarDouble;
+import rapaio.data.filter.Expr;
+import rapaio.printer.Format;
+
+/**
+ * Compares numeric values of a variable with a constant. Missing values never match.
+ */
+public record NumCompare(String varName, Op op, double value) implements Expr {
+
+    @Serial
+    private static final long serialVersionUID = -3906318153812683870L;
+
+    public enum Op {
+        LT("<", VectorOperators.LT),
+        LE("<=", VectorOperators.LE),
+        GT(">", VectorOperators.GT),
+        GE(">=", VectorOperators.GE),
+        EQ("==", VectorOperators.EQ),
+        NE("!=", VectorOperators.NE);
+
+        private final String symbol;
+        private final VectorOperators.Comparison comparison;
+
+        Op(String symbol, VectorOperators.Comparison comparison) {
+            this.symbol = symbol;
+            this.comparison = comparison;
+        }
+
+        public boolean test(double x, double value) {
+            return switch (this) {
+                case LT -> x < value;
+                case LE -> x <= value;
+                case GT -> x > value;
+                case GE -> x >= value;
+                case EQ -> x == value;
+                case NE -> x != value;
+            };
+        }
+    }
+
+    @Override
+    public void eval(Frame df, int start, int end, long[] bits) {
+        Var var = df.rvar(varName);
+        if (var instanceof VarDouble vd) {
+            evalDouble(vd.elements(), start, end, bits);
+            return;
+        }
+        for (int row = start; row < end; row++) {
+            if (!var.isMissing(row) && op.test(var.getDouble(row), value)) {
+                int i = row - start;
+                bits[i >>> 6] |= 1L << i;
+            }
+        }
+    }
+
+    private void evalDouble(double[] array, int start, int end, long[] bits) {
+        VectorSpecies<Double> vs = Simd.vsDouble;
+        int len = end - start;
+        int bound = vs.loopBound(len);
+        int i = 0;
+        for (; i < bound; i += vs.length()) {
+            DoubleVector v = DoubleVector.fromArray(vs, array, start + i);
+            // NaN is not equal to itself, which removes missing values from the NE mask
+            long mask = op == Op.NE
+                    ? v.compare(VectorOperators.NE, value).and(v.compare(VectorOperators.EQ, v)).toLong()
+                    : v.compare(op.comparison, value).toLong();
+            bits[i >>> 6] |= mask << (i & 63);
+        }
+        for (; i < len; i++) {
+            double x = array[start + i];
+            if (!Double.isNaN(x) && op.test(x, value)) {
+                bits[i >>> 6] |= 1L << i;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return varName + op.symbol + Format.floatFlex(value);
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.data.filter.expr;
+
+import java.io.Serial;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import rapaio.data.Frame;
+import rapaio.data.filter.Expr;
+
+/**
+ * Logical disjunction of expressions.
+ */
+public record Or(List<Expr> exprs) implements Expr {
+
+    @Serial
+    private static final long serialVersionUID = 1393562370370409011L;
+
+    @Override
+    public void eval(Frame df, int start, int end, long[] bits) {
+        if (exprs.isEmpty()) {
+            return;
+        }
+        int len = (end - start + 63) >>> 6;
+        exprs.getFirst().eval(df, start, end, bits);
+        long[] tmp = new long[len];
+        for (int k = 1; k < exprs.size(); k++) {
+            Arrays.fill(tmp, 0L);
+            exprs.get(k).eval(df, start, end, tmp);
+            for (int i = 0; i < len; i++) {
+                bits[i] |= tmp[i];
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return exprs.stream().map(Expr::toString).collect(Collectors.joining(" or ", "(", ")"));
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.data.group.function;
+
+import java.util.List;
+
+import rapaio.core.stat.QuantileSketch;
+import rapaio.data.Frame;
+import rapaio.data.Group;
+import rapaio.data.Mapping;
+import rapaio.data.Var;
+import rapaio.data.VarDouble;
+import rapaio.printer.Format;
+
+/**
+ * Group aggregate function which computes a quantile of the values from each group.
+ * <p>
+ * Quantiles are estimated with a {@link QuantileSketch} with the given error bound, so the memory used
+ * for each group is bounded. For groups which fit in the sketch capacity the values are exact and
+ * identical with R-7 quantiles.
+ */
+public class GroupFunQuantile extends DefaultSingleGroupFun {
+
+    private final double p;
+    private final double eps;
+
+    public GroupFunQuantile(double p, double eps, int normalizeLevel, List<String> varNames) {
+        super(p == 0.5 ? "median" : "q" + Format.floatFlexShort(p), normalizeLevel, varNames);
+        if (p < 0 || p > 1) {
+            throw new IllegalArgumentException("Quantile probability must be in interval [0,1].");
+        }
+        this.p = p;
+        this.eps = eps;
+    }
+
+    @Override
+    public Var buildVar(Group group, String varName) {
+        return VarDouble.empty(group.getNumberOfGroups()).name(varName + SEPARATOR + name);
+    }
+
+    @Override
+    public void updateSingle(Var aggregate, int aggregateRow, Frame df, int varIndex, Mapping rows) {
+        QuantileSketch sketch = QuantileSketch.empty(eps);
+        for (int row : rows) {
+            if (df.isMissing(row, varIndex)) {
+                continue;
+            }
+            sketch.update(df.getDouble(row, varIndex));
+        }
+        if (sketch.n() > 0) {
+            aggregate.setDouble(aggregateRow, sketch.quantile(p));
+        }
+    }
+}
@@ -22,9 +22,8 @@
 package rapaio.data.mapping;
 
 import java.io.Serial;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Iterator;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
 import java.util.PrimitiveIterator;
 import java.util.Random;
 import java.util.stream.IntStream;
@@ -33,51 +32,81 @@ import rapaio.data.Mapping;
 import rapaio.util.function.Int2IntFunction;
 
 /**
+ * Mapping backed by a growable primitive int array.
+ *
  * @author <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a> on 6/27/18.
  */
 public final class ArrayMapping implements Mapping {
 
     @Serial
-    private static final long serialVersionUID = 5485844129188037454L;
-    private final ArrayList<Integer> data;
+    private static final long serialVersionUID = 5485844129188037455L;
+    private int[] data;
+    private int size;
 
     public ArrayMapping() {
-        this.data = new ArrayList<>();
+        this.data = new int[0];
+        this.size = 0;
+    }
+
+    /**
+     * Builds a mapping which takes ownership of the given array, without copying it.
+     * The array must not be modified afterward by the caller.
+     *
+     * @param array array of rows
+     * @return new mapping backed by the given array
+     */
+    public static ArrayMapping wrapArray(int[] array) {
+        return new ArrayMapping(array);
+    }
+
+    private ArrayMapping(int[] array) {
+        this.data = array;
+        this.size = array.length;
     }
 
     public ArrayMapping(int[] array, int start, int end) {
-        this();
-        for (int i = start; i < end; i++) {
-            data.add(array[i]);
-        }
+        this.data = Arrays.copyOfRange(array, start, end);
+        this.size = end - start;
     }
 
     public ArrayMapping(int start, int end) {
-        this();
-        for (int i = start; i < end; i++) {
-            data.add(i);
+        this.data = new int[end - start];
+        this.size = end - start;
+        for (int i = 0; i < size; i++) {
+            data[i] = start + i;
         }
     }
 
     public ArrayMapping(int[] array, int start, int end, Int2IntFunction fun) {
-        this();
-        for (int i = start; i < end; i++) {
-            data.add(fun.applyAsInt(array[i]));
+        this.data = new int[end - start];
+        this.size = end - start;
+        for (int i = 0; i < size; i++) {
+            data[i] = fun.applyAsInt(array[start + i]);
+        }
+    }
+
+    private void ensureCapacity(int minCapacity) {
+        if (minCapacity > data.length) {
+            int newCapacity = Math.max(minCapacity, data.length + (data.length >> 1) + 1);
+            data = Arrays.copyOf(data, newCapacity);
         }
     }
 
     public int size() {
-        return data.size();
+        return size;
     }
 
     public int get(int pos) {
-        return data.get(pos);
+        if (pos < 0 || pos >= size) {
+            throw new IndexOutOfBoundsException("Index " + pos + " out of bounds for length " + size);
+        }
+        return data[pos];
     }
 
     @Override
     public void add(int value) {
-        data.ensureCapacity(data.size() + 1);
-        this.data.add(value);
+        ensureCapacity(size + 1);
+        data[size++] = value;
     }
 
     @Override
@@ -89,7 +118,14 @@ public final class ArrayMapping implements Mapping {
 
     @Override
     public void remove(int pos) {
-        data.remove(pos);
+        if (pos < 0 || pos >= size) {
+            throw new IndexOutOfBoundsException("Index " + pos + " out of bounds for length " + size);
+        }
+        int numMoved = size - pos - 1;
+        if (numMoved > 0) {
+            System.arraycopy(data, pos + 1, data, pos, numMoved);
+        }
+        size--;
     }
 
     @Override
@@ -102,39 +138,47 @@ public final class ArrayMapping implements Mapping {
 
     @Override
     public void clear() {
-        data.clear();
+        size = 0;
     }
 
     @Override
     public PrimitiveIterator.OfInt iterator() {
         return new PrimitiveIterator.OfInt() {
-            private final Iterator<Integer> it = data.iterator();
+            private int pos = 0;
 
             @Override
             public boolean hasNext() {
-                return it.hasNext();
+                return pos < size;
             }
 
             @Override
             public int nextInt() {
-                return it.next();
+                if (pos >= size) {
+                    throw new NoSuchElementException();
+                }
+                return data[pos++];
             }
         };
     }
 
     @Override
     public int[] elements() {
-        return data.stream().mapToInt(v -> v).toArray();
+        return Arrays.copyOf(data, size);
     }
 
     @Override
     public void shuffle(Random random) {
-        Collections.shuffle(data, random);
+        // same permutation sequence as Collections.shuffle for reproducibility
+        for (int i = size; i > 1; i--) {
+            int j = random.nextInt(i);
+            int tmp = data[i - 1];
+            data[i - 1] = data[j];
+            data[j] = tmp;
+        }
     }
 
     @Override
     public IntStream stream() {
-        return data.stream().mapToInt(v -> v);
+        return Arrays.stream(data, 0, size);
     }
 }
-
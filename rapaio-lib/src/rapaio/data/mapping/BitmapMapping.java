@@ -0,0 +1,212 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.data.mapping;
+
+import java.io.Serial;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+import rapaio.data.Mapping;
+
+/**
+ * Mapping which stores the selected rows as a bitmap, in increasing row order.
+ * <p>
+ * For each 64-bit word the number of selected rows before it is also stored,
+ * which makes positional access a binary search over words followed by a select
+ * inside a single word. This representation is used for dense row selections,
+ * where it takes less memory than an array of row indexes.
+ * <p>
+ * Any modification of the mapping converts it into an {@link ArrayMapping}.
+ */
+public final class BitmapMapping implements Mapping {
+
+    @Serial
+    private static final long serialVersionUID = -2880233719386427417L;
+
+    private final long[] words;
+    private final int[] ranks;
+    private final int size;
+    private boolean onList = false;
+    private ArrayMapping listMapping;
+
+    /**
+     * Builds a bitmap mapping from a bitmap where bit {@code i} of word {@code i >> 6}
+     * marks row {@code i} as selected. The array is not copied.
+     *
+     * @param words bitmap words
+     */
+    public BitmapMapping(long[] words) {
+        this.words = words;
+        this.ranks = new int[words.length];
+        int count = 0;
+        for (int i = 0; i < words.length; i++) {
+            ranks[i] = count;
+            count += Long.bitCount(words[i]);
+        }
+        this.size = count;
+    }
+
+    private void toList() {
+        if (!onList) {
+            listMapping = new ArrayMapping(elements(), 0, size);
+            onList = true;
+        }
+    }
+
+    @Override
+    public int size() {
+        if (onList)
+            return listMapping.size();
+        return size;
+    }
+
+    @Override
+    public int get(int pos) {
+        if (onList)
+            return listMapping.get(pos);
+        if (pos < 0 || pos >= size) {
+            throw new IndexOutOfBoundsException("Index " + pos + " out of bounds for length " + size);
+        }
+        // last word with rank <= pos
+        int lo = 0;
+        int hi = ranks.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (ranks[mid] <= pos) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        long word = words[lo];
+        for (int k = pos - ranks[lo]; k > 0; k--) {
+            word &= word - 1;
+        }
+        return (lo << 6) + Long.numberOfTrailingZeros(word);
+    }
+
+    @Override
+    public void add(int row) {
+        toList();
+        listMapping.add(row);
+    }
+
+    @Override
+    public void addAll(PrimitiveIterator.OfInt rows) {
+        toList();
+        listMapping.addAll(rows);
+    }
+
+    @Override
+    public void remove(int pos) {
+        toList();
+        listMapping.remove(pos);
+    }
+
+    @Override
+    public void removeAll(PrimitiveIterator.OfInt positions) {
+        toList();
+        listMapping.removeAll(positions);
+    }
+
+    @Override
+    public void clear() {
+        toList();
+        listMapping.clear();
+    }
+
+    @Override
+    public PrimitiveIterator.OfInt iterator() {
+        return onList ? listMapping.iterator() : new BitmapIterator(words);
+    }
+
+    @Override
+    public int[] elements() {
+        if (onList) {
+            return listMapping.elements();
+        }
+        int[] array = new int[size];
+        int pos = 0;
+        for (int i = 0; i < words.length; i++) {
+            long word = words[i];
+            while (word != 0) {
+                array[pos++] = (i << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return array;
+    }
+
+    @Override
+    public void shuffle(Random random) {
+        toList();
+        listMapping.shuffle(random);
+    }
+
+    @Override
+    public IntStream stream() {
+        if (onList) {
+            return listMapping.stream();
+        }
+        return StreamSupport.intStream(Spliterators.spliterator(new BitmapIterator(words), size,
+                Spliterator.ORDERED | Spliterator.SORTED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
+    }
+
+    static final class BitmapIterator implements PrimitiveIterator.OfInt {
+
+        private final long[] words;
+        private int index;
+        private long word;
+
+        BitmapIterator(long[] words) {
+            this.words = words;
+            this.index = 0;
+            this.word = words.length > 0 ? words[0] : 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (word == 0) {
+                if (index + 1 >= words.length) {
+                    return false;
+                }
+                word = words[++index];
+            }
+            return true;
+        }
+
+        @Override
+        public int nextInt() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int row = (index << 6) + Long.numberOfTrailingZeros(word);
+            word &= word - 1;
+            return row;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.data.mapping;
+
+import java.io.Serial;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import rapaio.data.Mapping;
+
+/**
+ * Mapping which is a view over a range of positions of a shared array of rows. The array is not copied, thus many
+ * mappings can share the same array, for example the mappings of all folds built from a single permutation of rows.
+ * The shared array must not be modified afterward. When the mapping is modified, the rows are copied into
+ * an array mapping.
+ *
+ * @author <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>
+ */
+public final class SliceMapping implements Mapping {
+
+    @Serial
+    private static final long serialVersionUID = 3571249680542718331L;
+
+    private final int[] array;
+    private final int start;
+    private final int end;
+    private ArrayMapping listMapping;
+
+    /**
+     * Builds a mapping over a range of positions of a shared array.
+     *
+     * @param array shared array of rows
+     * @param start first position of the range, inclusive
+     * @param end   last position of the range, exclusive
+     */
+    public SliceMapping(int[] array, int start, int end) {
+        if (start < 0 || end > array.length || start > end) {
+            throw new IllegalArgumentException("Invalid range [%d,%d) for an array of length %d.".formatted(start, end, array.length));
+        }
+        this.array = array;
+        this.start = start;
+        this.end = end;
+    }
+
+    @Override
+    public int size() {
+        if (listMapping != null) {
+            return listMapping.size();
+        }
+        return end - start;
+    }
+
+    @Override
+    public int get(int pos) {
+        if (listMapping != null) {
+            return listMapping.get(pos);
+        }
+        if (pos < 0 || pos >= size()) {
+            throw new IndexOutOfBoundsException("Index " + pos + " out of bounds for length " + size());
+        }
+        return array[start + pos];
+    }
+
+    private ArrayMapping onList() {
+        if (listMapping == null) {
+            int[] rows = elements();
+            listMapping = new ArrayMapping(rows, 0, rows.length);
+        }
+        return listMapping;
+    }
+
+    @Override
+    public void add(int row) {
+        onList().add(row);
+    }
+
+    @Override
+    public void addAll(PrimitiveIterator.OfInt rows) {
+        onList().addAll(rows);
+    }
+
+    @Override
+    public void remove(int pos) {
+        onList().remove(pos);
+    }
+
+    @Override
+    public void removeAll(PrimitiveIterator.OfInt positions) {
+        onList().removeAll(positions);
+    }
+
+    @Override
+    public void clear() {
+        onList().clear();
+    }
+
+    @Override
+    public PrimitiveIterator.OfInt iterator() {
+        if (listMapping != null) {
+            return listMapping.iterator();
+        }
+        return new PrimitiveIterator.OfInt() {
+            private int pos = 0;
+            private final int size = size();
+
+            @Override
+            public boolean hasNext() {
+                return pos < size;
+            }
+
+            @Override
+            public int nextInt() {
+                if (pos >= size) {
+                    throw new NoSuchElementException();
+                }
+                return get(pos++);
+            }
+        };
+    }
+
+    @Override
+    public int[] elements() {
+        if (listMapping != null) {
+            return listMapping.elements();
+        }
+        return Arrays.copyOfRange(array, start, end);
+    }
+
+    @Override
+    public void shuffle(Random random) {
+        onList().shuffle(random);
+    }
+
+    @Override
+    public IntStream stream() {
+        if (listMapping != null) {
+            return listMapping.stream();
+        }
+        return Arrays.stream(array, start, end);
+    }
+}
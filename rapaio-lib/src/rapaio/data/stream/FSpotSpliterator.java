@@ -21,24 +21,31 @@
 
 package rapaio.data.stream;
 
-import java.util.Spliterators;
+import java.util.Spliterator;
 import java.util.function.Consumer;
 
 import rapaio.data.Frame;
 
 /**
+ * Spliterator over a range of rows which splits the range in halves, which gives
+ * balanced work units for parallel streams.
+ *
  * @author <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a> on 9/27/18.
  */
-public class FSpotSpliterator extends Spliterators.AbstractSpliterator<FSpot> {
+public class FSpotSpliterator implements Spliterator<FSpot> {
+
+    private static final int CHARACTERISTICS = ORDERED | SIZED | SUBSIZED | CONCURRENT | NONNULL | IMMUTABLE;
 
-    private static final int CHARACTERISTICS = SIZED | SUBSIZED | CONCURRENT | NONNULL | IMMUTABLE;
+    /**
+     * Ranges smaller than this are not split further.
+     */
+    private static final int MIN_SPLIT_SIZE = 256;
 
     private final Frame source;
     private final int end;
     private int row;
 
     public FSpotSpliterator(Frame source, int start, int end, int row) {
-        super(end - row, CHARACTERISTICS);
         this.source = source;
         this.end = end;
         this.row = row;
@@ -54,6 +61,31 @@ public class FSpotSpliterator extends Spliterators.AbstractSpliterator<FSpot> {
         return false;
     }
 
+    @Override
+    public void forEachRemaining(Consumer<? super FSpot> action) {
+        int hi = end;
+        for (int i = row; i < hi; i++) {
+            action.accept(new FSpot(source, i));
+        }
+        row = hi;
+    }
+
+    @Override
+    public Spliterator<FSpot> trySplit() {
+        int lo = row;
+        int mid = (lo + end) >>> 1;
+        if (mid - lo < MIN_SPLIT_SIZE) {
+            return null;
+        }
+        row = mid;
+        return new FSpotSpliterator(source, lo, mid, lo);
+    }
+
+    @Override
+    public long estimateSize() {
+        return end - row;
+    }
+
     @Override
     public long getExactSizeIfKnown() {
         return end - row;
@@ -21,24 +21,31 @@
 
 package rapaio.data.stream;
 
-import java.util.Spliterators;
+import java.util.Spliterator;
 import java.util.function.Consumer;
 
 import rapaio.data.Var;
 
 /**
+ * Spliterator over a range of rows which splits the range in halves, which gives
+ * balanced work units for parallel streams.
+ *
  * @author <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a> on 9/27/18.
  */
-public class VSpotSpliterator extends Spliterators.AbstractSpliterator<VSpot> {
+public class VSpotSpliterator implements Spliterator<VSpot> {
+
+    private static final int CHARACTERISTICS = ORDERED | SIZED | SUBSIZED | CONCURRENT | NONNULL | IMMUTABLE;
 
-    private static final int CHARACTERISTICS = SIZED | SUBSIZED | CONCURRENT | NONNULL | IMMUTABLE;
+    /**
+     * Ranges smaller than this are not split further.
+     */
+    private static final int MIN_SPLIT_SIZE = 256;
 
     private final Var source;
     private final int end;
     private int row;
 
     public VSpotSpliterator(Var source, int start, int end, int row) {
-        super(end - row, CHARACTERISTICS);
         this.source = source;
         this.end = end;
         this.row = row;
@@ -54,11 +61,36 @@ public class VSpotSpliterator extends Spliterators.AbstractSpliterator<VSpot> {
         return false;
     }
 
+    @Override
+    public void forEachRemaining(Consumer<? super VSpot> action) {
+        int hi = end;
+        for (int i = row; i < hi; i++) {
+            action.accept(new VSpot(i, source));
+        }
+        row = hi;
+    }
+
+    @Override
+    public Spliterator<VSpot> trySplit() {
+        int lo = row;
+        int mid = (lo + end) >>> 1;
+        if (mid - lo < MIN_SPLIT_SIZE) {
+            return null;
+        }
+        row = mid;
+        return new VSpotSpliterator(source, lo, mid, lo);
+    }
+
     @Override
     public long estimateSize() {
         return end - row;
     }
 
+    @Override
+    public long getExactSizeIfKnown() {
+        return end - row;
+    }
+
     @Override
     public int characteristics() {
         return CHARACTERISTICS;
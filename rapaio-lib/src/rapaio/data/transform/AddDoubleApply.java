@@ -22,25 +22,41 @@
 package rapaio.data.transform;
 
 import java.util.function.ToDoubleFunction;
+import java.util.stream.IntStream;
 
 import rapaio.data.Frame;
 import rapaio.data.VarDouble;
 import rapaio.data.VarRange;
 import rapaio.data.stream.FSpot;
 
+/**
+ * Adds a new double variable with values computed by a function applied on each frame spot.
+ * <p>
+ * A parallel variant can be obtained with {@link #parallel()}, in which case values are
+ * computed concurrently over balanced row ranges. The function must have no shared state.
+ */
 public class AddDoubleApply extends AbstractTransform {
 
     public static AddDoubleApply from(String targetName, ToDoubleFunction<FSpot> function) {
-        return new AddDoubleApply(targetName, function);
+        return new AddDoubleApply(targetName, function, false);
     }
 
     private final String targetName;
     private final ToDoubleFunction<FSpot> function;
+    private final boolean parallel;
 
-    private AddDoubleApply(String targetName, ToDoubleFunction<FSpot> function) {
+    private AddDoubleApply(String targetName, ToDoubleFunction<FSpot> function, boolean parallel) {
         super(VarRange.all());
         this.function = function;
         this.targetName = targetName;
+        this.parallel = parallel;
+    }
+
+    /**
+     * @return new instance of the same transformation which computes values in parallel
+     */
+    public AddDoubleApply parallel() {
+        return new AddDoubleApply(targetName, function, true);
     }
 
     @Override
@@ -50,12 +66,14 @@ public class AddDoubleApply extends AbstractTransform {
 
     @Override
     protected Frame coreApply(Frame df) {
-        VarDouble target = VarDouble.wrap(df.stream().mapToDouble(function).toArray()).name(targetName);
+        IntStream rows = parallel ? df.rowStream().parallel() : df.rowStream();
+        double[] values = rows.mapToDouble(row -> function.applyAsDouble(new FSpot(df, row))).toArray();
+        VarDouble target = VarDouble.wrap(values).name(targetName);
         return df.bindVars(target);
     }
 
     @Override
     public Transform newInstance() {
-        return new AddDoubleApply(targetName, function);
+        return new AddDoubleApply(targetName, function, parallel);
     }
 }
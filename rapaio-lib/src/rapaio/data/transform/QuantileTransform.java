@@ -37,6 +37,14 @@ import rapaio.data.VarRange;
 public class QuantileTransform extends AbstractTransform {
 
     public static QuantileTransform split(VarRange varRange, int k) {
+        return split(varRange, k, 0);
+    }
+
+    /**
+     * Builds a transformation with {@code k} intervals of approximately equal frequency for each variable,
+     * where quantiles are estimated with sketches with given error bound. A zero error bound means exact quantiles.
+     */
+    public static QuantileTransform split(VarRange varRange, int k, double eps) {
         if (k <= 1) {
             throw new IllegalArgumentException("Frame quantile discrete filter allows only splits greater than 1.");
         }
@@ -45,14 +53,14 @@ public class QuantileTransform extends AbstractTransform {
         for (int i = 0; i < p.length; i++) {
             p[i] = step * (i + 1);
         }
-        return new QuantileTransform(p, varRange);
+        return new QuantileTransform(p, eps, varRange);
     }
 
     public static QuantileTransform on(VarRange varRange, double... p) {
         if (p.length < 1) {
             throw new IllegalArgumentException("Frame quantile discrete filter requires at least one probability.");
         }
-        return new QuantileTransform(p, varRange);
+        return new QuantileTransform(p, 0, varRange);
     }
 
     @Serial
@@ -60,22 +68,24 @@ public class QuantileTransform extends AbstractTransform {
 
     private final Map<String, VarQuantileTransform> filters = new HashMap<>();
     private final double[] p;
+    private final double eps;
 
-    private QuantileTransform(double[] p, VarRange varRange) {
+    private QuantileTransform(double[] p, double eps, VarRange varRange) {
         super(varRange);
         this.p = Arrays.copyOf(p, p.length);
+        this.eps = eps;
     }
 
     @Override
     public QuantileTransform newInstance() {
-        return new QuantileTransform(p, varRange);
+        return new QuantileTransform(p, eps, varRange);
     }
 
     @Override
     public void coreFit(Frame df) {
         filters.clear();
         for (String varName : varNames) {
-            VarQuantileTransform filter = VarQuantileTransform.with(p);
+            VarQuantileTransform filter = (eps > 0) ? VarQuantileTransform.split(p.length + 1, eps) : VarQuantileTransform.with(p);
             filter.fit(df.rvar(varName));
             filters.put(varName, filter);
         }
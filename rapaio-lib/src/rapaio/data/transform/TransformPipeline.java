@@ -0,0 +1,316 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.data.transform;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import rapaio.data.BoundFrame;
+import rapaio.data.Frame;
+import rapaio.data.Var;
+import rapaio.data.VarRange;
+
+/**
+ * Frame transformation built from a chain of per column variable transformations and frame transformations.
+ * <p>
+ * Consecutive variable transformations added with {@link #add(VarRange, VarTransform)} are grouped
+ * into a single stage. Inside a stage each column has its own chain of fitted variable transformations,
+ * in the order in which they were added. Frame transformations added with {@link #add(Transform)} act
+ * as barriers between stages, since they can depend on all columns.
+ * <p>
+ * Columns are independent inside a stage, thus the chains are fitted in parallel, one task per column.
+ * When applied, a chain which contains only {@link VarElementwiseTransform} steps on a numeric column is fused:
+ * all the steps are evaluated in a single pass over the column values, with the rows split in chunks
+ * processed in parallel for double and integer columns, and sequentially for other column types.
+ * Other chains are applied step by step, columns being processed in parallel.
+ * <p>
+ * Frame transformations are fitted and applied as they are, with their own threading.
+ * <p>
+ * Once fitted, a pipeline can be applied any number of times, including on a stream of frame batches
+ * with {@link #applyBatches(Stream)}, without fitting again.
+ * <p>
+ * Variable transformations are fitted on copies of the columns, while frame transformations are fitted
+ * as they would be outside the pipeline. Applying the pipeline changes the values in place, where the
+ * transformations allow it, as the individual transformations do.
+ */
+public final class TransformPipeline implements Transform {
+
+    public static TransformPipeline newPipeline() {
+        return new TransformPipeline(DEFAULT_CHUNK_SIZE);
+    }
+
+    public static TransformPipeline newPipeline(int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive.");
+        }
+        return new TransformPipeline(chunkSize);
+    }
+
+    @Serial
+    private static final long serialVersionUID = -3318472962021537102L;
+
+    private static final int DEFAULT_CHUNK_SIZE = 1 << 14;
+
+    private final int chunkSize;
+    private final List<Step> steps = new ArrayList<>();
+    private final List<Stage> stages = new ArrayList<>();
+    private String[] varNames;
+    private boolean fitted = false;
+
+    private TransformPipeline(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Adds a variable transformation applied on each column selected by the variable range. Each selected
+     * column receives its own instance of the transformation, created with {@link VarTransform#newInstance()}.
+     *
+     * @param varRange  range of variables which will be transformed
+     * @param transform prototype of the variable transformation
+     * @return pipeline instance
+     */
+    public TransformPipeline add(VarRange varRange, VarTransform transform) {
+        checkNotFitted();
+        steps.add(new Step(varRange, transform, null));
+        return this;
+    }
+
+    /**
+     * Adds a frame transformation to the pipeline.
+     *
+     * @param transform frame transformation
+     * @return pipeline instance
+     */
+    public TransformPipeline add(Transform transform) {
+        checkNotFitted();
+        steps.add(new Step(null, null, transform));
+        return this;
+    }
+
+    public int chunkSize() {
+        return chunkSize;
+    }
+
+    @Override
+    public TransformPipeline newInstance() {
+        TransformPipeline copy = new TransformPipeline(chunkSize);
+        for (Step step : steps) {
+            copy.steps.add(step.transform != null
+                    ? new Step(null, null, step.transform.newInstance())
+                    : new Step(step.varRange, step.varTransform, null));
+        }
+        return copy;
+    }
+
+    @Override
+    public String[] varNames() {
+        return varNames;
+    }
+
+    @Override
+    public void fit(Frame df) {
+        fitFrame(df);
+    }
+
+    @Override
+    public Frame fitApply(Frame df) {
+        return fitFrame(df);
+    }
+
+    @Override
+    public Frame apply(Frame df) {
+        if (!fitted) {
+            throw new IllegalStateException("Cannot apply a transformation if it is not fitted on data.");
+        }
+        Frame result = df;
+        for (Stage stage : stages) {
+            result = stage.transform != null ? stage.transform.apply(result) : applyColumns(stage, result);
+        }
+        return result;
+    }
+
+    /**
+     * Applies the fitted pipeline on each frame from a stream of batches. The pipeline is not fitted again,
+     * each batch is transformed with the parameters learned at fit time.
+     *
+     * @param batches stream of frames
+     * @return stream of transformed frames
+     */
+    public Stream<Frame> applyBatches(Stream<Frame> batches) {
+        if (!fitted) {
+            throw new IllegalStateException("Cannot apply a transformation if it is not fitted on data.");
+        }
+        return batches.map(this::apply);
+    }
+
+    private void checkNotFitted() {
+        if (fitted) {
+            throw new IllegalStateException("Cannot change a pipeline after it was fitted.");
+        }
+    }
+
+    private Frame fitFrame(Frame df) {
+        if (fitted) {
+            throw new IllegalStateException("Transformation cannot be fitted twice. Use a new unfitted instance for that purpose.");
+        }
+        varNames = df.varNames();
+        Frame result = df;
+        int pos = 0;
+        while (pos < steps.size()) {
+            Step step = steps.get(pos);
+            if (step.transform != null) {
+                result = step.transform.fitApply(result);
+                stages.add(new Stage(null, step.transform));
+                pos++;
+                continue;
+            }
+            int end = pos;
+            while (end < steps.size() && steps.get(end).transform == null) {
+                end++;
+            }
+            Stage stage = new Stage(new HashMap<>(), null);
+            result = fitColumns(stage, steps.subList(pos, end), result);
+            stages.add(stage);
+            pos = end;
+        }
+        fitted = true;
+        return result;
+    }
+
+    private Frame fitColumns(Stage stage, List<Step> stageSteps, Frame df) {
+        String[] names = df.varNames();
+        Map<String, List<VarTransform>> prototypes = new HashMap<>();
+        for (Step step : stageSteps) {
+            for (String name : step.varRange.parseVarNames(df)) {
+                prototypes.computeIfAbsent(name, key -> new ArrayList<>()).add(step.varTransform);
+            }
+        }
+        Var[] vars = new Var[names.length];
+        @SuppressWarnings("unchecked")
+        List<VarTransform>[] chains = new List[names.length];
+        IntStream.range(0, names.length).parallel().forEach(i -> {
+            List<VarTransform> protos = prototypes.get(names[i]);
+            Var var = df.rvar(i);
+            if (protos == null) {
+                vars[i] = var;
+                return;
+            }
+            // fitting is done on a copy, to leave the source frame untouched
+            var = var.copy();
+            List<VarTransform> chain = new ArrayList<>(protos.size());
+            for (VarTransform proto : protos) {
+                VarTransform transform = proto.newInstance();
+                var = transform.fapply(var);
+                chain.add(transform);
+            }
+            vars[i] = var.name(names[i]);
+            chains[i] = chain;
+        });
+        for (int i = 0; i < names.length; i++) {
+            if (chains[i] != null) {
+                stage.chains.put(names[i], chains[i]);
+            }
+        }
+        return BoundFrame.byVars(vars);
+    }
+
+    private Frame applyColumns(Stage stage, Frame df) {
+        String[] names = df.varNames();
+        Var[] vars = new Var[names.length];
+        IntStream.range(0, names.length).parallel().forEach(i -> {
+            List<VarTransform> chain = stage.chains.get(names[i]);
+            Var var = df.rvar(i);
+            if (chain == null) {
+                vars[i] = var;
+                return;
+            }
+            if (var.type().isNumeric() && isElementwise(chain)) {
+                vars[i] = applyFused(chain, var);
+                return;
+            }
+            for (VarTransform transform : chain) {
+                var = transform.apply(var);
+            }
+            vars[i] = var.name(names[i]);
+        });
+        return BoundFrame.byVars(vars);
+    }
+
+    private static boolean isElementwise(List<VarTransform> chain) {
+        for (VarTransform transform : chain) {
+            if (!(transform instanceof VarElementwiseTransform)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Var applyFused(List<VarTransform> chain, Var var) {
+        VarElementwiseTransform[] fused = new VarElementwiseTransform[chain.size()];
+        for (int i = 0; i < fused.length; i++) {
+            fused[i] = (VarElementwiseTransform) chain.get(i);
+        }
+        int rows = var.size();
+        int chunks = (rows + chunkSize - 1) / chunkSize;
+        // concurrent writes to distinct rows are safe only for values stored in primitive arrays,
+        // other storages, like the bit sets of binary variables, share memory words between rows
+        IntStream chunkStream = IntStream.range(0, chunks);
+        if (var.type().supportsConcurrentRowUpdates()) {
+            chunkStream = chunkStream.parallel();
+        }
+        chunkStream.forEach(chunk -> {
+            int start = chunk * chunkSize;
+            int end = Math.min(rows, start + chunkSize);
+            for (int row = start; row < end; row++) {
+                double value = var.getDouble(row);
+                for (VarElementwiseTransform transform : fused) {
+                    value = transform.applyDouble(value);
+                }
+                var.setDouble(row, value);
+            }
+        });
+        return var;
+    }
+
+    private record Step(VarRange varRange, VarTransform varTransform, Transform transform) implements Serializable {
+    }
+
+    private static final class Stage implements Serializable {
+
+        @Serial
+        private static final long serialVersionUID = 6108932870526530283L;
+
+        private final Map<String, List<VarTransform>> chains;
+        private final Transform transform;
+
+        private Stage(Map<String, List<VarTransform>> chains, Transform transform) {
+            this.chains = chains;
+            this.transform = transform;
+        }
+    }
+}
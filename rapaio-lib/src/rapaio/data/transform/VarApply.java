@@ -24,6 +24,7 @@ package rapaio.data.transform;
 import java.io.Serial;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.stream.IntStream;
 
 import rapaio.data.Var;
 import rapaio.data.stream.VSpot;
@@ -43,25 +44,31 @@ import rapaio.util.function.Int2IntFunction;
  * of the variable through the double representation, aka. using {@link Var#getDouble(int)}
  * and {@link Var#setDouble(int, double)}. The variable itself does not have to be
  * of type {@link rapaio.data.VarType#DOUBLE}.
+ * <p>
+ * A parallel variant can be obtained with {@link #parallel()}, in which case rows are
+ * processed concurrently over balanced row ranges. The function must not have shared state.
+ * Rows are processed in parallel only if the variable supports concurrent updates of distinct rows,
+ * see {@link rapaio.data.VarType#supportsConcurrentRowUpdates()}. Other variables, like nominal or binary ones,
+ * are processed sequentially.
  *
  * @author <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a> at 12/4/14.
  */
 public class VarApply extends AbstractVarTransform {
 
     public static VarApply onSpot(Consumer<VSpot> consumer) {
-        return new VarApply(Type.SPOT, consumer, F_DOUBLE, F_INT, F_STRING);
+        return new VarApply(Type.SPOT, consumer, F_DOUBLE, F_INT, F_STRING, false);
     }
 
     public static VarApply onDouble(Double2DoubleFunction function) {
-        return new VarApply(Type.DOUBLE, F_SPOT, function, F_INT, F_STRING);
+        return new VarApply(Type.DOUBLE, F_SPOT, function, F_INT, F_STRING, false);
     }
 
     public static VarApply onInt(Int2IntFunction function) {
-        return new VarApply(Type.INT, F_SPOT, F_DOUBLE, function, F_STRING);
+        return new VarApply(Type.INT, F_SPOT, F_DOUBLE, function, F_STRING, false);
     }
 
     public static VarApply onLabel(Function<String, String> function) {
-        return new VarApply(Type.LABEL, F_SPOT, F_DOUBLE, F_INT, function);
+        return new VarApply(Type.LABEL, F_SPOT, F_DOUBLE, F_INT, function, false);
     }
 
     @Serial
@@ -78,37 +85,57 @@ public class VarApply extends AbstractVarTransform {
     private final Double2DoubleFunction doubleFunction;
     private final Int2IntFunction intFunction;
     private final Function<String, String> stringFunction;
+    private final boolean parallel;
 
     private VarApply(Type type,
             Consumer<VSpot> spotConsumer,
             Double2DoubleFunction doubleFunction,
             Int2IntFunction intFunction,
-            Function<String, String> stringFunction) {
+            Function<String, String> stringFunction,
+            boolean parallel) {
         this.type = type;
         this.spotConsumer = spotConsumer;
         this.doubleFunction = doubleFunction;
         this.intFunction = intFunction;
         this.stringFunction = stringFunction;
+        this.parallel = parallel;
+    }
+
+    /**
+     * @return new instance of the same transformation which processes rows in parallel
+     */
+    public VarApply parallel() {
+        return new VarApply(type, spotConsumer, doubleFunction, intFunction, stringFunction, true);
     }
 
     @Override
     public VarApply newInstance() {
-        return new VarApply(type, spotConsumer, doubleFunction, intFunction, stringFunction);
+        return new VarApply(type, spotConsumer, doubleFunction, intFunction, stringFunction, parallel);
     }
 
     @Override
     public Var coreApply(Var var) {
         switch (type) {
-            case SPOT -> var.stream().forEach(spotConsumer);
-            case DOUBLE -> var.stream().forEach(s -> s.setDouble(doubleFunction.applyAsDouble(s.getDouble())));
-            case INT -> var.stream().forEach(s -> s.setInt(intFunction.applyAsInt(s.getInt())));
-            case LABEL -> var.stream().forEach(s -> s.setLabel(stringFunction.apply(s.getLabel())));
+            case SPOT -> {
+                if (parallel) {
+                    var.parallelForEachSpot(spotConsumer);
+                } else {
+                    var.forEachSpot(spotConsumer);
+                }
+            }
+            case DOUBLE -> rows(var).forEach(row -> var.setDouble(row, doubleFunction.applyAsDouble(var.getDouble(row))));
+            case INT -> rows(var).forEach(row -> var.setInt(row, intFunction.applyAsInt(var.getInt(row))));
+            case LABEL -> rows(var).forEach(row -> var.setLabel(row, stringFunction.apply(var.getLabel(row))));
             default -> {
             }
         }
         return var;
     }
 
+    private IntStream rows(Var var) {
+        return parallel && var.type().supportsConcurrentRowUpdates() ? var.rowStream().parallel() : var.rowStream();
+    }
+
     private enum Type {
         SPOT,
         DOUBLE,
@@ -31,7 +31,7 @@ import rapaio.printer.opt.POpt;
 /**
  * @author <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a> at 12/11/14.
  */
-public class VarBoxCoxTransform extends AbstractVarTransform {
+public class VarBoxCoxTransform extends AbstractVarTransform implements VarElementwiseTransform {
 
     public static VarBoxCoxTransform with(double lambda) {
         return new VarBoxCoxTransform(lambda, 0.0);
@@ -66,17 +66,17 @@ public class VarBoxCoxTransform extends AbstractVarTransform {
 
     @Override
     public Var coreApply(Var var) {
-        if (lambda == 0)
-            for (int i = 0; i < var.size(); i++) {
-                var.setDouble(i, Math.log(var.getDouble(i) + shift));
-            }
-        else
-            for (int i = 0; i < var.size(); i++) {
-                var.setDouble(i, (Math.pow(var.getDouble(i) + shift, lambda) - 1) / lambda);
-            }
+        for (int i = 0; i < var.size(); i++) {
+            var.setDouble(i, applyDouble(var.getDouble(i)));
+        }
         return var;
     }
 
+    @Override
+    public double applyDouble(double value) {
+        return (lambda == 0) ? Math.log(value + shift) : (Math.pow(value + shift, lambda) - 1) / lambda;
+    }
+
     @Override
     public String toContent(Printer printer, POpt<?>... options) {
         return "VarBoxCoxTransform(lambda=" + Format.floatFlex(lambda) + ", shift:" + Format.floatFlex(shift) + ")";
@@ -0,0 +1,42 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.data.transform;
+
+/**
+ * Variable transformation which, once fitted, maps each numeric value independently
+ * of the other values of the variable.
+ * <p>
+ * Such transformations can be fused: a chain of element-wise transformations applied on the
+ * same variable can be evaluated in a single pass over the values, see {@link TransformPipeline}.
+ * The result of {@link #apply(rapaio.data.Var)} on a numeric variable must be identical
+ * with the result of calling {@link #applyDouble(double)} on each value.
+ */
+public interface VarElementwiseTransform extends VarTransform {
+
+    /**
+     * Transforms a single value using the fitted parameters.
+     *
+     * @param value input value
+     * @return transformed value
+     */
+    double applyDouble(double value);
+}
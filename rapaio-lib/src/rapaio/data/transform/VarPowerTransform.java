@@ -33,7 +33,7 @@ import rapaio.printer.opt.POpt;
  * Filter to create monotonic power transformations
  * @author <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a> at 12/11/14.
  */
-public class VarPowerTransform extends AbstractVarTransform {
+public class VarPowerTransform extends AbstractVarTransform implements VarElementwiseTransform {
 
     public static VarPowerTransform with(double lambda) {
         return new VarPowerTransform(lambda);
@@ -67,20 +67,20 @@ public class VarPowerTransform extends AbstractVarTransform {
 
     @Override
     public Var coreApply(Var var) {
-        if (lambda == 0) {
-            for (int i = 0; i < var.size(); i++) {
-                double x = var.getDouble(i);
-                var.setDouble(i, gm * Math.log(x));
-            }
-        } else {
-            for (int i = 0; i < var.size(); i++) {
-                double x = var.getDouble(i);
-                var.setDouble(i, (Math.pow(x, lambda) - 1.0) / (lambda * Math.pow(gm, lambda - 1)));
-            }
+        for (int i = 0; i < var.size(); i++) {
+            var.setDouble(i, applyDouble(var.getDouble(i)));
         }
         return var;
     }
 
+    @Override
+    public double applyDouble(double value) {
+        if (lambda == 0) {
+            return gm * Math.log(value);
+        }
+        return (Math.pow(value, lambda) - 1.0) / (lambda * Math.pow(gm, lambda - 1));
+    }
+
     @Override
     public String toContent(Printer printer, POpt<?>... options) {
         return "VarPowerTransform(lambda=" + Format.floatFlex(lambda) + ")";
@@ -44,23 +44,39 @@ import rapaio.printer.opt.POpt;
 public class VarQuantileTransform extends AbstractVarTransform {
 
     public static VarQuantileTransform split(int k) {
+        return split(k, 0);
+    }
+
+    /**
+     * Builds a transformation with {@code k} intervals of approximately equal frequency, where
+     * the quantiles are estimated with a {@link rapaio.core.stat.QuantileSketch} of given error bound
+     * instead of sorting all values. A zero error bound means exact quantiles.
+     *
+     * @param k   number of intervals
+     * @param eps error bound for the normalized rank of the quantiles
+     * @return new transformation
+     */
+    public static VarQuantileTransform split(int k, double eps) {
         if (k <= 1) {
             throw new IllegalArgumentException("Number of parts k: " + k + " of the split " +
                     "must be greater than 1.");
         }
+        if (eps < 0 || eps >= 1) {
+            throw new IllegalArgumentException("Error bound eps must be in interval [0,1).");
+        }
         double[] qp = new double[k - 1];
         double step = 1.0 / k;
         for (int i = 0; i < qp.length; i++) {
             qp[i] = step * (i + 1);
         }
-        return new VarQuantileTransform(qp);
+        return new VarQuantileTransform(eps, qp);
     }
 
     public static VarQuantileTransform with(double... qp) {
         if (qp.length < 1) {
             throw new IllegalArgumentException("Number of quantiles must be positive.");
         }
-        return new VarQuantileTransform(qp);
+        return new VarQuantileTransform(0, qp);
     }
 
 
@@ -69,16 +85,18 @@ public class VarQuantileTransform extends AbstractVarTransform {
 
     private final List<String> dict = new ArrayList<>();
     private final Map<String, Predicate<Double>> predicates = new HashMap<>();
+    private final double eps;
     private final double[] qp;
     private double[] qv;
 
-    private VarQuantileTransform(double... qp) {
+    private VarQuantileTransform(double eps, double... qp) {
+        this.eps = eps;
         this.qp = qp;
     }
 
     @Override
     public VarTransform newInstance() {
-        return new VarQuantileTransform(qp);
+        return new VarQuantileTransform(eps, qp);
     }
 
     @Override
@@ -86,7 +104,7 @@ public class VarQuantileTransform extends AbstractVarTransform {
         if (!var.type().isNumeric()) {
             return this;
         }
-        qv = Quantiles.of(var, qp).values();
+        qv = (eps > 0) ? Quantiles.approx(var, eps, qp).values() : Quantiles.of(var, qp).values();
 
         // first interval
 
@@ -33,7 +33,7 @@ import rapaio.printer.opt.POpt;
 /**
  * @author <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a> at 1/30/15.
  */
-public class VarStandardScaler extends AbstractVarTransform {
+public class VarStandardScaler extends AbstractVarTransform implements VarElementwiseTransform {
 
     public static VarStandardScaler filter() {
         return new VarStandardScaler(Double.NaN, Double.NaN);
@@ -86,12 +86,16 @@ public class VarStandardScaler extends AbstractVarTransform {
         if (Math.abs(sd) < 1e-20)
             return var;
         for (int i = 0; i < var.size(); i++) {
-            double x = var.getDouble(i);
-            var.setDouble(i, (x - mean) / sd);
+            var.setDouble(i, (var.getDouble(i) - mean) / sd);
         }
         return var;
     }
 
+    @Override
+    public double applyDouble(double value) {
+        return Math.abs(sd) < 1e-20 ? value : (value - mean) / sd;
+    }
+
     @Override
     public String toContent(Printer printer, POpt<?>... options) {
         return toString();
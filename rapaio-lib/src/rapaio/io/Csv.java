@@ -34,6 +34,7 @@ import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.io.Serial;
 import java.io.Serializable;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URL;
 import java.text.DecimalFormat;
@@ -41,8 +42,14 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import java.util.zip.GZIPInputStream;
 
 import rapaio.core.param.ListParam;
@@ -263,29 +270,7 @@ public class Csv extends ParamSet<Csv> {
                     for (int i = names.size(); i < row.size(); i++) {
                         names.add("V" + (i + 1));
                     }
-                    for (String colName : names) {
-                        if (template.get() != null) {
-                            String[] vn = template.get().varNames();
-                            boolean found = false;
-                            for (String name : vn) {
-                                if (name.equals(colName)) {
-                                    found = true;
-                                    break;
-                                }
-                            }
-                            if (found) {
-                                varSlots.add(new VarSlot(this, colName, template.get().rvar(colName), 0));
-                                continue;
-                            }
-                        }
-                        VarType type = varTypes.getReverseKey(colName);
-                        if (type != null) {
-                            varSlots.add(new VarSlot(this, colName, type, 0));
-                        } else {
-                            // default type
-                            varSlots.add(new VarSlot(this, colName, 0));
-                        }
-                    }
+                    varSlots = buildVarSlots(names, template.get());
                 }
 
                 if (rows < startRow.get()) {
@@ -295,31 +280,82 @@ public class Csv extends ParamSet<Csv> {
                 if (rows == endRow.get()) {
                     break;
                 }
-                List<String> row = parseLine(line);
                 rows++;
-                int len = Math.max(row.size(), names.size());
-                for (int i = 0; i < len; i++) {
-                    // we have a value in row for which we did not define a var slot
-                    if (i >= varSlots.size()) {
-                        String name = "V" + (i + 1);
-                        names.add(name);
-                        varSlots.add(new VarSlot(this, name, varSlots.getFirst().var.size()));
-                        continue;
-                    }
-                    // we have missing values at the end of the row
-                    if (i >= row.size()) {
-                        varSlots.get(i).addValue("?");
-                        continue;
-                    }
-                    // normal behavior
-                    varSlots.get(i).addValue(row.get(i));
-                }
+                addRow(parseLine(line), names, varSlots);
             }
         }
         List<Var> variables = varSlots.stream().map(varSlot -> varSlot.var).toList();
         return SolidFrame.byVars(rows - startRow.get(), variables);
     }
 
+    /**
+     * Reads csv content as a lazy stream of frames, each frame containing at most {@code batchRows} rows.
+     * <p>
+     * The rows are read from input only when the next batch is requested, so large files can be processed
+     * with bounded memory. Variable types are established by the first batch, or by the template if one is
+     * configured, and are kept for all the subsequent batches. All other settings are considered in the same
+     * way as in {@link #read(InputStream)}.
+     * <p>
+     * The input stream is closed when the returned stream is closed.
+     *
+     * @param inputStream input stream with csv content
+     * @param batchRows   maximum number of rows of a batch
+     * @return stream of frames
+     */
+    public Stream<Frame> readBatches(InputStream inputStream, int batchRows) {
+        if (batchRows < 1) {
+            throw new IllegalArgumentException("Number of rows of a batch must be positive.");
+        }
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream));
+        BatchIterator it = new BatchIterator(reader, batchRows);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(it, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    try {
+                        reader.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    private List<VarSlot> buildVarSlots(List<String> names, Frame templateFrame) {
+        List<VarSlot> varSlots = new ArrayList<>();
+        for (String colName : names) {
+            if (templateFrame != null && Arrays.asList(templateFrame.varNames()).contains(colName)) {
+                varSlots.add(new VarSlot(this, colName, templateFrame.rvar(colName), 0));
+                continue;
+            }
+            VarType type = varTypes.getReverseKey(colName);
+            if (type != null) {
+                varSlots.add(new VarSlot(this, colName, type, 0));
+            } else {
+                // default type
+                varSlots.add(new VarSlot(this, colName, 0));
+            }
+        }
+        return varSlots;
+    }
+
+    private void addRow(List<String> row, List<String> names, List<VarSlot> varSlots) {
+        int len = Math.max(row.size(), names.size());
+        for (int i = 0; i < len; i++) {
+            // we have a value in row for which we did not define a var slot
+            if (i >= varSlots.size()) {
+                String name = "V" + (i + 1);
+                names.add(name);
+                varSlots.add(new VarSlot(this, name, varSlots.getFirst().var.size()));
+                continue;
+            }
+            // we have missing values at the end of the row
+            if (i >= row.size()) {
+                varSlots.get(i).addValue("?");
+                continue;
+            }
+            // normal behavior
+            varSlots.get(i).addValue(row.get(i));
+        }
+    }
+
     public List<String> parseLine(String line) {
         List<String> data = new ArrayList<>();
         int start = 0;
@@ -467,6 +503,103 @@ public class Csv extends ParamSet<Csv> {
         return label;
     }
 
+    private final class BatchIterator implements Iterator<Frame> {
+
+        private final BufferedReader reader;
+        private final int batchRows;
+        private List<String> names = new ArrayList<>();
+        private Frame batchTemplate = template.get();
+        private boolean started = false;
+        private boolean done = false;
+        private int allRowsNum = 0;
+        private int rows = 0;
+        private Frame next;
+
+        private BatchIterator(BufferedReader reader, int batchRows) {
+            this.reader = reader;
+            this.batchRows = batchRows;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && !done) {
+                try {
+                    next = readBatch();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public Frame next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Frame batch = next;
+            next = null;
+            return batch;
+        }
+
+        private Frame readBatch() throws IOException {
+            if (!started) {
+                started = true;
+                if (header.get()) {
+                    String line = reader.readLine();
+                    if (line == null) {
+                        done = true;
+                        return null;
+                    }
+                    names = parseLine(line);
+                }
+                while (!keepRows.get().test(allRowsNum)) {
+                    reader.readLine();
+                    allRowsNum += 1;
+                }
+            }
+            List<VarSlot> varSlots = null;
+            int count = 0;
+            while (count < batchRows) {
+                String line = reader.readLine();
+                if (line == null) {
+                    done = true;
+                    break;
+                }
+                allRowsNum += 1;
+                if (!keepRows.get().test(allRowsNum - 1)) {
+                    continue;
+                }
+                List<String> row = parseLine(line);
+                if (varSlots == null) {
+                    for (int i = names.size(); i < row.size(); i++) {
+                        names.add("V" + (i + 1));
+                    }
+                    varSlots = buildVarSlots(names, batchTemplate);
+                }
+                if (rows < startRow.get()) {
+                    rows++;
+                    continue;
+                }
+                if (rows == endRow.get()) {
+                    done = true;
+                    break;
+                }
+                rows++;
+                count++;
+                addRow(row, names, varSlots);
+            }
+            if (count == 0) {
+                done = true;
+                return null;
+            }
+            Frame batch = SolidFrame.byVars(count, varSlots.stream().map(varSlot -> varSlot.var).toList());
+            // the types of the first batch are kept for all subsequent batches
+            batchTemplate = batch;
+            return batch;
+        }
+    }
+
     private static class VarSlot {
 
         public final Csv parent;
@@ -501,7 +634,7 @@ public class Csv extends ParamSet<Csv> {
             this.name = name;
             this.type = template.type();
             this.var = template.newInstance(rows).name(name);
-//            setParser();
+            configParser(name);
             this.text = null;
         }
 
@@ -0,0 +1,127 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.common.distance;
+
+import static java.lang.StrictMath.sqrt;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+import rapaio.darray.DArray;
+import rapaio.darray.Simd;
+import rapaio.data.Frame;
+
+/**
+ * Cosine distance, computed as one minus the cosine of the angle between two vectors.
+ * <p>
+ * The distance of a zero vector to itself is zero and to any other vector is one. Cosine distance
+ * is not a metric since it does not obey the triangle inequality.
+ */
+public class CosineDistance implements Distance {
+
+    /**
+     * Computes cosine distance from the dot product and the squared norms of two vectors.
+     *
+     * @param dot product of the vectors
+     * @param xx  squared norm of the first vector
+     * @param yy  squared norm of the second vector
+     * @return cosine distance
+     */
+    static double fromDot(double dot, double xx, double yy) {
+        if (xx == 0 || yy == 0) {
+            return xx == yy ? 0 : 1;
+        }
+        return 1 - dot / (sqrt(xx) * sqrt(yy));
+    }
+
+    @Override
+    public String name() {
+        return "Cosine";
+    }
+
+    @Override
+    public double compute(DArray<Double> x, DArray<Double> y) {
+        return fromDot(x.inner(y), x.inner(x), y.inner(y));
+    }
+
+    @Override
+    public double compute(Frame df1, int row1, Frame df2, int row2) {
+        double dot = 0;
+        double xx = 0;
+        double yy = 0;
+        String[] names = df1.varNames();
+        for (String name : names) {
+            double x = df1.getDouble(row1, name);
+            double y = df2.getDouble(row2, name);
+            dot += x * y;
+            xx += x * x;
+            yy += y * y;
+        }
+        return fromDot(dot, xx, yy);
+    }
+
+    @Override
+    public double reduced(DArray<Double> x, DArray<Double> y) {
+        return compute(x, y);
+    }
+
+    @Override
+    public double reduced(Frame df1, int row1, Frame df2, int row2) {
+        return compute(df1, row1, df2, row2);
+    }
+
+    @Override
+    public double compute(double[] x, int xOffset, double[] y, int yOffset, int len) {
+        VectorSpecies<Double> vs = Simd.vsDouble;
+        int bound = vs.loopBound(len);
+        int i = 0;
+        DoubleVector dotAcc = DoubleVector.zero(vs);
+        DoubleVector xxAcc = DoubleVector.zero(vs);
+        DoubleVector yyAcc = DoubleVector.zero(vs);
+        for (; i < bound; i += vs.length()) {
+            DoubleVector xv = DoubleVector.fromArray(vs, x, xOffset + i);
+            DoubleVector yv = DoubleVector.fromArray(vs, y, yOffset + i);
+            dotAcc = xv.fma(yv, dotAcc);
+            xxAcc = xv.fma(xv, xxAcc);
+            yyAcc = yv.fma(yv, yyAcc);
+        }
+        double dot = dotAcc.reduceLanes(VectorOperators.ADD);
+        double xx = xxAcc.reduceLanes(VectorOperators.ADD);
+        double yy = yyAcc.reduceLanes(VectorOperators.ADD);
+        for (; i < len; i++) {
+            dot += x[xOffset + i] * y[yOffset + i];
+            xx += x[xOffset + i] * x[xOffset + i];
+            yy += y[yOffset + i] * y[yOffset + i];
+        }
+        return fromDot(dot, xx, yy);
+    }
+
+    @Override
+    public double reduced(double[] x, int xOffset, double[] y, int yOffset, int len) {
+        return compute(x, xOffset, y, yOffset, len);
+    }
+
+    @Override
+    public boolean equalOnParams(Distance d) {
+        return d instanceof CosineDistance;
+    }
+}
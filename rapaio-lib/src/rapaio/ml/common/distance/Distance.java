@@ -21,8 +21,11 @@
 
 package rapaio.ml.common.distance;
 
+import java.util.Arrays;
+
 import rapaio.core.param.ParametricEquals;
 import rapaio.darray.DArray;
+import rapaio.darray.DArrays;
 import rapaio.data.Frame;
 
 /**
@@ -40,6 +43,22 @@ import rapaio.data.Frame;
  */
 public interface Distance extends ParametricEquals<Distance> {
 
+    /**
+     * Receives blocks of pairwise distances, see {@link #pairwise(DArray, DArray, int, BlockConsumer)}.
+     */
+    @FunctionalInterface
+    interface BlockConsumer {
+
+        /**
+         * Receives a block of distances. The block is a matrix with distances from consecutive rows of the first
+         * matrix, starting with row {@code start}, to all rows of the second matrix.
+         *
+         * @param start index of the first row from the block
+         * @param block matrix of distances
+         */
+        void accept(int start, DArray<Double> block);
+    }
+
     String name();
 
     /**
@@ -94,4 +113,82 @@ public interface Distance extends ParametricEquals<Distance> {
      * @return computed reduced distance
      */
     double reduced(Frame df1, int row1, Frame df2, int row2);
+
+    /**
+     * Compute distance between two vectors stored in arrays, usually rows of row major matrices.
+     * The default implementation wraps copies of the values into {@link DArray} instances, distances
+     * which are used intensively, for example by neighbour indexes, should override this method.
+     *
+     * @param x       array which contains the first vector
+     * @param xOffset position of the first value of the first vector
+     * @param y       array which contains the second vector
+     * @param yOffset position of the first value of the second vector
+     * @param len     length of vectors
+     * @return computed distance
+     */
+    default double compute(double[] x, int xOffset, double[] y, int yOffset, int len) {
+        return compute(DArrays.stride(Arrays.copyOfRange(x, xOffset, xOffset + len)),
+                DArrays.stride(Arrays.copyOfRange(y, yOffset, yOffset + len)));
+    }
+
+    /**
+     * Compute reduced distance between two vectors stored in arrays, usually rows of row major matrices.
+     * The default implementation wraps copies of the values into {@link DArray} instances, distances
+     * which are used intensively, for example by neighbour indexes, should override this method.
+     *
+     * @param x       array which contains the first vector
+     * @param xOffset position of the first value of the first vector
+     * @param y       array which contains the second vector
+     * @param yOffset position of the first value of the second vector
+     * @param len     length of vectors
+     * @return computed reduced distance
+     */
+    default double reduced(double[] x, int xOffset, double[] y, int yOffset, int len) {
+        return reduced(DArrays.stride(Arrays.copyOfRange(x, xOffset, xOffset + len)),
+                DArrays.stride(Arrays.copyOfRange(y, yOffset, yOffset + len)));
+    }
+
+    /**
+     * Computes distances between all rows of two matrices. The result is a matrix with a row for each row
+     * of {@code x} and a column for each row of {@code y}. Rows are processed in parallel, in blocks.
+     * <p>
+     * Euclidean and cosine distances are computed from dot products obtained with matrix multiplication, which
+     * is much faster than computing each distance separately, but can introduce small rounding errors. If the
+     * same instance is given for both matrices, the values from the main diagonal are set to zero.
+     *
+     * @param x first matrix
+     * @param y second matrix
+     * @return matrix of distances
+     */
+    default DArray<Double> pairwise(DArray<Double> x, DArray<Double> y) {
+        return new Pairwise(this, x, y).compute();
+    }
+
+    /**
+     * Computes distances between all rows of two matrices and streams them in blocks of rows. Blocks are computed
+     * in parallel and the consumer is called concurrently, from multiple threads, as soon as each block is available.
+     * Only the blocks being processed are kept in memory, the full matrix of distances is never built.
+     *
+     * @param x         first matrix
+     * @param y         second matrix
+     * @param blockRows maximum number of rows of {@code x} in a block
+     * @param consumer  consumer of blocks of distances
+     */
+    default void pairwise(DArray<Double> x, DArray<Double> y, int blockRows, BlockConsumer consumer) {
+        new Pairwise(this, x, y).stream(blockRows, consumer);
+    }
+
+    /**
+     * Computes distances between all rows of two matrices and streams them in blocks of rows. The number of rows
+     * in a block is chosen such that a block has a moderate size.
+     *
+     * @param x        first matrix
+     * @param y        second matrix
+     * @param consumer consumer of blocks of distances
+     * @see #pairwise(DArray, DArray, int, BlockConsumer)
+     */
+    default void pairwise(DArray<Double> x, DArray<Double> y, BlockConsumer consumer) {
+        Pairwise pairwise = new Pairwise(this, x, y);
+        pairwise.stream(pairwise.defaultBlockRows(), consumer);
+    }
 }
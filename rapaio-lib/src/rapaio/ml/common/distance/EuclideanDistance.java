@@ -59,6 +59,16 @@ public class EuclideanDistance implements Distance {
         return sum;
     }
 
+    @Override
+    public double compute(double[] x, int xOffset, double[] y, int yOffset, int len) {
+        return sqrt(reduced(x, xOffset, y, yOffset, len));
+    }
+
+    @Override
+    public double reduced(double[] x, int xOffset, double[] y, int yOffset, int len) {
+        return Pairwise.squaredDistance(x, xOffset, y, yOffset, len);
+    }
+
     @Override
     public boolean equalOnParams(Distance d) {
         return d instanceof EuclideanDistance;
@@ -23,7 +23,11 @@ package rapaio.ml.common.distance;
 
 import static java.lang.StrictMath.abs;
 
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
 import rapaio.darray.DArray;
+import rapaio.darray.Simd;
 import rapaio.data.Frame;
 
 public class Manhattan implements Distance {
@@ -58,6 +62,27 @@ public class Manhattan implements Distance {
         return compute(df1, row1, df2, row2);
     }
 
+    @Override
+    public double compute(double[] x, int xOffset, double[] y, int yOffset, int len) {
+        VectorSpecies<Double> vs = Simd.vsDouble;
+        int bound = vs.loopBound(len);
+        int i = 0;
+        DoubleVector acc = DoubleVector.zero(vs);
+        for (; i < bound; i += vs.length()) {
+            acc = acc.add(DoubleVector.fromArray(vs, x, xOffset + i).sub(DoubleVector.fromArray(vs, y, yOffset + i)).abs());
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < len; i++) {
+            sum += abs(x[xOffset + i] - y[yOffset + i]);
+        }
+        return sum;
+    }
+
+    @Override
+    public double reduced(double[] x, int xOffset, double[] y, int yOffset, int len) {
+        return compute(x, xOffset, y, yOffset, len);
+    }
+
     @Override
     public boolean equalOnParams(Distance d) {
         return d instanceof Manhattan;
@@ -21,9 +21,16 @@
 
 package rapaio.ml.common.distance;
 
+import static java.lang.StrictMath.abs;
 import static java.lang.StrictMath.pow;
 
+import static rapaio.printer.Format.floatFlex;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
 import rapaio.darray.DArray;
+import rapaio.darray.Simd;
 import rapaio.data.Frame;
 
 public class MinkowskiDistance implements Distance {
@@ -34,9 +41,13 @@ public class MinkowskiDistance implements Distance {
         this.p = p;
     }
 
+    public double p() {
+        return p;
+    }
+
     @Override
     public String name() {
-        return "Euclidean";
+        return "Minkowski(p=" + floatFlex(p) + ")";
     }
 
     @Override
@@ -51,7 +62,7 @@ public class MinkowskiDistance implements Distance {
 
     @Override
     public double reduced(DArray<Double> x, DArray<Double> y) {
-        return x.sub(y).apply_(v -> pow(v, p)).sum();
+        return x.sub(y).apply_(v -> pow(abs(v), p)).sum();
     }
 
     @Override
@@ -60,7 +71,29 @@ public class MinkowskiDistance implements Distance {
         String[] names = df1.varNames();
         for (String name : names) {
             double delta = df1.getDouble(row1, name) - df2.getDouble(row2, name);
-            sum += pow(delta, p);
+            sum += pow(abs(delta), p);
+        }
+        return sum;
+    }
+
+    @Override
+    public double compute(double[] x, int xOffset, double[] y, int yOffset, int len) {
+        return pow(reduced(x, xOffset, y, yOffset, len), 1 / p);
+    }
+
+    @Override
+    public double reduced(double[] x, int xOffset, double[] y, int yOffset, int len) {
+        VectorSpecies<Double> vs = Simd.vsDouble;
+        int bound = vs.loopBound(len);
+        int i = 0;
+        DoubleVector acc = DoubleVector.zero(vs);
+        for (; i < bound; i += vs.length()) {
+            DoubleVector delta = DoubleVector.fromArray(vs, x, xOffset + i).sub(DoubleVector.fromArray(vs, y, yOffset + i));
+            acc = acc.add(delta.abs().lanewise(VectorOperators.POW, p));
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < len; i++) {
+            sum += pow(abs(x[xOffset + i] - y[yOffset + i]), p);
         }
         return sum;
     }
@@ -0,0 +1,292 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.common.distance;
+
+import java.util.stream.IntStream;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+import rapaio.darray.DArray;
+import rapaio.darray.DArrays;
+import rapaio.darray.Order;
+import rapaio.darray.Shape;
+import rapaio.darray.Simd;
+
+/**
+ * Computes distances between all rows of two matrices.
+ * <p>
+ * The rows of the first matrix are split into blocks which are computed in parallel. Each block contains the
+ * distances from the rows of the block to all rows of the second matrix. Euclidean and cosine distances are
+ * computed from dot products, using the identity {@code |x-y|^2 = |x|^2 + |y|^2 - 2 x.y}, where the dot products
+ * of a block are obtained with a single matrix multiplication. Other distances are computed with loops over tiles
+ * of rows from the second matrix, tiles being small enough to stay in cache while all rows of the block are
+ * compared with them.
+ * <p>
+ * The vectorized dot product and squared distance loops and the blocked dot products are exposed, since kernel
+ * functions which depend on dot products or squared distances are computed the same way.
+ */
+public final class Pairwise {
+
+    /**
+     * Default number of values in a block.
+     */
+    static final int BLOCK_SIZE = 1 << 15;
+    private static final int TILE = 64;
+
+    private enum Kind {
+        EUCLIDEAN,
+        COSINE,
+        TILED
+    }
+
+    private final Distance distance;
+    private final Kind kind;
+    private final boolean symmetric;
+    private final int n;
+    private final int m;
+    private final int dim;
+    private final double[] x;
+    private final double[] y;
+
+    // used only by dot product based distances
+    private final DotProducts dots;
+
+    Pairwise(Distance distance, DArray<Double> x, DArray<Double> y) {
+        if (!x.isMatrix() || !y.isMatrix() || x.dim(1) != y.dim(1)) {
+            throw new IllegalArgumentException("Pairwise distances require two matrices with the same number of columns.");
+        }
+        this.distance = distance;
+        this.kind = switch (distance) {
+            case EuclideanDistance _ -> Kind.EUCLIDEAN;
+            case CosineDistance _ -> Kind.COSINE;
+            default -> Kind.TILED;
+        };
+        this.symmetric = x == y;
+        this.n = x.dim(0);
+        this.m = y.dim(0);
+        this.dim = x.dim(1);
+        this.x = x.toDoubleArray(Order.C);
+        this.y = symmetric ? this.x : y.toDoubleArray(Order.C);
+        this.dots = kind != Kind.TILED ? new DotProducts(this.x, this.y, n, m, dim, true) : null;
+    }
+
+    /**
+     * Computes the dot product of two vectors stored in arrays.
+     *
+     * @param x       array which contains the first vector
+     * @param xOffset position of the first value of the first vector
+     * @param y       array which contains the second vector
+     * @param yOffset position of the first value of the second vector
+     * @param len     length of vectors
+     * @return dot product
+     */
+    public static double dot(double[] x, int xOffset, double[] y, int yOffset, int len) {
+        VectorSpecies<Double> vs = Simd.vsDouble;
+        int bound = vs.loopBound(len);
+        int i = 0;
+        DoubleVector acc = DoubleVector.zero(vs);
+        for (; i < bound; i += vs.length()) {
+            acc = DoubleVector.fromArray(vs, x, xOffset + i).fma(DoubleVector.fromArray(vs, y, yOffset + i), acc);
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < len; i++) {
+            sum += x[xOffset + i] * y[yOffset + i];
+        }
+        return sum;
+    }
+
+    /**
+     * Computes the squared euclidean distance between two vectors stored in arrays.
+     *
+     * @param x       array which contains the first vector
+     * @param xOffset position of the first value of the first vector
+     * @param y       array which contains the second vector
+     * @param yOffset position of the first value of the second vector
+     * @param len     length of vectors
+     * @return squared distance
+     */
+    public static double squaredDistance(double[] x, int xOffset, double[] y, int yOffset, int len) {
+        VectorSpecies<Double> vs = Simd.vsDouble;
+        int bound = vs.loopBound(len);
+        int i = 0;
+        DoubleVector acc = DoubleVector.zero(vs);
+        for (; i < bound; i += vs.length()) {
+            DoubleVector delta = DoubleVector.fromArray(vs, x, xOffset + i).sub(DoubleVector.fromArray(vs, y, yOffset + i));
+            acc = delta.fma(delta, acc);
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < len; i++) {
+            double delta = x[xOffset + i] - y[yOffset + i];
+            sum += delta * delta;
+        }
+        return sum;
+    }
+
+    int defaultBlockRows() {
+        return Math.max(1, BLOCK_SIZE / Math.max(1, m));
+    }
+
+    /**
+     * @return matrix with distances between all rows
+     */
+    DArray<Double> compute() {
+        double[] out = new double[n * m];
+        int blockRows = defaultBlockRows();
+        int blocks = (n + blockRows - 1) / blockRows;
+        IntStream.range(0, blocks).parallel().forEach(block -> {
+            int start = block * blockRows;
+            int end = Math.min(n, start + blockRows);
+            double[] buffer = block(start, end);
+            System.arraycopy(buffer, 0, out, start * m, buffer.length);
+        });
+        return DArrays.stride(Shape.of(n, m), out);
+    }
+
+    /**
+     * Computes blocks in parallel and passes each of them to the consumer, as soon as it is computed.
+     *
+     * @param blockRows maximum number of rows in a block
+     * @param consumer  consumer of blocks, called concurrently
+     */
+    void stream(int blockRows, Distance.BlockConsumer consumer) {
+        if (blockRows < 1) {
+            throw new IllegalArgumentException("Number of rows in a block must be positive.");
+        }
+        int blocks = (n + blockRows - 1) / blockRows;
+        IntStream.range(0, blocks).parallel().forEach(block -> {
+            int start = block * blockRows;
+            int end = Math.min(n, start + blockRows);
+            consumer.accept(start, DArrays.stride(Shape.of(end - start, m), block(start, end)));
+        });
+    }
+
+    private double[] block(int start, int end) {
+        int rows = end - start;
+        double[] out = new double[rows * m];
+        if (kind == Kind.TILED) {
+            for (int tile = 0; tile < m; tile += TILE) {
+                int tileEnd = Math.min(m, tile + TILE);
+                for (int i = start; i < end; i++) {
+                    int pos = (i - start) * m;
+                    for (int j = tile; j < tileEnd; j++) {
+                        out[pos + j] = distance.compute(x, i * dim, y, j * dim, dim);
+                    }
+                }
+            }
+            return out;
+        }
+
+        dots.block(start, end, out);
+        for (int i = start; i < end; i++) {
+            int pos = (i - start) * m;
+            for (int j = 0; j < m; j++) {
+                double dot = out[pos + j];
+                out[pos + j] = kind == Kind.EUCLIDEAN
+                        ? Math.sqrt(dots.squaredDistance(i, j, dot))
+                        : CosineDistance.fromDot(dot, dots.xNorm(i), dots.yNorm(j));
+            }
+            if (symmetric) {
+                out[pos + i] = 0;
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Dot products between the rows of two matrices stored in row major order. Dot products are computed for
+     * blocks of rows from the first matrix, with a single matrix multiplication for each block. Squared norms
+     * of rows are optionally computed once, to obtain squared distances from dot products.
+     */
+    public static final class DotProducts {
+
+        private final boolean symmetric;
+        private final int m;
+        private final int dim;
+        private final double[] x;
+        private final DArray<Double> yt;
+        private final double[] xn;
+        private final double[] yn;
+
+        /**
+         * @param x     rows of the first matrix in row major order
+         * @param y     rows of the second matrix in row major order, the same array if the matrices are the same
+         * @param n     number of rows of the first matrix
+         * @param m     number of rows of the second matrix
+         * @param dim   number of columns
+         * @param norms if true, squared norms of rows are computed
+         */
+        public DotProducts(double[] x, double[] y, int n, int m, int dim, boolean norms) {
+            this.symmetric = x == y;
+            this.m = m;
+            this.dim = dim;
+            this.x = x;
+            this.yt = DArrays.stride(Shape.of(m, dim), y).t();
+            this.xn = norms ? squaredNorms(x, n) : null;
+            this.yn = norms ? (symmetric ? xn : squaredNorms(y, m)) : null;
+        }
+
+        private double[] squaredNorms(double[] values, int rows) {
+            double[] norms = new double[rows];
+            for (int i = 0; i < rows; i++) {
+                norms[i] = dot(values, i * dim, values, i * dim, dim);
+            }
+            return norms;
+        }
+
+        /**
+         * Computes the dot products between the rows {@code [start, end)} of the first matrix and all rows
+         * of the second matrix.
+         *
+         * @param start first row of the block, inclusive
+         * @param end   last row of the block, exclusive
+         * @param out   destination in row major order, with {@code (end - start) * m} values
+         */
+        public void block(int start, int end, double[] out) {
+            int rows = end - start;
+            double[] xb = new double[rows * dim];
+            System.arraycopy(x, start * dim, xb, 0, xb.length);
+            DArrays.stride(Shape.of(rows, dim), xb).mm(yt, DArrays.stride(Shape.of(rows, m), out));
+        }
+
+        public double xNorm(int i) {
+            return xn[i];
+        }
+
+        public double yNorm(int j) {
+            return yn[j];
+        }
+
+        /**
+         * Computes the squared distance between two rows from their dot product. If the matrices are the same,
+         * squared distances from the main diagonal are zero.
+         *
+         * @param i   row of the first matrix
+         * @param j   row of the second matrix
+         * @param dot dot product of the rows
+         * @return squared distance
+         */
+        public double squaredDistance(int i, int j, double dot) {
+            return (symmetric && i == j) ? 0 : Math.max(0, xn[i] + yn[j] - 2 * dot);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.common.index;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+import rapaio.darray.DArray;
+import rapaio.darray.Order;
+import rapaio.ml.common.distance.Distance;
+
+/**
+ * Base class for neighbour indexes. Holds indexed rows in a contiguous row major array together with
+ * the original index of each stored row, since tree indexes store rows in the order of their nodes.
+ */
+abstract class AbstractNeighborIndex implements NeighborIndex, Serializable {
+
+    @Serial
+    private static final long serialVersionUID = -2718496326001931846L;
+
+    protected final Distance distance;
+    protected final int size;
+    protected final int dim;
+    protected final double[] data;
+    protected final int[] ids;
+
+    protected AbstractNeighborIndex(DArray<Double> x, Distance distance) {
+        if (!x.isMatrix()) {
+            throw new IllegalArgumentException("Indexed values must be a matrix.");
+        }
+        if (x.dim(0) < 1) {
+            throw new IllegalArgumentException("Cannot build an index without rows.");
+        }
+        this.distance = distance;
+        this.size = x.dim(0);
+        this.dim = x.dim(1);
+        this.data = x.toDoubleArray(Order.C);
+        this.ids = new int[size];
+        for (int i = 0; i < size; i++) {
+            ids[i] = i;
+        }
+    }
+
+    @Override
+    public final int size() {
+        return size;
+    }
+
+    @Override
+    public final int dim() {
+        return dim;
+    }
+
+    @Override
+    public final Distance distance() {
+        return distance;
+    }
+
+    protected static void checkK(int k) {
+        if (k < 1) {
+            throw new IllegalArgumentException("Number of neighbours must be positive.");
+        }
+    }
+
+    /**
+     * Reorders stored rows such that stored row {@code i} becomes the row which was stored at position
+     * {@code order[i]}.
+     *
+     * @param order new order of stored rows
+     */
+    protected final void reorder(int[] order) {
+        double[] copy = data.clone();
+        int[] idsCopy = ids.clone();
+        for (int i = 0; i < size; i++) {
+            System.arraycopy(copy, order[i] * dim, data, i * dim, dim);
+            ids[i] = idsCopy[order[i]];
+        }
+    }
+
+    /**
+     * Finds the dimension with the largest spread of values between stored rows from a range.
+     *
+     * @param order positions of stored rows
+     * @param start start of the range, inclusive
+     * @param end   end of the range, exclusive
+     * @return dimension with the largest spread
+     */
+    protected final int widestDimension(int[] order, int start, int end) {
+        int best = 0;
+        double bestSpread = -1;
+        for (int j = 0; j < dim; j++) {
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int i = start; i < end; i++) {
+                double value = data[order[i] * dim + j];
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+            if (max - min > bestSpread) {
+                bestSpread = max - min;
+                best = j;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Partially sorts a range of positions such that the position from {@code mid} is the one it would have
+     * in a full sort by the values of the given dimension, all positions before having smaller or equal values
+     * and all positions after having greater or equal values.
+     *
+     * @param order positions of stored rows
+     * @param start start of the range, inclusive
+     * @param end   end of the range, exclusive
+     * @param mid   position to be selected
+     * @param axis  dimension used to compare rows
+     */
+    protected final void select(int[] order, int start, int end, int mid, int axis) {
+        int lo = start;
+        int hi = end - 1;
+        while (lo < hi) {
+            double pivot = data[order[(lo + hi) >>> 1] * dim + axis];
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (data[order[i] * dim + axis] < pivot) {
+                    i++;
+                }
+                while (data[order[j] * dim + axis] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    int tmp = order[i];
+                    order[i] = order[j];
+                    order[j] = tmp;
+                    i++;
+                    j--;
+                }
+            }
+            if (mid <= j) {
+                hi = j;
+            } else if (mid >= i) {
+                lo = i;
+            } else {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.common.index;
+
+import java.io.Serial;
+import java.util.Arrays;
+
+import rapaio.darray.DArray;
+import rapaio.ml.common.distance.Distance;
+
+/**
+ * Ball tree neighbour index.
+ * <p>
+ * Each node is a ball which contains its rows, described by the mean of the rows and the largest distance
+ * from the mean to a row. Nodes split their rows at the median of the dimension with the largest spread and
+ * stored rows are reordered such that the rows of each node are contiguous. Queries visit the closest child
+ * first and prune nodes using the triangle inequality: no row of a ball is closer to the query point than the
+ * distance to the center of the ball minus its radius.
+ * <p>
+ * Pruning is correct only if the distance is a metric. Ball trees are less sensitive to the number of
+ * dimensions than KD-trees.
+ */
+final class BallTreeIndex extends AbstractNeighborIndex {
+
+    @Serial
+    private static final long serialVersionUID = 7356148592274019161L;
+
+    static final int DEFAULT_LEAF_SIZE = 16;
+
+    private final int leafSize;
+
+    private int nodes;
+    private int[] start;
+    private int[] end;
+    private int[] left;
+    private int[] right;
+    private double[] centers;
+    private double[] radii;
+
+    BallTreeIndex(DArray<Double> x, Distance distance, int leafSize) {
+        super(x, distance);
+        if (leafSize < 1) {
+            throw new IllegalArgumentException("Leaf size must be positive.");
+        }
+        this.leafSize = leafSize;
+
+        int capacity = 4 * (size / leafSize + 1);
+        start = new int[capacity];
+        end = new int[capacity];
+        left = new int[capacity];
+        right = new int[capacity];
+        centers = new double[capacity * dim];
+        radii = new double[capacity];
+
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        build(order, 0, size);
+        reorder(order);
+    }
+
+    private int build(int[] order, int s, int e) {
+        int node = newNode(s, e);
+        int pos = node * dim;
+        for (int i = s; i < e; i++) {
+            for (int j = 0; j < dim; j++) {
+                centers[pos + j] += data[order[i] * dim + j];
+            }
+        }
+        for (int j = 0; j < dim; j++) {
+            centers[pos + j] /= (e - s);
+        }
+        double radius = 0;
+        for (int i = s; i < e; i++) {
+            radius = Math.max(radius, distance.compute(centers, pos, data, order[i] * dim, dim));
+        }
+        radii[node] = radius;
+        if (e - s <= leafSize) {
+            return node;
+        }
+        int mid = (s + e) >>> 1;
+        select(order, s, e, mid, widestDimension(order, s, e));
+        int l = build(order, s, mid);
+        int r = build(order, mid, e);
+        left[node] = l;
+        right[node] = r;
+        return node;
+    }
+
+    private int newNode(int s, int e) {
+        if (nodes == start.length) {
+            int capacity = nodes * 2;
+            start = Arrays.copyOf(start, capacity);
+            end = Arrays.copyOf(end, capacity);
+            left = Arrays.copyOf(left, capacity);
+            right = Arrays.copyOf(right, capacity);
+            centers = Arrays.copyOf(centers, capacity * dim);
+            radii = Arrays.copyOf(radii, capacity);
+        }
+        start[nodes] = s;
+        end[nodes] = e;
+        left[nodes] = -1;
+        right[nodes] = -1;
+        return nodes++;
+    }
+
+    /**
+     * Computes a lower bound of the distance from a query point to the rows of a node.
+     */
+    private double ballDistance(int node, double[] q, int offset) {
+        return Math.max(0, distance.compute(q, offset, centers, node * dim, dim) - radii[node]);
+    }
+
+    @Override
+    public Neighbors knn(double[] q, int offset, int k) {
+        checkK(k);
+        NeighborQueue queue = NeighborQueue.bounded(Math.min(k, size));
+        searchKnn(0, q, offset, queue);
+        return queue.toNeighbors(v -> v);
+    }
+
+    private void searchKnn(int node, double[] q, int offset, NeighborQueue queue) {
+        if (left[node] < 0) {
+            for (int i = start[node]; i < end[node]; i++) {
+                queue.offer(distance.compute(q, offset, data, i * dim, dim), ids[i]);
+            }
+            return;
+        }
+        double dl = ballDistance(left[node], q, offset);
+        double dr = ballDistance(right[node], q, offset);
+        int first = dl <= dr ? left[node] : right[node];
+        int second = dl <= dr ? right[node] : left[node];
+        if (queue.admits(Math.min(dl, dr))) {
+            searchKnn(first, q, offset, queue);
+        }
+        if (queue.admits(Math.max(dl, dr))) {
+            searchKnn(second, q, offset, queue);
+        }
+    }
+
+    @Override
+    public Neighbors radius(double[] q, int offset, double radius) {
+        NeighborQueue queue = NeighborQueue.unbounded();
+        searchRadius(0, q, offset, radius, queue);
+        return queue.toNeighbors(v -> v);
+    }
+
+    private void searchRadius(int node, double[] q, int offset, double radius, NeighborQueue queue) {
+        if (ballDistance(node, q, offset) > radius) {
+            return;
+        }
+        if (left[node] < 0) {
+            for (int i = start[node]; i < end[node]; i++) {
+                double d = distance.compute(q, offset, data, i * dim, dim);
+                if (d <= radius) {
+                    queue.offer(d, ids[i]);
+                }
+            }
+            return;
+        }
+        searchRadius(left[node], q, offset, radius, queue);
+        searchRadius(right[node], q, offset, radius, queue);
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.common.index;
+
+import java.io.Serial;
+import java.util.stream.IntStream;
+
+import rapaio.darray.DArray;
+import rapaio.ml.common.distance.Distance;
+
+/**
+ * Neighbour index which compares query points with all indexed rows. It works with any distance function.
+ * <p>
+ * Nearest neighbours are ranked by reduced distances, the distances being computed only for selected rows.
+ * Batch queries are split in blocks of query points which are processed in parallel. Inside a block, indexed
+ * rows are scanned in blocks and each block of rows is compared with all query points of the block, which
+ * keeps the scanned rows in cache.
+ */
+final class BruteForceIndex extends AbstractNeighborIndex {
+
+    @Serial
+    private static final long serialVersionUID = 4102375117096651823L;
+
+    private static final int QUERY_BLOCK = 64;
+    private static final int ROW_BLOCK = 256;
+
+    BruteForceIndex(DArray<Double> x, Distance distance) {
+        super(x, distance);
+    }
+
+    @Override
+    public Neighbors knn(double[] q, int offset, int k) {
+        checkK(k);
+        NeighborQueue queue = NeighborQueue.bounded(Math.min(k, size));
+        for (int i = 0; i < size; i++) {
+            queue.offer(distance.reduced(q, offset, data, i * dim, dim), i);
+        }
+        return distances(queue.toNeighbors(v -> v), q, offset);
+    }
+
+    @Override
+    public Neighbors radius(double[] q, int offset, double radius) {
+        NeighborQueue queue = NeighborQueue.unbounded();
+        for (int i = 0; i < size; i++) {
+            double d = distance.compute(q, offset, data, i * dim, dim);
+            if (d <= radius) {
+                queue.offer(d, i);
+            }
+        }
+        return queue.toNeighbors(v -> v);
+    }
+
+    @Override
+    public Neighbors[] knn(DArray<Double> queries, int k) {
+        checkK(k);
+        double[] q = queryArray(queries);
+        int n = queries.dim(0);
+        Neighbors[] result = new Neighbors[n];
+        int blocks = (n + QUERY_BLOCK - 1) / QUERY_BLOCK;
+        IntStream.range(0, blocks).parallel().forEach(block -> {
+            int start = block * QUERY_BLOCK;
+            int end = Math.min(n, start + QUERY_BLOCK);
+            NeighborQueue[] queues = new NeighborQueue[end - start];
+            for (int j = 0; j < queues.length; j++) {
+                queues[j] = NeighborQueue.bounded(Math.min(k, size));
+            }
+            for (int rowStart = 0; rowStart < size; rowStart += ROW_BLOCK) {
+                int rowEnd = Math.min(size, rowStart + ROW_BLOCK);
+                for (int j = start; j < end; j++) {
+                    NeighborQueue queue = queues[j - start];
+                    for (int i = rowStart; i < rowEnd; i++) {
+                        queue.offer(distance.reduced(q, j * dim, data, i * dim, dim), i);
+                    }
+                }
+            }
+            for (int j = start; j < end; j++) {
+                result[j] = distances(queues[j - start].toNeighbors(v -> v), q, j * dim);
+            }
+        });
+        return result;
+    }
+
+    private Neighbors distances(Neighbors reduced, double[] q, int offset) {
+        double[] distances = reduced.distances();
+        for (int i = 0; i < distances.length; i++) {
+            distances[i] = distance.compute(q, offset, data, reduced.index(i) * dim, dim);
+        }
+        return reduced;
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.common.index;
+
+import java.io.Serializable;
+
+import rapaio.ml.common.distance.Distance;
+import rapaio.ml.common.distance.EuclideanDistance;
+import rapaio.ml.common.distance.Manhattan;
+import rapaio.ml.common.distance.MinkowskiDistance;
+
+/**
+ * Describes a distance of the form {@code (sum |x_i - y_i|^p)^(1/p)}, for which the reduced distance is the sum
+ * of coordinate terms {@code |x_i - y_i|^p}. A lower bound of the reduced distance from a point to an axis aligned
+ * box can be computed from the coordinate terms, which is what KD-trees need for pruning.
+ *
+ * @param p power of the coordinate terms
+ */
+record CoordinateMetric(double p) implements Serializable {
+
+    /**
+     * @param distance distance function
+     * @return coordinate metric of the distance or null if the distance is not coordinate wise
+     */
+    static CoordinateMetric of(Distance distance) {
+        return switch (distance) {
+            case EuclideanDistance _ -> new CoordinateMetric(2);
+            case Manhattan _ -> new CoordinateMetric(1);
+            case MinkowskiDistance md when md.p() > 0 -> new CoordinateMetric(md.p());
+            default -> null;
+        };
+    }
+
+    double term(double delta) {
+        if (p == 2) {
+            return delta * delta;
+        }
+        if (p == 1) {
+            return Math.abs(delta);
+        }
+        return StrictMath.pow(Math.abs(delta), p);
+    }
+
+    double fromReduced(double reduced) {
+        if (p == 2) {
+            return StrictMath.sqrt(reduced);
+        }
+        return p == 1 ? reduced : StrictMath.pow(reduced, 1 / p);
+    }
+}
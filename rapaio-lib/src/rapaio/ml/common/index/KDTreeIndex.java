@@ -0,0 +1,203 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.common.index;
+
+import java.io.Serial;
+import java.util.Arrays;
+
+import rapaio.darray.DArray;
+import rapaio.ml.common.distance.Distance;
+
+/**
+ * KD-tree neighbour index.
+ * <p>
+ * Each node splits its rows at the median of the dimension with the largest spread. Nodes keep the bounding
+ * box of their rows and stored rows are reordered such that the rows of each node are contiguous. Queries visit
+ * the closest child first and prune nodes whose bounding box is farther than the current worst neighbour.
+ * <p>
+ * Pruning uses reduced distances computed from coordinate terms, thus the index works only with coordinate wise
+ * distances: Euclidean, Manhattan and Minkowski. KD-trees are efficient for low dimensional data, for high
+ * dimensional data pruning becomes ineffective and a ball tree or a brute force index is preferable.
+ */
+final class KDTreeIndex extends AbstractNeighborIndex {
+
+    @Serial
+    private static final long serialVersionUID = -6158290034715124937L;
+
+    static final int DEFAULT_LEAF_SIZE = 16;
+    static final int MAX_AUTO_DIM = 16;
+
+    private final CoordinateMetric metric;
+    private final int leafSize;
+
+    private int nodes;
+    private int[] start;
+    private int[] end;
+    private int[] left;
+    private int[] right;
+    private double[] lo;
+    private double[] hi;
+
+    KDTreeIndex(DArray<Double> x, Distance distance, int leafSize) {
+        super(x, distance);
+        this.metric = CoordinateMetric.of(distance);
+        if (metric == null) {
+            throw new IllegalArgumentException("KD-tree index requires a coordinate wise distance, distance "
+                    + distance.name() + " is not supported.");
+        }
+        if (leafSize < 1) {
+            throw new IllegalArgumentException("Leaf size must be positive.");
+        }
+        this.leafSize = leafSize;
+
+        int capacity = 4 * (size / leafSize + 1);
+        start = new int[capacity];
+        end = new int[capacity];
+        left = new int[capacity];
+        right = new int[capacity];
+        lo = new double[capacity * dim];
+        hi = new double[capacity * dim];
+
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        build(order, 0, size);
+        reorder(order);
+    }
+
+    private int build(int[] order, int s, int e) {
+        int node = newNode(s, e);
+        for (int j = 0; j < dim; j++) {
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int i = s; i < e; i++) {
+                double value = data[order[i] * dim + j];
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+            lo[node * dim + j] = min;
+            hi[node * dim + j] = max;
+        }
+        if (e - s <= leafSize) {
+            return node;
+        }
+        int axis = 0;
+        for (int j = 1; j < dim; j++) {
+            if (hi[node * dim + j] - lo[node * dim + j] > hi[node * dim + axis] - lo[node * dim + axis]) {
+                axis = j;
+            }
+        }
+        int mid = (s + e) >>> 1;
+        select(order, s, e, mid, axis);
+        int l = build(order, s, mid);
+        int r = build(order, mid, e);
+        left[node] = l;
+        right[node] = r;
+        return node;
+    }
+
+    private int newNode(int s, int e) {
+        if (nodes == start.length) {
+            int capacity = nodes * 2;
+            start = Arrays.copyOf(start, capacity);
+            end = Arrays.copyOf(end, capacity);
+            left = Arrays.copyOf(left, capacity);
+            right = Arrays.copyOf(right, capacity);
+            lo = Arrays.copyOf(lo, capacity * dim);
+            hi = Arrays.copyOf(hi, capacity * dim);
+        }
+        start[nodes] = s;
+        end[nodes] = e;
+        left[nodes] = -1;
+        right[nodes] = -1;
+        return nodes++;
+    }
+
+    /**
+     * Computes a lower bound of the reduced distance from a query point to the rows of a node.
+     */
+    private double boxDistance(int node, double[] q, int offset) {
+        double sum = 0;
+        int pos = node * dim;
+        for (int j = 0; j < dim; j++) {
+            double value = q[offset + j];
+            if (value < lo[pos + j]) {
+                sum += metric.term(lo[pos + j] - value);
+            } else if (value > hi[pos + j]) {
+                sum += metric.term(value - hi[pos + j]);
+            }
+        }
+        return sum;
+    }
+
+    @Override
+    public Neighbors knn(double[] q, int offset, int k) {
+        checkK(k);
+        NeighborQueue queue = NeighborQueue.bounded(Math.min(k, size));
+        searchKnn(0, q, offset, queue);
+        return queue.toNeighbors(metric::fromReduced);
+    }
+
+    private void searchKnn(int node, double[] q, int offset, NeighborQueue queue) {
+        if (left[node] < 0) {
+            for (int i = start[node]; i < end[node]; i++) {
+                queue.offer(distance.reduced(q, offset, data, i * dim, dim), ids[i]);
+            }
+            return;
+        }
+        double dl = boxDistance(left[node], q, offset);
+        double dr = boxDistance(right[node], q, offset);
+        int first = dl <= dr ? left[node] : right[node];
+        int second = dl <= dr ? right[node] : left[node];
+        if (queue.admits(Math.min(dl, dr))) {
+            searchKnn(first, q, offset, queue);
+        }
+        if (queue.admits(Math.max(dl, dr))) {
+            searchKnn(second, q, offset, queue);
+        }
+    }
+
+    @Override
+    public Neighbors radius(double[] q, int offset, double radius) {
+        NeighborQueue queue = NeighborQueue.unbounded();
+        searchRadius(0, q, offset, radius, queue);
+        return queue.toNeighbors(v -> v);
+    }
+
+    private void searchRadius(int node, double[] q, int offset, double radius, NeighborQueue queue) {
+        if (metric.fromReduced(boxDistance(node, q, offset)) > radius) {
+            return;
+        }
+        if (left[node] < 0) {
+            for (int i = start[node]; i < end[node]; i++) {
+                double d = metric.fromReduced(distance.reduced(q, offset, data, i * dim, dim));
+                if (d <= radius) {
+                    queue.offer(d, ids[i]);
+                }
+            }
+            return;
+        }
+        searchRadius(left[node], q, offset, radius, queue);
+        searchRadius(right[node], q, offset, radius, queue);
+    }
+}
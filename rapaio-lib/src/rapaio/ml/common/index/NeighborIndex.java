@@ -0,0 +1,223 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.common.index;
+
+import java.util.stream.IntStream;
+
+import rapaio.darray.DArray;
+import rapaio.darray.Order;
+import rapaio.ml.common.distance.Distance;
+
+/**
+ * Index built over the rows of a matrix used to answer nearest neighbour queries.
+ * <p>
+ * Indexed rows are copied into a contiguous row major array. Queries return the closest {@code k} rows
+ * or all rows within a given radius, sorted ascending by distance. Batch queries, which receive a matrix
+ * with a query point on each row, are answered in parallel. Indexes are immutable and can be queried
+ * concurrently.
+ * <p>
+ * Available implementations:
+ * <ul>
+ * <li>{@link #bruteForce(DArray, Distance)} scans all rows in blocks and works with any distance</li>
+ * <li>{@link #kdTree(DArray, Distance)} splits space with axis aligned hyperplanes and prunes with bounding
+ * boxes, it requires a coordinate wise distance: Euclidean, Manhattan or Minkowski</li>
+ * <li>{@link #ballTree(DArray, Distance)} splits rows into nested balls and prunes with the triangle inequality,
+ * it requires a distance which is a metric</li>
+ * </ul>
+ */
+public interface NeighborIndex {
+
+    /**
+     * Builds an index which compares query points with all indexed rows.
+     *
+     * @param x        matrix with a row for each indexed point
+     * @param distance distance function
+     * @return neighbour index
+     */
+    static NeighborIndex bruteForce(DArray<Double> x, Distance distance) {
+        return new BruteForceIndex(x, distance);
+    }
+
+    /**
+     * Builds a KD-tree index with default leaf size.
+     *
+     * @param x        matrix with a row for each indexed point
+     * @param distance coordinate wise distance: Euclidean, Manhattan or Minkowski
+     * @return neighbour index
+     */
+    static NeighborIndex kdTree(DArray<Double> x, Distance distance) {
+        return kdTree(x, distance, KDTreeIndex.DEFAULT_LEAF_SIZE);
+    }
+
+    /**
+     * Builds a KD-tree index.
+     *
+     * @param x        matrix with a row for each indexed point
+     * @param distance coordinate wise distance: Euclidean, Manhattan or Minkowski
+     * @param leafSize maximum number of rows in a leaf node
+     * @return neighbour index
+     */
+    static NeighborIndex kdTree(DArray<Double> x, Distance distance, int leafSize) {
+        return new KDTreeIndex(x, distance, leafSize);
+    }
+
+    /**
+     * Builds a ball tree index with default leaf size.
+     *
+     * @param x        matrix with a row for each indexed point
+     * @param distance distance which obeys the triangle inequality
+     * @return neighbour index
+     */
+    static NeighborIndex ballTree(DArray<Double> x, Distance distance) {
+        return ballTree(x, distance, BallTreeIndex.DEFAULT_LEAF_SIZE);
+    }
+
+    /**
+     * Builds a ball tree index.
+     *
+     * @param x        matrix with a row for each indexed point
+     * @param distance distance which obeys the triangle inequality
+     * @param leafSize maximum number of rows in a leaf node
+     * @return neighbour index
+     */
+    static NeighborIndex ballTree(DArray<Double> x, Distance distance, int leafSize) {
+        return new BallTreeIndex(x, distance, leafSize);
+    }
+
+    /**
+     * Builds an index suitable for the given data and distance. A KD-tree is used for coordinate wise distances
+     * and low dimensional data, a ball tree for coordinate wise metrics and high dimensional data and
+     * a brute force index in any other case.
+     *
+     * @param x        matrix with a row for each indexed point
+     * @param distance distance function
+     * @return neighbour index
+     */
+    static NeighborIndex of(DArray<Double> x, Distance distance) {
+        CoordinateMetric metric = CoordinateMetric.of(distance);
+        if (metric == null) {
+            return bruteForce(x, distance);
+        }
+        if (x.dim(1) <= KDTreeIndex.MAX_AUTO_DIM) {
+            return kdTree(x, distance);
+        }
+        return metric.p() >= 1 ? ballTree(x, distance) : bruteForce(x, distance);
+    }
+
+    /**
+     * @return number of indexed rows
+     */
+    int size();
+
+    /**
+     * @return number of dimensions of indexed rows
+     */
+    int dim();
+
+    /**
+     * @return distance function used by index
+     */
+    Distance distance();
+
+    /**
+     * Finds the closest {@code k} indexed rows. If the index contains less than {@code k} rows, all rows are returned.
+     *
+     * @param q      array which contains the query point
+     * @param offset position of the first value of the query point
+     * @param k      number of neighbours
+     * @return neighbours sorted by distance
+     */
+    Neighbors knn(double[] q, int offset, int k);
+
+    /**
+     * Finds all indexed rows with distance to the query point smaller or equal with the given radius.
+     *
+     * @param q      array which contains the query point
+     * @param offset position of the first value of the query point
+     * @param radius maximum distance
+     * @return neighbours sorted by distance
+     */
+    Neighbors radius(double[] q, int offset, double radius);
+
+    /**
+     * Finds the closest {@code k} indexed rows.
+     *
+     * @param q query point
+     * @param k number of neighbours
+     * @return neighbours sorted by distance
+     */
+    default Neighbors knn(double[] q, int k) {
+        return knn(q, 0, k);
+    }
+
+    /**
+     * Finds all indexed rows within the given radius.
+     *
+     * @param q      query point
+     * @param radius maximum distance
+     * @return neighbours sorted by distance
+     */
+    default Neighbors radius(double[] q, double radius) {
+        return radius(q, 0, radius);
+    }
+
+    /**
+     * Finds the closest {@code k} indexed rows for each query point. Queries are answered in parallel.
+     *
+     * @param queries matrix with a query point on each row
+     * @param k       number of neighbours
+     * @return neighbours of each query point
+     */
+    default Neighbors[] knn(DArray<Double> queries, int k) {
+        double[] q = queryArray(queries);
+        Neighbors[] result = new Neighbors[queries.dim(0)];
+        IntStream.range(0, result.length).parallel().forEach(i -> result[i] = knn(q, i * dim(), k));
+        return result;
+    }
+
+    /**
+     * Finds all indexed rows within the given radius for each query point. Queries are answered in parallel.
+     *
+     * @param queries matrix with a query point on each row
+     * @param radius  maximum distance
+     * @return neighbours of each query point
+     */
+    default Neighbors[] radius(DArray<Double> queries, double radius) {
+        double[] q = queryArray(queries);
+        Neighbors[] result = new Neighbors[queries.dim(0)];
+        IntStream.range(0, result.length).parallel().forEach(i -> result[i] = radius(q, i * dim(), radius));
+        return result;
+    }
+
+    /**
+     * Validates a query matrix and copies its values into a row major array.
+     *
+     * @param queries matrix with a query point on each row
+     * @return row major array with query points
+     */
+    default double[] queryArray(DArray<Double> queries) {
+        if (!queries.isMatrix() || queries.dim(1) != dim()) {
+            throw new IllegalArgumentException("Queries must be a matrix with %d columns.".formatted(dim()));
+        }
+        return queries.toDoubleArray(Order.C);
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.common.index;
+
+import java.util.Arrays;
+import java.util.function.DoubleUnaryOperator;
+
+import rapaio.util.collection.Ints;
+
+/**
+ * Collects candidate neighbours of a query point.
+ * <p>
+ * A bounded queue keeps the closest {@code capacity} candidates in a max heap, the worst candidate being on top.
+ * An unbounded queue keeps all offered candidates and is used for radius queries. Candidates are compared
+ * by value and, for equal values, by index, thus results do not depend on the order in which rows are visited.
+ */
+final class NeighborQueue {
+
+    private final int capacity;
+    private int[] indexes;
+    private double[] values;
+    private int size;
+
+    static NeighborQueue bounded(int capacity) {
+        return new NeighborQueue(capacity, capacity);
+    }
+
+    static NeighborQueue unbounded() {
+        return new NeighborQueue(Integer.MAX_VALUE, 16);
+    }
+
+    private NeighborQueue(int capacity, int initialLength) {
+        this.capacity = capacity;
+        this.indexes = new int[initialLength];
+        this.values = new double[initialLength];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isFull() {
+        return size == capacity;
+    }
+
+    /**
+     * Tells if a region of space with the given lower bound can still contain candidates which would be kept.
+     *
+     * @param bound lower bound of the values from a region
+     * @return false if the region can be pruned
+     */
+    boolean admits(double bound) {
+        return !isFull() || bound <= values[0];
+    }
+
+    /**
+     * Offers a candidate. For a bounded and full queue the candidate replaces the worst one if it is closer.
+     *
+     * @param value distance or reduced distance of the candidate
+     * @param index index of the candidate row
+     */
+    void offer(double value, int index) {
+        if (capacity == Integer.MAX_VALUE) {
+            if (size == indexes.length) {
+                indexes = Arrays.copyOf(indexes, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            indexes[size] = index;
+            values[size] = value;
+            size++;
+            return;
+        }
+        if (size < capacity) {
+            indexes[size] = index;
+            values[size] = value;
+            siftUp(size++);
+            return;
+        }
+        if (greater(values[0], indexes[0], value, index)) {
+            indexes[0] = index;
+            values[0] = value;
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Builds the result sorted ascending by value and index.
+     *
+     * @param transform function applied on kept values to obtain distances
+     * @return neighbours
+     */
+    Neighbors toNeighbors(DoubleUnaryOperator transform) {
+        int[] order = Ints.seq(0, size);
+        Ints.quickSort(order, 0, size, (a, b) -> {
+            int cmp = Double.compare(values[a], values[b]);
+            return cmp != 0 ? cmp : Integer.compare(indexes[a], indexes[b]);
+        });
+        int[] resultIndexes = new int[size];
+        double[] resultDistances = new double[size];
+        for (int i = 0; i < size; i++) {
+            resultIndexes[i] = indexes[order[i]];
+            resultDistances[i] = transform.applyAsDouble(values[order[i]]);
+        }
+        return new Neighbors(resultIndexes, resultDistances);
+    }
+
+    private static boolean greater(double v1, int i1, double v2, int i2) {
+        return v1 > v2 || (v1 == v2 && i1 > i2);
+    }
+
+    private void siftUp(int pos) {
+        while (pos > 0) {
+            int parent = (pos - 1) >>> 1;
+            if (!greater(values[pos], indexes[pos], values[parent], indexes[parent])) {
+                return;
+            }
+            swap(pos, parent);
+            pos = parent;
+        }
+    }
+
+    private void siftDown(int pos) {
+        while (true) {
+            int left = 2 * pos + 1;
+            if (left >= size) {
+                return;
+            }
+            int max = left;
+            int right = left + 1;
+            if (right < size && greater(values[right], indexes[right], values[left], indexes[left])) {
+                max = right;
+            }
+            if (!greater(values[max], indexes[max], values[pos], indexes[pos])) {
+                return;
+            }
+            swap(pos, max);
+            pos = max;
+        }
+    }
+
+    private void swap(int i, int j) {
+        int index = indexes[i];
+        indexes[i] = indexes[j];
+        indexes[j] = index;
+        double value = values[i];
+        values[i] = values[j];
+        values[j] = value;
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.common.index;
+
+/**
+ * Result of a neighbour query. Contains indexes of the indexed rows and their distances to the query point,
+ * sorted ascending by distance. Rows at equal distance are sorted ascending by index.
+ *
+ * @param indexes   indexes of neighbour rows
+ * @param distances distances from the query point to neighbour rows
+ */
+public record Neighbors(int[] indexes, double[] distances) {
+
+    /**
+     * @return number of neighbours
+     */
+    public int size() {
+        return indexes.length;
+    }
+
+    /**
+     * @param i position of the neighbour
+     * @return index of the i-th closest row
+     */
+    public int index(int i) {
+        return indexes[i];
+    }
+
+    /**
+     * @param i position of the neighbour
+     * @return distance to the i-th closest row
+     */
+    public double distance(int i) {
+        return distances[i];
+    }
+}
@@ -22,8 +22,10 @@
 package rapaio.ml.common.kernel;
 
 import java.io.Serializable;
+import java.util.Arrays;
 
 import rapaio.darray.DArray;
+import rapaio.darray.DArrays;
 
 /**
  * Kernel function interface
@@ -39,4 +41,64 @@ public interface Kernel extends Serializable {
     boolean isLinear();
 
     double compute(DArray<Double> v, DArray<Double> u);
+
+    /**
+     * Computes kernel value between two vectors stored in arrays, usually rows of row major matrices.
+     * The default implementation wraps copies of the values into {@link DArray} instances, kernels
+     * which are used intensively should override this method.
+     *
+     * @param x       array which contains the first vector
+     * @param xOffset position of the first value of the first vector
+     * @param y       array which contains the second vector
+     * @param yOffset position of the first value of the second vector
+     * @param len     length of vectors
+     * @return kernel value
+     */
+    default double compute(double[] x, int xOffset, double[] y, int yOffset, int len) {
+        return compute(DArrays.stride(Arrays.copyOfRange(x, xOffset, xOffset + len)),
+                DArrays.stride(Arrays.copyOfRange(y, yOffset, yOffset + len)));
+    }
+
+    /**
+     * Computes kernel values between a row of a matrix and a selection of rows of the same matrix,
+     * {@code out[j] = k(x[i], x[rows[j]])}. If no selection is given, kernel values are computed for all rows.
+     * <p>
+     * The row and the selected rows are copied in row major order and values are computed with
+     * {@link #compute(double[], int, double[], int, int)}, in parallel for large rows. When multiple rows
+     * of the same matrix are computed, use {@link #rows(DArray)}, which copies the matrix only once.
+     *
+     * @param x    data matrix with instances on rows
+     * @param i    index of the row
+     * @param rows indexes of selected rows, or null for all rows
+     * @param out  destination for kernel values, with length at least the number of selected rows
+     */
+    default void computeRow(DArray<Double> x, int i, int[] rows, double[] out) {
+        KernelBlock.row(this, x, i, rows, out);
+    }
+
+    /**
+     * Prepares a data matrix for computing multiple kernel rows. The matrix is copied once in row major order.
+     *
+     * @param x data matrix with instances on rows
+     * @return kernel rows of the given matrix
+     */
+    default KernelRows rows(DArray<Double> x) {
+        return new KernelRows(this, x);
+    }
+
+    /**
+     * Computes kernel values between all rows of two matrices. Values are stored in row major order,
+     * {@code out[i * m + j] = k(x[i], y[j])}, where {@code m} is the number of rows of {@code y}.
+     * <p>
+     * Blocks of rows are computed in parallel for large matrices. Kernels which depend only on dot products
+     * or on distances between instances compute blocks with matrix multiplication, which is much faster than
+     * computing each value separately, but can introduce small rounding errors.
+     *
+     * @param x   first matrix
+     * @param y   second matrix, with the same number of columns as the first one
+     * @param out destination for kernel values, with length at least the product of the number of rows
+     */
+    default void computeBlock(DArray<Double> x, DArray<Double> y, double[] out) {
+        KernelBlock.block(this, x, y, out);
+    }
 }
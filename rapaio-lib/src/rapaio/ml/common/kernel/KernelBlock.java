@@ -0,0 +1,221 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.common.kernel;
+
+import java.util.function.DoubleUnaryOperator;
+import java.util.stream.IntStream;
+
+import rapaio.darray.DArray;
+import rapaio.darray.Order;
+import rapaio.ml.common.distance.Pairwise;
+
+/**
+ * Batch evaluation of kernel functions over rows of matrices.
+ * <p>
+ * Matrices are copied once in row major order and kernel values are computed with
+ * {@link Kernel#compute(double[], int, double[], int, int)}. Kernels which depend only on dot products or
+ * on squared distances between instances compute blocks from dot products obtained with a single matrix
+ * multiplication, using the identity {@code |x-y|^2 = |x|^2 + |y|^2 - 2 x.y} for squared distances. Dot products
+ * and squared distances are computed with the same vectorized code as pairwise distances, from {@link Pairwise}.
+ * Large rows and blocks are computed in parallel.
+ */
+final class KernelBlock {
+
+    /**
+     * Number of values in a block of rows computed by a single thread.
+     */
+    static final int BLOCK_SIZE = 1 << 15;
+
+    /**
+     * Minimum amount of work, measured as number of multiplications, for which computation runs in parallel.
+     */
+    private static final long PARALLEL_WORK = 1L << 18;
+    private static final int CHUNK_SIZE = 1_024;
+    private static final int TILE = 64;
+
+    private KernelBlock() {
+    }
+
+    /**
+     * Computes kernel values between one row of a matrix and a selection of its rows. Only the selected
+     * rows are copied, repeated rows of the same matrix should be computed with {@link KernelRows}.
+     */
+    static void row(Kernel kernel, DArray<Double> x, int i, int[] rows, double[] out) {
+        checkMatrix(x);
+        int m = rows == null ? x.dim(0) : rows.length;
+        checkOutput(out, m);
+        int dim = x.dim(1);
+        double[] xi = x.selsq(0, i).toDoubleArray();
+        double[] data = rows == null ? x.toDoubleArray(Order.C) : x.sel(0, rows).toDoubleArray(Order.C);
+        row(kernel, xi, 0, data, null, m, dim, out);
+    }
+
+    /**
+     * Computes kernel values between a vector and a selection of rows stored in row major order.
+     *
+     * @param kernel  kernel function
+     * @param x       array which contains the vector
+     * @param xOffset position of the first value of the vector
+     * @param data    rows in row major order
+     * @param rows    indexes of selected rows, or null for consecutive rows
+     * @param m       number of selected rows
+     * @param dim     number of columns
+     * @param out     destination for kernel values
+     */
+    static void row(Kernel kernel, double[] x, int xOffset, double[] data, int[] rows, int m, int dim, double[] out) {
+        if ((long) m * dim < PARALLEL_WORK) {
+            for (int j = 0; j < m; j++) {
+                out[j] = kernel.compute(x, xOffset, data, (rows == null ? j : rows[j]) * dim, dim);
+            }
+            return;
+        }
+        IntStream.range(0, (m + CHUNK_SIZE - 1) / CHUNK_SIZE).parallel().forEach(chunk -> {
+            int end = Math.min(m, (chunk + 1) * CHUNK_SIZE);
+            for (int j = chunk * CHUNK_SIZE; j < end; j++) {
+                out[j] = kernel.compute(x, xOffset, data, (rows == null ? j : rows[j]) * dim, dim);
+            }
+        });
+    }
+
+    /**
+     * Computes kernel values between all rows of two matrices, with loops over tiles of rows from the
+     * second matrix, tiles being small enough to stay in cache while all rows of a block are compared with them.
+     */
+    static void block(Kernel kernel, DArray<Double> x, DArray<Double> y, double[] out) {
+        checkMatrices(x, y);
+        int n = x.dim(0);
+        int m = y.dim(0);
+        int dim = x.dim(1);
+        checkOutput(out, (long) n * m);
+        double[] xs = x.toDoubleArray(Order.C);
+        double[] ys = x == y ? xs : y.toDoubleArray(Order.C);
+        blocks(n, m, dim, (start, end) -> {
+            for (int tile = 0; tile < m; tile += TILE) {
+                int tileEnd = Math.min(m, tile + TILE);
+                for (int i = start; i < end; i++) {
+                    for (int j = tile; j < tileEnd; j++) {
+                        out[i * m + j] = kernel.compute(xs, i * dim, ys, j * dim, dim);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Computes kernel values between all rows of two matrices, for kernels which are functions
+     * of the dot product of instances.
+     *
+     * @param fun function which transforms the dot product into the kernel value
+     */
+    static void dotBlock(DArray<Double> x, DArray<Double> y, double[] out, DoubleUnaryOperator fun) {
+        new DotBlock(x, y, out, false).compute(fun);
+    }
+
+    /**
+     * Computes kernel values between all rows of two matrices, for kernels which are functions of the squared
+     * distance between instances. If the same instance is given for both matrices, squared distances from the
+     * main diagonal are zero.
+     *
+     * @param fun function which transforms the squared distance into the kernel value
+     */
+    static void radialBlock(DArray<Double> x, DArray<Double> y, double[] out, DoubleUnaryOperator fun) {
+        new DotBlock(x, y, out, true).compute(fun);
+    }
+
+    private interface BlockTask {
+        void compute(int start, int end);
+    }
+
+    private static void blocks(int n, int m, int dim, BlockTask task) {
+        int blockRows = Math.max(1, BLOCK_SIZE / Math.max(1, m));
+        int blocks = (n + blockRows - 1) / blockRows;
+        IntStream stream = IntStream.range(0, blocks);
+        if ((long) n * m * Math.max(1, dim) >= PARALLEL_WORK) {
+            stream = stream.parallel();
+        }
+        stream.forEach(block -> {
+            int start = block * blockRows;
+            task.compute(start, Math.min(n, start + blockRows));
+        });
+    }
+
+    static void checkMatrix(DArray<Double> x) {
+        if (!x.isMatrix()) {
+            throw new IllegalArgumentException("Kernel rows require a data matrix.");
+        }
+    }
+
+    private static void checkMatrices(DArray<Double> x, DArray<Double> y) {
+        if (!x.isMatrix() || !y.isMatrix() || x.dim(1) != y.dim(1)) {
+            throw new IllegalArgumentException("Kernel blocks require two matrices with the same number of columns.");
+        }
+    }
+
+    static void checkOutput(double[] out, long size) {
+        if (out.length < size) {
+            throw new IllegalArgumentException("Output array is too small, it requires " + size + " values.");
+        }
+    }
+
+    private static final class DotBlock {
+
+        private final boolean radial;
+        private final int n;
+        private final int m;
+        private final int dim;
+        private final double[] out;
+        private final Pairwise.DotProducts dots;
+
+        DotBlock(DArray<Double> x, DArray<Double> y, double[] out, boolean radial) {
+            checkMatrices(x, y);
+            this.radial = radial;
+            this.n = x.dim(0);
+            this.m = y.dim(0);
+            this.dim = x.dim(1);
+            checkOutput(out, (long) n * m);
+            this.out = out;
+            double[] xs = x.toDoubleArray(Order.C);
+            double[] ys = x == y ? xs : y.toDoubleArray(Order.C);
+            this.dots = new Pairwise.DotProducts(xs, ys, n, m, dim, radial);
+        }
+
+        void compute(DoubleUnaryOperator fun) {
+            if (n == 0 || m == 0) {
+                return;
+            }
+            blocks(n, m, dim, (start, end) -> {
+                double[] buffer = new double[(end - start) * m];
+                dots.block(start, end, buffer);
+                for (int i = start; i < end; i++) {
+                    int pos = (i - start) * m;
+                    for (int j = 0; j < m; j++) {
+                        double value = buffer[pos + j];
+                        if (radial) {
+                            value = dots.squaredDistance(i, j, value);
+                        }
+                        out[i * m + j] = fun.applyAsDouble(value);
+                    }
+                }
+            });
+        }
+    }
+}
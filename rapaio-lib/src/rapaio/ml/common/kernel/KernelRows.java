@@ -0,0 +1,69 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.common.kernel;
+
+import rapaio.darray.DArray;
+import rapaio.darray.Order;
+
+/**
+ * Kernel rows of a data matrix, computed repeatedly for the same matrix.
+ * <p>
+ * The matrix is copied once in row major order when the instance is built, and each row is computed
+ * directly on the copy with {@link Kernel#compute(double[], int, double[], int, int)}, in parallel for large rows.
+ * Later changes of the matrix are not visible.
+ */
+public final class KernelRows {
+
+    private final Kernel kernel;
+    private final int n;
+    private final int dim;
+    private final double[] data;
+
+    KernelRows(Kernel kernel, DArray<Double> x) {
+        KernelBlock.checkMatrix(x);
+        this.kernel = kernel;
+        this.n = x.dim(0);
+        this.dim = x.dim(1);
+        this.data = x.toDoubleArray(Order.C);
+    }
+
+    /**
+     * @return number of rows of the data matrix
+     */
+    public int rowCount() {
+        return n;
+    }
+
+    /**
+     * Computes kernel values between a row of the matrix and a selection of rows of the same matrix,
+     * {@code out[j] = k(x[i], x[rows[j]])}. If no selection is given, kernel values are computed for all rows.
+     *
+     * @param i    index of the row
+     * @param rows indexes of selected rows, or null for all rows
+     * @param out  destination for kernel values, with length at least the number of selected rows
+     */
+    public void compute(int i, int[] rows, double[] out) {
+        int m = rows == null ? n : rows.length;
+        KernelBlock.checkOutput(out, m);
+        KernelBlock.row(kernel, data, i * dim, data, rows, m, dim, out);
+    }
+}
@@ -24,6 +24,7 @@ package rapaio.ml.common.kernel;
 import java.io.Serial;
 
 import rapaio.darray.DArray;
+import rapaio.ml.common.distance.Pairwise;
 import rapaio.printer.Format;
 
 /**
@@ -62,4 +63,14 @@ public class LinearKernel extends AbstractKernel {
     public double compute(DArray<Double> v, DArray<Double> u) {
         return v.inner(u) + c;
     }
+
+    @Override
+    public double compute(double[] x, int xOffset, double[] y, int yOffset, int len) {
+        return Pairwise.dot(x, xOffset, y, yOffset, len) + c;
+    }
+
+    @Override
+    public void computeBlock(DArray<Double> x, DArray<Double> y, double[] out) {
+        KernelBlock.dotBlock(x, y, out, dot -> dot + c);
+    }
 }
@@ -27,6 +27,7 @@ import java.io.Serial;
 
 import rapaio.darray.DArray;
 import rapaio.math.MathTools;
+import rapaio.ml.common.distance.Pairwise;
 
 /**
  * The Polynomial kernel is a non-stationary kernel. Polynomial kernels
@@ -87,9 +88,23 @@ public class PolyKernel extends AbstractKernel {
 
     @Override
     public double compute(DArray<Double> v, DArray<Double> u) {
+        return fromDot(v.inner(u));
+    }
+
+    @Override
+    public double compute(double[] x, int xOffset, double[] y, int yOffset, int len) {
+        return fromDot(Pairwise.dot(x, xOffset, y, yOffset, len));
+    }
+
+    @Override
+    public void computeBlock(DArray<Double> x, DArray<Double> y, double[] out) {
+        KernelBlock.dotBlock(x, y, out, this::fromDot);
+    }
+
+    private double fromDot(double dot) {
         if (isLinear()) {
-            return slope * v.inner(u) + bias;
+            return slope * dot + bias;
         }
-        return Math.pow(slope * v.inner(u) + bias, exponent);
+        return Math.pow(slope * dot + bias, exponent);
     }
 }
\ No newline at end of file
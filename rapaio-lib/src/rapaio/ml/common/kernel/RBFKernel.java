@@ -26,6 +26,7 @@ import static rapaio.printer.Format.floatFlex;
 import java.io.Serial;
 
 import rapaio.darray.DArray;
+import rapaio.ml.common.distance.Pairwise;
 
 /**
  * The GaussianPdf kernel is an example of radial basis function kernel.
@@ -72,6 +73,16 @@ public class RBFKernel extends AbstractKernel {
         return Math.exp(-gamma * value);
     }
 
+    @Override
+    public double compute(double[] x, int xOffset, double[] y, int yOffset, int len) {
+        return Math.exp(-gamma * Pairwise.squaredDistance(x, xOffset, y, yOffset, len));
+    }
+
+    @Override
+    public void computeBlock(DArray<Double> x, DArray<Double> y, double[] out) {
+        KernelBlock.radialBlock(x, y, out, value -> Math.exp(-gamma * value));
+    }
+
     @Override
     public Kernel newInstance() {
         return new RBFKernel(gamma);
@@ -24,6 +24,7 @@ package rapaio.ml.common.kernel;
 import java.io.Serial;
 
 import rapaio.darray.DArray;
+import rapaio.ml.common.distance.Pairwise;
 import rapaio.printer.Format;
 
 /**
@@ -68,6 +69,16 @@ public class SigmoidKernel extends AbstractKernel {
         return Math.atan(alpha * u.inner(v) + c);
     }
 
+    @Override
+    public double compute(double[] x, int xOffset, double[] y, int yOffset, int len) {
+        return Math.atan(alpha * Pairwise.dot(x, xOffset, y, yOffset, len) + c);
+    }
+
+    @Override
+    public void computeBlock(DArray<Double> x, DArray<Double> y, double[] out) {
+        KernelBlock.dotBlock(x, y, out, dot -> Math.atan(alpha * dot + c));
+    }
+
     @Override
     public Kernel newInstance() {
         return new SigmoidKernel(alpha, c);
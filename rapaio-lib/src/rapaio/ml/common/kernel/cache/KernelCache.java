@@ -21,121 +21,227 @@
 
 package rapaio.ml.common.kernel.cache;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.IntStream;
 
 import rapaio.darray.DArray;
+import rapaio.darray.Order;
 import rapaio.ml.common.kernel.Kernel;
 
 /**
- * Defines operations available on a kernel cache.
- * A kernel cache is a in memory data structure which is able to cache results of
- * operations to fasten th training and prediction of a svm.
+ * Cache for rows of a kernel matrix, computed over the rows of a data matrix.
  * <p>
+ * The cache stores whole kernel rows, as arrays of doubles or, to fit twice as many rows in the same memory, as arrays
+ * of floats. The number of stored rows is limited by a memory budget and, when the cache is full, rows are evicted
+ * with the clock algorithm, an approximation of least recently used eviction. Since a kernel matrix is symmetric,
+ * a value is found in cache if any of its row or column is stored.
+ * <p>
+ * Rows are computed with {@link Kernel#compute(double[], int, double[], int, int)} over a row major copy
+ * of the data matrix, in parallel for large rows.
+ * <p>
+ * The cache is safe for concurrent use. Lookups do not lock and return rows which are never modified after they
+ * are published. Rows are computed outside of any lock, thus concurrent misses on the same row may compute it
+ * more than once, but only one copy is stored.
  *
  * @author <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a> on 1/25/16.
  */
 public class KernelCache {
 
-    private final Cache cache;
+    /**
+     * Default memory budget of 100MB.
+     */
+    public static final long DEFAULT_MAX_BYTES = 100L << 20;
+
+    /**
+     * Kernel rows with at least this number of values are computed in parallel.
+     */
+    private static final int PARALLEL_ROW_SIZE = 4_096;
+    private static final int CHUNK_SIZE = 1_024;
+
     private final Kernel kernel;
+    private final double[] x;
+    private final int n;
+    private final int dim;
+    private final boolean floatStorage;
+    private final int capacity;
+
+    // stored rows, a row is replaced only under lock, but it is read without locking
+    private final AtomicReferenceArray<KernelRow> slots;
+    // slot for each kernel row, -1 if the row is not stored, read without locking and verified against the slot
+    private final int[] slotOf;
+    // clock reference bits, races on them affect only the quality of eviction
+    private final byte[] referenced;
+    private int used;
+    private int hand;
+
+    /**
+     * Builds a kernel cache with the default memory budget which stores values as doubles.
+     *
+     * @param x      data matrix with instances on rows
+     * @param kernel kernel function
+     */
+    public KernelCache(DArray<Double> x, Kernel kernel) {
+        this(x, kernel, DEFAULT_MAX_BYTES, false);
+    }
 
-    public KernelCache(DArray<Double> df, Kernel kernel) {
-        if (df.dim(0) <= 10_000) {
-            cache = new SolidCache(df.dim(0));
-        } else {
-            cache = new MapCache();
+    /**
+     * Builds a kernel cache.
+     * <p>
+     * The memory budget is used to compute the number of stored rows. At least two rows are stored,
+     * even if they do not fit in the budget.
+     *
+     * @param x            data matrix with instances on rows
+     * @param kernel       kernel function
+     * @param maxBytes     memory budget in bytes for kernel values
+     * @param floatStorage if true, values are stored with float precision
+     */
+    public KernelCache(DArray<Double> x, Kernel kernel, long maxBytes, boolean floatStorage) {
+        if (!x.isMatrix()) {
+            throw new IllegalArgumentException("Kernel cache requires a data matrix.");
+        }
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("Kernel cache memory budget must be positive.");
         }
         this.kernel = kernel;
+        this.n = x.dim(0);
+        this.dim = x.dim(1);
+        this.x = x.toDoubleArray(Order.C);
+        this.floatStorage = floatStorage;
+        long rowBytes = (long) Math.max(1, n) * (floatStorage ? Float.BYTES : Double.BYTES);
+        this.capacity = (int) Math.max(Math.min(2, n), Math.min(n, maxBytes / rowBytes));
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.slotOf = new int[n];
+        Arrays.fill(slotOf, -1);
+        this.referenced = new byte[capacity];
     }
 
-    public double cachedCompute(int row1, int row2, DArray<Double> r1, DArray<Double> r2) {
-        Double value = cache.retrieve(row1, row2);
-        if (value == null) {
-            value = kernel.compute(r1, r2);
-            cache.store(row1, row2, value);
-        }
-        return value;
+    /**
+     * @return number of instances, which is also the size of kernel rows
+     */
+    public int size() {
+        return n;
     }
 
-    public void clean() {
-        cache.clear();
+    /**
+     * @return maximum number of stored kernel rows
+     */
+    public int capacity() {
+        return capacity;
     }
 
-    private interface Cache {
-
-        void store(int row1, int row2, double value);
-
-        Double retrieve(int row1, int row2);
-
-        void clear();
+    /**
+     * @return kernel function
+     */
+    public Kernel kernel() {
+        return kernel;
     }
 
-    private static final class MapCache implements Cache {
-
-        final transient private Map<Long, Double> cache = new HashMap<>();
-
-        @Override
-        public void store(int row1, int row2, double value) {
-            long id = ((long) row1 << 32) | ((long) row2 & 0xffffffffL);
-            cache.put(id, value);
+    /**
+     * Returns a kernel value. If none of the rows {@code i} and {@code j} are stored, row {@code i}
+     * is computed and stored.
+     *
+     * @param i row index
+     * @param j column index
+     * @return kernel value for instances {@code i} and {@code j}
+     */
+    public double get(int i, int j) {
+        KernelRow row = lookup(i);
+        if (row != null) {
+            return row.get(j);
         }
-
-        @Override
-        public Double retrieve(int row1, int row2) {
-            return cache.get(((long) row1 << 32) | (row2 & 0xffffffffL));
-        }
-
-        @Override
-        public void clear() {
-            cache.clear();
+        row = lookup(j);
+        if (row != null) {
+            return row.get(i);
         }
+        return row(i).get(j);
     }
 
-    private static final class SolidCache implements Cache {
-        private final int n;
-        private boolean[] flag;
-        private double[] cache;
+    /**
+     * Returns a kernel row, computing and storing it if it is not already stored.
+     *
+     * @param i row index
+     * @return kernel row
+     */
+    public KernelRow row(int i) {
+        KernelRow row = lookup(i);
+        return row != null ? row : store(compute(i));
+    }
 
-        public SolidCache(int n) {
-            this.n = n;
-            flag = new boolean[n * n];
-            cache = new double[n * n];
+    /**
+     * Removes all stored rows.
+     */
+    public synchronized void clean() {
+        for (int slot = 0; slot < used; slot++) {
+            KernelRow row = slots.getAndSet(slot, null);
+            if (row != null) {
+                slotOf[row.index()] = -1;
+            }
+            referenced[slot] = 0;
         }
+        used = 0;
+        hand = 0;
+    }
 
-        @Override
-        public Double retrieve(int row1, int row2) {
-            if (cache == null) {
-                return null;
-            }
-            if (row1 > row2) {
-                return retrieve(row2, row1);
-            }
-            int p = row1 * n + row2;
-            if (flag[p]) {
-                return cache[p];
-            }
+    private KernelRow lookup(int i) {
+        int slot = slotOf[i];
+        if (slot < 0) {
+            return null;
+        }
+        KernelRow row = slots.get(slot);
+        if (row == null || row.index() != i) {
             return null;
         }
+        referenced[slot] = 1;
+        return row;
+    }
 
-        @Override
-        public void store(int row1, int row2, double value) {
-            if (cache == null) {
-                return;
+    private KernelRow compute(int i) {
+        double[] values = new double[n];
+        if (n < PARALLEL_ROW_SIZE) {
+            for (int j = 0; j < n; j++) {
+                values[j] = kernel.compute(x, i * dim, x, j * dim, dim);
             }
-            if (row1 > row2) {
-                store(row2, row1, value);
-                return;
-            }
-            int p = row1 * n + row2;
-            flag[p] = true;
-            cache[p] = value;
+        } else {
+            IntStream.range(0, (n + CHUNK_SIZE - 1) / CHUNK_SIZE).parallel().forEach(chunk -> {
+                int end = Math.min(n, (chunk + 1) * CHUNK_SIZE);
+                for (int j = chunk * CHUNK_SIZE; j < end; j++) {
+                    values[j] = kernel.compute(x, i * dim, x, j * dim, dim);
+                }
+            });
+        }
+        if (!floatStorage) {
+            return new KernelRow(i, values, null);
+        }
+        float[] floatValues = new float[n];
+        for (int j = 0; j < n; j++) {
+            floatValues[j] = (float) values[j];
         }
+        return new KernelRow(i, null, floatValues);
+    }
 
-        @Override
-        public void clear() {
-            flag = null;
-            cache = null;
+    private synchronized KernelRow store(KernelRow row) {
+        // another thread could have stored the same row in the meantime
+        KernelRow existing = lookup(row.index());
+        if (existing != null) {
+            return existing;
+        }
+        int slot;
+        if (used < capacity) {
+            slot = used++;
+        } else {
+            // clock eviction, gives a second chance to rows referenced since the last pass
+            while (referenced[hand] != 0) {
+                referenced[hand] = 0;
+                hand = (hand + 1) % capacity;
+            }
+            slot = hand;
+            hand = (hand + 1) % capacity;
+            slotOf[slots.get(slot).index()] = -1;
         }
+        slots.set(slot, row);
+        slotOf[row.index()] = slot;
+        referenced[slot] = 1;
+        return row;
     }
 }
@@ -0,0 +1,89 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.common.kernel.cache;
+
+import rapaio.darray.DArray;
+import rapaio.darray.DArrays;
+import rapaio.darray.Shape;
+
+/**
+ * Row of a kernel matrix stored in a {@link KernelCache}. Values are stored either as doubles or as floats,
+ * a row is never modified after it is created.
+ */
+public final class KernelRow {
+
+    private final int index;
+    private final double[] values;
+    private final float[] floatValues;
+
+    KernelRow(int index, double[] values, float[] floatValues) {
+        this.index = index;
+        this.values = values;
+        this.floatValues = floatValues;
+    }
+
+    /**
+     * @return index of the kernel row
+     */
+    public int index() {
+        return index;
+    }
+
+    /**
+     * @return number of values
+     */
+    public int size() {
+        return values != null ? values.length : floatValues.length;
+    }
+
+    /**
+     * @param j column index
+     * @return kernel value from the given column
+     */
+    public double get(int j) {
+        return values != null ? values[j] : floatValues[j];
+    }
+
+    /**
+     * Copies values into an array.
+     *
+     * @param out destination array, with length at least {@link #size()}
+     */
+    public void copyTo(double[] out) {
+        if (values != null) {
+            System.arraycopy(values, 0, out, 0, values.length);
+            return;
+        }
+        for (int j = 0; j < floatValues.length; j++) {
+            out[j] = floatValues[j];
+        }
+    }
+
+    /**
+     * @return new vector with a copy of the values
+     */
+    public DArray<Double> darray() {
+        double[] copy = new double[size()];
+        copyTo(copy);
+        return DArrays.stride(Shape.of(copy.length), copy);
+    }
+}
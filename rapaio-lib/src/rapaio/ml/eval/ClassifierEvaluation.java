@@ -25,7 +25,6 @@ import java.io.Serial;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import rapaio.core.param.ListParam;
 import rapaio.core.param.ParamSet;
@@ -39,8 +38,6 @@ import rapaio.ml.eval.split.Split;
 import rapaio.ml.eval.split.SplitStrategy;
 import rapaio.ml.eval.split.StratifiedKFold;
 import rapaio.ml.model.ClassifierModel;
-import rapaio.ml.model.ClassifierResult;
-import rapaio.util.parralel.ParallelStreamCollector;
 
 /**
  * Classifier evaluation tool.
@@ -97,10 +94,18 @@ public class ClassifierEvaluation extends ParamSet<ClassifierEvaluation> {
     public final ValueParam<SplitStrategy, ClassifierEvaluation> splitStrategy = new ValueParam<>(this, new KFold(10), "splitStrategy");
 
     /**
-     * Number of threads used for evaluation.
+     * Number of threads used for evaluation. This is the total budget of threads shared between the folds evaluated
+     * concurrently and the threads used internally by the models, thus the pool size of the fitted models is
+     * limited to the threads left for each fold. A negative value means all available cores except one.
      */
     public final ValueParam<Integer, ClassifierEvaluation> threads = new ValueParam<>(this, 1, "threads");
 
+    /**
+     * Executor used to evaluate folds concurrently. The same executor can be shared by multiple evaluations.
+     * If not specified, an executor is created for each run when folds are evaluated concurrently.
+     */
+    public final ValueParam<ExecutorService, ClassifierEvaluation> executor = new ValueParam<>(this, null, "executor");
+
     public final ValueParam<Long, ClassifierEvaluation> seed = new ValueParam<>(this, 0L, "random");
 
     /**
@@ -112,27 +117,20 @@ public class ClassifierEvaluation extends ParamSet<ClassifierEvaluation> {
     public ClassifierEvaluationResult run() {
 
         int th = Math.max(1, threads.get() < 0 ? Runtime.getRuntime().availableProcessors() - 1 : threads.get());
-        ExecutorService executorService = Executors.newWorkStealingPool(th);
-
         List<Split> splits = splitStrategy.get().generateSplits(data.get(), weights.get(), getRandom());
+        ThreadBudget budget = ThreadBudget.split(th, splits.size());
         ClassifierEvaluationResult result = new ClassifierEvaluationResult(this);
 
-        splits.stream().collect(ParallelStreamCollector.streamingOrdered(split -> {
-                    var m = model.get().newInstance();
-                    m.fit(split.trainDf(), targetName.get());
-                    var trainResult = m.predict(split.trainDf(), true, true);
-                    var testResult = m.predict(split.testDf(), true, true);
-                    return new Run(split, trainResult, testResult);
-                }, executorService, th))
-                .forEach(run -> result.appendRun(run.split, run.trainResult, run.testResult));
-        // shut down executor
-        executorService.shutdownNow();
+        // scores are computed as soon as each fold completes and predictions are discarded
+        budget.run(executor.get(), splits, split -> {
+            var m = model.get().newInstance();
+            m.poolSize.set(budget.modelPoolSize(m.poolSize.get()));
+            m.fit(split.trainDf(), targetName.get());
+            result.appendRun(split, m.predict(split.trainDf(), true, true), m.predict(split.testDf(), true, true));
+        });
         return result;
     }
 
-    private record Run(Split split, ClassifierResult trainResult, ClassifierResult testResult) {
-    }
-
     protected Random getRandom() {
         return (seed.get() == 0) ? new Random() : new Random(seed.get());
     }
@@ -27,11 +27,14 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.stream.IntStream;
 
 import rapaio.core.param.ParamSet;
 import rapaio.core.param.ValueParam;
 import rapaio.core.tools.DistanceMatrix;
+import rapaio.darray.DArray;
 import rapaio.data.Var;
+import rapaio.ml.common.distance.Distance;
 import rapaio.printer.Format;
 import rapaio.printer.Printable;
 import rapaio.printer.Printer;
@@ -63,6 +66,30 @@ public class ClusterSilhouette extends ParamSet<ClusterSilhouette> implements Pr
                 .similarity.set(similarity);
     }
 
+    /**
+     * Builds silhouette information from the rows of a matrix. The distance matrix is computed in parallel
+     * from a contiguous copy of the rows.
+     *
+     * @param assignment cluster assignment
+     * @param x          matrix with a row for each instance
+     * @param distance   distance function
+     * @return silhouette information
+     */
+    public static ClusterSilhouette from(Var assignment, DArray<Double> x, Distance distance) {
+        if (!x.isMatrix()) {
+            throw new IllegalArgumentException("Instances must be a matrix.");
+        }
+        DistanceMatrix dm = DistanceMatrix.empty(x.dim(0));
+        distance.pairwise(x, x, (start, block) -> {
+            for (int i = 0; i < block.dim(0); i++) {
+                for (int j = 0; j < start + i; j++) {
+                    dm.set(start + i, j, block.getDouble(i, j));
+                }
+            }
+        });
+        return from(assignment, dm, false);
+    }
+
     /**
      * Cluster assignment
      */
@@ -160,8 +187,12 @@ public class ClusterSilhouette extends ParamSet<ClusterSilhouette> implements Pr
 
         Arrays.fill(b, Double.NaN);
 
-
-        for (int row = 0; row < rows; row++) {
+        int[] clusterOf = new int[rows];
+        for (int i = 0; i < rows; i++) {
+            clusterOf[i] = getCluster(i);
+        }
+        DistanceMatrix dm = distanceMatrix.get();
+        IntStream.range(0, rows).parallel().forEach(row -> {
             double[] sum = new double[clusters];
             int[] count = new int[clusters];
 
@@ -169,12 +200,12 @@ public class ClusterSilhouette extends ParamSet<ClusterSilhouette> implements Pr
                 if (i == row) {
                     continue;
                 }
-                int cluster = getCluster(i);
+                int cluster = clusterOf[i];
                 count[cluster]++;
-                sum[cluster] += distanceMatrix.get().get(row, i);
+                sum[cluster] += dm.get(row, i);
             }
 
-            int cluster = getCluster(row);
+            int cluster = clusterOf[row];
             a[row] = count[cluster] == 0 ? 0 : sum[cluster] / count[cluster];
             for (int i = 0; i < clusters; i++) {
                 if (i == cluster || count[i] == 0) {
@@ -197,7 +228,7 @@ public class ClusterSilhouette extends ParamSet<ClusterSilhouette> implements Pr
                     }
                 }
             }
-        }
+        });
 
         // compute individual silhouettes
 
@@ -22,16 +22,9 @@
 package rapaio.ml.eval;
 
 import java.io.Serial;
-import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Random;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
 
 import rapaio.core.param.ListParam;
 import rapaio.core.param.ParamSet;
@@ -43,7 +36,6 @@ import rapaio.ml.eval.split.KFold;
 import rapaio.ml.eval.split.Split;
 import rapaio.ml.eval.split.SplitStrategy;
 import rapaio.ml.model.RegressionModel;
-import rapaio.ml.model.RegressionResult;
 
 /**
  * @author <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a> on 8/6/19.
@@ -83,11 +75,19 @@ public class RegressionEval extends ParamSet<RegressionEval> {
     public final ValueParam<SplitStrategy, RegressionEval> splitStrategy = new ValueParam<>(this, new KFold(10), "splitStrategy");
 
     /**
-     * Number of threads used at evaluation
+     * Number of threads used at evaluation. This is the total budget of threads shared between the folds evaluated
+     * concurrently and the threads used internally by the models, thus the pool size of the fitted models is
+     * limited to the threads left for each fold. A negative value means all available cores except one.
      */
     public final ValueParam<Integer, RegressionEval> threads = new ValueParam<>(this,
             Runtime.getRuntime().availableProcessors() - 1, "threads");
 
+    /**
+     * Executor used to evaluate folds concurrently. The same executor can be shared by multiple evaluations.
+     * If not specified, an executor is created for each run when folds are evaluated concurrently.
+     */
+    public final ValueParam<ExecutorService, RegressionEval> executor = new ValueParam<>(this, null, "executor");
+
     /**
      * Metrics used at evaluation.
      */
@@ -104,78 +104,21 @@ public class RegressionEval extends ParamSet<RegressionEval> {
     }
 
     public RegressionEvaluationResult run() {
-        List<Task> tasks = new LinkedList<>();
-
-        // create features for parallel execution
-
+        int th = Math.max(1, threads.get() < 0 ? Runtime.getRuntime().availableProcessors() - 1 : threads.get());
         List<Split> splits = splitStrategy.get().generateSplits(df.get(), weights.get(), getRandom());
-
-        for (Split split : splits) {
-            tasks.add(new Task(model.get(), targetName.get(), split));
-        }
-
+        ThreadBudget budget = ThreadBudget.split(th, splits.size());
         RegressionEvaluationResult result = new RegressionEvaluationResult(this);
 
-
-        ExecutorService pool = Executors.newFixedThreadPool(threads.get());
-        try {
-            List<Future<Run>> futures = pool.invokeAll(tasks);
-
-            // collect results
-
-            while (!futures.isEmpty()) {
-                Iterator<Future<RegressionEval.Run>> iterator = futures.iterator();
-                while (iterator.hasNext()) {
-                    Future<RegressionEval.Run> future = iterator.next();
-                    if (future.isDone()) {
-                        try {
-                            var run = future.get();
-                            result.appendRun(run.split(), run.trainResult(), run.testResult());
-                            iterator.remove();
-                        } catch (InterruptedException | ExecutionException e) {
-                            // do nothing
-                            iterator.remove();
-                        }
-                    }
-                }
-            }
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        } finally {
-            shutdownAndAwaitTermination(pool);
-        }
-
-        shutdownAndAwaitTermination(pool);
-
+        // scores are computed as soon as each fold completes and predictions are discarded
+        budget.run(executor.get(), splits, split -> {
+            var m = model.get().newInstance();
+            m.poolSize.set(budget.modelPoolSize(m.poolSize.get()));
+            m.fit(split.trainDf(), targetName.get());
+            result.appendRun(split, m.predict(split.trainDf()), m.predict(split.testDf()));
+        });
         return result;
     }
 
-    void shutdownAndAwaitTermination(ExecutorService executorService) {
-        executorService.shutdown();
-        try {
-            if (!executorService.awaitTermination(100, TimeUnit.MILLISECONDS)) {
-                executorService.shutdownNow();
-            }
-        } catch (InterruptedException e) {
-            executorService.shutdownNow();
-        }
-    }
-
-    private record Run(Split split, RegressionResult trainResult, RegressionResult testResult) {
-    }
-
-    private record Task(RegressionModel<?, ?, ?> model, String targetName, Split split) implements Callable<RegressionEval.Run> {
-
-        @Override
-        public Run call() {
-            var m = model.newInstance();
-            m.fit(split.trainDf(), targetName);
-            var trainResult = m.predict(split.trainDf());
-            var testResult = m.predict(split.testDf());
-            return new RegressionEval.Run(split, trainResult, testResult);
-        }
-    }
-
     protected Random getRandom() {
         return seed.get() == 0 ? new Random() : new Random(seed.get());
     }
@@ -112,7 +112,7 @@ public final class RegressionEvaluationResult implements Printable {
             testScores.setInt(lastRow, FIELD_FOLD, split.fold());
             for (RegressionMetric metric : eval.metrics.get()) {
                 testScores.setDouble(lastRow, metric.getName(),
-                        metric.compute(split.trainDf().rvar(eval.targetName.get()), trainResult).value());
+                        metric.compute(split.testDf().rvar(eval.targetName.get()), testResult).value());
             }
 
             testScores = testScores.fapply(RefSort.by(
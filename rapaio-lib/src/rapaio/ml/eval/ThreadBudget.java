@@ -0,0 +1,120 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.eval;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Budget of threads shared between evaluation tasks which run concurrently, like the folds of a cross validation,
+ * and the threads used internally by the models fitted in each task. The number of concurrent tasks times the number
+ * of threads of each model does not exceed the budget, thus cores are not oversubscribed.
+ * <p>
+ * Tasks run on an executor which can be shared between multiple evaluations. At most {@link #concurrency()} tasks
+ * run at the same time, each worker taking the next task from a common queue as soon as it finishes the previous
+ * one. If the concurrency is one, the tasks run on the calling thread.
+ *
+ * @param concurrency  number of tasks which run concurrently
+ * @param modelThreads number of threads available to each model
+ */
+public record ThreadBudget(int concurrency, int modelThreads) {
+
+    /**
+     * Splits a budget of threads between a number of tasks and the models fitted by them. Tasks get as many threads
+     * as possible and the remaining threads are shared by models.
+     *
+     * @param threads total number of threads
+     * @param tasks   number of tasks
+     * @return thread budget
+     */
+    public static ThreadBudget split(int threads, int tasks) {
+        int concurrency = Math.max(1, Math.min(threads, tasks));
+        return new ThreadBudget(concurrency, Math.max(1, threads / concurrency));
+    }
+
+    /**
+     * Limits the pool size of a model to the threads available to each model. The pool size follows the convention
+     * of models, a negative value meaning all available cores, while zero and positive values are the number
+     * of threads, with minimum one. Models configured to use fewer threads keep their setting.
+     *
+     * @param poolSize pool size of a model
+     * @return pool size which fits in the budget
+     */
+    public int modelPoolSize(int poolSize) {
+        int requested = poolSize < 0 ? Math.max(Runtime.getRuntime().availableProcessors() - 1, 1) : Math.max(1, poolSize);
+        return Math.min(requested, modelThreads);
+    }
+
+    /**
+     * Runs an action for all tasks. If no executor is given and more than one task should run at the same time,
+     * an executor is created for this call and shut down after all the tasks complete.
+     *
+     * @param executor executor used to run tasks, or null
+     * @param tasks    list of tasks
+     * @param action   action executed for each task
+     * @param <T>      type of tasks
+     */
+    public <T> void run(ExecutorService executor, List<T> tasks, Consumer<T> action) {
+        if (concurrency <= 1 || tasks.size() <= 1) {
+            tasks.forEach(action);
+            return;
+        }
+        int workers = Math.min(concurrency, tasks.size());
+        ExecutorService pool = executor == null ? Executors.newWorkStealingPool(workers) : executor;
+        AtomicInteger next = new AtomicInteger();
+        CompletableFuture<?>[] futures = new CompletableFuture[workers];
+        for (int i = 0; i < workers; i++) {
+            futures[i] = CompletableFuture.runAsync(() -> {
+                int pos;
+                while ((pos = next.getAndIncrement()) < tasks.size()) {
+                    try {
+                        action.accept(tasks.get(pos));
+                    } catch (RuntimeException | Error e) {
+                        // remaining tasks are abandoned
+                        next.set(tasks.size());
+                        throw e;
+                    }
+                }
+            }, pool);
+        }
+        try {
+            CompletableFuture.allOf(futures).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            if (e.getCause() instanceof Error err) {
+                throw err;
+            }
+            throw e;
+        } finally {
+            if (executor == null) {
+                pool.shutdownNow();
+            }
+        }
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.eval.metric;
+
+import java.io.Serial;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import rapaio.darray.DArray;
+import rapaio.darray.DArrays;
+import rapaio.darray.Shape;
+import rapaio.data.Var;
+import rapaio.data.VarNominal;
+import rapaio.data.VarType;
+import rapaio.ml.model.ClassifierResult;
+import rapaio.printer.Format;
+
+/**
+ * Streaming confusion matrix. The levels are fixed when the metric is created and the matrix contains
+ * the number of instances for each pair of actual and predicted levels. Pairs with missing values are ignored.
+ * Labels which are not levels of the metric are not accepted.
+ */
+public final class StreamingConfusion extends StreamingMetric<StreamingConfusion> {
+
+    public static StreamingConfusion newMetric(String... levels) {
+        return new StreamingConfusion(List.of(levels));
+    }
+
+    public static StreamingConfusion newMetric(List<String> levels) {
+        return new StreamingConfusion(List.copyOf(levels));
+    }
+
+    @Serial
+    private static final long serialVersionUID = -5196630410214187453L;
+
+    private final List<String> levels;
+    private final Map<String, Integer> index = new HashMap<>();
+    private final int k;
+    // counts in row major order, actual levels on rows and predicted levels on columns
+    private final long[] counts;
+
+    private StreamingConfusion(List<String> levels) {
+        super("Confusion");
+        if (levels.isEmpty()) {
+            throw new IllegalArgumentException("Confusion matrix requires at least one level.");
+        }
+        this.levels = levels;
+        this.k = levels.size();
+        this.counts = new long[k * k];
+        for (int i = 0; i < k; i++) {
+            if (index.put(levels.get(i), i) != null) {
+                throw new IllegalArgumentException("Duplicate level: " + levels.get(i) + ".");
+            }
+        }
+    }
+
+    @Override
+    public StreamingConfusion newInstance() {
+        return new StreamingConfusion(levels);
+    }
+
+    public List<String> levels() {
+        return levels;
+    }
+
+    public synchronized StreamingConfusion update(String actual, String predicted) {
+        if (VarNominal.MISSING_VALUE.equals(actual) || VarNominal.MISSING_VALUE.equals(predicted)) {
+            return this;
+        }
+        counts[levelIndex(actual) * k + levelIndex(predicted)]++;
+        return this;
+    }
+
+    public StreamingConfusion update(Var actual, ClassifierResult result) {
+        return update(actual, result.firstClasses());
+    }
+
+    public StreamingConfusion update(Var actual, Var predicted) {
+        if (actual.size() != predicted.size()) {
+            throw new IllegalArgumentException("Actual and prediction variables does not have the same size.");
+        }
+        int[] actualLevels = levelIndexes(actual);
+        int[] predictedLevels = levelIndexes(predicted);
+        long[] batch = new long[counts.length];
+        for (int i = 0; i < actual.size(); i++) {
+            if (actual.isMissing(i) || predicted.isMissing(i)) {
+                continue;
+            }
+            int a = actualLevels != null ? actualLevels[actual.getInt(i)] : levelIndex(actual.getLabel(i));
+            int p = predictedLevels != null ? predictedLevels[predicted.getInt(i)] : levelIndex(predicted.getLabel(i));
+            if (a < 0 || p < 0) {
+                throw new IllegalArgumentException("Unknown label: " + (a < 0 ? actual.getLabel(i) : predicted.getLabel(i)) + ".");
+            }
+            batch[a * k + p]++;
+        }
+        synchronized (this) {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += batch[i];
+            }
+        }
+        return this;
+    }
+
+    private int levelIndex(String label) {
+        Integer i = index.get(label);
+        if (i == null) {
+            throw new IllegalArgumentException("Unknown label: " + label + ".");
+        }
+        return i;
+    }
+
+    /**
+     * For nominal variables the levels of the variable are mapped once for the whole batch,
+     * otherwise the labels are mapped for each row.
+     */
+    private int[] levelIndexes(Var var) {
+        if (var.type() != VarType.NOMINAL) {
+            return null;
+        }
+        return var.levels().stream().mapToInt(label -> index.getOrDefault(label, -1)).toArray();
+    }
+
+    @Override
+    protected void add(StreamingConfusion other) {
+        if (!levels.equals(other.levels)) {
+            throw new IllegalArgumentException("Cannot merge confusion matrices with different levels.");
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+    }
+
+    /**
+     * @return number of instances with given actual and predicted labels
+     */
+    public synchronized long count(String actual, String predicted) {
+        return counts[levelIndex(actual) * k + levelIndex(predicted)];
+    }
+
+    /**
+     * @return confusion matrix with actual levels on rows and predicted levels on columns
+     */
+    public synchronized DArray<Double> frequency() {
+        DArray<Double> m = DArrays.zeros(Shape.of(k, k));
+        for (int i = 0; i < k; i++) {
+            for (int j = 0; j < k; j++) {
+                m.setDouble(counts[i * k + j], i, j);
+            }
+        }
+        return m;
+    }
+
+    /**
+     * @return number of accumulated pairs of actual and predicted values
+     */
+    public synchronized long completeCases() {
+        long sum = 0;
+        for (long count : counts) {
+            sum += count;
+        }
+        return sum;
+    }
+
+    public synchronized double accuracy() {
+        long complete = completeCases();
+        if (complete == 0) {
+            return 0;
+        }
+        long accepted = 0;
+        for (int i = 0; i < k; i++) {
+            accepted += counts[i * k + i];
+        }
+        return accepted / (double) complete;
+    }
+
+    /**
+     * @return fraction of instances predicted with given label which have the same actual label
+     */
+    public synchronized double precision(String label) {
+        int c = levelIndex(label);
+        long predicted = 0;
+        for (int i = 0; i < k; i++) {
+            predicted += counts[i * k + c];
+        }
+        return counts[c * k + c] / (double) predicted;
+    }
+
+    /**
+     * @return fraction of instances with given actual label which are predicted with the same label
+     */
+    public synchronized double recall(String label) {
+        int c = levelIndex(label);
+        long actual = 0;
+        for (int j = 0; j < k; j++) {
+            actual += counts[c * k + j];
+        }
+        return counts[c * k + c] / (double) actual;
+    }
+
+    public synchronized double f1(String label) {
+        double precision = precision(label);
+        double recall = recall(label);
+        return 2 * precision * recall / (precision + recall);
+    }
+
+    @Override
+    public String toString() {
+        return "StreamingConfusion{levels=" + levels + ",completeCases=" + completeCases()
+                + ",accuracy=" + Format.floatFlex(accuracy()) + "}";
+    }
+}
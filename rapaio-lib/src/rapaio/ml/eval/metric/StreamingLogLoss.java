@@ -0,0 +1,150 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.eval.metric;
+
+import java.io.Serial;
+
+import rapaio.data.Frame;
+import rapaio.data.Var;
+import rapaio.data.VarType;
+import rapaio.ml.model.ClassifierResult;
+import rapaio.printer.Format;
+
+/**
+ * Streaming version of {@link LogLoss}, the mean of negative logarithms of the probabilities predicted
+ * for the actual classes. Probabilities are clipped to {@code [eps, 1-eps]}. Rows with missing actual
+ * values or missing probabilities are ignored.
+ */
+public final class StreamingLogLoss extends StreamingMetric<StreamingLogLoss> {
+
+    public static StreamingLogLoss newMetric() {
+        return new StreamingLogLoss(1e-15);
+    }
+
+    public static StreamingLogLoss newMetric(double eps) {
+        return new StreamingLogLoss(eps);
+    }
+
+    @Serial
+    private static final long serialVersionUID = 2918441653078305127L;
+
+    private final double eps;
+    private long count;
+    private double sum;
+
+    private StreamingLogLoss(double eps) {
+        super("LogLoss");
+        this.eps = eps;
+    }
+
+    @Override
+    public StreamingLogLoss newInstance() {
+        return new StreamingLogLoss(eps);
+    }
+
+    /**
+     * Accumulates the probability predicted for the actual class of an instance. Missing probabilities are ignored.
+     */
+    public synchronized StreamingLogLoss update(double probability) {
+        if (!Double.isNaN(probability)) {
+            sum -= Math.log(Math.max(eps, Math.min(1 - eps, probability)));
+            count++;
+        }
+        return this;
+    }
+
+    public StreamingLogLoss update(Var actual, ClassifierResult result) {
+        return update(actual, result.firstDensity());
+    }
+
+    /**
+     * Accumulates a batch of predictions.
+     *
+     * @param actual  actual classes
+     * @param density predicted probabilities, with a variable for each label
+     * @return this metric
+     */
+    public StreamingLogLoss update(Var actual, Frame density) {
+        if (actual.size() != density.rowCount()) {
+            throw new IllegalArgumentException("Actual values and densities does not have the same number of rows.");
+        }
+        // for nominal variables the columns of labels are resolved once for the whole batch
+        int[] columns = null;
+        if (actual.type() == VarType.NOMINAL) {
+            columns = actual.levels().stream().mapToInt(density::varIndex).toArray();
+        }
+        long batchCount = 0;
+        double batchSum = 0;
+        for (int i = 0; i < actual.size(); i++) {
+            if (actual.isMissing(i)) {
+                continue;
+            }
+            int index = columns != null ? columns[actual.getInt(i)] : density.varIndex(actual.getLabel(i));
+            if (index < 0) {
+                throw new IllegalArgumentException("Densities does not contain label: " + actual.getLabel(i) + ".");
+            }
+            double probability = density.getDouble(i, index);
+            if (Double.isNaN(probability)) {
+                continue;
+            }
+            batchSum -= Math.log(Math.max(eps, Math.min(1 - eps, probability)));
+            batchCount++;
+        }
+        synchronized (this) {
+            count += batchCount;
+            sum += batchSum;
+        }
+        return this;
+    }
+
+    @Override
+    protected void add(StreamingLogLoss other) {
+        if (eps != other.eps) {
+            throw new IllegalArgumentException("Cannot merge log loss metrics with different eps.");
+        }
+        count += other.count;
+        sum += other.sum;
+    }
+
+    public synchronized long count() {
+        return count;
+    }
+
+    /**
+     * @return sum of log losses of all instances
+     */
+    public synchronized double sum() {
+        return sum;
+    }
+
+    /**
+     * @return mean log loss
+     */
+    public synchronized double logLoss() {
+        return sum / count;
+    }
+
+    @Override
+    public String toString() {
+        return "StreamingLogLoss{count=" + count() + ",logLoss=" + Format.floatFlex(logLoss()) + "}";
+    }
+}
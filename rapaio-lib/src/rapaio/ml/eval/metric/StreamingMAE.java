@@ -0,0 +1,105 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.eval.metric;
+
+import java.io.Serial;
+
+import rapaio.data.Var;
+import rapaio.ml.model.RegressionResult;
+import rapaio.printer.Format;
+
+/**
+ * Streaming version of {@link MAE}, the mean of absolute values of residuals. Pairs with missing values
+ * are ignored.
+ */
+public final class StreamingMAE extends StreamingMetric<StreamingMAE> {
+
+    public static StreamingMAE newMetric() {
+        return new StreamingMAE();
+    }
+
+    @Serial
+    private static final long serialVersionUID = -7725461309581446217L;
+
+    private long count;
+    private double sum;
+
+    private StreamingMAE() {
+        super("MAE");
+    }
+
+    @Override
+    public StreamingMAE newInstance() {
+        return new StreamingMAE();
+    }
+
+    public synchronized StreamingMAE update(double actual, double prediction) {
+        if (!Double.isNaN(actual) && !Double.isNaN(prediction)) {
+            sum += Math.abs(actual - prediction);
+            count++;
+        }
+        return this;
+    }
+
+    public StreamingMAE update(Var actual, RegressionResult result) {
+        return update(actual, result.firstPrediction());
+    }
+
+    public StreamingMAE update(Var actual, Var prediction) {
+        if (actual.size() != prediction.size()) {
+            throw new IllegalArgumentException("Actual and prediction variables does not have the same size.");
+        }
+        long batchCount = 0;
+        double batchSum = 0;
+        for (int i = 0; i < actual.size(); i++) {
+            if (actual.isMissing(i) || prediction.isMissing(i)) {
+                continue;
+            }
+            batchSum += Math.abs(actual.getDouble(i) - prediction.getDouble(i));
+            batchCount++;
+        }
+        synchronized (this) {
+            count += batchCount;
+            sum += batchSum;
+        }
+        return this;
+    }
+
+    @Override
+    protected void add(StreamingMAE other) {
+        count += other.count;
+        sum += other.sum;
+    }
+
+    public synchronized long count() {
+        return count;
+    }
+
+    public synchronized double mae() {
+        return sum / count;
+    }
+
+    @Override
+    public String toString() {
+        return "StreamingMAE{count=" + count() + ",mae=" + Format.floatFlex(mae()) + "}";
+    }
+}
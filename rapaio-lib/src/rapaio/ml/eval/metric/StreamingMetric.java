@@ -0,0 +1,90 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.eval.metric;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * Metric which accumulates statistics from batches of predictions, without keeping the predictions. The state of
+ * a streaming metric has a fixed size, thus it can be used to monitor an unbounded stream of predictions.
+ * <p>
+ * Two metrics of the same kind can be merged, the result being the same as if all batches were accumulated
+ * into a single metric. Batches can be accumulated in parallel in separate metrics created with
+ * {@link #newInstance()} which are merged afterward, for example in the reduce step of a parallel stream.
+ * Metrics are also thread safe, updates and merges being synchronized, thus a single metric can be shared
+ * between threads which update it with large batches.
+ *
+ * @param <M> type of the streaming metric
+ */
+public abstract class StreamingMetric<M extends StreamingMetric<M>> implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = -2415739213655398617L;
+
+    private final String name;
+
+    protected StreamingMetric(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return a new metric with the same settings and no accumulated statistics
+     */
+    public abstract M newInstance();
+
+    /**
+     * Adds the statistics accumulated by another metric to this metric. The other metric is not modified.
+     *
+     * @param other metric with the same settings
+     * @return this metric
+     */
+    public final M merge(M other) {
+        if (other == this) {
+            throw new IllegalArgumentException("Cannot merge a metric with itself.");
+        }
+        // statistics are copied first, thus the two metrics are never locked at the same time
+        M copy = newInstance();
+        synchronized (other) {
+            copy.add(other);
+        }
+        synchronized (this) {
+            add(copy);
+        }
+        return self();
+    }
+
+    /**
+     * Adds the statistics of another metric, without synchronization. Implementations validate that the other metric
+     * has the same settings.
+     */
+    protected abstract void add(M other);
+
+    @SuppressWarnings("unchecked")
+    private M self() {
+        return (M) this;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.eval.metric;
+
+import java.io.Serial;
+
+import rapaio.data.Var;
+import rapaio.ml.model.RegressionResult;
+import rapaio.printer.Format;
+
+/**
+ * Streaming version of {@link RMSE}, the root of the mean of squared residuals. Pairs with missing values
+ * are ignored.
+ */
+public final class StreamingRMSE extends StreamingMetric<StreamingRMSE> {
+
+    public static StreamingRMSE newMetric() {
+        return new StreamingRMSE();
+    }
+
+    @Serial
+    private static final long serialVersionUID = 6003178519407371283L;
+
+    private long count;
+    private double sum;
+
+    private StreamingRMSE() {
+        super("RMSE");
+    }
+
+    @Override
+    public StreamingRMSE newInstance() {
+        return new StreamingRMSE();
+    }
+
+    public synchronized StreamingRMSE update(double actual, double prediction) {
+        if (!Double.isNaN(actual) && !Double.isNaN(prediction)) {
+            double residual = actual - prediction;
+            sum += residual * residual;
+            count++;
+        }
+        return this;
+    }
+
+    public StreamingRMSE update(Var actual, RegressionResult result) {
+        return update(actual, result.firstPrediction());
+    }
+
+    public StreamingRMSE update(Var actual, Var prediction) {
+        if (actual.size() != prediction.size()) {
+            throw new IllegalArgumentException("Actual and prediction variables does not have the same size.");
+        }
+        long batchCount = 0;
+        double batchSum = 0;
+        for (int i = 0; i < actual.size(); i++) {
+            if (actual.isMissing(i) || prediction.isMissing(i)) {
+                continue;
+            }
+            double residual = actual.getDouble(i) - prediction.getDouble(i);
+            batchSum += residual * residual;
+            batchCount++;
+        }
+        synchronized (this) {
+            count += batchCount;
+            sum += batchSum;
+        }
+        return this;
+    }
+
+    @Override
+    protected void add(StreamingRMSE other) {
+        count += other.count;
+        sum += other.sum;
+    }
+
+    public synchronized long count() {
+        return count;
+    }
+
+    public synchronized double mse() {
+        return sum / count;
+    }
+
+    public synchronized double rmse() {
+        return Math.sqrt(sum / count);
+    }
+
+    @Override
+    public String toString() {
+        return "StreamingRMSE{count=" + count() + ",rmse=" + Format.floatFlex(rmse()) + "}";
+    }
+}
@@ -0,0 +1,263 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.eval.metric;
+
+import java.io.Serial;
+
+import rapaio.data.Frame;
+import rapaio.data.SolidFrame;
+import rapaio.data.Var;
+import rapaio.ml.model.ClassifierResult;
+import rapaio.printer.Format;
+
+/**
+ * Streaming version of {@link ROC} which also computes the area under the precision recall curve.
+ * <p>
+ * Scores are accumulated in a fixed number of equal width bins over a range of values, by default {@code [0,1]},
+ * with separate counts for positive and negative instances. Scores outside the range are accumulated in the first
+ * or last bin. The curves have a point for each bin, all the scores from a bin being handled as ties, thus the
+ * results are approximations of the exact values, the error decreasing with the width of bins. If all scores
+ * fall into distinct bins the areas are exact.
+ * <p>
+ * Instances with missing score or actual value are ignored.
+ */
+public final class StreamingROC extends StreamingMetric<StreamingROC> {
+
+    public static final String precision = "precision";
+
+    /**
+     * Builds a metric with 1000 bins over {@code [0,1]}, suitable for predicted probabilities.
+     *
+     * @param label label of the positive class
+     */
+    public static StreamingROC newMetric(String label) {
+        return new StreamingROC(label, 1000, 0, 1);
+    }
+
+    public static StreamingROC newMetric(String label, int bins) {
+        return new StreamingROC(label, bins, 0, 1);
+    }
+
+    public static StreamingROC newMetric(String label, int bins, double min, double max) {
+        return new StreamingROC(label, bins, min, max);
+    }
+
+    @Serial
+    private static final long serialVersionUID = 4179863508822137036L;
+
+    private final String label;
+    private final int bins;
+    private final double min;
+    private final double max;
+    private final long[] positives;
+    private final long[] negatives;
+
+    private StreamingROC(String label, int bins, double min, double max) {
+        super("ROC");
+        if (bins < 1) {
+            throw new IllegalArgumentException("Number of bins must be positive.");
+        }
+        if (!(min < max) || Double.isInfinite(min) || Double.isInfinite(max)) {
+            throw new IllegalArgumentException("Invalid range of scores [%s,%s].".formatted(min, max));
+        }
+        this.label = label;
+        this.bins = bins;
+        this.min = min;
+        this.max = max;
+        this.positives = new long[bins];
+        this.negatives = new long[bins];
+    }
+
+    @Override
+    public StreamingROC newInstance() {
+        return new StreamingROC(label, bins, min, max);
+    }
+
+    public String label() {
+        return label;
+    }
+
+    private int bin(double score) {
+        int bin = (int) ((score - min) / (max - min) * bins);
+        return Math.max(0, Math.min(bins - 1, bin));
+    }
+
+    public synchronized StreamingROC update(double score, boolean positive) {
+        if (!Double.isNaN(score)) {
+            (positive ? positives : negatives)[bin(score)]++;
+        }
+        return this;
+    }
+
+    /**
+     * Accumulates a batch of predictions, the scores being the probabilities predicted for the positive label.
+     */
+    public StreamingROC update(Var actual, ClassifierResult result) {
+        Frame density = result.firstDensity();
+        if (density.varIndex(label) < 0) {
+            throw new IllegalArgumentException("Densities does not contain label: " + label + ".");
+        }
+        return update(actual, density.rvar(label));
+    }
+
+    /**
+     * Accumulates a batch of scores. Instances are positive if the actual label is the label of the metric.
+     *
+     * @param actual actual classes
+     * @param score  scores, larger values meaning more likely positive
+     * @return this metric
+     */
+    public StreamingROC update(Var actual, Var score) {
+        if (actual.size() != score.size()) {
+            throw new IllegalArgumentException("Actual and score variables does not have the same size.");
+        }
+        long[] batchPositives = new long[bins];
+        long[] batchNegatives = new long[bins];
+        for (int i = 0; i < actual.size(); i++) {
+            if (actual.isMissing(i) || score.isMissing(i)) {
+                continue;
+            }
+            int bin = bin(score.getDouble(i));
+            if (label.equals(actual.getLabel(i))) {
+                batchPositives[bin]++;
+            } else {
+                batchNegatives[bin]++;
+            }
+        }
+        synchronized (this) {
+            for (int i = 0; i < bins; i++) {
+                positives[i] += batchPositives[i];
+                negatives[i] += batchNegatives[i];
+            }
+        }
+        return this;
+    }
+
+    @Override
+    protected void add(StreamingROC other) {
+        if (!label.equals(other.label) || bins != other.bins || min != other.min || max != other.max) {
+            throw new IllegalArgumentException("Cannot merge ROC metrics with different labels or bins.");
+        }
+        for (int i = 0; i < bins; i++) {
+            positives[i] += other.positives[i];
+            negatives[i] += other.negatives[i];
+        }
+    }
+
+    public synchronized long count() {
+        long count = 0;
+        for (int i = 0; i < bins; i++) {
+            count += positives[i] + negatives[i];
+        }
+        return count;
+    }
+
+    /**
+     * @return area under the ROC curve, NaN if there are no positive or no negative instances
+     */
+    public synchronized double auc() {
+        double p = 0;
+        double n = 0;
+        for (int i = 0; i < bins; i++) {
+            p += positives[i];
+            n += negatives[i];
+        }
+        double auc = 0;
+        double tp = 0;
+        for (int i = bins - 1; i >= 0; i--) {
+            // trapezoid, since the scores from a bin are ties
+            auc += negatives[i] * (2 * tp + positives[i]) / 2.;
+            tp += positives[i];
+        }
+        return auc / (p * n);
+    }
+
+    /**
+     * Computes the area under the precision recall curve as the average precision, the sum of precisions at each
+     * threshold weighted by the increase of recall.
+     *
+     * @return area under the precision recall curve, NaN if there are no positive instances
+     */
+    public synchronized double prAuc() {
+        double p = 0;
+        for (int i = 0; i < bins; i++) {
+            p += positives[i];
+        }
+        if (p == 0) {
+            return Double.NaN;
+        }
+        double ap = 0;
+        double tp = 0;
+        double fp = 0;
+        for (int i = bins - 1; i >= 0; i--) {
+            tp += positives[i];
+            fp += negatives[i];
+            if (positives[i] > 0) {
+                ap += positives[i] / p * tp / (tp + fp);
+            }
+        }
+        return ap;
+    }
+
+    /**
+     * Builds the curves with a point for each non-empty bin, in the decreasing order of thresholds. The threshold
+     * of a point is the lower bound of its bin, all the instances with scores in that bin or above being predicted
+     * positive.
+     *
+     * @return frame with variables {@link ROC#threshold}, {@link ROC#fpr}, {@link ROC#tpr} and {@link #precision}
+     */
+    public synchronized Frame data() {
+        double p = 0;
+        double n = 0;
+        int len = 0;
+        for (int i = 0; i < bins; i++) {
+            p += positives[i];
+            n += negatives[i];
+            if (positives[i] + negatives[i] > 0) {
+                len++;
+            }
+        }
+        Frame data = SolidFrame.matrix(len, ROC.threshold, ROC.fpr, ROC.tpr, precision);
+        double tp = 0;
+        double fp = 0;
+        int pos = 0;
+        for (int i = bins - 1; i >= 0; i--) {
+            if (positives[i] + negatives[i] == 0) {
+                continue;
+            }
+            tp += positives[i];
+            fp += negatives[i];
+            data.setDouble(pos, ROC.threshold, i == 0 ? Double.NEGATIVE_INFINITY : min + (max - min) * i / bins);
+            data.setDouble(pos, ROC.fpr, fp / n);
+            data.setDouble(pos, ROC.tpr, tp / p);
+            data.setDouble(pos, precision, tp / (tp + fp));
+            pos++;
+        }
+        return data;
+    }
+
+    @Override
+    public String toString() {
+        return "StreamingROC{label=" + label + ",bins=" + bins + ",count=" + count()
+                + ",auc=" + Format.floatFlex(auc()) + ",prAuc=" + Format.floatFlex(prAuc()) + "}";
+    }
+}
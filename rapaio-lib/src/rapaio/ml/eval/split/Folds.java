@@ -0,0 +1,85 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.eval.split;
+
+import java.util.Arrays;
+import java.util.List;
+
+import rapaio.data.Frame;
+import rapaio.data.Mapping;
+import rapaio.data.Var;
+
+/**
+ * Builds the splits of a round of k-fold cross validation as mapped views of the data set.
+ * <p>
+ * Rows are arranged in a single permutation where the rows of each fold occupy a contiguous range of positions,
+ * in increasing order. The test data set of a fold is a mapped view over the range of that fold, thus all test
+ * data sets of a round share the same array. The train data set of a fold is a mapped view over all the other rows,
+ * kept in increasing order since some models depend on the order of instances, built in linear time from the
+ * fold of each row.
+ */
+final class Folds {
+
+    private Folds() {
+    }
+
+    /**
+     * Adds the splits of a round.
+     *
+     * @param splits  list where splits are added
+     * @param round   round number
+     * @param folds   number of folds
+     * @param order   rows in the order they are distributed, the row at position {@code p} belongs to fold {@code p % folds}
+     * @param df      data set
+     * @param weights instance weights, or null
+     */
+    static void addSplits(List<Split> splits, int round, int folds, int[] order, Frame df, Var weights) {
+        int[] bounds = new int[folds + 1];
+        for (int fold = 0; fold < folds; fold++) {
+            bounds[fold + 1] = bounds[fold] + (order.length - fold + folds - 1) / folds;
+        }
+        int[] permutation = new int[order.length];
+        int[] foldOf = new int[order.length];
+        for (int fold = 0; fold < folds; fold++) {
+            int pos = bounds[fold];
+            for (int p = fold; p < order.length; p += folds) {
+                permutation[pos++] = order[p];
+                foldOf[order[p]] = fold;
+            }
+            Arrays.sort(permutation, bounds[fold], bounds[fold + 1]);
+        }
+        for (int fold = 0; fold < folds; fold++) {
+            int[] trainRows = new int[order.length - bounds[fold + 1] + bounds[fold]];
+            int pos = 0;
+            for (int row = 0; row < foldOf.length; row++) {
+                if (foldOf[row] != fold) {
+                    trainRows[pos++] = row;
+                }
+            }
+            Mapping train = Mapping.wrap(trainRows);
+            Mapping test = Mapping.slice(permutation, bounds[fold], bounds[fold + 1]);
+            splits.add(new Split(round, fold,
+                    df.mapRows(train), weights == null ? null : weights.mapRows(train),
+                    df.mapRows(test), weights == null ? null : weights.mapRows(test)));
+        }
+    }
+}
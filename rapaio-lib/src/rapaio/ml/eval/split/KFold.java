@@ -26,7 +26,6 @@ import java.util.List;
 import java.util.Random;
 
 import rapaio.data.Frame;
-import rapaio.data.Mapping;
 import rapaio.data.Var;
 import rapaio.util.collection.Ints;
 
@@ -48,31 +47,10 @@ public record KFold(int rounds, int folds) implements SplitStrategy {
         List<Split> splits = new ArrayList<>();
         for (int round = 0; round < rounds; round++) {
 
-            // allocate mappings, one for each fold
-            Mapping[] mappings = new Mapping[folds];
-            for (int i = 0; i < folds; i++) {
-                mappings[i] = Mapping.empty();
-            }
-
             // distribute rows in folds
             int[] rows = Ints.seq(0, df.rowCount());
             Ints.shuffle(rows, random);
-            int pos = 0;
-            for (int row : rows) {
-                mappings[pos++].add(row);
-                if (pos == folds) {
-                    pos = 0;
-                }
-            }
-
-            // generate splits
-            for (int i = 0; i < mappings.length; i++) {
-                Mapping mapping = mappings[i];
-                splits.add(new Split(round, i,
-                        df.removeRows(mapping), weights == null ? null : weights.removeRows(mapping),
-                        df.mapRows(mapping), weights == null ? null : weights.mapRows(mapping)));
-            }
-
+            Folds.addSplits(splits, round, folds, rows, df, weights);
         }
         return splits;
     }
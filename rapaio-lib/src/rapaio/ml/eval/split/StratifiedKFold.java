@@ -24,8 +24,6 @@ package rapaio.ml.eval.split;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 import rapaio.data.Frame;
 import rapaio.data.Mapping;
@@ -45,18 +43,15 @@ public record StratifiedKFold(int rounds, int folds, String strata) implements S
 
         List<Split> splits = new ArrayList<>();
         for (int round = 0; round < rounds; round++) {
-            List<Mapping> mappings = buildStrata(df, strata, random);
-            for (int i = 0; i < mappings.size(); i++) {
-                Mapping mapping = mappings.get(i);
-                splits.add(new Split(round, i,
-                        df.removeRows(mapping), weights == null ? null : weights.removeRows(mapping),
-                        df.mapRows(mapping), weights == null ? null : weights.mapRows(mapping)));
-            }
+            Folds.addSplits(splits, round, folds, buildStrata(df, strata, random), df, weights);
         }
         return splits;
     }
 
-    private List<Mapping> buildStrata(Frame df, String strataName, Random random) {
+    /**
+     * Shuffles the rows of each stratum and concatenates them, such that consecutive rows are distributed in folds.
+     */
+    private int[] buildStrata(Frame df, String strataName, Random random) {
         List<String> dict = df.rvar(strataName).levels();
         List<Mapping> rows = dict.stream().map(name -> Mapping.empty()).toList();
         for (int i = 0; i < df.rowCount(); i++) {
@@ -67,15 +62,6 @@ public record StratifiedKFold(int rounds, int folds, String strata) implements S
             rows.get(i).shuffle(random);
             shuffle.addAll(rows.get(i).iterator());
         }
-        List<Mapping> strata = IntStream.range(0, folds).mapToObj(i -> Mapping.empty()).collect(Collectors.toList());
-        int fold = 0;
-        for (int next : shuffle) {
-            strata.get(fold).add(next);
-            fold++;
-            if (fold == folds) {
-                fold = 0;
-            }
-        }
-        return strata;
+        return shuffle.elements();
     }
 }
@@ -340,6 +340,17 @@ public abstract class RegressionModel<M extends RegressionModel<M, R, H>, R exte
                 : Math.max(1, poolSize.get());
     }
 
+    /**
+     * Builds a low latency scorer from the fitted model. The scorer resolves the input schema once and
+     * scores rows given as arrays of doubles, without building frames or results. Only some models
+     * provide a scorer.
+     *
+     * @return thread safe scorer
+     */
+    public Scorer scorer() {
+        throw new IllegalStateException("Model " + name() + " does not provide a scorer.");
+    }
+
     protected Random getRandom() {
         return seed.get() == 0 ? new Random() : new Random(seed.get());
     }
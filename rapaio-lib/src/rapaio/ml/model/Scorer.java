@@ -0,0 +1,119 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.model;
+
+import java.util.List;
+
+import rapaio.darray.DArray;
+
+/**
+ * Low latency scoring path of a fitted model, intended for online scoring of a few rows at a time.
+ * <p>
+ * A scorer is built once from a fitted model, with the input schema resolved at construction time. Features
+ * are given as an array of doubles, in the order of {@link #inputNames()}, which are the input variables
+ * used at fit time. Missing values are encoded as {@code NaN}. Binary values are encoded as {@code 0} and
+ * {@code 1}. Nominal values are encoded with {@link #encode(int, String)}, which should be called once
+ * for each label, not for each row.
+ * <p>
+ * The outputs are written in the order of {@link #outputNames()}. For classification models the outputs are
+ * the densities of target levels, as in the density frame of a {@link ClassifierResult}. For regression
+ * models the outputs are the predictions of target variables.
+ * <p>
+ * Scorers are thread safe and do not allocate memory when scoring, apart from the per-thread buffers
+ * allocated on the first call from each thread. A scorer must be built again after the source model is fitted again.
+ *
+ * @author <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>
+ */
+public abstract class Scorer {
+
+    private final List<String> inputNames;
+    private final List<String> outputNames;
+    private final ThreadLocal<double[][]> buffers;
+
+    protected Scorer(List<String> inputNames, List<String> outputNames) {
+        this.inputNames = List.copyOf(inputNames);
+        this.outputNames = List.copyOf(outputNames);
+        this.buffers = ThreadLocal.withInitial(() -> new double[][] {
+                new double[this.inputNames.size()], new double[this.outputNames.size()]});
+    }
+
+    /**
+     * @return names of input features, in the order expected by scoring methods
+     */
+    public final List<String> inputNames() {
+        return inputNames;
+    }
+
+    /**
+     * @return names of outputs, in the order produced by scoring methods
+     */
+    public final List<String> outputNames() {
+        return outputNames;
+    }
+
+    /**
+     * Encodes a label of a nominal feature into the double value expected by scoring methods.
+     *
+     * @param feature index of the feature
+     * @param label   nominal label
+     * @return encoded value
+     */
+    public double encode(int feature, String label) {
+        throw new IllegalArgumentException("Feature " + inputNames.get(feature) + " is not nominal for this scorer.");
+    }
+
+    /**
+     * Scores a single row of features.
+     *
+     * @param features values of input features, with length equal with the number of inputs
+     * @param out      array where the outputs are written, with length at least the number of outputs
+     */
+    public abstract void score(double[] features, double[] out);
+
+    /**
+     * Scores a batch of rows.
+     *
+     * @param rows matrix with a row for each instance and a column for each input feature
+     * @param out  matrix with a row for each instance and a column for each output
+     */
+    public void scoreBatch(DArray<Double> rows, DArray<Double> out) {
+        if (rows.rank() != 2 || rows.dim(1) != inputNames.size()) {
+            throw new IllegalArgumentException("Rows must be a matrix with %d columns.".formatted(inputNames.size()));
+        }
+        if (out.rank() != 2 || out.dim(0) != rows.dim(0) || out.dim(1) != outputNames.size()) {
+            throw new IllegalArgumentException("Output must be a matrix with %d rows and %d columns."
+                    .formatted(rows.dim(0), outputNames.size()));
+        }
+        double[][] buffer = buffers.get();
+        double[] features = buffer[0];
+        double[] values = buffer[1];
+        for (int i = 0; i < rows.dim(0); i++) {
+            for (int j = 0; j < features.length; j++) {
+                features[j] = rows.getDouble(i, j);
+            }
+            score(features, values);
+            for (int j = 0; j < values.length; j++) {
+                out.setDouble(values[j], i, j);
+            }
+        }
+    }
+}
@@ -22,11 +22,13 @@
 package rapaio.ml.model.bayes;
 
 import java.io.Serial;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -34,6 +36,7 @@ import rapaio.core.param.ListParam;
 import rapaio.core.param.ValueParam;
 import rapaio.core.tools.DensityVector;
 import rapaio.data.Frame;
+import rapaio.data.SolidFrame;
 import rapaio.data.Var;
 import rapaio.data.VarRange;
 import rapaio.data.VarType;
@@ -41,6 +44,7 @@ import rapaio.ml.common.Capabilities;
 import rapaio.ml.model.ClassifierModel;
 import rapaio.ml.model.ClassifierResult;
 import rapaio.ml.model.RunInfo;
+import rapaio.ml.model.Scorer;
 import rapaio.ml.model.bayes.nb.Estimator;
 import rapaio.ml.model.bayes.nb.Prior;
 import rapaio.ml.model.bayes.nb.PriorMLE;
@@ -189,6 +193,96 @@ public class NaiveBayes extends ClassifierModel<NaiveBayes, ClassifierResult, Ru
         return pred;
     }
 
+    /**
+     * Builds a scorer which evaluates the fitted estimators on a single row frame owned by each thread.
+     * Nominal labels are encoded with codes assigned by the scorer, in the order of first use. The scorer uses
+     * the fitted estimators, thus it must be built again if the model is fitted again.
+     *
+     * @return thread safe scorer
+     */
+    @Override
+    public Scorer scorer() {
+        if (!hasLearned()) {
+            throw new IllegalStateException("Cannot build a scorer for a model which is not fitted.");
+        }
+        double[] logPriors = new double[firstTargetLevels().size()];
+        for (int j = 0; j < logPriors.length; j++) {
+            logPriors[j] = Math.log(prior.get().computePrior(firstTargetLevel(j)));
+        }
+        return new NaiveBayesScorer(Arrays.asList(inputNames), inputTypes, firstTargetLevels(),
+                List.copyOf(estimators.get()), logPriors);
+    }
+
+    private static final class NaiveBayesScorer extends Scorer {
+
+        private final VarType[] inputTypes;
+        private final List<String> levels;
+        private final List<Estimator> estimators;
+        private final double[] logPriors;
+        // labels of nominal features by code, null for other features
+        private final List<List<String>> labels = new ArrayList<>();
+        private final ThreadLocal<Frame> rows;
+
+        private NaiveBayesScorer(List<String> inputNames, VarType[] inputTypes, List<String> levels,
+                List<Estimator> estimators, double[] logPriors) {
+            super(inputNames, levels);
+            this.inputTypes = inputTypes;
+            this.levels = levels;
+            this.estimators = estimators;
+            this.logPriors = logPriors;
+            for (VarType type : inputTypes) {
+                labels.add(type == VarType.NOMINAL ? new CopyOnWriteArrayList<>() : null);
+            }
+            this.rows = ThreadLocal.withInitial(() -> SolidFrame.byVars(IntStream.range(0, inputTypes.length)
+                    .mapToObj(i -> inputTypes[i].newInstance(1).name(inputNames.get(i))).toList()));
+        }
+
+        @Override
+        public double encode(int feature, String label) {
+            List<String> codes = labels.get(feature);
+            if (codes == null) {
+                return super.encode(feature, label);
+            }
+            synchronized (codes) {
+                int code = codes.indexOf(label);
+                if (code < 0) {
+                    code = codes.size();
+                    codes.add(label);
+                }
+                return code;
+            }
+        }
+
+        @Override
+        public void score(double[] features, double[] out) {
+            Frame row = rows.get();
+            for (int i = 0; i < features.length; i++) {
+                double value = features[i];
+                if (Double.isNaN(value)) {
+                    row.setMissing(0, i);
+                } else if (inputTypes[i] == VarType.NOMINAL) {
+                    row.setLabel(0, i, labels.get(i).get((int) value));
+                } else {
+                    row.setDouble(0, i, value);
+                }
+            }
+            double sum = 0;
+            for (int j = 0; j < levels.size(); j++) {
+                double sumLog = logPriors[j];
+                for (Estimator estimator : estimators) {
+                    sumLog += Math.log(estimator.predict(row, 0, levels.get(j)));
+                }
+                out[j] = Math.exp(sumLog);
+                sum += Math.abs(out[j]);
+            }
+            if (sum != 0) {
+                for (int j = 0; j < levels.size(); j++) {
+                    out[j] /= sum;
+                }
+            }
+        }
+    }
+
     @Override
     public String toSummary(Printer printer, POpt<?>... options) {
         StringBuilder sb = new StringBuilder();
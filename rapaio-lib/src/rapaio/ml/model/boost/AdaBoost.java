@@ -78,8 +78,23 @@ public class AdaBoost extends ClassifierModel<AdaBoost, ClassifierResult, RunInf
      */
     public final ValueParam<Double, AdaBoost> shrinkage = new ValueParam<>(this, 1.0, "shrinkage", Double::isFinite);
 
+    /**
+     * Validation frame used to monitor the misclassification rate after each added learner. If null, there
+     * is no monitoring.
+     */
+    public final ValueParam<Frame, AdaBoost> validationDf = new ValueParam<>(this, null, "validationDf", x -> true);
+
+    /**
+     * Number of added learners without improvement of the validation misclassification rate after which fitting
+     * stops. The model is truncated to the learners with the smallest validation error. The value 0 disables
+     * early stopping.
+     */
+    public final ValueParam<Integer, AdaBoost> patience = new ValueParam<>(this, 0, "patience", x -> x != null && x >= 0);
+
     private final List<Double> alphas = new ArrayList<>();
     private final List<ClassifierModel<?, ?, ?>> learners = new ArrayList<>();
+    private List<Double> validationScores = new ArrayList<>();
+    private int bestIteration;
 
     private AdaBoost() {
     }
@@ -109,27 +124,88 @@ public class AdaBoost extends ClassifierModel<AdaBoost, ClassifierResult, RunInf
         return learners;
     }
 
+    /**
+     * @return validation misclassification rate after each added learner, empty if there is no validation frame
+     */
+    public List<Double> getValidationScores() {
+        return validationScores;
+    }
+
+    /**
+     * @return number of learners with the smallest validation error, 0 if there is no validation frame
+     */
+    public int getBestIteration() {
+        return bestIteration;
+    }
+
     @Override
     protected boolean coreFit(Frame df, Var weights) {
 
         Random random = getRandom();
         Var w = weights.darray().div_(weights.darray_().nanSum()).dv();
-        double k = firstTargetLevels().size() - 1;
+        double k = firstTargetLevels().size();
 
         learners.clear();
         alphas.clear();
 
+        // weighted votes of validation rows, updated with each added learner
+        Frame validation = validationDf.get();
+        EarlyStopping stopping = new EarlyStopping(patience.get());
+        double[][] votes = validation != null ? new double[validation.rowCount()][firstTargetLevels().size()] : null;
+        int[] validationY = validation != null
+                ? EarlyStopping.targets(validation.rvar(firstTargetName()), firstTargetLevels()) : null;
+
         for (int i = 0; i < runs.get(); i++) {
-            if (!learnRound(random, df, w, k)) {
+            int size = learners.size();
+            boolean next = learnRound(random, df, w, k);
+            if (validation != null && learners.size() > size && stopping.update(validationError(validation, votes, validationY))) {
+                break;
+            }
+            if (!next) {
                 break;
             }
             if (runningHook.get() != null) {
                 runningHook.get().accept(RunInfo.forClassifier(this, i));
             }
         }
+
+        validationScores = stopping.scores();
+        bestIteration = stopping.bestIteration();
+        if (stopping.truncate()) {
+            learners.subList(bestIteration, learners.size()).clear();
+            alphas.subList(bestIteration, alphas.size()).clear();
+        }
         return true;
     }
 
+    /**
+     * Adds the votes of the last learner to validation votes and computes the validation misclassification rate
+     * on validation rows with non missing targets.
+     */
+    private double validationError(Frame validation, double[][] votes, int[] y) {
+        var predict = learners.getLast().predict(validation, true, false).firstClasses();
+        double alpha = alphas.getLast();
+        double errors = 0;
+        int count = 0;
+        for (int i = 0; i < votes.length; i++) {
+            votes[i][predict.getInt(i)] += alpha;
+            if (y[i] < 0) {
+                continue;
+            }
+            int best = 0;
+            for (int j = 1; j < votes[i].length; j++) {
+                if (votes[i][j] > votes[i][best]) {
+                    best = j;
+                }
+            }
+            if (best != y[i]) {
+                errors++;
+            }
+            count++;
+        }
+        return errors / count;
+    }
+
     private boolean learnRound(Random random, Frame df, Var w, double k) {
 
         ClassifierModel<?, ?, ?> hh = model.get().newInstance();
@@ -181,17 +257,17 @@ public class AdaBoost extends ClassifierModel<AdaBoost, ClassifierResult, RunInf
         // simply predict
         for (int i = 0; i < fit.firstDensity().rowCount(); i++) {
 
-            double max = 0;
+            double max = Double.NEGATIVE_INFINITY;
             int best = 0;
             double total = 0;
-            for (int j = 1; j < fit.firstDensity().varCount(); j++) {
+            for (int j = 0; j < fit.firstDensity().varCount(); j++) {
                 total += fit.firstDensity().getDouble(i, j);
                 if (fit.firstDensity().getDouble(i, j) > max) {
                     best = j;
                     max = fit.firstDensity().getDouble(i, j);
                 }
             }
-            for (int j = 1; j < fit.firstDensity().varCount(); j++) {
+            for (int j = 0; total != 0 && j < fit.firstDensity().varCount(); j++) {
                 fit.firstDensity().setDouble(i, j, fit.firstDensity().getDouble(i, j) / total);
             }
             fit.firstClasses().setInt(i, best);
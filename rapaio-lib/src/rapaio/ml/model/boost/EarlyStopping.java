@@ -0,0 +1,109 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.model.boost;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import rapaio.data.Var;
+
+/**
+ * Tracks validation scores of a boosting model and decides when fitting stops.
+ * <p>
+ * After each boosting iteration the model registers the validation loss. The iteration with the smallest
+ * loss is kept as the best one. If patience is positive, fitting stops when the loss did not improve for
+ * the given number of iterations and the model is truncated to the best iteration.
+ */
+final class EarlyStopping {
+
+    private final int patience;
+    private final List<Double> scores = new ArrayList<>();
+    private double bestScore = Double.POSITIVE_INFINITY;
+    private int bestIteration = 0;
+
+    EarlyStopping(int patience) {
+        this.patience = patience;
+    }
+
+    /**
+     * Registers the validation loss after a new iteration.
+     *
+     * @param score validation loss
+     * @return true if fitting should stop
+     */
+    boolean update(double score) {
+        scores.add(score);
+        if (score < bestScore) {
+            bestScore = score;
+            bestIteration = scores.size();
+            return false;
+        }
+        return patience > 0 && scores.size() - bestIteration >= patience;
+    }
+
+    /**
+     * @return true if the model should be truncated to the best iteration
+     */
+    boolean truncate() {
+        return patience > 0 && bestIteration < scores.size();
+    }
+
+    /**
+     * @return number of iterations of the model with the smallest validation loss
+     */
+    int bestIteration() {
+        return bestIteration;
+    }
+
+    List<Double> scores() {
+        return scores;
+    }
+
+    /**
+     * Maps validation target labels to class indexes once, before boosting starts. Missing targets
+     * are marked with -1 and are not scored, labels unknown to the training target are rejected.
+     *
+     * @param target validation target variable
+     * @param levels levels of the training target
+     * @return index of the level for each validation row, -1 for missing values
+     */
+    static int[] targets(Var target, List<String> levels) {
+        int[] y = new int[target.size()];
+        int count = 0;
+        for (int i = 0; i < y.length; i++) {
+            if (target.isMissing(i)) {
+                y[i] = -1;
+                continue;
+            }
+            count++;
+            y[i] = levels.indexOf(target.getLabel(i));
+            if (y[i] < 0) {
+                throw new IllegalArgumentException("Validation target label '" + target.getLabel(i)
+                        + "' at row " + i + " is not a level of the training target " + levels + ".");
+            }
+        }
+        if (count == 0) {
+            throw new IllegalArgumentException("Validation frame has no rows with non missing target values.");
+        }
+        return y;
+    }
+}
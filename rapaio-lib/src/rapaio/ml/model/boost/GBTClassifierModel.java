@@ -23,8 +23,10 @@ package rapaio.ml.model.boost;
 
 import java.io.Serial;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -43,6 +45,9 @@ import rapaio.ml.model.ClassifierModel;
 import rapaio.ml.model.ClassifierResult;
 import rapaio.ml.model.RegressionModel;
 import rapaio.ml.model.RunInfo;
+import rapaio.ml.model.Scorer;
+import rapaio.ml.model.tree.CompiledTrees;
+import rapaio.ml.model.tree.FeatureBins;
 import rapaio.ml.model.tree.RTree;
 import rapaio.printer.Printer;
 import rapaio.printer.opt.POpt;
@@ -75,12 +80,31 @@ public class GBTClassifierModel extends ClassifierModel<GBTClassifierModel, Clas
     public final ValueParam<RTree, GBTClassifierModel> model = new ValueParam<>(this,
             RTree.newCART().maxDepth.set(2).minCount.set(5).loss.set(new L2LossFunction()), "model");
 
+    /**
+     * Validation frame used to monitor the multinomial deviance after each boosting round. If null, there is
+     * no monitoring.
+     */
+    public final ValueParam<Frame, GBTClassifierModel> validationDf = new ValueParam<>(this, null, "validationDf", x -> true);
+
+    /**
+     * Number of boosting rounds without improvement of the validation deviance after which fitting stops. The
+     * model is truncated to the round with the smallest validation deviance. The value 0 disables early stopping.
+     */
+    public final ValueParam<Integer, GBTClassifierModel> patience = new ValueParam<>(this, 0, "patience", x -> x != null && x >= 0);
+
     private int K;
     private DArray<Double> f;
     private DArray<Double> p;
     private DArray<Double> residual;
 
     private List<List<RTree>> trees;
+    private List<Double> validationScores = new ArrayList<>();
+    private int bestIteration;
+    private transient FeatureBins bins;
+    // class scores of validation rows, updated with each tree
+    private transient DArray<Double> validationF;
+    // class indexes of validation targets, -1 for missing values
+    private transient int[] validationY;
 
     private GBTClassifierModel() {
     }
@@ -106,6 +130,50 @@ public class GBTClassifierModel extends ClassifierModel<GBTClassifierModel, Clas
         return trees;
     }
 
+    /**
+     * @return validation multinomial deviance after each boosting round, empty if there is no validation frame
+     */
+    public List<Double> getValidationScores() {
+        return validationScores;
+    }
+
+    /**
+     * @return number of boosting rounds with the smallest validation deviance, 0 if there is no validation frame
+     */
+    public int getBestIteration() {
+        return bestIteration;
+    }
+
+    /**
+     * Compiles the fitted model into a flat array based predictor. The compiled predictor has one output
+     * for each target level, the trees of a level being added to its output. The outputs are transformed
+     * into probabilities with softmax.
+     *
+     * @return compiled model
+     */
+    public CompiledTrees compile() {
+        if (!hasLearned()) {
+            throw new IllegalStateException("Cannot compile a model which is not fitted.");
+        }
+        var compiled = CompiledTrees.empty(K, CompiledTrees.Link.SOFTMAX);
+        for (int k = 0; k < K; k++) {
+            for (RTree tree : trees.get(k)) {
+                compiled.add(tree, k, shrinkage.get());
+            }
+        }
+        return compiled;
+    }
+
+    /**
+     * Builds a scorer from the compiled model. The outputs are the class densities, one for each target level.
+     *
+     * @return thread safe scorer
+     */
+    @Override
+    public Scorer scorer() {
+        return compile().scorer(Arrays.asList(inputNames()), firstTargetLevels());
+    }
+
     @Override
     public boolean coreFit(Frame df, Var weights) {
 
@@ -127,52 +195,137 @@ public class GBTClassifierModel extends ClassifierModel<GBTClassifierModel, Clas
             yk.setDouble(1, df.getInt(i, firstTargetName()), i);
         }
 
-        for (int m = 0; m < runs.get(); m++) {
-            buildAdditionalTree(random, df, weights, yk);
-            if (runningHook.get() != null) {
-                runningHook.get().accept(RunInfo.forClassifier(this, m));
+        // numeric features are quantized once for all trees if histogram search is enabled
+        bins = null;
+        if (model.get().histogramBins.get() > 0) {
+            String[] names = Arrays.stream(inputNames()).filter(name -> df.type(name).isNumeric()).toArray(String[]::new);
+            bins = FeatureBins.of(df, names, model.get().histogramBins.get());
+        }
+
+        Frame validation = validationDf.get();
+        EarlyStopping stopping = new EarlyStopping(patience.get());
+        validationF = validation != null ? DArrays.zeros(Shape.of(K, validation.rowCount())) : null;
+        validationY = validation != null
+                ? EarlyStopping.targets(validation.rvar(firstTargetName()), firstTargetLevels()) : null;
+
+        // trees of all classes from a boosting round are built concurrently
+        int threads = computeThreads();
+        ForkJoinPool pool = threads > 1 ? new ForkJoinPool(threads) : null;
+        try {
+            for (int m = 0; m < runs.get(); m++) {
+                buildAdditionalTree(random, df, weights, yk, pool);
+                boolean stop = validation != null && stopping.update(validationDeviance(validation));
+                if (runningHook.get() != null) {
+                    runningHook.get().accept(RunInfo.forClassifier(this, m));
+                }
+                if (stop) {
+                    break;
+                }
+            }
+        } finally {
+            if (pool != null) {
+                pool.close();
+            }
+        }
+        bins = null;
+        validationF = null;
+        validationY = null;
+
+        validationScores = stopping.scores();
+        bestIteration = stopping.bestIteration();
+        if (stopping.truncate()) {
+            for (int k = 0; k < K; k++) {
+                trees.set(k, new ArrayList<>(trees.get(k).subList(0, bestIteration)));
             }
         }
         return true;
     }
 
-    private void buildAdditionalTree(Random random, Frame df, Var w, DArray<Double> yk) {
-
-        // a) Set p_k(x)
-
-        DArray<Double> max = f.t().amax1d(1);
-
-        for (int i = 0; i < df.rowCount(); i++) {
-            double sum = 0;
+    /**
+     * Computes the mean multinomial deviance on validation rows with non missing targets
+     * from the class scores of validation rows.
+     */
+    private double validationDeviance(Frame validation) {
+        double deviance = 0;
+        int count = 0;
+        for (int i = 0; i < validation.rowCount(); i++) {
+            int y = validationY[i];
+            if (y < 0) {
+                continue;
+            }
+            double max = Double.NEGATIVE_INFINITY;
             for (int k = 0; k < K; k++) {
-                sum += Math.exp(f.getDouble(k, i) - max.getDouble(i));
+                max = Math.max(max, validationF.getDouble(k, i));
             }
+            double sum = 0;
             for (int k = 0; k < K; k++) {
-                p.setDouble(Math.exp(f.getDouble(k, i) - max.getDouble(i)) / sum, k, i);
+                sum += Math.exp(validationF.getDouble(k, i) - max);
             }
+            deviance -= validationF.getDouble(y, i) - max - Math.log(sum);
+            count++;
         }
-        residual = yk.sub(p);
+        return deviance / count;
+    }
+
+    private void buildAdditionalTree(Random random, Frame df, Var w, DArray<Double> yk, ForkJoinPool pool) {
+
+        // a) Set p_k(x), softmax over classes computed with operations on class rows
+
+        DArray<Double> max = f.amax1d(0);
+        DArray<Double> sum = DArrays.zeros(Shape.of(df.rowCount()));
+        for (int k = 0; k < K; k++) {
+            DArray<Double> pk = p.selsq(0, k);
+            pk.fill_(0.0).add_(f.selsq(0, k)).sub_(max).exp_();
+            sum.add_(pk);
+        }
+        for (int k = 0; k < K; k++) {
+            p.selsq(0, k).div_(sum);
+        }
+        residual.fill_(0.0).add_(yk).sub_(p);
 
         // b)
 
         Frame x = df.removeVars(targetNames);
         RowSampler.Sample sample = rowSampler.get().nextSample(random, x, w);
 
+        RTree[] roundTrees = new RTree[K];
+        if (pool == null) {
+            for (int k = 0; k < K; k++) {
+                roundTrees[k] = buildClassTree(k, df, sample, yk);
+            }
+        } else {
+            pool.submit(() -> IntStream.range(0, K).parallel()
+                    .forEach(k -> roundTrees[k] = buildClassTree(k, df, sample, yk))).join();
+        }
         for (int k = 0; k < K; k++) {
+            trees.get(k).add(roundTrees[k]);
+        }
+    }
 
-            Var residual_k = residual.selsq(0, k).dv().mapRows(sample.mapping()).name("##tt##");
+    /**
+     * Fits the regression tree of a class on the class residuals and adds its shrunken predictions to
+     * the class scores. Predictions are obtained from leaf assignments computed during the boost update.
+     */
+    private RTree buildClassTree(int k, Frame df, RowSampler.Sample sample, DArray<Double> yk) {
+        Var residual_k = residual.selsq(0, k).dv().mapRows(sample.mapping()).name("##tt##");
 
-            var tree = model.get().newInstance();
-            tree.fit(sample.df().bindVars(residual_k), sample.weights(), "##tt##");
-            tree.boostUpdate(df, yk.selsq(0, k).dv(), p.selsq(0, k).dv(), new KDevianceLossFunction(K));
+        var tree = model.get().newInstance();
+        if (bins != null) {
+            tree.withFeatureBins(bins, sample.mapping());
+        }
+        tree.fit(sample.df().bindVars(residual_k), sample.weights(), "##tt##");
 
-            trees.get(k).add(tree);
+        double[] prediction = new double[df.rowCount()];
+        tree.boostUpdate(df, yk.selsq(0, k).dv(), p.selsq(0, k).dv(), new KDevianceLossFunction(K), prediction);
 
-            var prediction = tree.predict(df, false).firstPrediction();
-            for (int i = 0; i < df.rowCount(); i++) {
-                f.incDouble(shrinkage.get() * prediction.getDouble(i), k, i);
-            }
+        DArray<Double> delta = DArrays.stride(Shape.of(df.rowCount()), prediction);
+        f.selsq(0, k).add_(delta.mul_(shrinkage.get()));
+
+        if (validationF != null) {
+            var validationPrediction = tree.predict(validationDf.get(), false).firstPrediction().darray_();
+            validationF.selsq(0, k).fma_(shrinkage.get(), validationPrediction);
         }
+        return tree;
     }
 
     @Override
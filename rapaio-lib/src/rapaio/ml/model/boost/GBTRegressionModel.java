@@ -23,6 +23,7 @@ package rapaio.ml.model.boost;
 
 import java.io.Serial;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 import java.util.Random;
@@ -40,7 +41,10 @@ import rapaio.ml.loss.LossFunction;
 import rapaio.ml.model.RegressionModel;
 import rapaio.ml.model.RegressionResult;
 import rapaio.ml.model.RunInfo;
+import rapaio.ml.model.Scorer;
 import rapaio.ml.model.simple.L2Regression;
+import rapaio.ml.model.tree.CompiledTrees;
+import rapaio.ml.model.tree.FeatureBins;
 import rapaio.ml.model.tree.RTree;
 import rapaio.printer.Printer;
 import rapaio.printer.opt.POpt;
@@ -87,7 +91,20 @@ public class GBTRegressionModel extends RegressionModel<GBTRegressionModel, Regr
      */
     public final ValueParam<Double, GBTRegressionModel> eps = new ValueParam<>(this, 1e-10, "eps", Double::isFinite);
 
+    /**
+     * Validation frame used to monitor the loss function after each added tree. If null, there is no monitoring.
+     */
+    public final ValueParam<Frame, GBTRegressionModel> validationDf = new ValueParam<>(this, null, "validationDf", x -> true);
+
+    /**
+     * Number of added trees without improvement of the validation loss after which fitting stops. The model
+     * is truncated to the trees with the smallest validation loss. The value 0 disables early stopping.
+     */
+    public final ValueParam<Integer, GBTRegressionModel> patience = new ValueParam<>(this, 0, "patience", x -> x != null && x >= 0);
+
     private VarDouble fitValues;
+    private List<Double> validationScores = new ArrayList<>();
+    private int bestIteration;
 
     private List<GBTRtree<? extends RegressionModel<?, ?, ?>, ? extends RegressionResult, ?>> trees;
 
@@ -116,6 +133,54 @@ public class GBTRegressionModel extends RegressionModel<GBTRegressionModel, Regr
         return trees;
     }
 
+    /**
+     * @return validation loss after each added tree, empty if there is no validation frame
+     */
+    public List<Double> getValidationScores() {
+        return validationScores;
+    }
+
+    /**
+     * @return number of trees with the smallest validation loss, 0 if there is no validation frame
+     */
+    public int getBestIteration() {
+        return bestIteration;
+    }
+
+    /**
+     * Compiles the fitted model into a flat array based predictor with a single output. The initial
+     * model must be {@link L2Regression}, whose fitted mean is used as bias, and the boosted trees must be
+     * regression trees.
+     *
+     * @return compiled model
+     */
+    public CompiledTrees compile() {
+        if (!isFitted()) {
+            throw new IllegalStateException("Cannot compile a model which is not fitted.");
+        }
+        if (!(initModel.get() instanceof L2Regression l2)) {
+            throw new IllegalStateException("Only models with L2Regression as initial model can be compiled.");
+        }
+        var compiled = CompiledTrees.empty(1, CompiledTrees.Link.IDENTITY).bias(0, l2.getMeans()[0]);
+        for (var tree : trees) {
+            if (!(tree instanceof RTree rtree)) {
+                throw new IllegalStateException("Only models with regression trees can be compiled.");
+            }
+            compiled.add(rtree, 0, shrinkage.get());
+        }
+        return compiled;
+    }
+
+    /**
+     * Builds a scorer from the compiled model, with a single output, the prediction of the target variable.
+     *
+     * @return thread safe scorer
+     */
+    @Override
+    public Scorer scorer() {
+        return compile().scorer(Arrays.asList(inputNames()), List.of(firstTargetName()));
+    }
+
     @Override
     protected boolean coreFit(Frame df, Var weights) {
 
@@ -128,6 +193,20 @@ public class GBTRegressionModel extends RegressionModel<GBTRegressionModel, Regr
         initModel.get().fit(df, weights, firstTargetName());
         fitValues = initModel.get().predict(df, false).firstPrediction().copy();
 
+        // numeric features are quantized once for all trees if histogram search is enabled
+        FeatureBins bins = null;
+        if (model.get().histogramBins.get() > 0) {
+            String[] names = Arrays.stream(inputNames()).filter(name -> x.type(name).isNumeric()).toArray(String[]::new);
+            bins = FeatureBins.of(x, names, model.get().histogramBins.get());
+        }
+
+        // validation predictions are updated with each added tree
+        Frame validation = validationDf.get();
+        EarlyStopping stopping = new EarlyStopping(patience.get());
+        VarDouble validationFit = validation != null ? initModel.get().predict(validation, false).firstPrediction().copy() : null;
+        Var validationY = validation != null ? validation.rvar(firstTargetName()) : null;
+        VarDouble bestFitValues = fitValues;
+
         for (int i = 1; i <= runs.get(); i++) {
 
             Var gradient = loss.get().gradient(y, fitValues).name("target");
@@ -140,6 +219,9 @@ public class GBTRegressionModel extends RegressionModel<GBTRegressionModel, Regr
 
             Mapping sampleRows = rowSampler.get().nextSample(random, xm, weights).mapping();
             Frame xmLearn = xm.mapRows(sampleRows);
+            if (bins != null) {
+                tree.withFeatureBins(bins, sampleRows);
+            }
 
             // build regions
 
@@ -160,12 +242,31 @@ public class GBTRegressionModel extends RegressionModel<GBTRegressionModel, Regr
                 break;
             }
 
+            boolean stop = false;
             if (initScore > nextScore) {
                 fitValues = nextFit;
                 // add tree in the predictors list
                 trees.add(tree);
+
+                if (validation != null) {
+                    validationFit.darray_().fma_(shrinkage.get(), tree.predict(validation, false).firstPrediction().darray_());
+                    stop = stopping.update(loss.get().errorScore(validationY, validationFit));
+                    if (stopping.bestIteration() == trees.size()) {
+                        bestFitValues = fitValues;
+                    }
+                }
             }
             runningHook.get().accept(RunInfo.forRegression(this, i));
+            if (stop) {
+                break;
+            }
+        }
+
+        validationScores = stopping.scores();
+        bestIteration = stopping.bestIteration();
+        if (stopping.truncate()) {
+            trees = new ArrayList<>(trees.subList(0, bestIteration));
+            fitValues = bestFitValues;
         }
         return true;
     }
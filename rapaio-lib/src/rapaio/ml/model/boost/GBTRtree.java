@@ -21,17 +21,54 @@
 
 package rapaio.ml.model.boost;
 
+import java.io.Serial;
+
+import rapaio.core.param.ValueParam;
 import rapaio.data.Frame;
+import rapaio.data.Mapping;
 import rapaio.data.Var;
 import rapaio.ml.loss.LossFunction;
 import rapaio.ml.model.RegressionModel;
 import rapaio.ml.model.RegressionResult;
 import rapaio.ml.model.RunInfo;
+import rapaio.ml.model.tree.FeatureBins;
 
 /**
  * @author <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a> on 5/21/19.
  */
+@SuppressWarnings("unchecked")
 public abstract class GBTRtree<M extends RegressionModel<M, R, H>, R extends RegressionResult, H extends RunInfo<M>> extends RegressionModel<M, R, H> {
 
+    @Serial
+    private static final long serialVersionUID = 3470181620549385710L;
+
+    /**
+     * Number of bins used to quantize numeric features for histogram based split search. If the value
+     * is positive, numeric features are quantized once in at most the given number of bins and splits
+     * are searched only between bins, using gradient histograms computed for each node. The value 0
+     * disables histogram search.
+     */
+    public final ValueParam<Integer, M> histogramBins = new ValueParam<>((M) this, 0, "histogramBins",
+            x -> x != null && (x == 0 || (x >= 2 && x <= FeatureBins.MAX_BINS)));
+
+    // feature bins shared by an ensemble, used only for the next fit
+    protected transient FeatureBins sharedBins;
+    protected transient Mapping sharedBinRows;
+
+    /**
+     * Sets feature bins built by an ensemble once for all its trees, to be used by histogram search
+     * in the next fit. The bins are used only if {@link #histogramBins} is positive. Otherwise, the
+     * tree builds its own bins at fit time.
+     *
+     * @param bins feature bins
+     * @param rows mapping from the rows of the frame used to fit this tree to the rows of the bins
+     * @return tree instance
+     */
+    public M withFeatureBins(FeatureBins bins, Mapping rows) {
+        this.sharedBins = bins;
+        this.sharedBinRows = rows;
+        return (M) this;
+    }
+
     public abstract void boostUpdate(Frame x, Var y, Var fx, LossFunction lossFunction);
 }
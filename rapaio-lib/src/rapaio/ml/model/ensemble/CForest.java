@@ -23,6 +23,7 @@ package rapaio.ml.model.ensemble;
 
 import java.io.Serial;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -31,8 +32,6 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.stream.IntStream;
 
-import rapaio.core.distributions.Distribution;
-import rapaio.core.distributions.Normal;
 import rapaio.core.param.ValueParam;
 import rapaio.core.stat.Maximum;
 import rapaio.core.stat.Mean;
@@ -47,18 +46,20 @@ import rapaio.data.SolidFrame;
 import rapaio.data.Var;
 import rapaio.data.VarDouble;
 import rapaio.data.VarNominal;
-import rapaio.data.VarRange;
 import rapaio.data.VarType;
 import rapaio.data.sample.RowSampler;
 import rapaio.data.transform.RefSort;
 import rapaio.ml.common.Capabilities;
 import rapaio.ml.common.ClassWeights;
 import rapaio.ml.common.VarSelector;
-import rapaio.ml.eval.metric.Confusion;
 import rapaio.ml.model.ClassifierModel;
 import rapaio.ml.model.ClassifierResult;
 import rapaio.ml.model.RunInfo;
+import rapaio.ml.model.Scorer;
 import rapaio.ml.model.tree.CTree;
+import rapaio.ml.model.tree.CompiledTrees;
+import rapaio.ml.model.tree.FeatureBins;
+import rapaio.ml.model.tree.SortedColumnIndex;
 import rapaio.ml.model.tree.ctree.Node;
 import rapaio.printer.Format;
 import rapaio.printer.Printer;
@@ -133,6 +134,38 @@ public class CForest extends ClassifierModel<CForest, ClassifierResult, RunInfo<
         return predictors;
     }
 
+    /**
+     * Compiles the fitted forest into a flat array based predictor. The outputs of the compiled predictor
+     * are the class densities computed with the configured bagging mode. All weak predictors must be
+     * classification trees.
+     *
+     * @return compiled forest
+     */
+    public CompiledTrees compile() {
+        if (!hasLearned()) {
+            throw new IllegalStateException("Cannot compile a model which is not fitted.");
+        }
+        boolean vote = baggingMode.get() == BaggingMode.HARD_VOTE;
+        var compiled = CompiledTrees.empty(firstTargetLevels().size(), CompiledTrees.Link.NORMALIZE);
+        for (var predictor : predictors) {
+            if (!(predictor instanceof CTree tree)) {
+                throw new IllegalStateException("Only forests of classification trees can be compiled.");
+            }
+            compiled.add(tree, 1, vote);
+        }
+        return compiled;
+    }
+
+    /**
+     * Builds a scorer from the compiled model. The outputs are the class densities, one for each target level.
+     *
+     * @return thread safe scorer
+     */
+    @Override
+    public Scorer scorer() {
+        return compile().scorer(Arrays.asList(inputNames()), firstTargetLevels());
+    }
+
     public double oobError() {
         return oobError;
     }
@@ -191,36 +224,12 @@ public class CForest extends ClassifierModel<CForest, ClassifierResult, RunInfo<
     }
 
     public Frame getPermVIInfo() {
-        Var name = VarNominal.empty().name("name");
-        Var score = VarDouble.empty().name("mean");
-        Var sds = VarDouble.empty().name("sd");
-        Var zscores = VarDouble.empty().name("z-score");
-        Var pvalues = VarDouble.empty().name("p-value");
-        Distribution normal = Normal.std();
-        for (Map.Entry<String, List<Double>> e : permVIMap.entrySet()) {
-            name.addLabel(e.getKey());
-            VarDouble scores = VarDouble.copy(e.getValue());
-            double mean = Mean.of(scores).value();
-            double sd = Variance.of(scores).sdValue();
-            double zscore = mean / (sd);
-            double pvalue = normal.cdf(2 * normal.cdf(-Math.abs(zscore)));
-            score.addDouble(Math.abs(mean));
-            sds.addDouble(sd);
-            zscores.addDouble(Math.abs(zscore));
-            pvalues.addDouble(pvalue);
-        }
-        return SolidFrame.byVars(name, score, sds, zscores, pvalues)
-                .fapply(RefSort.by(zscores.refComparator(false))).copy();
+        return OutOfBag.permutationInfo(permVIMap);
     }
 
     @Override
     protected boolean coreFit(Frame df, Var weights) {
 
-        if (oob.get()) {
-            oobDensities = DArrays.zeros(Shape.of(df.rowCount(), firstTargetLevels().size()));
-            oobTrueClass = df.rvar(firstTargetName()).copy();
-            oobPredictedClasses = VarNominal.empty(df.rowCount(), firstTargetLevels());
-        }
         if (viFreq.get()) {
             freqVIMap.clear();
         }
@@ -231,8 +240,8 @@ public class CForest extends ClassifierModel<CForest, ClassifierResult, RunInfo<
             permVIMap.clear();
         }
 
-        // build in parallel the trees, than oob and running hook cannot run at the
-        // same moment when weak tree was built
+        // build in parallel the trees, out of bag votes and variable importance scores are computed
+        // by tree workers, the running hook is called in the order of trees
         // for a real running hook behavior run without threading
         predictors = new ArrayList<>();
         int threads = computeThreads();
@@ -242,77 +251,83 @@ public class CForest extends ClassifierModel<CForest, ClassifierResult, RunInfo<
                 .mapToLong(__ -> random.nextLong())
                 .toArray();
 
+        // numeric features are quantized once for all trees if histogram search is enabled
+        FeatureBins bins = model.get().histogramBins.get() > 0
+                ? FeatureBins.of(df, numericInputNames(df), model.get().histogramBins.get())
+                : null;
+        // numeric features are sorted once for all trees if exact search uses presorted rows
+        SortedColumnIndex index = bins == null && model.get().presorted.get()
+                ? SortedColumnIndex.of(df, numericInputNames(df))
+                : null;
+
+        // target classes as indexes of target levels
+        Var target = df.rvar(firstTargetName());
+        Map<String, Integer> levelIndex = new HashMap<>();
+        for (int i = 0; i < firstTargetLevels().size(); i++) {
+            levelIndex.put(firstTargetLevels().get(i), i);
+        }
+        int[] classes = IntStream.range(0, df.rowCount()).map(row -> levelIndex.getOrDefault(target.getLabel(row), -1)).toArray();
+        OutOfBag.Accumulator votes = oob.get() ? new OutOfBag.Accumulator(df.rowCount(), firstTargetLevels().size()) : null;
+
         ExecutorService executor = Executors.newWorkStealingPool(threads);
         IntStream.range(0, runs.get()).boxed()
-                .collect(ParallelStreamCollector.streamingOrdered(s -> buildWeakPredictor(df, weights, s, seeds[s]), executor, threads))
+                .collect(ParallelStreamCollector.streamingOrdered(
+                        s -> buildWeakPredictor(df, weights, bins, index, classes, votes, s, seeds[s]), executor, threads))
                 .forEach(info -> {
                     predictors.add(info.model);
-                    if (oob.get()) {
-                        oobCompute(df, info.model, info.mapping);
-                    }
-                    if (viFreq.get()) {
-                        freqVICompute(info.model);
-                    }
-                    if (viGain.get()) {
-                        gainVICompute(info.model);
-                    }
-                    if (viPerm.get()) {
-                        permVICompute(df, info.model, info.mapping);
+                    for (int j = 0; j < inputNames().length; j++) {
+                        String varName = inputName(j);
+                        if (viFreq.get()) {
+                            freqVIMap.computeIfAbsent(varName, _ -> new ArrayList<>()).add(info.freqVI[j]);
+                        }
+                        if (viGain.get()) {
+                            gainVIMap.computeIfAbsent(varName, _ -> new ArrayList<>()).add(info.gainVI[j]);
+                        }
+                        if (viPerm.get()) {
+                            permVIMap.computeIfAbsent(varName, _ -> new ArrayList<>()).add(info.permVI[j]);
+                        }
                     }
                     runningHook.get().accept(RunInfo.forClassifier(this, info.run));
                 });
         executor.shutdownNow();
-        return true;
-    }
-
-    private void permVICompute(Frame df, ClassifierModel<?, ?, ?> c, Mapping oobIndexes) {
-
-        // build oob data frame
-        Frame oobFrame = df.mapRows(oobIndexes);
 
-        // build accuracy on oob data frame
-        ClassifierResult fit = c.predict(oobFrame);
-        double refScore = Confusion.from(
-                        oobFrame.rvar(firstTargetName()),
-                        fit.firstClasses())
-                .acceptedCases();
-
-        // now for each input variable do computation
-        for (String varName : inputNames()) {
-
-            // shuffle values from variable
-            Var shuffled = oobFrame.rvar(varName).shuffle();
-
-            // build oob frame with shuffled variable
-            Frame oobReduced = oobFrame.removeVars(VarRange.of(varName)).bindVars(shuffled);
-
-            // compute accuracy on oob shuffled frame
-
-            ClassifierResult pfit = c.predict(oobReduced);
-            double acc = Confusion.from(
-                    oobReduced.rvar(firstTargetName()),
-                    pfit.firstClasses()
-            ).acceptedCases();
-
-            if (!permVIMap.containsKey(varName)) {
-                permVIMap.put(varName, new ArrayList<>());
-            }
-            permVIMap.get(varName).add(refScore - acc);
+        if (oob.get()) {
+            oobCompute(df, votes.merge());
         }
+        return true;
     }
 
-    private void gainVICompute(ClassifierModel<?, ?, ?> model) {
-        if (model instanceof CTree tree) {
-            var scores = DensityVector.emptyByLabels(true, inputNames());
-            collectGainVI(tree.getRoot(), scores);
-            for (int j = 0; j < inputNames().length; j++) {
-                String varName = inputName(j);
-                if (!gainVIMap.containsKey(varName)) {
-                    gainVIMap.put(varName, new ArrayList<>());
+    /**
+     * Computes permutation importance on out of bag rows. Scores are the number of out of bag rows
+     * misclassified after the values of a variable are permuted, minus the number of rows misclassified
+     * with original values.
+     */
+    private double[] permVICompute(Frame df, CTree tree, Mapping oobIndexes, int[] classes, long seed) {
+        CompiledTrees compiled = CompiledTrees.empty(firstTargetLevels().size(), CompiledTrees.Link.IDENTITY).add(tree, 1, true);
+        double[][] columns = compiled.columns(df.mapRows(oobIndexes));
+        int rows = oobIndexes.size();
+        int outputs = compiled.outputs();
+        return OutOfBag.permutationImportance(compiled, columns, rows, inputNames(), seed, out -> {
+            double errors = 0;
+            for (int i = 0; i < rows; i++) {
+                int best = 0;
+                for (int j = 1; j < outputs; j++) {
+                    if (out[i * outputs + j] > out[i * outputs + best]) {
+                        best = j;
+                    }
+                }
+                if (best != classes[oobIndexes.get(i)]) {
+                    errors++;
                 }
-                gainVIMap.get(varName).add(scores.get(varName));
             }
-        }
+            return errors;
+        });
+    }
+
+    private double[] gainVICompute(CTree tree) {
+        var scores = DensityVector.emptyByLabels(true, inputNames());
+        collectGainVI(tree.getRoot(), scores);
+        return Arrays.stream(inputNames()).mapToDouble(scores::get).toArray();
     }
 
     private void collectGainVI(Node node, DensityVector<String> dv) {
@@ -325,14 +340,10 @@ public class CForest extends ClassifierModel<CForest, ClassifierResult, RunInfo<
         node.children.forEach(child -> collectGainVI(child, dv));
     }
 
-    private void freqVICompute(ClassifierModel<?, ?, ?> model) {
-        if (model instanceof CTree weak) {
-            var scores = DensityVector.emptyByLabels(true, inputNames());
-            collectFreqVI(weak.getRoot(), scores);
-            for (String varName : inputNames) {
-                freqVIMap.computeIfAbsent(varName, name -> new ArrayList<>()).add(scores.get(varName));
-            }
-        }
+    private double[] freqVICompute(CTree tree) {
+        var scores = DensityVector.emptyByLabels(true, inputNames());
+        collectFreqVI(tree.getRoot(), scores);
+        return Arrays.stream(inputNames()).mapToDouble(scores::get).toArray();
     }
 
     private void collectFreqVI(Node node, DensityVector<String> dv) {
@@ -344,21 +355,18 @@ public class CForest extends ClassifierModel<CForest, ClassifierResult, RunInfo<
         node.children.forEach(child -> collectFreqVI(child, dv));
     }
 
-    private void oobCompute(Frame df, ClassifierModel<?, ?, ?> model, Mapping oobMap) {
-        double totalOobError;
-        double totalOobInstances;
-        Frame oobTest = df.mapRows(oobMap);
-
-        var prediction = model.predict(oobTest);
-        for (int j = 0; j < oobTest.rowCount(); j++) {
-            int fitIndex = prediction.firstClasses().getInt(j);
-            oobDensities.incDouble(1.0, oobMap.get(j), fitIndex);
-        }
-        oobPredictedClasses.clearRows();
-        totalOobError = 0.0;
-        totalOobInstances = 0.0;
-
-        for (int i = 0; i < oobDensities.dim(0); i++) {
+    private void oobCompute(Frame df, OutOfBag.Buffer votes) {
+        int levels = firstTargetLevels().size();
+        oobDensities = DArrays.zeros(Shape.of(df.rowCount(), levels));
+        oobTrueClass = df.rvar(firstTargetName()).copy();
+        oobPredictedClasses = VarNominal.empty(df.rowCount(), firstTargetLevels());
+
+        double totalOobError = 0.0;
+        double totalOobInstances = 0.0;
+        for (int i = 0; i < df.rowCount(); i++) {
+            for (int j = 0; j < levels; j++) {
+                oobDensities.setDouble(votes.get(i, j), i, j);
+            }
             String bestLevel = firstTargetLevels().get(oobDensities.selsq(0, i).argmax());
             oobPredictedClasses.setLabel(i, bestLevel);
             if (!bestLevel.equals(oobTrueClass.getLabel(i))) {
@@ -369,14 +377,37 @@ public class CForest extends ClassifierModel<CForest, ClassifierResult, RunInfo<
         oobError = (totalOobInstances > 0) ? totalOobError / totalOobInstances : 0.0;
     }
 
-    private record WeakPredictorInfo(ClassifierModel<?, ?, ?> model, Mapping mapping, int run) {
+    private record WeakPredictorInfo(CTree model, int run, double[] freqVI, double[] gainVI, double[] permVI) {
     }
 
-    private WeakPredictorInfo buildWeakPredictor(Frame df, Var weights, int run, long seed) {
+    private String[] numericInputNames(Frame df) {
+        return Arrays.stream(inputNames()).filter(name -> df.type(name).isNumeric()).toArray(String[]::new);
+    }
+
+    private WeakPredictorInfo buildWeakPredictor(Frame df, Var weights, FeatureBins bins, SortedColumnIndex index, int[] classes,
+            OutOfBag.Accumulator votes, int run, long seed) {
         var weak = model.get().newInstance().seed.set(seed);
         RowSampler.Sample sample = rowSampler.get().nextSample(new Random(seed), df, weights);
+        if (bins != null) {
+            weak.withFeatureBins(bins, sample.mapping());
+        }
+        if (index != null) {
+            weak.withSortedIndex(index, sample.mapping());
+        }
         weak.fit(sample.df(), sample.weights(), firstTargetName());
-        return new WeakPredictorInfo(weak, sample.getComplementMapping(), run);
+
+        Mapping oobIndexes = sample.getComplementMapping();
+        if (votes != null) {
+            var prediction = weak.predict(df.mapRows(oobIndexes));
+            OutOfBag.Buffer buffer = votes.local();
+            for (int j = 0; j < oobIndexes.size(); j++) {
+                buffer.add(oobIndexes.get(j), prediction.firstClasses().getInt(j), 1.0);
+            }
+        }
+        return new WeakPredictorInfo(weak, run,
+                viFreq.get() ? freqVICompute(weak) : null,
+                viGain.get() ? gainVICompute(weak) : null,
+                viPerm.get() ? permVICompute(df, weak, oobIndexes, classes, seed) : null);
     }
 
     @Override
@@ -449,7 +480,7 @@ public class CForest extends ClassifierModel<CForest, ClassifierResult, RunInfo<
         }
         if (hasLearned() && viPerm.get()) {
             sb.append("Permutation Variable Importance:\n");
-            sb.append(getGainVIInfo().toFullContent(options)).append("\n");
+            sb.append(getPermVIInfo().toFullContent(options)).append("\n");
         }
         return sb.toString();
     }
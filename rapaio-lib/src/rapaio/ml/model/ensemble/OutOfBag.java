@@ -0,0 +1,217 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.model.ensemble;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.IntStream;
+
+import rapaio.core.distributions.Distribution;
+import rapaio.core.distributions.Normal;
+import rapaio.core.stat.Mean;
+import rapaio.core.stat.Variance;
+import rapaio.data.Frame;
+import rapaio.data.SolidFrame;
+import rapaio.data.Var;
+import rapaio.data.VarDouble;
+import rapaio.data.VarNominal;
+import rapaio.data.transform.RefSort;
+import rapaio.ml.model.tree.CompiledTrees;
+
+/**
+ * Out of bag computations shared by forests.
+ * <p>
+ * Out of bag contributions of trees are accumulated by tree workers into thread local buffers, one buffer
+ * for each worker thread. Buffers are merged once, after all trees were fitted, which avoids any
+ * synchronization between workers.
+ * <p>
+ * Permutation importance is computed on compiled trees. Out of bag rows are extracted once for each tree
+ * into a column matrix and each variable is evaluated with a view of that matrix where only the column
+ * of the variable is replaced by a permuted copy.
+ */
+final class OutOfBag {
+
+    private OutOfBag() {
+    }
+
+    /**
+     * Accumulated out of bag values. For each row it keeps a fixed number of values, which are either votes
+     * or sums of predictions, and the number of trees which contributed to that row.
+     */
+    static final class Buffer {
+
+        private final int width;
+        private final double[] values;
+        private final int[] counts;
+
+        Buffer(int rows, int width) {
+            this.width = width;
+            this.values = new double[rows * width];
+            this.counts = new int[rows];
+        }
+
+        void add(int row, int col, double value) {
+            values[row * width + col] += value;
+            counts[row]++;
+        }
+
+        double get(int row, int col) {
+            return values[row * width + col];
+        }
+
+        int count(int row) {
+            return counts[row];
+        }
+
+        void merge(Buffer other) {
+            for (int i = 0; i < values.length; i++) {
+                values[i] += other.values[i];
+            }
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += other.counts[i];
+            }
+        }
+    }
+
+    /**
+     * Provides a buffer for each thread which accumulates values and merges all of them at the end.
+     */
+    static final class Accumulator {
+
+        private final int rows;
+        private final int width;
+        private final List<Buffer> buffers = Collections.synchronizedList(new ArrayList<>());
+        private final ThreadLocal<Buffer> local;
+
+        Accumulator(int rows, int width) {
+            this.rows = rows;
+            this.width = width;
+            this.local = ThreadLocal.withInitial(() -> {
+                Buffer buffer = new Buffer(rows, width);
+                buffers.add(buffer);
+                return buffer;
+            });
+        }
+
+        /**
+         * @return buffer of the current thread
+         */
+        Buffer local() {
+            return local.get();
+        }
+
+        /**
+         * @return a new buffer with the sum of all thread buffers
+         */
+        Buffer merge() {
+            Buffer result = new Buffer(rows, width);
+            synchronized (buffers) {
+                buffers.forEach(result::merge);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Computes permutation importance of a compiled tree on its out of bag rows. The importance of a variable
+     * is the increase of the loss after the values of the variable are permuted. Variables not used by the tree
+     * have importance zero. Variables are evaluated in parallel.
+     *
+     * @param tree       compiled tree
+     * @param columns    column matrix of the out of bag rows, built with {@link CompiledTrees#columns(Frame)}
+     * @param rows       number of out of bag rows
+     * @param inputNames names of input variables
+     * @param seed       seed used to permute the values of variables
+     * @param loss       loss function computed on the outputs of compiled tree
+     * @return importance of each input variable
+     */
+    static double[] permutationImportance(CompiledTrees tree, double[][] columns, int rows, String[] inputNames,
+            long seed, ToDoubleFunction<double[]> loss) {
+        Map<String, Integer> features = new HashMap<>();
+        String[] featureNames = tree.featureNames();
+        for (int i = 0; i < featureNames.length; i++) {
+            features.put(featureNames[i], i);
+        }
+        Random random = new Random(seed);
+        long[] seeds = IntStream.range(0, inputNames.length).mapToLong(_ -> random.nextLong()).toArray();
+
+        double[] out = new double[rows * tree.outputs()];
+        tree.predict(columns, 0, rows, out);
+        double refLoss = loss.applyAsDouble(out);
+
+        double[] scores = new double[inputNames.length];
+        IntStream.range(0, inputNames.length).parallel().forEach(i -> {
+            Integer f = features.get(inputNames[i]);
+            if (f == null) {
+                return;
+            }
+            double[] permuted = columns[f].clone();
+            Random r = new Random(seeds[i]);
+            for (int j = permuted.length - 1; j > 0; j--) {
+                int k = r.nextInt(j + 1);
+                double tmp = permuted[j];
+                permuted[j] = permuted[k];
+                permuted[k] = tmp;
+            }
+            double[][] view = columns.clone();
+            view[f] = permuted;
+            double[] permutedOut = new double[rows * tree.outputs()];
+            tree.predict(view, 0, rows, permutedOut);
+            scores[i] = loss.applyAsDouble(permutedOut) - refLoss;
+        });
+        return scores;
+    }
+
+    /**
+     * Builds the summary of permutation importance scores, sorted descending by z-score.
+     *
+     * @param viMap importance scores of each tree, for each variable
+     * @return frame with mean, standard deviation, z-score and p-value for each variable
+     */
+    static Frame permutationInfo(Map<String, List<Double>> viMap) {
+        Var name = VarNominal.empty().name("name");
+        Var score = VarDouble.empty().name("mean");
+        Var sds = VarDouble.empty().name("sd");
+        Var zscores = VarDouble.empty().name("z-score");
+        Var pvalues = VarDouble.empty().name("p-value");
+        Distribution normal = Normal.std();
+        for (Map.Entry<String, List<Double>> e : viMap.entrySet()) {
+            name.addLabel(e.getKey());
+            VarDouble scores = VarDouble.copy(e.getValue());
+            double mean = Mean.of(scores).value();
+            double sd = Variance.of(scores).sdValue();
+            double zscore = mean / (sd);
+            double pvalue = 2 * normal.cdf(-Math.abs(zscore));
+            score.addDouble(Math.abs(mean));
+            sds.addDouble(sd);
+            zscores.addDouble(Math.abs(zscore));
+            pvalues.addDouble(pvalue);
+        }
+        return SolidFrame.byVars(name, score, sds, zscores, pvalues)
+                .fapply(RefSort.by(zscores.refComparator(false))).copy();
+    }
+}
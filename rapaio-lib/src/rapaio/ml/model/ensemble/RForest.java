@@ -23,7 +23,10 @@ package rapaio.ml.model.ensemble;
 
 import java.io.Serial;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Random;
 import java.util.concurrent.ExecutorService;
@@ -33,6 +36,7 @@ import java.util.stream.IntStream;
 import rapaio.core.param.Param;
 import rapaio.core.param.ValueParam;
 import rapaio.data.Frame;
+import rapaio.data.Mapping;
 import rapaio.data.Var;
 import rapaio.data.VarDouble;
 import rapaio.data.VarType;
@@ -42,8 +46,14 @@ import rapaio.ml.common.VarSelector;
 import rapaio.ml.model.RegressionModel;
 import rapaio.ml.model.RegressionResult;
 import rapaio.ml.model.RunInfo;
+import rapaio.ml.model.Scorer;
+import rapaio.ml.model.boost.GBTRtree;
+import rapaio.ml.model.tree.CompiledTrees;
+import rapaio.ml.model.tree.FeatureBins;
 import rapaio.ml.model.tree.RTree;
+import rapaio.ml.model.tree.SortedColumnIndex;
 import rapaio.ml.model.tree.rtree.Splitter;
+import rapaio.printer.Format;
 import rapaio.printer.Printer;
 import rapaio.printer.opt.POpt;
 import rapaio.util.parralel.ParallelStreamCollector;
@@ -89,7 +99,20 @@ public class RForest extends RegressionModel<RForest, RegressionResult, RunInfo<
                     .minCount.set(1),
             "model", Objects::nonNull);
 
+    /**
+     * Performs out of the bag computations, requires a row sampler which leaves rows out, like bootstrap.
+     */
+    public final ValueParam<Boolean, RForest> oob = new ValueParam<>(this, false, "oob");
+
+    /**
+     * Perform permutation variable importance computations, available only for forests of regression trees
+     */
+    public final ValueParam<Boolean, RForest> viPerm = new ValueParam<>(this, false, "viPerm");
+
     private final List<RegressionModel<?, ?, ?>> regressions = new ArrayList<>();
+    private double oobError = Double.NaN;
+    private VarDouble oobPredictions;
+    private final Map<String, List<Double>> permVIMap = new HashMap<>();
 
     @Override
     public RForest newInstance() {
@@ -108,36 +131,179 @@ public class RForest extends RegressionModel<RForest, RegressionResult, RunInfo<
                 .targets(1, 1, false, VarType.DOUBLE);
     }
 
+    /**
+     * @return mean squared error of out of bag predictions, computed on rows which were out of bag for at least one tree
+     */
+    public double oobError() {
+        return oobError;
+    }
+
+    /**
+     * @return out of bag predictions, the mean of predictions of trees for which a row was out of bag, missing
+     * if a row was used for fitting by all trees
+     */
+    public VarDouble oobPredictions() {
+        return oobPredictions;
+    }
+
+    /**
+     * Permutation variable importance. The score of a variable for a tree is the increase of the mean squared
+     * error on out of bag rows after the values of the variable are permuted.
+     *
+     * @return frame with importance scores for each variable
+     */
+    public Frame getPermVIInfo() {
+        return OutOfBag.permutationInfo(permVIMap);
+    }
+
     @Override
     protected boolean coreFit(Frame df, Var weights) {
+        if (viPerm.get() && !(model.get() instanceof RTree)) {
+            throw new IllegalArgumentException("Permutation variable importance is available only for regression trees.");
+        }
         regressions.clear();
+        permVIMap.clear();
         Random random = getRandom();
         long[] seeds = IntStream.range(0, runs.get()).mapToLong(i -> random.nextLong()).toArray();
         int threads = computeThreads();
+
+        // numeric features are quantized once for all trees if histogram search is enabled
+        FeatureBins bins = null;
+        if (model.get() instanceof GBTRtree<?, ?, ?> tree && tree.histogramBins.get() > 0) {
+            String[] names = Arrays.stream(inputNames()).filter(name -> df.type(name).isNumeric()).toArray(String[]::new);
+            bins = FeatureBins.of(df, names, tree.histogramBins.get());
+        }
+        final FeatureBins sharedBins = bins;
+
+        // numeric features are sorted once for all trees if exact search uses presorted rows
+        SortedColumnIndex index = null;
+        if (bins == null && model.get() instanceof RTree tree && tree.presorted.get()) {
+            String[] names = Arrays.stream(inputNames()).filter(name -> df.type(name).isNumeric()).toArray(String[]::new);
+            index = SortedColumnIndex.of(df, names);
+        }
+        final SortedColumnIndex sharedIndex = index;
+
+        // out of bag predictions are summed by tree workers into thread local buffers
+        OutOfBag.Accumulator sums = oob.get() ? new OutOfBag.Accumulator(df.rowCount(), 1) : null;
+
         ExecutorService executor = Executors.newWorkStealingPool(threads);
         IntStream.range(0, runs.get()).boxed()
-                .collect(ParallelStreamCollector.streamingOrdered(s -> buildWeakPredictor(df, weights, s, seeds[s]), executor, threads))
+                .collect(ParallelStreamCollector.streamingOrdered(s -> buildWeakPredictor(df, weights, sharedBins, sharedIndex,
+                        sums, s, seeds[s]), executor, threads))
                 .forEach(info -> {
                     regressions.add(info.model);
+                    if (viPerm.get()) {
+                        for (int j = 0; j < inputNames().length; j++) {
+                            permVIMap.computeIfAbsent(inputName(j), _ -> new ArrayList<>()).add(info.permVI[j]);
+                        }
+                    }
                     runningHook.get().accept(RunInfo.forRegression(this, info.run));
                 });
         executor.shutdownNow();
+
+        if (oob.get()) {
+            oobCompute(df, sums.merge());
+        }
         return true;
     }
 
-    private record WeakPredictorInfo(RegressionModel<?, ?, ?> model, int run) {
+    private void oobCompute(Frame df, OutOfBag.Buffer sums) {
+        Var target = df.rvar(firstTargetName());
+        oobPredictions = VarDouble.empty(df.rowCount()).name(firstTargetName());
+        double error = 0;
+        int count = 0;
+        for (int i = 0; i < df.rowCount(); i++) {
+            if (sums.count(i) == 0) {
+                oobPredictions.setMissing(i);
+                continue;
+            }
+            double prediction = sums.get(i, 0) / sums.count(i);
+            oobPredictions.setDouble(i, prediction);
+            double residual = target.getDouble(i) - prediction;
+            error += residual * residual;
+            count++;
+        }
+        oobError = count > 0 ? error / count : Double.NaN;
+    }
+
+    /**
+     * Computes permutation importance on out of bag rows, as increase of the mean squared error.
+     */
+    private double[] permVICompute(Frame df, RTree tree, Mapping oobIndexes, long seed) {
+        CompiledTrees compiled = CompiledTrees.empty(1, CompiledTrees.Link.IDENTITY).add(tree, 0, 1);
+        double[][] columns = compiled.columns(df.mapRows(oobIndexes));
+        int rows = oobIndexes.size();
+        Var target = df.rvar(firstTargetName());
+        return OutOfBag.permutationImportance(compiled, columns, rows, inputNames(), seed, out -> {
+            double error = 0;
+            for (int i = 0; i < rows; i++) {
+                double residual = target.getDouble(oobIndexes.get(i)) - out[i];
+                error += residual * residual;
+            }
+            return rows > 0 ? error / rows : 0;
+        });
     }
 
-    private WeakPredictorInfo buildWeakPredictor(Frame df, Var weights, int run, long seed) {
+    private record WeakPredictorInfo(RegressionModel<?, ?, ?> model, int run, double[] permVI) {
+    }
+
+    private WeakPredictorInfo buildWeakPredictor(Frame df, Var weights, FeatureBins bins, SortedColumnIndex index,
+            OutOfBag.Accumulator sums, int run, long seed) {
         RowSampler.Sample sample = rowSampler.get().nextSample(new Random(seed), df, weights);
         RegressionModel<?, ?, ?> m = model.get().newInstance().seed.set(seed);
-        return new WeakPredictorInfo(m.fit(sample.df(), sample.weights(), targetNames), run);
+        if (bins != null && m instanceof GBTRtree<?, ?, ?> tree) {
+            tree.withFeatureBins(bins, sample.mapping());
+        }
+        if (index != null && m instanceof RTree tree) {
+            tree.withSortedIndex(index, sample.mapping());
+        }
+        m.fit(sample.df(), sample.weights(), targetNames);
+
+        Mapping oobIndexes = sample.getComplementMapping();
+        if (sums != null) {
+            var prediction = m.predict(df.mapRows(oobIndexes), false).firstPrediction();
+            OutOfBag.Buffer buffer = sums.local();
+            for (int j = 0; j < oobIndexes.size(); j++) {
+                buffer.add(oobIndexes.get(j), 0, prediction.getDouble(j));
+            }
+        }
+        return new WeakPredictorInfo(m, run, viPerm.get() ? permVICompute(df, (RTree) m, oobIndexes, seed) : null);
     }
 
     public List<RegressionModel<?, ?, ?>> getFittedModels() {
         return regressions;
     }
 
+    /**
+     * Compiles the fitted forest into a flat array based predictor with a single output, the mean of tree
+     * predictions. All fitted models must be regression trees.
+     *
+     * @return compiled forest
+     */
+    public CompiledTrees compile() {
+        if (!isFitted()) {
+            throw new IllegalStateException("Cannot compile a model which is not fitted.");
+        }
+        var compiled = CompiledTrees.empty(1, CompiledTrees.Link.IDENTITY);
+        for (var regression : regressions) {
+            if (!(regression instanceof RTree tree)) {
+                throw new IllegalStateException("Only forests of regression trees can be compiled.");
+            }
+            compiled.add(tree, 0, 1.0 / regressions.size());
+        }
+        return compiled;
+    }
+
+    /**
+     * Builds a scorer from the compiled model, with a single output, the prediction of the target variable.
+     *
+     * @return thread safe scorer
+     */
+    @Override
+    public Scorer scorer() {
+        return compile().scorer(Arrays.asList(inputNames()), List.of(firstTargetName()));
+    }
+
     @Override
     protected RegressionResult corePredict(Frame df, boolean withResiduals, final double[] quantiles) {
         RegressionResult fit = RegressionResult.build(this, df, withResiduals, quantiles);
@@ -163,7 +329,12 @@ public class RForest extends RegressionModel<RForest, RegressionResult, RunInfo<
 
     @Override
     public String toSummary(Printer printer, POpt<?>... options) {
-        return "Model:\n" + fullName() + "\nfitted: " + isFitted() + "\n";
+        StringBuilder sb = new StringBuilder();
+        sb.append("Model:\n").append(fullName()).append("\nfitted: ").append(isFitted()).append("\n");
+        if (isFitted() && oob.get()) {
+            sb.append("oob error:").append(Format.floatFlex(oobError)).append("\n");
+        }
+        return sb.toString();
     }
 
     @Override
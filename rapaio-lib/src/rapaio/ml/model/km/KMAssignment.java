@@ -0,0 +1,348 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.model.km;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import rapaio.ml.common.distance.Distance;
+import rapaio.ml.common.distance.EuclideanDistance;
+import rapaio.ml.common.distance.Manhattan;
+import rapaio.ml.common.distance.MinkowskiDistance;
+
+/**
+ * Assigns instances to the closest centroids during the iterations of {@link KMCluster}, avoiding most
+ * distance computations with the triangle inequality.
+ * <p>
+ * For each instance the assignment keeps an upper bound of the distance to its assigned centroid and lower bounds
+ * of the distances to the other centroids. After centroids move, bounds are loosened with the distance each centroid
+ * moved and a distance is computed only when bounds cannot tell that the assigned centroid is still the closest one.
+ * <p>
+ * Hamerly's variant keeps a single lower bound for all other centroids and needs little memory. Elkan's variant
+ * keeps a lower bound for each centroid, which prunes many more distance computations when there are many clusters,
+ * at the cost of storing {@code n * k} bounds. Both variants require a distance which is a metric.
+ * <p>
+ * Instances are processed in parallel, in chunks of consecutive rows. Since each instance has its own bounds,
+ * results do not depend on the number of threads.
+ */
+abstract sealed class KMAssignment permits KMAssignment.Hamerly, KMAssignment.Elkan {
+
+    /**
+     * Minimum number of clusters for which Elkan's variant is selected automatically.
+     */
+    static final int ELKAN_MIN_K = 32;
+
+    /**
+     * Maximum number of lower bounds for which Elkan's variant is selected automatically, 512MB of bounds.
+     */
+    static final long ELKAN_MAX_BOUNDS = 1L << 26;
+
+    private static final int CHUNK_ROWS = 1024;
+
+    /**
+     * Creates an accelerated assignment.
+     *
+     * @param acceleration type of acceleration
+     * @param distance     distance used to compare instances with centroids
+     * @param x            instances in row major order
+     * @param dim          number of features
+     * @param k            number of clusters
+     * @return accelerated assignment or null if no acceleration is used
+     */
+    static KMAssignment of(KMCluster.Acceleration acceleration, Distance distance, double[] x, int dim, int k) {
+        int n = x.length / dim;
+        return switch (acceleration) {
+            case None -> null;
+            case Hamerly -> new Hamerly(checkMetric(distance), x, dim, k);
+            case Elkan -> {
+                if ((long) n * k > Integer.MAX_VALUE - 8) {
+                    throw new IllegalArgumentException("Too many instances and clusters to store Elkan bounds.");
+                }
+                yield new Elkan(checkMetric(distance), x, dim, k);
+            }
+            case Auto -> {
+                if (!isMetric(distance)) {
+                    yield null;
+                }
+                yield (k >= ELKAN_MIN_K && (long) n * k <= ELKAN_MAX_BOUNDS)
+                        ? new Elkan(distance, x, dim, k)
+                        : new Hamerly(distance, x, dim, k);
+            }
+        };
+    }
+
+    static boolean isMetric(Distance distance) {
+        return switch (distance) {
+            case EuclideanDistance _, Manhattan _ -> true;
+            case MinkowskiDistance minkowski -> minkowski.p() >= 1;
+            default -> false;
+        };
+    }
+
+    private static Distance checkMetric(Distance distance) {
+        if (!isMetric(distance)) {
+            throw new IllegalArgumentException("Accelerated assignment requires a metric distance, distance "
+                    + distance.name() + " is not supported.");
+        }
+        return distance;
+    }
+
+    protected final Distance distance;
+    protected final double[] x;
+    protected final int n;
+    protected final int dim;
+    protected final int k;
+
+    // upper bounds of the distances to the assigned centroids
+    protected final double[] upper;
+    // centroids used in the previous assignment
+    private double[] previous;
+
+    private KMAssignment(Distance distance, double[] x, int dim, int k) {
+        this.distance = distance;
+        this.x = x;
+        this.n = x.length / dim;
+        this.dim = dim;
+        this.k = k;
+        this.upper = new double[n];
+    }
+
+    /**
+     * Assigns instances to the closest centroids. The first call computes all distances, the following calls
+     * use the bounds updated with the distances centroids moved since the previous call.
+     *
+     * @param c          centroids in row major order
+     * @param assignment assignment to be updated, it must contain the previous assignment after the first call
+     */
+    final void assign(double[] c, int[] assignment) {
+        double[] shift = null;
+        if (previous != null) {
+            shift = new double[k];
+            for (int j = 0; j < k; j++) {
+                shift[j] = distance.compute(previous, j * dim, c, j * dim, dim);
+            }
+        }
+        // half of the distances between centroids
+        double[] half = new double[k * k];
+        IntStream.range(0, k).parallel().forEach(a -> {
+            for (int b = a + 1; b < k; b++) {
+                double d = distance.compute(c, a * dim, c, b * dim, dim) / 2;
+                half[a * k + b] = d;
+                half[b * k + a] = d;
+            }
+        });
+        Pass pass = new Pass(c, shift, half, assignment);
+        int chunks = (n + CHUNK_ROWS - 1) / CHUNK_ROWS;
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            int end = Math.min(n, (chunk + 1) * CHUNK_ROWS);
+            for (int i = chunk * CHUNK_ROWS; i < end; i++) {
+                if (pass.shift == null) {
+                    initRow(i, pass);
+                } else {
+                    updateRow(i, pass);
+                }
+            }
+        });
+        previous = Arrays.copyOf(c, c.length);
+    }
+
+    /**
+     * Computes all distances from an instance to the centroids and initializes its bounds.
+     */
+    protected abstract void initRow(int i, Pass pass);
+
+    /**
+     * Updates bounds of an instance and its assignment.
+     */
+    protected abstract void updateRow(int i, Pass pass);
+
+    protected final double distance(int i, double[] c, int j) {
+        return distance.compute(x, i * dim, c, j * dim, dim);
+    }
+
+    /**
+     * Values shared by all instances during one assignment.
+     */
+    protected final class Pass {
+
+        final double[] c;
+        final double[] shift;
+        final double[] half;
+        final int[] assignment;
+        // half of the distance from each centroid to the closest other centroid
+        final double[] separation;
+        final int maxShiftIndex;
+        final double maxShift;
+        final double secondMaxShift;
+
+        Pass(double[] c, double[] shift, double[] half, int[] assignment) {
+            this.c = c;
+            this.shift = shift;
+            this.half = half;
+            this.assignment = assignment;
+            this.separation = new double[k];
+            for (int a = 0; a < k; a++) {
+                double min = Double.POSITIVE_INFINITY;
+                for (int b = 0; b < k; b++) {
+                    if (a != b) {
+                        min = Math.min(min, half[a * k + b]);
+                    }
+                }
+                separation[a] = min;
+            }
+            int maxIndex = -1;
+            double max = 0;
+            double secondMax = 0;
+            if (shift != null) {
+                for (int j = 0; j < k; j++) {
+                    if (maxIndex < 0 || shift[j] > max) {
+                        secondMax = max;
+                        max = shift[j];
+                        maxIndex = j;
+                    } else if (shift[j] > secondMax) {
+                        secondMax = shift[j];
+                    }
+                }
+            }
+            this.maxShiftIndex = maxIndex;
+            this.maxShift = max;
+            this.secondMaxShift = secondMax;
+        }
+    }
+
+    /**
+     * Hamerly's algorithm, with one upper bound and one lower bound for each instance.
+     */
+    static final class Hamerly extends KMAssignment {
+
+        // lower bounds of the distances to the second closest centroids
+        private final double[] lower;
+
+        private Hamerly(Distance distance, double[] x, int dim, int k) {
+            super(distance, x, dim, k);
+            this.lower = new double[n];
+        }
+
+        @Override
+        protected void initRow(int i, Pass pass) {
+            int closest = 0;
+            double first = Double.POSITIVE_INFINITY;
+            double second = Double.POSITIVE_INFINITY;
+            for (int j = 0; j < k; j++) {
+                double d = distance(i, pass.c, j);
+                if (d < first) {
+                    second = first;
+                    first = d;
+                    closest = j;
+                } else if (d < second) {
+                    second = d;
+                }
+            }
+            pass.assignment[i] = closest;
+            upper[i] = first;
+            lower[i] = second;
+        }
+
+        @Override
+        protected void updateRow(int i, Pass pass) {
+            int a = pass.assignment[i];
+            upper[i] += pass.shift[a];
+            lower[i] -= (a == pass.maxShiftIndex) ? pass.secondMaxShift : pass.maxShift;
+            double bound = Math.max(lower[i], pass.separation[a]);
+            if (upper[i] <= bound) {
+                return;
+            }
+            upper[i] = distance(i, pass.c, a);
+            if (upper[i] <= bound) {
+                return;
+            }
+            initRow(i, pass);
+        }
+    }
+
+    /**
+     * Elkan's algorithm, with one upper bound and one lower bound for each pair of instance and centroid.
+     */
+    static final class Elkan extends KMAssignment {
+
+        // lower bounds of the distances to all centroids, stored in row major order
+        private final double[] lower;
+
+        private Elkan(Distance distance, double[] x, int dim, int k) {
+            super(distance, x, dim, k);
+            this.lower = new double[n * k];
+        }
+
+        @Override
+        protected void initRow(int i, Pass pass) {
+            int base = i * k;
+            int closest = 0;
+            double first = Double.POSITIVE_INFINITY;
+            for (int j = 0; j < k; j++) {
+                double d = distance(i, pass.c, j);
+                lower[base + j] = d;
+                if (d < first) {
+                    first = d;
+                    closest = j;
+                }
+            }
+            pass.assignment[i] = closest;
+            upper[i] = first;
+        }
+
+        @Override
+        protected void updateRow(int i, Pass pass) {
+            int base = i * k;
+            for (int j = 0; j < k; j++) {
+                lower[base + j] = Math.max(0, lower[base + j] - pass.shift[j]);
+            }
+            int a = pass.assignment[i];
+            double u = upper[i] + pass.shift[a];
+            if (u <= pass.separation[a]) {
+                upper[i] = u;
+                return;
+            }
+            boolean tight = false;
+            for (int j = 0; j < k; j++) {
+                if (j == a || u <= lower[base + j] || u <= pass.half[a * k + j]) {
+                    continue;
+                }
+                if (!tight) {
+                    u = distance(i, pass.c, a);
+                    lower[base + a] = u;
+                    tight = true;
+                    if (u <= lower[base + j] || u <= pass.half[a * k + j]) {
+                        continue;
+                    }
+                }
+                double d = distance(i, pass.c, j);
+                lower[base + j] = d;
+                if (d < u) {
+                    a = j;
+                    u = d;
+                }
+            }
+            pass.assignment[i] = a;
+            upper[i] = u;
+        }
+    }
+}
@@ -22,6 +22,7 @@
 package rapaio.ml.model.km;
 
 import java.io.Serial;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Objects;
@@ -29,8 +30,10 @@ import java.util.Random;
 import java.util.stream.IntStream;
 
 import rapaio.core.param.ValueParam;
-import rapaio.core.stat.Mean;
 import rapaio.darray.DArray;
+import rapaio.darray.DArrays;
+import rapaio.darray.Order;
+import rapaio.darray.Shape;
 import rapaio.data.Frame;
 import rapaio.data.SolidFrame;
 import rapaio.data.Unique;
@@ -38,7 +41,6 @@ import rapaio.data.Var;
 import rapaio.data.VarDouble;
 import rapaio.data.VarInt;
 import rapaio.data.VarType;
-import rapaio.data.transform.VarSort;
 import rapaio.ml.common.Capabilities;
 import rapaio.ml.common.distance.Distance;
 import rapaio.ml.common.distance.EuclideanDistance;
@@ -68,7 +70,16 @@ public class KMCluster extends ClusteringModel<KMCluster, KMClusterResult, RunIn
 
         Distance distance();
 
-        void recomputeCentroids(int k, DArray<Double> c, DArray<Double> instances, int[] assignment);
+        /**
+         * Recomputes centroids from the instances assigned to each cluster.
+         *
+         * @param k          number of clusters
+         * @param dim        number of features
+         * @param c          centroids in row major order, updated in place
+         * @param x          instances in row major order
+         * @param assignment cluster assigned to each instance
+         */
+        void recomputeCentroids(int k, int dim, double[] c, double[] x, int[] assignment);
     }
 
     public static final Method KMeans = new Method() {
@@ -78,18 +89,19 @@ public class KMCluster extends ClusteringModel<KMCluster, KMClusterResult, RunIn
             return new EuclideanDistance();
         }
 
-        public void recomputeCentroids(int k, DArray<Double> c, DArray<Double> instances, int[] assignment) {
-
-            // we compute mean for each feature separately
-            for (int j = 0; j < instances.dim(1); j++) {
-                // collect values for each cluster in mean, for a given input feature
-                Var[] means = IntStream.range(0, k).mapToObj(i -> VarDouble.empty()).toArray(VarDouble[]::new);
-                for (int i = 0; i < instances.dim(0); i++) {
-                    means[assignment[i]].addDouble(instances.getDouble(i, j));
-                }
-                for (int i = 0; i < k; i++) {
-                    c.setDouble(Mean.of(means[i]).value(), i, j);
-                }
+        public void recomputeCentroids(int k, int dim, double[] c, double[] x, int[] assignment) {
+            int[] counts = new int[k];
+            for (int cluster : assignment) {
+                counts[cluster]++;
+            }
+            // means are computed in two passes, the second one corrects the rounding errors of the first pass
+            double[] sums = chunkSums(k, dim, x, assignment, null);
+            for (int i = 0; i < sums.length; i++) {
+                c[i] = sums[i] / counts[i / dim];
+            }
+            double[] corrections = chunkSums(k, dim, x, assignment, c);
+            for (int i = 0; i < corrections.length; i++) {
+                c[i] += corrections[i] / counts[i / dim];
             }
         }
 
@@ -106,20 +118,36 @@ public class KMCluster extends ClusteringModel<KMCluster, KMClusterResult, RunIn
             return new Manhattan();
         }
 
-        public void recomputeCentroids(int k, DArray<Double> c, DArray<Double> instances, int[] assignment) {
-
-            // we compute mean for each feature separately
-            for (int j = 0; j < instances.dim(1); j++) {
-                // collect values for each cluster in mean, for a given input feature
-                Var[] means = IntStream.range(0, k).mapToObj(i -> VarDouble.empty()).toArray(VarDouble[]::new);
-                for (int i = 0; i < instances.dim(0); i++) {
-                    means[assignment[i]].addDouble(instances.getDouble(i, j));
+        public void recomputeCentroids(int k, int dim, double[] c, double[] x, int[] assignment) {
+            // sort instances by cluster, each cluster occupies a contiguous range of positions
+            int[] start = new int[k + 1];
+            for (int cluster : assignment) {
+                start[cluster + 1]++;
+            }
+            for (int i = 0; i < k; i++) {
+                start[i + 1] += start[i];
+            }
+            int[] next = Arrays.copyOf(start, k);
+            int[] rows = new int[assignment.length];
+            for (int i = 0; i < assignment.length; i++) {
+                rows[next[assignment[i]]++] = i;
+            }
+            // medians are computed for each feature separately
+            IntStream.range(0, dim).parallel().forEach(j -> {
+                double[] values = new double[rows.length];
+                for (int i = 0; i < rows.length; i++) {
+                    values[i] = x[rows[i] * dim + j];
                 }
                 for (int i = 0; i < k; i++) {
-                    Var sorted = means[i].fapply(VarSort.ascending());
-                    c.setDouble(sorted.getDouble(sorted.size() / 2), i, j);
+                    int size = start[i + 1] - start[i];
+                    if (size == 0) {
+                        c[i * dim + j] = Double.NaN;
+                        continue;
+                    }
+                    Arrays.sort(values, start[i], start[i + 1]);
+                    c[i * dim + j] = values[start[i] + size / 2];
                 }
-            }
+            });
         }
 
         @Override
@@ -128,6 +156,35 @@ public class KMCluster extends ClusteringModel<KMCluster, KMClusterResult, RunIn
         }
     };
 
+    /**
+     * Minimum number of instances in a chunk of partial sums, when instances are split in multiple chunks.
+     */
+    private static final int CHUNK_ROWS = 4096;
+    private static final int MAX_CHUNKS = 64;
+
+    /**
+     * Acceleration of the assignment of instances to centroids.
+     */
+    public enum Acceleration {
+        /**
+         * All distances between instances and centroids are computed at each iteration.
+         */
+        None,
+        /**
+         * Hamerly's algorithm, with two bounds for each instance.
+         */
+        Hamerly,
+        /**
+         * Elkan's algorithm, with a bound for each instance and centroid.
+         */
+        Elkan,
+        /**
+         * Elkan's algorithm for many clusters if bounds fit in memory, Hamerly's algorithm otherwise. No acceleration
+         * is used if the distance is not a metric.
+         */
+        Auto
+    }
+
     @Serial
     private static final long serialVersionUID = -1046184364541391871L;
 
@@ -156,6 +213,11 @@ public class KMCluster extends ClusteringModel<KMCluster, KMClusterResult, RunIn
      */
     public final ValueParam<Double, KMCluster> eps = new ValueParam<>(this, 1e-20, "eps");
 
+    /**
+     * Acceleration of the assignment of instances to centroids, using the triangle inequality.
+     */
+    public final ValueParam<Acceleration, KMCluster> acceleration = new ValueParam<>(this, Acceleration.Auto, "acceleration");
+
     // clustering artifacts
 
     private DArray<Double> c;
@@ -200,19 +262,22 @@ public class KMCluster extends ClusteringModel<KMCluster, KMClusterResult, RunIn
 
         Random random = getRandom();
         DArray<Double> m = initialDf.darray();
-        c = initializeClusters(random, m);
+        double[] x = m.toDoubleArray(Order.C);
+        double[] cv = initializeClusters(random, m).toDoubleArray(Order.C);
+        c = DArrays.stride(Shape.of(k.get(), m.dim(1)), cv);
 
         int[] assignment = Ints.fill(m.dim(0), -1);
         errors = VarDouble.empty().name("errors");
+        KMAssignment accelerated = KMAssignment.of(acceleration.get(), method.get().distance(), x, m.dim(1), k.get());
 
-        assignToCentroids(m, assignment, true);
-        repairEmptyClusters(random, m, assignment);
+        assignToCentroids(m, x, cv, accelerated, assignment);
+        repairEmptyClusters(random, x, cv, assignment);
 
         int rounds = runs.get();
         while (rounds-- > 0) {
-            method.get().recomputeCentroids(k.get(), c, m, assignment);
-            assignToCentroids(m, assignment, true);
-            repairEmptyClusters(random, m, assignment);
+            method.get().recomputeCentroids(k.get(), m.dim(1), cv, x, assignment);
+            assignToCentroids(m, x, cv, accelerated, assignment);
+            repairEmptyClusters(random, x, cv, assignment);
 
             if (runningHook != null) {
                 learned = true;
@@ -248,44 +313,60 @@ public class KMCluster extends ClusteringModel<KMCluster, KMClusterResult, RunIn
     }
 
     private double computeInitError(DArray<Double> m, DArray<Double> centroids) {
+        int[] closest = findClosestCentroids(m, centroids);
         double sum = 0;
         for (int i = 0; i < m.dim(0); i++) {
-            DArray<Double> mrow = m.selsq(0, i);
-            int cluster = findClosestCentroid(mrow, centroids);
-            sum += method.get().distance().reduced(centroids.selsq(0, cluster), mrow);
+            sum += method.get().distance().reduced(centroids.selsq(0, closest[i]), m.selsq(0, i));
         }
         return sum;
     }
 
-    private void assignToCentroids(DArray<Double> m, int[] assignment, boolean withErrors) {
-        double totalError = 0.0;
-        for (int i = 0; i < m.dim(0); i++) {
-            DArray<Double> row = m.selsq(0, i);
-            int cluster = findClosestCentroid(row, c);
-            if (withErrors) {
-                totalError += method.get().distance().reduced(c.selsq(0, cluster), row);
-            }
-            assignment[i] = cluster;
+    /**
+     * Assigns instances to centroids during fit and appends the error of the assignment.
+     */
+    private void assignToCentroids(DArray<Double> m, double[] x, double[] cv, KMAssignment accelerated, int[] assignment) {
+        if (accelerated != null) {
+            accelerated.assign(cv, assignment);
+        } else {
+            int[] closest = findClosestCentroids(m, c);
+            System.arraycopy(closest, 0, assignment, 0, closest.length);
         }
-        if (withErrors) {
-            errors.addDouble(totalError);
+        Distance distance = method.get().distance();
+        int dim = m.dim(1);
+        double[] rowErrors = new double[assignment.length];
+        IntStream.range(0, assignment.length).parallel().forEach(i ->
+                rowErrors[i] = distance.reduced(x, i * dim, cv, assignment[i] * dim, dim));
+        double totalError = 0.0;
+        for (double error : rowErrors) {
+            totalError += error;
         }
+        errors.addDouble(totalError);
     }
 
-    private int findClosestCentroid(DArray<Double> mrow, DArray<Double> centroids) {
-        int cluster = 0;
-        double d = method.get().distance().compute(mrow, centroids.selsq(0, 0));
-        for (int j = 1; j < centroids.dim(0); j++) {
-            double dd = method.get().distance().compute(mrow, centroids.selsq(0, j));
-            if (d > dd) {
-                d = dd;
-                cluster = j;
+    /**
+     * Finds the closest centroid for each instance. Distances are computed in parallel, in blocks of instances,
+     * without building the whole matrix of distances.
+     */
+    private int[] findClosestCentroids(DArray<Double> m, DArray<Double> centroids) {
+        int[] closest = new int[m.dim(0)];
+        method.get().distance().pairwise(m, centroids, (start, block) -> {
+            for (int i = 0; i < block.dim(0); i++) {
+                int cluster = 0;
+                double d = block.getDouble(i, 0);
+                for (int j = 1; j < block.dim(1); j++) {
+                    double dd = block.getDouble(i, j);
+                    if (d > dd) {
+                        d = dd;
+                        cluster = j;
+                    }
+                }
+                closest[start + i] = cluster;
             }
-        }
-        return cluster;
+        });
+        return closest;
     }
 
-    private void repairEmptyClusters(Random random, DArray<Double> df, int[] assignment) {
+    private void repairEmptyClusters(Random random, double[] x, double[] cv, int[] assignment) {
         // check for empty clusters, if any is found then
         // select random points to be new clusters, different than
         // existing clusters
@@ -308,7 +389,7 @@ public class KMCluster extends ClusteringModel<KMCluster, KMClusterResult, RunIn
         while (it.hasNext()) {
             int next = it.next();
             while (true) {
-                int selection = random.nextInt(df.dim(0));
+                int selection = random.nextInt(assignment.length);
                 boolean found = false;
 
                 // check if it does not collide with existent valid clusters
@@ -317,7 +398,7 @@ public class KMCluster extends ClusteringModel<KMCluster, KMClusterResult, RunIn
                     if (emptyCentroids.contains(i)) {
                         continue;
                     }
-                    if (!checkIfEqual(c, i, df, next)) {
+                    if (!checkIfEqual(cv, i, x, next)) {
                         found = true;
                         break;
                     }
@@ -328,9 +409,8 @@ public class KMCluster extends ClusteringModel<KMCluster, KMClusterResult, RunIn
 
                 // we found a valid centroid, it will be assigned
 
-                for (int j = 0; j < c.dim(1); j++) {
-                    c.setDouble(df.getDouble(selection, j), next, j);
-                }
+                int dim = c.dim(1);
+                System.arraycopy(x, selection * dim, cv, next * dim, dim);
                 break;
             }
 
@@ -344,13 +424,14 @@ public class KMCluster extends ClusteringModel<KMCluster, KMClusterResult, RunIn
         // the stopping criterion is given by a bound on error or a
         // maximum iteration
 
-        method.get().recomputeCentroids(k.get(), c, df, assignment);
+        method.get().recomputeCentroids(k.get(), c.dim(1), cv, x, assignment);
     }
 
-    private boolean checkIfEqual(DArray<Double> centroids, int c, DArray<Double> df, int i) {
+    private boolean checkIfEqual(double[] cv, int centroid, double[] x, int i) {
+        int dim = c.dim(1);
         int count = 0;
-        for (int j = 0; j < centroids.dim(1); j++) {
-            if (centroids.getDouble(c, j) == df.getDouble(i, j)) {
+        for (int j = 0; j < dim; j++) {
+            if (cv[centroid * dim + j] == x[i * dim + j]) {
                 count++;
             }
         }
@@ -359,12 +440,42 @@ public class KMCluster extends ClusteringModel<KMCluster, KMClusterResult, RunIn
 
     @Override
     public KMClusterResult corePredict(Frame df, boolean withScores) {
-        int[] assignment = Ints.fill(df.rowCount(), -1);
-        DArray<Double> m = df.darray();
-        assignToCentroids(m, assignment, false);
+        int[] assignment = findClosestCentroids(df.darray(), c);
         return KMClusterResult.valueOf(this, df, VarInt.wrap(assignment));
     }
 
+    /**
+     * Computes in parallel the sums of instances for each cluster and feature. Instances are split in a number of
+     * chunks which depends only on the number of instances and the partial sums of chunks are added in order,
+     * thus the result does not depend on the number of threads.
+     *
+     * @param means if not null, the means are subtracted from instances before summing
+     * @return sums in row major order
+     */
+    private static double[] chunkSums(int k, int dim, double[] x, int[] assignment, double[] means) {
+        int n = assignment.length;
+        int chunks = Math.max(1, Math.min(MAX_CHUNKS, n / CHUNK_ROWS));
+        double[][] partials = new double[chunks][];
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            double[] sums = new double[k * dim];
+            int end = (int) ((long) (chunk + 1) * n / chunks);
+            for (int i = (int) ((long) chunk * n / chunks); i < end; i++) {
+                int pos = assignment[i] * dim;
+                for (int j = 0; j < dim; j++) {
+                    sums[pos + j] += (means == null) ? x[i * dim + j] : x[i * dim + j] - means[pos + j];
+                }
+            }
+            partials[chunk] = sums;
+        });
+        double[] sums = new double[k * dim];
+        for (double[] partial : partials) {
+            for (int i = 0; i < sums.length; i++) {
+                sums[i] += partial[i];
+            }
+        }
+        return sums;
+    }
+
     @Override
     public String toString() {
         return fullName() + ", fitted=" + hasLearned();
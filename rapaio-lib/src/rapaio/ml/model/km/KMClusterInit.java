@@ -26,6 +26,7 @@ import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Random;
 import java.util.Set;
+import java.util.stream.IntStream;
 
 import rapaio.core.SamplingTools;
 import rapaio.darray.DArray;
@@ -56,19 +57,13 @@ public enum KMClusterInit implements Serializable {
             Set<Integer> ids = new HashSet<>();
             ids.add(centroids[0]);
 
+            // minimum distance from each instance to selected centroids, updated with each new centroid
+            double[] minDistances = distance.pairwise(m, m.sel(0, centroids[0])).toDoubleArray();
             double[] p = new double[m.dim(0)];
             for (int i = 1; i < k; i++) {
-                // fill weights with 0
-                Arrays.fill(p, 0);
                 // assign weights to the minimum distance to center
                 for (int j = 0; j < m.dim(0); j++) {
-                    if (ids.contains(j)) {
-                        continue;
-                    }
-                    p[j] = distance.compute(m.selsq(0, centroids[0]), m.selsq(0, j));
-                    for (int l = 1; l < i; l++) {
-                        p[j] = Math.min(p[j], distance.compute(m.selsq(0, centroids[l]), m.selsq(0, j)));
-                    }
+                    p[j] = ids.contains(j) ? 0 : minDistances[j];
                 }
                 // normalize the weights
                 double sum = Doubles.sum(p, 0, p.length);
@@ -77,11 +72,185 @@ public enum KMClusterInit implements Serializable {
                 int next = SamplingTools.sampleWeightedWR(random, 1, p)[0];
                 centroids[i] = next;
                 ids.add(next);
+
+                double[] nextDistances = distance.pairwise(m, m.sel(0, next)).toDoubleArray();
+                for (int j = 0; j < minDistances.length; j++) {
+                    minDistances[j] = Math.min(minDistances[j], nextDistances[j]);
+                }
+            }
+
+            return m.sel(0, centroids);
+        }
+    },
+    /**
+     * Scalable k-means++ (k-means||). Instead of selecting one centroid at a time, in each of a few rounds
+     * instances are sampled independently with probability proportional to their squared distance to the
+     * already selected candidates, with an oversampling factor of {@code 2k}. Sampling and the update of
+     * distances to candidates are done in parallel over chunks of instances. Candidates are weighted with
+     * the number of instances closest to them and reduced to {@code k} centroids with a weighted k-means++
+     * seeding, which is cheap since there are only a few candidates.
+     */
+    Parallel {
+        @Override
+        public DArray<Double> init(Random random, Distance distance, DArray<Double> m, int k) {
+            int n = m.dim(0);
+            if (n <= k) {
+                return Forgy.init(random, distance, m, k);
+            }
+
+            int[] candidates = new int[] {random.nextInt(n)};
+            double[] costs = Doubles.newFill(n, Double.POSITIVE_INFINITY);
+            updateCosts(distance, m, candidates, costs);
+
+            double oversampling = PARALLEL_OVERSAMPLING * k;
+            for (int round = 0; round < PARALLEL_ROUNDS; round++) {
+                double phi = Doubles.sum(costs, 0, n);
+                if (phi <= 0) {
+                    break;
+                }
+                int[] sampled = sampleCandidates(random, costs, oversampling / phi);
+                if (sampled.length == 0) {
+                    continue;
+                }
+                updateCosts(distance, m, sampled, costs);
+                int len = candidates.length;
+                candidates = Arrays.copyOf(candidates, len + sampled.length);
+                System.arraycopy(sampled, 0, candidates, len, sampled.length);
+            }
+            if (candidates.length <= k) {
+                return m.sel(0, completeCandidates(random, n, k, candidates));
+            }
+
+            // weight each candidate with the number of instances which are closest to it
+            DArray<Double> cm = m.sel(0, candidates);
+            int[] closest = new int[n];
+            distance.pairwise(m, cm, (start, block) -> {
+                for (int i = 0; i < block.dim(0); i++) {
+                    int best = 0;
+                    for (int j = 1; j < block.dim(1); j++) {
+                        if (block.getDouble(i, j) < block.getDouble(i, best)) {
+                            best = j;
+                        }
+                    }
+                    closest[start + i] = best;
+                }
+            });
+            double[] weights = new double[candidates.length];
+            for (int c : closest) {
+                weights[c]++;
             }
 
+            // weighted k-means++ seeding on candidates
+            DArray<Double> cd = distance.pairwise(cm, cm);
+            int[] selection = new int[k];
+            selection[0] = SamplingTools.sampleWeightedWR(random, 1, Arrays.copyOf(weights, weights.length))[0];
+            double[] minDistances = new double[candidates.length];
+            for (int j = 0; j < candidates.length; j++) {
+                double d = cd.getDouble(selection[0], j);
+                minDistances[j] = d * d;
+            }
+            double[] p = new double[candidates.length];
+            for (int i = 1; i < k; i++) {
+                for (int j = 0; j < candidates.length; j++) {
+                    p[j] = weights[j] * minDistances[j];
+                }
+                double sum = Doubles.sum(p, 0, p.length);
+                int next;
+                if (sum > 0) {
+                    next = SamplingTools.sampleWeightedWR(random, 1, p)[0];
+                } else {
+                    // all remaining candidates coincide with selected ones
+                    next = selection[random.nextInt(i)];
+                }
+                selection[i] = next;
+                for (int j = 0; j < candidates.length; j++) {
+                    double d = cd.getDouble(next, j);
+                    minDistances[j] = Math.min(minDistances[j], d * d);
+                }
+            }
+            int[] centroids = new int[k];
+            for (int i = 0; i < k; i++) {
+                centroids[i] = candidates[selection[i]];
+            }
             return m.sel(0, centroids);
         }
     };
 
+    /**
+     * Number of sampling rounds of the k-means|| initialization.
+     */
+    private static final int PARALLEL_ROUNDS = 5;
+    /**
+     * Oversampling factor relative to the number of clusters of the k-means|| initialization.
+     */
+    private static final double PARALLEL_OVERSAMPLING = 2.0;
+    private static final int CHUNK_ROWS = 4096;
+
+    /**
+     * Updates the minimum squared distances from instances to the given candidates.
+     */
+    private static void updateCosts(Distance distance, DArray<Double> m, int[] candidates, double[] costs) {
+        distance.pairwise(m, m.sel(0, candidates), (start, block) -> {
+            for (int i = 0; i < block.dim(0); i++) {
+                double cost = costs[start + i];
+                for (int j = 0; j < block.dim(1); j++) {
+                    double d = block.getDouble(i, j);
+                    cost = Math.min(cost, d * d);
+                }
+                costs[start + i] = cost;
+            }
+        });
+    }
+
+    /**
+     * Samples each instance independently with probability {@code factor * cost}. Instances are processed in parallel
+     * in chunks, each chunk with its own random generator seeded in advance, thus the sample does not depend
+     * on the number of threads.
+     */
+    private static int[] sampleCandidates(Random random, double[] costs, double factor) {
+        int n = costs.length;
+        int chunks = (n + CHUNK_ROWS - 1) / CHUNK_ROWS;
+        long[] seeds = new long[chunks];
+        for (int i = 0; i < chunks; i++) {
+            seeds[i] = random.nextLong();
+        }
+        int[][] sampled = new int[chunks][];
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            Random chunkRandom = new Random(seeds[chunk]);
+            int start = chunk * CHUNK_ROWS;
+            int end = Math.min(n, start + CHUNK_ROWS);
+            int[] rows = new int[end - start];
+            int len = 0;
+            for (int i = start; i < end; i++) {
+                if (costs[i] > 0 && chunkRandom.nextDouble() < factor * costs[i]) {
+                    rows[len++] = i;
+                }
+            }
+            sampled[chunk] = Arrays.copyOf(rows, len);
+        });
+        return Arrays.stream(sampled).flatMapToInt(Arrays::stream).toArray();
+    }
+
+    /**
+     * Completes a set of too few candidates with distinct random instances.
+     */
+    private static int[] completeCandidates(Random random, int n, int k, int[] candidates) {
+        Set<Integer> ids = new HashSet<>();
+        int[] centroids = new int[k];
+        int len = 0;
+        for (int candidate : candidates) {
+            if (ids.add(candidate)) {
+                centroids[len++] = candidate;
+            }
+        }
+        while (len < k) {
+            int next = random.nextInt(n);
+            if (ids.add(next)) {
+                centroids[len++] = next;
+            }
+        }
+        return centroids;
+    }
+
     public abstract DArray<Double> init(Random random, Distance distance, DArray<Double> m, int k);
 }
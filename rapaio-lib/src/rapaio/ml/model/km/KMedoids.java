@@ -33,6 +33,7 @@ import java.util.Random;
 import java.util.Set;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import rapaio.core.SamplingTools;
 import rapaio.core.param.ValueParam;
@@ -43,6 +44,8 @@ import rapaio.data.VarDouble;
 import rapaio.data.VarInt;
 import rapaio.ml.common.distance.Distance;
 import rapaio.ml.common.distance.Manhattan;
+import rapaio.ml.common.index.NeighborIndex;
+import rapaio.ml.common.index.Neighbors;
 import rapaio.ml.model.ClusteringModel;
 import rapaio.ml.model.ClusteringResult;
 import rapaio.ml.model.RunInfo;
@@ -50,15 +53,20 @@ import rapaio.util.collection.Doubles;
 import rapaio.util.collection.Ints;
 
 /**
- * KMedoids clustering algorithms. Implemented methods are alternate and PAM. Fast PAM has to be implemented.
+ * KMedoids clustering algorithms. Implemented methods are alternate, PAM, FastPAM1, FastPAM2, CLARA and CLARANS.
  *
  * <ul>
  * <li>ALTERNATE</li> method implemented according with the description presented in
  * "A simple and fast algorithm for K-medoids clustering - Hae-Sang Park, Chi-Hyuck Jun"
  * <li>PAM</li> method implemented according with the description presented in "https://www.cs.umb.edu/cs738/pam1.pdf"
- * <li>FAST_PAM</li> method implemented according with description presented in
- * "Fast and eager k-medoids clustering:  runtime improvement of the PAM, CLARA, and CLARANS algorithms"
+ * <li>FAST_PAM1, FAST_PAM2, CLARA and CLARANS</li> methods implemented according with description presented in
+ * "Fast and eager k-medoids clustering: O(k) runtime improvement of the PAM, CLARA, and CLARANS algorithms"
  * </ul>
+ * <p>
+ * FastPAM methods use the BUILD initialization and evaluate all swaps of an iteration in {@code O(n^2)}, independent
+ * of the number of clusters. CLARA and CLARANS are meant for large data sets, CLARA runs FastPAM2 on random subsamples,
+ * while CLARANS runs randomized searches of improving swaps. Subsamples and searches run in parallel and the medoids
+ * with the smallest total deviation on all instances are kept.
  */
 public class KMedoids extends ClusteringModel<KMedoids, ClusteringResult<KMedoids>, RunInfo<KMedoids>> {
 
@@ -70,6 +78,18 @@ public class KMedoids extends ClusteringModel<KMedoids, ClusteringResult<KMedoid
         return new KMedoids().method.set(Method.PAM).k.set(k);
     }
 
+    public static KMedoids newFastPAMModel(int k) {
+        return new KMedoids().method.set(Method.FAST_PAM2).k.set(k);
+    }
+
+    public static KMedoids newCLARAModel(int k) {
+        return new KMedoids().method.set(Method.CLARA).k.set(k);
+    }
+
+    public static KMedoids newCLARANSModel(int k) {
+        return new KMedoids().method.set(Method.CLARANS).k.set(k);
+    }
+
     private static final Logger LOGGER = Logger.getLogger(KMedoids.class.getName());
 
     /**
@@ -77,7 +97,23 @@ public class KMedoids extends ClusteringModel<KMedoids, ClusteringResult<KMedoid
      */
     public enum Method {
         ALTERNATE,
-        PAM
+        PAM,
+        /**
+         * FastPAM1, performs in each iteration the best swap, which is the same swap as PAM.
+         */
+        FAST_PAM1,
+        /**
+         * FastPAM2, performs in each iteration the best swap for each medoid, if it still improves.
+         */
+        FAST_PAM2,
+        /**
+         * FastPAM2 on random subsamples.
+         */
+        CLARA,
+        /**
+         * Randomized search for improving swaps.
+         */
+        CLARANS
     }
 
     public final ValueParam<Method, KMedoids> method = new ValueParam<>(this, Method.PAM, "method");
@@ -85,6 +121,35 @@ public class KMedoids extends ClusteringModel<KMedoids, ClusteringResult<KMedoid
     public final ValueParam<Distance, KMedoids> distance = new ValueParam<>(this, new Manhattan(), "distance");
     public final ValueParam<Integer, KMedoids> maxIt = new ValueParam<>(this, 1000, "maxIt");
 
+    /**
+     * Use a precomputed condensed matrix of distances for FastPAM methods and the subsamples of CLARA. It uses
+     * {@code n(n-1)/2} values, otherwise the distances are computed each time they are needed. The matrix is
+     * precomputed only if it fits in {@link #precomputeSize}.
+     */
+    public final ValueParam<Boolean, KMedoids> precompute = new ValueParam<>(this, true, "precompute");
+
+    /**
+     * Maximum size in MB of a precomputed condensed matrix of distances. Larger matrices are not precomputed and
+     * the distances are computed each time they are needed.
+     */
+    public final ValueParam<Long, KMedoids> precomputeSize = new ValueParam<>(this, 256L, "precomputeSize", size -> size != null && size >= 0);
+
+    /**
+     * Number of random subsamples for CLARA or number of randomized searches for CLARANS.
+     */
+    public final ValueParam<Integer, KMedoids> samples = new ValueParam<>(this, 5, "samples", v -> v != null && v > 0);
+
+    /**
+     * Size of a random subsample for CLARA. If the value is 0, the size is {@code 40+2k}.
+     */
+    public final ValueParam<Integer, KMedoids> sampleSize = new ValueParam<>(this, 0, "sampleSize", v -> v != null && v >= 0);
+
+    /**
+     * Maximum number of consecutive random swaps which do not improve for CLARANS. If the value is 0,
+     * the number is {@code max(250, 1.25% k(n-k))}.
+     */
+    public final ValueParam<Integer, KMedoids> maxNeighbors = new ValueParam<>(this, 0, "maxNeighbors", v -> v != null && v >= 0);
+
     private DArray<Double> c;
     private VarDouble errors;
 
@@ -105,6 +170,14 @@ public class KMedoids extends ClusteringModel<KMedoids, ClusteringResult<KMedoid
         return c;
     }
 
+    /**
+     * Total deviations, the sum of distances from instances to the closest medoids, during fitting. For CLARA
+     * and CLARANS, it contains the total deviation on all instances of each subsample or search.
+     */
+    public VarDouble getErrors() {
+        return errors;
+    }
+
     @Override
     public KMedoids coreFit(Frame df, Var weights) {
         DArray<Double> x = df.mapVars(inputNames).darray();
@@ -113,11 +186,14 @@ public class KMedoids extends ClusteringModel<KMedoids, ClusteringResult<KMedoid
                     "Number of clusters %d bigger than number of instances %d.".formatted(k.get(), x.dim(0)));
         }
 
-        if (method.get() == Method.ALTERNATE) {
-            coreFitAlternate(x);
-        } else {
-            coreFitPAM(x);
+        switch (method.get()) {
+            case ALTERNATE -> coreFitAlternate(x);
+            case PAM -> coreFitPAM(x);
+            case FAST_PAM1, FAST_PAM2 -> coreFitFastPAM(x);
+            case CLARA -> coreFitCLARA(x);
+            case CLARANS -> coreFitCLARANS(x);
         }
+        learned = true;
         return this;
     }
 
@@ -273,6 +349,8 @@ public class KMedoids extends ClusteringModel<KMedoids, ClusteringResult<KMedoid
 
         LOGGER.finest("Initialize a cache for training purposes");
         DistanceCache cache = new DistanceCache(x.dim(0), distance.get());
+        // swap phase evaluates distances between all pairs of instances, thus compute them in bulk
+        cache.fill(x);
 
         // array which stores the distance to the closest centroid
         double[] dv = Doubles.newFill(x.dim(0), Double.NaN);
@@ -338,6 +416,88 @@ public class KMedoids extends ClusteringModel<KMedoids, ClusteringResult<KMedoid
         }
     }
 
+    void coreFitFastPAM(DArray<Double> x) {
+        MedoidDistances d = MedoidDistances.of(distance.get(), x, precompute.get(), precomputeSize.get());
+        MedoidSearch search = new MedoidSearch(d, k.get());
+        search.build();
+        errors = VarDouble.empty().name("errors");
+        errors.addDouble(search.cost());
+        search.swap(maxIt.get(), method.get() == Method.FAST_PAM2, errors);
+        c = x.sel(0, search.medoids());
+    }
+
+    void coreFitCLARA(DArray<Double> x) {
+        int n = x.dim(0);
+        int size = Math.min(n, sampleSize.get() > 0 ? sampleSize.get() : 40 + 2 * k.get());
+        long[] seeds = drawSeeds();
+        int[][] candidates = new int[samples.get()][];
+        IntStream.range(0, samples.get()).parallel().forEach(s -> {
+            int[] rows = SamplingTools.sampleWOR(new Random(seeds[s]), n, size);
+            DArray<Double> sample = x.sel(0, rows);
+            MedoidDistances d = MedoidDistances.of(distance.get(), sample, precompute.get(), precomputeSize.get());
+            MedoidSearch search = new MedoidSearch(d, k.get());
+            search.build();
+            search.swap(maxIt.get(), true, VarDouble.empty());
+            int[] medoids = new int[k.get()];
+            for (int i = 0; i < medoids.length; i++) {
+                medoids[i] = rows[search.medoids()[i]];
+            }
+            candidates[s] = medoids;
+        });
+        keepBest(x, candidates);
+    }
+
+    void coreFitCLARANS(DArray<Double> x) {
+        int n = x.dim(0);
+        int neighbors = maxNeighbors.get() > 0
+                ? maxNeighbors.get()
+                : (int) Math.max(250, 0.0125 * k.get() * (n - k.get()));
+        long[] seeds = drawSeeds();
+        MedoidDistances d = MedoidDistances.computed(distance.get(), x);
+        int[][] candidates = new int[samples.get()][];
+        IntStream.range(0, samples.get()).parallel().forEach(s -> {
+            MedoidSearch search = new MedoidSearch(d, k.get());
+            search.randomSearch(new Random(seeds[s]), neighbors);
+            candidates[s] = Arrays.copyOf(search.medoids(), k.get());
+        });
+        keepBest(x, candidates);
+    }
+
+    private long[] drawSeeds() {
+        Random random = getRandom();
+        long[] seeds = new long[samples.get()];
+        for (int i = 0; i < seeds.length; i++) {
+            seeds[i] = random.nextLong();
+        }
+        return seeds;
+    }
+
+    /**
+     * Evaluates the total deviation on all instances for each candidate set of medoids and keeps the best one.
+     */
+    private void keepBest(DArray<Double> x, int[][] candidates) {
+        errors = VarDouble.empty().name("errors");
+        double bestError = Double.NaN;
+        for (int[] medoids : candidates) {
+            double[] closest = new double[x.dim(0)];
+            distance.get().pairwise(x, x.sel(0, medoids), (start, block) -> {
+                for (int i = 0; i < block.dim(0); i++) {
+                    double min = block.getDouble(i, 0);
+                    for (int j = 1; j < block.dim(1); j++) {
+                        min = min(min, block.getDouble(i, j));
+                    }
+                    closest[start + i] = min;
+                }
+            });
+            double error = Doubles.sum(closest, 0, closest.length);
+            errors.addDouble(error);
+            if (Double.isNaN(bestError) || error < bestError) {
+                bestError = error;
+                c = x.sel(0, medoids);
+            }
+        }
+    }
+
     int[] initializePAM(DArray<Double> x, double[] dv, double[] ev, DistanceCache cache) {
         Set<Integer> centroidSet = new HashSet<>();
         int[] centroidIndexes = new int[k.get()];
@@ -487,19 +647,10 @@ public class KMedoids extends ClusteringModel<KMedoids, ClusteringResult<KMedoid
     @Override
     public ClusteringResult<KMedoids> corePredict(Frame df, boolean withScores) {
         DArray<Double> x = df.mapVars(inputNames).darray();
+        Neighbors[] closest = NeighborIndex.of(c, distance.get()).knn(x, 1);
         int[] assign = new int[x.dim(0)];
         for (int i = 0; i < assign.length; i++) {
-            int min = 0;
-            DArray<Double> xi = x.selsq(0, i);
-            double dj = distance.get().compute(xi, c.selsq(0, 0));
-            for (int j = 1; j < c.dim(0); j++) {
-                double d = distance.get().compute(xi, c.selsq(0, j));
-                if (dj > d) {
-                    dj = d;
-                    min = j;
-                }
-            }
-            assign[i] = min;
+            assign[i] = closest[i].index(0);
         }
         return new ClusteringResult<>(this, df, VarInt.wrap(assign));
     }
@@ -523,6 +674,22 @@ public class KMedoids extends ClusteringModel<KMedoids, ClusteringResult<KMedoid
             this.values = Doubles.newFill(len * len, Double.NaN);
         }
 
+        /**
+         * Computes and stores distances between all pairs of instances.
+         *
+         * @param x matrix with instances on rows
+         */
+        public void fill(DArray<Double> x) {
+            distance.pairwise(x, x, (start, block) -> {
+                int rows = block.dim(0);
+                for (int i = 0; i < rows; i++) {
+                    for (int j = start + i; j < len; j++) {
+                        values[(start + i) * len + j] = block.getDouble(i, j);
+                    }
+                }
+            });
+        }
+
         public double get(int i, int j, DArray<Double> vi, DArray<Double> vj) {
             double cached = getCache(i, j);
             if (!Double.isNaN(cached)) {
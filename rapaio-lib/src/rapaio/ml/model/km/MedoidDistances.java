@@ -0,0 +1,165 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.model.km;
+
+import rapaio.darray.DArray;
+import rapaio.darray.Order;
+import rapaio.ml.common.distance.Distance;
+
+/**
+ * Distances between instances used by k-medoids algorithms.
+ * <p>
+ * Distances can be precomputed in a condensed matrix, which stores only the values above the main diagonal,
+ * in row major order, thus {@code n(n-1)/2} values for {@code n} instances. The matrix is filled from blocks of
+ * pairwise distances computed in parallel. Otherwise, the distances are computed each time they are required,
+ * which needs only the memory for instances but is much slower when distances are used repeatedly.
+ */
+abstract class MedoidDistances {
+
+    /**
+     * Maximum number of values in a condensed matrix of distances.
+     */
+    static final long MAX_CONDENSED = Integer.MAX_VALUE - 8;
+
+    /**
+     * Builds precomputed distances if requested and if the condensed matrix fits in the given size,
+     * otherwise builds distances computed when they are required.
+     *
+     * @param distance   distance function
+     * @param x          matrix with instances on rows
+     * @param precompute if the distances should be precomputed
+     * @param maxSize    maximum size in MB of the condensed matrix
+     * @return distances between instances
+     */
+    static MedoidDistances of(Distance distance, DArray<Double> x, boolean precompute, long maxSize) {
+        long maxBytes = maxSize >= Long.MAX_VALUE >> 20 ? Long.MAX_VALUE : maxSize << 20;
+        return precompute && condensedBytes(x.dim(0)) <= maxBytes ? condensed(distance, x) : computed(distance, x);
+    }
+
+    /**
+     * @return number of bytes of a condensed matrix of distances for {@code n} instances, or
+     * {@link Long#MAX_VALUE} if the matrix cannot be allocated
+     */
+    static long condensedBytes(int n) {
+        long len = (long) n * (n - 1) / 2;
+        return len > MAX_CONDENSED ? Long.MAX_VALUE : len * Double.BYTES;
+    }
+
+    /**
+     * Builds a condensed matrix with distances between all pairs of instances.
+     *
+     * @param distance distance function
+     * @param x        matrix with instances on rows
+     * @return precomputed distances
+     */
+    static MedoidDistances condensed(Distance distance, DArray<Double> x) {
+        return new Condensed(distance, x);
+    }
+
+    /**
+     * Builds distances which are computed when they are required.
+     *
+     * @param distance distance function
+     * @param x        matrix with instances on rows
+     * @return distances computed on demand
+     */
+    static MedoidDistances computed(Distance distance, DArray<Double> x) {
+        return new Computed(distance, x);
+    }
+
+    protected final int n;
+
+    protected MedoidDistances(int n) {
+        this.n = n;
+    }
+
+    /**
+     * @return number of instances
+     */
+    final int size() {
+        return n;
+    }
+
+    /**
+     * @return distance between instances with indexes {@code i} and {@code j}
+     */
+    abstract double get(int i, int j);
+
+    private static final class Condensed extends MedoidDistances {
+
+        private final double[] values;
+
+        Condensed(Distance distance, DArray<Double> x) {
+            super(x.dim(0));
+            long len = (long) n * (n - 1) / 2;
+            if (len > MAX_CONDENSED) {
+                throw new IllegalArgumentException(("Condensed distance matrix for %d instances is too large, "
+                        + "use sampling methods or distances computed on demand.").formatted(n));
+            }
+            values = new double[(int) len];
+            distance.pairwise(x, x, (start, block) -> {
+                for (int i = 0; i < block.dim(0); i++) {
+                    int row = start + i;
+                    int offset = offset(row);
+                    for (int j = row + 1; j < n; j++) {
+                        values[offset + j] = block.getDouble(i, j);
+                    }
+                }
+            });
+        }
+
+        /**
+         * Position of the value for {@code (i, 0)}, the values from row {@code i} being at positions
+         * {@code offset(i) + j}, for {@code j > i}.
+         */
+        private int offset(int i) {
+            return (int) ((long) i * n - (long) i * (i + 1) / 2 - i - 1);
+        }
+
+        @Override
+        double get(int i, int j) {
+            if (i == j) {
+                return 0;
+            }
+            return i < j ? values[offset(i) + j] : values[offset(j) + i];
+        }
+    }
+
+    private static final class Computed extends MedoidDistances {
+
+        private final Distance distance;
+        private final double[] x;
+        private final int dim;
+
+        Computed(Distance distance, DArray<Double> x) {
+            super(x.dim(0));
+            this.distance = distance;
+            this.x = x.toDoubleArray(Order.C);
+            this.dim = x.dim(1);
+        }
+
+        @Override
+        double get(int i, int j) {
+            return i == j ? 0 : distance.compute(x, i * dim, x, j * dim, dim);
+        }
+    }
+}
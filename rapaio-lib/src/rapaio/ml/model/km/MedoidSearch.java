@@ -0,0 +1,334 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.model.km;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import rapaio.core.SamplingTools;
+import rapaio.data.VarDouble;
+
+/**
+ * Search for medoids which minimize the sum of distances from instances to the closest medoid.
+ * <p>
+ * The state of the search contains the medoids and, for each instance, the closest medoid and the distances to the
+ * closest and second-closest medoids. With this state the change of the total deviation produced by a swap of a
+ * medoid with a non-medoid can be computed in a single pass over instances.
+ * <p>
+ * Implements the BUILD initialization, the swap phase of FastPAM1 and FastPAM2 described in
+ * "Fast and eager k-medoids clustering: O(k) runtime improvement of the PAM, CLARA, and CLARANS algorithms" by
+ * Erich Schubert and Peter J. Rousseeuw, and the randomized search of CLARANS. Candidates are evaluated in parallel,
+ * in chunks, and the results of chunks are reduced in order, thus the results do not depend on the number of threads.
+ */
+final class MedoidSearch {
+
+    private static final int CHUNK_SIZE = 64;
+    private static final double TOL = 1e-12;
+
+    private final MedoidDistances d;
+    private final int n;
+    private final int k;
+
+    private final int[] medoids;
+    private final boolean[] isMedoid;
+    // for each instance the position of the closest medoid, the distance to it and the distance to the second closest
+    private final int[] nearest;
+    private final double[] dn;
+    private final double[] ds;
+
+    MedoidSearch(MedoidDistances d, int k) {
+        this.d = d;
+        this.n = d.size();
+        this.k = k;
+        this.medoids = new int[k];
+        this.isMedoid = new boolean[n];
+        this.nearest = new int[n];
+        this.dn = new double[n];
+        this.ds = new double[n];
+    }
+
+    int[] medoids() {
+        return medoids;
+    }
+
+    /**
+     * @return total deviation, the sum of distances from instances to the closest medoids
+     */
+    double cost() {
+        double cost = 0;
+        for (double v : dn) {
+            cost += v;
+        }
+        return cost;
+    }
+
+    /**
+     * Initializes the medoids with given instances.
+     */
+    void init(int[] initial) {
+        Arrays.fill(isMedoid, false);
+        for (int i = 0; i < k; i++) {
+            medoids[i] = initial[i];
+            isMedoid[initial[i]] = true;
+        }
+        updateNearest();
+    }
+
+    /**
+     * Initializes the medoids with the BUILD algorithm. The first medoid is the instance with the smallest sum of
+     * distances to all other instances, and each next medoid is the instance which reduces the total deviation most.
+     */
+    void build() {
+        double[] sums = new double[n];
+        IntStream.range(0, n).parallel().forEach(i -> {
+            double sum = 0;
+            for (int j = 0; j < n; j++) {
+                sum += d.get(i, j);
+            }
+            sums[i] = sum;
+        });
+        int first = 0;
+        for (int i = 1; i < n; i++) {
+            if (sums[i] < sums[first]) {
+                first = i;
+            }
+        }
+        int medoid = first;
+        Arrays.fill(isMedoid, false);
+        medoids[0] = first;
+        isMedoid[first] = true;
+        double[] closest = new double[n];
+        IntStream.range(0, n).parallel().forEach(o -> closest[o] = d.get(o, medoid));
+
+        double[] gains = new double[n];
+        for (int t = 1; t < k; t++) {
+            IntStream.range(0, n).parallel().forEach(c -> {
+                if (isMedoid[c]) {
+                    gains[c] = Double.NEGATIVE_INFINITY;
+                    return;
+                }
+                double gain = 0;
+                for (int o = 0; o < n; o++) {
+                    gain += Math.max(0, closest[o] - d.get(o, c));
+                }
+                gains[c] = gain;
+            });
+            int next = -1;
+            for (int c = 0; c < n; c++) {
+                if (!isMedoid[c] && (next == -1 || gains[c] > gains[next])) {
+                    next = c;
+                }
+            }
+            int added = next;
+            medoids[t] = added;
+            isMedoid[added] = true;
+            IntStream.range(0, n).parallel().forEach(o -> closest[o] = Math.min(closest[o], d.get(o, added)));
+        }
+        updateNearest();
+    }
+
+    /**
+     * Runs the swap phase of FastPAM until no swap improves the total deviation or the maximum number
+     * of iterations is reached.
+     * <p>
+     * In each iteration, for each medoid the best candidate to replace it is found with a single pass over
+     * all pairs of candidates and instances. FastPAM1 performs only the best swap, FastPAM2 performs
+     * afterward the other improving swaps, in the order of their gains, if they still reduce the total deviation.
+     *
+     * @param maxIt  maximum number of iterations
+     * @param eager  if true multiple swaps are performed in each iteration (FastPAM2), otherwise only one (FastPAM1)
+     * @param errors total deviations after each iteration are appended here
+     */
+    void swap(int maxIt, boolean eager, VarDouble errors) {
+        for (int it = 0; it < maxIt; it++) {
+            double cost = cost();
+
+            // loss produced by removing each medoid, without adding a replacement
+            double[] removal = new double[k];
+            for (int o = 0; o < n; o++) {
+                removal[nearest[o]] += ds[o] - dn[o];
+            }
+
+            int chunks = (n + CHUNK_SIZE - 1) / CHUNK_SIZE;
+            double[][] chunkDeltas = new double[chunks][];
+            int[][] chunkCandidates = new int[chunks][];
+            IntStream.range(0, chunks).parallel().forEach(chunk -> {
+                double[] bestDeltas = new double[k];
+                int[] bestCandidates = new int[k];
+                Arrays.fill(bestDeltas, Double.POSITIVE_INFINITY);
+                Arrays.fill(bestCandidates, -1);
+                double[] deltas = new double[k];
+                int end = Math.min(n, (chunk + 1) * CHUNK_SIZE);
+                for (int c = chunk * CHUNK_SIZE; c < end; c++) {
+                    if (isMedoid[c]) {
+                        continue;
+                    }
+                    candidateDeltas(c, removal, deltas);
+                    for (int i = 0; i < k; i++) {
+                        if (deltas[i] < bestDeltas[i]) {
+                            bestDeltas[i] = deltas[i];
+                            bestCandidates[i] = c;
+                        }
+                    }
+                }
+                chunkDeltas[chunk] = bestDeltas;
+                chunkCandidates[chunk] = bestCandidates;
+            });
+            double[] bestDeltas = Arrays.copyOf(chunkDeltas[0], k);
+            int[] bestCandidates = Arrays.copyOf(chunkCandidates[0], k);
+            for (int chunk = 1; chunk < chunks; chunk++) {
+                for (int i = 0; i < k; i++) {
+                    if (chunkDeltas[chunk][i] < bestDeltas[i]) {
+                        bestDeltas[i] = chunkDeltas[chunk][i];
+                        bestCandidates[i] = chunkCandidates[chunk][i];
+                    }
+                }
+            }
+
+            Integer[] order = new Integer[k];
+            for (int i = 0; i < k; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Double.compare(bestDeltas[a], bestDeltas[b]));
+            int best = order[0];
+            if (!(bestDeltas[best] < -TOL * Math.max(1, cost))) {
+                return;
+            }
+            applySwap(best, bestCandidates[best]);
+            if (eager) {
+                for (int pos = 1; pos < k; pos++) {
+                    int i = order[pos];
+                    int c = bestCandidates[i];
+                    if (!(bestDeltas[i] < 0) || isMedoid[c]) {
+                        continue;
+                    }
+                    // the gain is computed again since previous swaps changed the closest medoids
+                    if (swapDelta(i, c) < -TOL * Math.max(1, cost)) {
+                        applySwap(i, c);
+                    }
+                }
+            }
+            errors.addDouble(cost());
+        }
+    }
+
+    /**
+     * Computes the change of total deviation if candidate {@code c} replaces each of the medoids.
+     */
+    private void candidateDeltas(int c, double[] removal, double[] deltas) {
+        if (k == 1) {
+            // there is no second-closest medoid, the only medoid is replaced
+            deltas[0] = swapDelta(0, c);
+            return;
+        }
+        System.arraycopy(removal, 0, deltas, 0, k);
+        double shared = 0;
+        for (int o = 0; o < n; o++) {
+            double doc = d.get(o, c);
+            if (doc < dn[o]) {
+                // instance moves to the candidate, whatever medoid is replaced
+                shared += doc - dn[o];
+                deltas[nearest[o]] += dn[o] - ds[o];
+            } else if (doc < ds[o]) {
+                // instance moves to the candidate only if its closest medoid is replaced
+                deltas[nearest[o]] += doc - ds[o];
+            }
+        }
+        for (int i = 0; i < k; i++) {
+            deltas[i] += shared;
+        }
+    }
+
+    /**
+     * Computes the change of total deviation if candidate {@code c} replaces the medoid at position {@code i}.
+     */
+    double swapDelta(int i, int c) {
+        double delta = 0;
+        for (int o = 0; o < n; o++) {
+            double doc = d.get(o, c);
+            if (nearest[o] == i) {
+                delta += Math.min(doc, ds[o]) - dn[o];
+            } else if (doc < dn[o]) {
+                delta += doc - dn[o];
+            }
+        }
+        return delta;
+    }
+
+    /**
+     * Runs the randomized search of CLARANS. Random swaps of a medoid with a non-medoid are evaluated and the first
+     * swap which reduces the total deviation is performed. The search stops when {@code maxNeighbors} consecutive
+     * random swaps do not improve the total deviation.
+     *
+     * @param random       random number generator
+     * @param maxNeighbors maximum number of consecutive swaps which do not improve
+     */
+    void randomSearch(Random random, int maxNeighbors) {
+        init(SamplingTools.sampleWOR(random, n, k));
+        if (n == k) {
+            return;
+        }
+        int fails = 0;
+        while (fails < maxNeighbors) {
+            int i = random.nextInt(k);
+            int c = random.nextInt(n);
+            if (isMedoid[c]) {
+                continue;
+            }
+            if (swapDelta(i, c) < -TOL * Math.max(1, cost())) {
+                applySwap(i, c);
+                fails = 0;
+            } else {
+                fails++;
+            }
+        }
+    }
+
+    private void applySwap(int i, int c) {
+        isMedoid[medoids[i]] = false;
+        medoids[i] = c;
+        isMedoid[c] = true;
+        updateNearest();
+    }
+
+    private void updateNearest() {
+        IntStream.range(0, n).parallel().forEach(o -> {
+            int best = -1;
+            double first = Double.POSITIVE_INFINITY;
+            double second = Double.POSITIVE_INFINITY;
+            for (int i = 0; i < k; i++) {
+                double dist = d.get(o, medoids[i]);
+                if (dist < first) {
+                    second = first;
+                    first = dist;
+                    best = i;
+                } else if (dist < second) {
+                    second = dist;
+                }
+            }
+            nearest[o] = best;
+            dn[o] = first;
+            ds[o] = second;
+        });
+    }
+}
@@ -0,0 +1,379 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.model.km;
+
+import java.io.Serial;
+import java.util.Objects;
+import java.util.Random;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import rapaio.core.SamplingTools;
+import rapaio.core.param.ValueParam;
+import rapaio.darray.DArray;
+import rapaio.darray.DArrays;
+import rapaio.darray.Order;
+import rapaio.darray.Shape;
+import rapaio.data.Frame;
+import rapaio.data.SolidFrame;
+import rapaio.data.Var;
+import rapaio.data.VarDouble;
+import rapaio.data.VarInt;
+import rapaio.data.VarType;
+import rapaio.ml.common.Capabilities;
+import rapaio.ml.common.distance.Distance;
+import rapaio.ml.common.distance.EuclideanDistance;
+import rapaio.ml.model.ClusteringModel;
+import rapaio.ml.model.ClusteringResult;
+import rapaio.ml.model.RunInfo;
+import rapaio.printer.Printer;
+import rapaio.printer.opt.POpt;
+
+/**
+ * Mini-batch KMeans clustering algorithm.
+ * <p>
+ * Instead of a full pass over all instances, at each iteration a small batch of instances is assigned to the closest
+ * centroids and each centroid is moved towards the instances assigned to it with a learning rate equal to the inverse
+ * of the number of instances assigned to it so far. This way each centroid is the running mean of all instances
+ * ever assigned to it.
+ * <p>
+ * The model can be fitted on a frame, in which case batches are sampled with replacement from the frame, or it can
+ * be fitted incrementally on a stream of frames with {@link #fitBatches(Stream)} and {@link #partialFit(Frame)},
+ * for example on batches read with {@link rapaio.io.Csv#readBatches(java.io.InputStream, int)}, when the data does
+ * not fit in memory. In the latter case the centroids are initialized from the first batch.
+ * <p>
+ * Assignment of instances and the sums of instances for each cluster are computed in parallel.
+ *
+ * @author <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>
+ */
+public class MiniBatchKMeans extends ClusteringModel<MiniBatchKMeans, ClusteringResult<MiniBatchKMeans>, RunInfo<MiniBatchKMeans>> {
+
+    public static MiniBatchKMeans newMiniBatchKMeans() {
+        return new MiniBatchKMeans();
+    }
+
+    @Serial
+    private static final long serialVersionUID = 4265014395474117437L;
+
+    private static final int CHUNK_ROWS = 4096;
+    private static final int MAX_CHUNKS = 64;
+    private static final Distance DISTANCE = new EuclideanDistance();
+
+    /**
+     * Number of clusters.
+     */
+    public final ValueParam<Integer, MiniBatchKMeans> k = new ValueParam<>(this, null, "k", Objects::nonNull);
+
+    /**
+     * Number of instances in a batch.
+     */
+    public final ValueParam<Integer, MiniBatchKMeans> batchSize = new ValueParam<>(this, 1024, "batchSize", v -> v != null && v > 0);
+
+    /**
+     * Number of instances sampled from the frame used to initialize the centroids. Initialization is done on all
+     * instances if the value is greater than the number of instances. It is not used when fitting on a stream
+     * of batches, where the first batch is used for initialization.
+     */
+    public final ValueParam<Integer, MiniBatchKMeans> initSize = new ValueParam<>(this, 10_000, "initSize", v -> v != null && v > 0);
+
+    /**
+     * Cluster initialization algorithm.
+     */
+    public final ValueParam<KMClusterInit, MiniBatchKMeans> init = new ValueParam<>(this, KMClusterInit.Parallel, "init");
+
+    /**
+     * Tolerance for convergence criteria. Fitting on a frame stops when the sum of the squared
+     * displacements of centroids after a batch is smaller than this value.
+     */
+    public final ValueParam<Double, MiniBatchKMeans> eps = new ValueParam<>(this, 1e-20, "eps");
+
+    // clustering artifacts
+
+    private double[] cv;
+    private long[] counts;
+    private DArray<Double> c;
+    private VarDouble errors;
+    private Random random;
+
+    @Override
+    public MiniBatchKMeans newInstance() {
+        return new MiniBatchKMeans().copyParameterValues(this);
+    }
+
+    @Override
+    public String name() {
+        return "MiniBatchKMeans";
+    }
+
+    public Frame getCentroids() {
+        return SolidFrame.matrix(c, inputNames);
+    }
+
+    public DArray<Double> getCentroidsMatrix() {
+        return c;
+    }
+
+    /**
+     * Number of instances assigned to each cluster during fitting, which gives the
+     * inverse of the learning rate of each centroid.
+     */
+    public long[] getCounts() {
+        return counts;
+    }
+
+    /**
+     * Average squared distance from the instances of each batch to their closest centroids, measured
+     * before the centroids are updated.
+     */
+    public VarDouble getErrors() {
+        return errors;
+    }
+
+    public double getError() {
+        return errors.size() == 0 ? Double.NaN : errors.getDouble(errors.size() - 1);
+    }
+
+    @Override
+    public Capabilities capabilities() {
+        return new Capabilities()
+                .inputs(1, 10_000, true, VarType.DOUBLE, VarType.INT, VarType.BINARY)
+                .targets(0, 0, true);
+    }
+
+    @Override
+    protected MiniBatchKMeans coreFit(Frame df, Var weights) {
+        DArray<Double> m = df.darray();
+        int n = m.dim(0);
+        reset();
+
+        int initRows = Math.min(n, initSize.get());
+        DArray<Double> sample = initRows == n ? m : m.sel(0, SamplingTools.sampleWOR(random, n, initRows));
+        initialize(sample);
+
+        for (int run = 1; run <= runs.get(); run++) {
+            int[] rows = random.ints(Math.min(batchSize.get(), n), 0, n).toArray();
+            double shift = update(m.sel(0, rows));
+            if (runningHook != null) {
+                runningHook.get().accept(RunInfo.forClustering(this, run));
+            }
+            if (shift < eps.get()) {
+                break;
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Fits the model on a stream of batches. Previous fitting is discarded, the centroids are initialized from
+     * the first batch and updated with all the batches, in order. Batches with more instances than
+     * {@link #batchSize} are split in multiple batches.
+     *
+     * @param batches stream of frames with the same variables
+     * @return fitted model
+     */
+    public MiniBatchKMeans fitBatches(Stream<Frame> batches) {
+        learned = false;
+        batches.forEachOrdered(this::partialFit);
+        return this;
+    }
+
+    /**
+     * Updates the model with a new batch of instances. If the model is not fitted, the centroids are initialized
+     * from the instances of this batch, which must contain at least {@link #k} instances. Batches with more
+     * instances than {@link #batchSize} are split in multiple batches.
+     *
+     * @param df batch of instances
+     * @return updated model
+     */
+    public MiniBatchKMeans partialFit(Frame df) {
+        if (!learned) {
+            inputNames = df.varNames();
+            inputTypes = IntStream.range(0, inputNames.length).mapToObj(i -> df.rvar(i).type()).toArray(VarType[]::new);
+            capabilities().checkAtLearnPhase(df, VarDouble.fill(df.rowCount(), 1));
+            if (df.rowCount() < k.get()) {
+                throw new IllegalArgumentException("The first batch must contain at least k instances.");
+            }
+            reset();
+            initialize(df.darray());
+        }
+        DArray<Double> m = df.mapVars(inputNames).darray();
+        for (int start = 0; start < m.dim(0); start += batchSize.get()) {
+            update(m.narrow(0, start, Math.min(m.dim(0), start + batchSize.get())));
+            if (runningHook != null) {
+                runningHook.get().accept(RunInfo.forClustering(this, errors.size()));
+            }
+        }
+        return this;
+    }
+
+    private void reset() {
+        random = getRandom();
+        errors = VarDouble.empty().name("errors");
+    }
+
+    private void initialize(DArray<Double> m) {
+        int dim = m.dim(1);
+        cv = init.get().init(random, DISTANCE, m, k.get()).toDoubleArray(Order.C);
+        c = DArrays.stride(Shape.of(k.get(), dim), cv);
+        counts = new long[k.get()];
+        learned = true;
+    }
+
+    /**
+     * Assigns the instances of a batch to the closest centroids and moves each centroid to the running mean
+     * of all instances assigned to it. Since the learning rate of a centroid is the inverse of the number of
+     * assigned instances, the sequential updates with each instance reduce to a weighted average between
+     * the centroid and the mean of the instances from the batch assigned to it.
+     *
+     * @return sum of squared displacements of centroids
+     */
+    private double update(DArray<Double> batch) {
+        int dim = c.dim(1);
+        int[] assignment = new int[batch.dim(0)];
+        double[] closest = new double[batch.dim(0)];
+        findClosestCentroids(batch, assignment, closest);
+
+        double error = 0;
+        for (double d : closest) {
+            error += d * d;
+        }
+        errors.addDouble(error / batch.dim(0));
+
+        double[] x = batch.toDoubleArray(Order.C);
+        double[] sums = chunkSums(k.get(), dim, x, assignment);
+        int[] batchCounts = new int[k.get()];
+        for (int cluster : assignment) {
+            batchCounts[cluster]++;
+        }
+        double shift = 0;
+        for (int i = 0; i < k.get(); i++) {
+            if (batchCounts[i] == 0) {
+                continue;
+            }
+            counts[i] += batchCounts[i];
+            double rate = (double) batchCounts[i] / counts[i];
+            for (int j = 0; j < dim; j++) {
+                int pos = i * dim + j;
+                double delta = rate * (sums[pos] / batchCounts[i] - cv[pos]);
+                cv[pos] += delta;
+                shift += delta * delta;
+            }
+        }
+        return shift;
+    }
+
+    /**
+     * Finds the closest centroid for each instance and the distance to it. Distances are computed in parallel,
+     * in blocks of instances, without building the whole matrix of distances.
+     */
+    private void findClosestCentroids(DArray<Double> m, int[] assignment, double[] closest) {
+        DISTANCE.pairwise(m, c, (start, block) -> {
+            for (int i = 0; i < block.dim(0); i++) {
+                int cluster = 0;
+                double d = block.getDouble(i, 0);
+                for (int j = 1; j < block.dim(1); j++) {
+                    double dd = block.getDouble(i, j);
+                    if (d > dd) {
+                        d = dd;
+                        cluster = j;
+                    }
+                }
+                assignment[start + i] = cluster;
+                closest[start + i] = d;
+            }
+        });
+    }
+
+    /**
+     * Computes in parallel the sums of instances for each cluster and feature. The partial sums of chunks
+     * are added in order, thus the result does not depend on the number of threads.
+     */
+    private static double[] chunkSums(int k, int dim, double[] x, int[] assignment) {
+        int n = assignment.length;
+        int chunks = Math.max(1, Math.min(MAX_CHUNKS, n / CHUNK_ROWS));
+        double[][] partials = new double[chunks][];
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            double[] sums = new double[k * dim];
+            int end = (int) ((long) (chunk + 1) * n / chunks);
+            for (int i = (int) ((long) chunk * n / chunks); i < end; i++) {
+                int pos = assignment[i] * dim;
+                for (int j = 0; j < dim; j++) {
+                    sums[pos + j] += x[i * dim + j];
+                }
+            }
+            partials[chunk] = sums;
+        });
+        double[] sums = new double[k * dim];
+        for (double[] partial : partials) {
+            for (int i = 0; i < sums.length; i++) {
+                sums[i] += partial[i];
+            }
+        }
+        return sums;
+    }
+
+    /**
+     * Predicts the closest centroid for each instance. Scores are the distances to the closest centroids.
+     */
+    @Override
+    protected ClusteringResult<MiniBatchKMeans> corePredict(Frame df, boolean withScores) {
+        DArray<Double> m = df.mapVars(inputNames).darray();
+        int[] assignment = new int[m.dim(0)];
+        double[] closest = new double[m.dim(0)];
+        findClosestCentroids(m, assignment, closest);
+        return new ClusteringResult<>(this, df, VarInt.wrap(assignment), withScores ? VarDouble.wrap(closest) : null);
+    }
+
+    @Override
+    public String toString() {
+        return fullName() + ", fitted=" + hasLearned();
+    }
+
+    @Override
+    public String toSummary(Printer printer, POpt<?>... options) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(fullName()).append("\n");
+        sb.append("Model fitted=").append(hasLearned()).append("\n");
+        if (learned) {
+            sb.append("Batch inertia:").append(getError()).append("\n");
+            sb.append("Batches:").append(errors.size()).append("\n");
+            sb.append("Learned clusters:").append(c.dim(0)).append("\n");
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toContent(Printer printer, POpt<?>... options) {
+        return toSummary(printer, options);
+    }
+
+    @Override
+    public String toFullContent(Printer printer, POpt<?>... options) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(toSummary(printer, options));
+        if (hasLearned()) {
+            sb.append("Centroids:\n");
+            sb.append(getCentroids().toFullContent(printer, options));
+        }
+        return sb.toString();
+    }
+}
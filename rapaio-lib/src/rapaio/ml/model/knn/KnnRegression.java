@@ -30,14 +30,11 @@ import static rapaio.math.MathTools.PI;
 
 import java.util.Arrays;
 import java.util.Objects;
-import java.util.TreeSet;
 
 import rapaio.core.distributions.Normal;
 import rapaio.core.param.ValueParam;
 import rapaio.darray.DArray;
 import rapaio.darray.DArrays;
-import rapaio.darray.Order;
-import rapaio.darray.Shape;
 import rapaio.data.Frame;
 import rapaio.data.Var;
 import rapaio.data.VarDouble;
@@ -45,6 +42,8 @@ import rapaio.data.VarType;
 import rapaio.ml.common.Capabilities;
 import rapaio.ml.common.distance.Distance;
 import rapaio.ml.common.distance.EuclideanDistance;
+import rapaio.ml.common.index.NeighborIndex;
+import rapaio.ml.common.index.Neighbors;
 import rapaio.ml.model.RegressionModel;
 import rapaio.ml.model.RegressionResult;
 import rapaio.ml.model.RunInfo;
@@ -90,7 +89,7 @@ public class KnnRegression extends RegressionModel<KnnRegression, RegressionResu
      */
     public final ValueParam<Double, KnnRegression> eps = new ValueParam<>(this, 1e-6, "eps");
 
-    private DArray<Double>[] instances;
+    private NeighborIndex index;
     private DArray<Double> target;
 
     @Override
@@ -110,55 +109,23 @@ public class KnnRegression extends RegressionModel<KnnRegression, RegressionResu
                 .targets(1, 1, false, VarType.DOUBLE, VarType.INT, VarType.LONG, VarType.BINARY);
     }
 
-    private DArray<Double> buildInstance(Frame df, int row) {
-        DArray<Double> instance = DArrays.zeros(Shape.of(inputNames.length));
-        for (int j = 0; j < inputNames.length; j++) {
-            instance.setDouble(df.getDouble(row, inputNames[j]), j);
-        }
-        return instance;
-    }
-
-    @SuppressWarnings("unchecked")
     @Override
     protected boolean coreFit(Frame df, Var weights) {
         if (df.rowCount() < 2) {
             throw new IllegalArgumentException("Not enough data for regression.");
         }
-        this.instances = new DArray[df.rowCount()];
-        for (int i = 0; i < df.rowCount(); i++) {
-            instances[i] = buildInstance(df, i);
-        }
+        this.index = NeighborIndex.of(df.mapVars(inputNames).darray(), distance.get());
         this.target = df.rvar(targetNames[0]).darray_();
         return true;
     }
 
-    private int[] computeTop(DArray<Double>[] instances, DArray<Double> x, int k) {
-        TreeSet<Integer> top = new TreeSet<>((o1, o2) -> {
-            double d1 = distance.get().compute(instances[o1], x);
-            double d2 = distance.get().compute(instances[o2], x);
-            return Double.compare(d1, d2);
-        });
-        for (int i = 0; i < instances.length; i++) {
-            top.add(i);
-            if (top.size() > k) {
-                top.remove(top.last());
-            }
-        }
-        int[] indexes = new int[k];
-        int pos = 0;
-        for (int i : top) {
-            indexes[pos++] = i;
-        }
-        return indexes;
-    }
-
-    private DArray<Double> computeWeights(int[] top, int ref, DArray<Double> x) {
-
-        var d = distance.get();
-        DArray<Double> w = DArrays.zeros(Shape.of(top.length));
-        w.apply_(Order.C, (i, p) -> d.compute(x, instances[top[i]]));
-
-        double wref = d.compute(x, instances[ref]);
+    /**
+     * Computes weights of the closest {@code top} neighbours. Distances are normalized by the distance
+     * to the next neighbour.
+     */
+    private DArray<Double> computeWeights(Neighbors neighbors, int top) {
+        DArray<Double> w = DArrays.stride(Arrays.copyOf(neighbors.distances(), top));
+        double wref = neighbors.distance(neighbors.size() - 1);
         // normalize by k+1 distance
         w.div_(wref);
         // cut values to avoid division by zero
@@ -173,13 +140,11 @@ public class KnnRegression extends RegressionModel<KnnRegression, RegressionResu
         RegressionResult result = RegressionResult.build(this, df, withResiduals, quantiles);
 
         VarDouble prediction = result.firstPrediction();
+        Neighbors[] neighbors = index.knn(df.mapVars(inputNames).darray(), k.get() + 1);
         for (int i = 0; i < prediction.size(); i++) {
-            DArray<Double> x = buildInstance(df, i);
-
-            int[] topIndexesEx = computeTop(instances, x, k.get() + 1);
-            int[] topIndexes = Arrays.copyOf(topIndexesEx, topIndexesEx.length - 1);
-            int ref = topIndexesEx[topIndexesEx.length - 1];
-            DArray<Double> weights = computeWeights(topIndexes, ref, x);
+            int top = Math.min(k.get(), neighbors[i].size() - 1);
+            int[] topIndexes = Arrays.copyOf(neighbors[i].indexes(), top);
+            DArray<Double> weights = computeWeights(neighbors[i], top);
             prediction.setDouble(i, target.sel(0, topIndexes).mul(weights).sum() / weights.sum());
         }
         result.buildComplete();
@@ -24,6 +24,7 @@ package rapaio.ml.model.linear;
 import java.io.Serial;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.function.Function;
 
@@ -41,6 +42,7 @@ import rapaio.ml.common.Capabilities;
 import rapaio.ml.model.ClassifierModel;
 import rapaio.ml.model.ClassifierResult;
 import rapaio.ml.model.RunInfo;
+import rapaio.ml.model.Scorer;
 import rapaio.ml.model.linear.binarylogistic.BinaryLogisticIRLS;
 import rapaio.ml.model.linear.binarylogistic.BinaryLogisticNewton;
 import rapaio.printer.Format;
@@ -261,6 +263,49 @@ public class BinaryLogistic extends ClassifierModel<BinaryLogistic, ClassifierRe
         return cr;
     }
 
+    /**
+     * Builds a scorer from the fitted coefficients. The outputs are the densities of target levels,
+     * in the same order as in the results of {@link #predict(Frame, boolean, boolean)}.
+     *
+     * @return thread safe scorer
+     */
+    @Override
+    public Scorer scorer() {
+        if (!hasLearned()) {
+            throw new IllegalArgumentException("Model has not been trained");
+        }
+        int offset = hasIntercept ? 1 : 0;
+        double bias = hasIntercept ? intercept.get() * w.getDouble(0) : 0;
+        double[] coefficients = new double[inputNames.length];
+        for (int i = 0; i < coefficients.length; i++) {
+            coefficients[i] = w.getDouble(i + offset);
+        }
+        return new LogisticScorer(Arrays.asList(inputNames), firstTargetLevels(), bias, coefficients);
+    }
+
+    private static final class LogisticScorer extends Scorer {
+
+        private final double bias;
+        private final double[] coefficients;
+
+        private LogisticScorer(List<String> inputNames, List<String> outputNames, double bias, double[] coefficients) {
+            super(inputNames, outputNames);
+            this.bias = bias;
+            this.coefficients = coefficients;
+        }
+
+        @Override
+        public void score(double[] features, double[] out) {
+            double z = bias;
+            for (int i = 0; i < coefficients.length; i++) {
+                z += coefficients[i] * features[i];
+            }
+            double pi = MathTools.logistic(z);
+            out[0] = pi;
+            out[1] = 1 - pi;
+        }
+    }
+
     public enum Method {
         IRLS,
         NEWTON
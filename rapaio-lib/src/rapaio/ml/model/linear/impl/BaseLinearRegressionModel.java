@@ -22,6 +22,9 @@
 package rapaio.ml.model.linear.impl;
 
 import java.io.Serial;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
 
 import rapaio.core.param.ValueParam;
@@ -32,6 +35,7 @@ import rapaio.data.transform.AddIntercept;
 import rapaio.ml.common.Capabilities;
 import rapaio.ml.model.RegressionModel;
 import rapaio.ml.model.RunInfo;
+import rapaio.ml.model.Scorer;
 import rapaio.ml.model.linear.LinearRegressionResult;
 import rapaio.printer.Printer;
 import rapaio.printer.TextTable;
@@ -101,6 +105,61 @@ public abstract class BaseLinearRegressionModel<M extends BaseLinearRegressionMo
         return result;
     }
 
+    /**
+     * Builds a scorer from the fitted coefficients. The intercept is not an input of the scorer.
+     *
+     * @return thread safe scorer
+     */
+    @Override
+    public Scorer scorer() {
+        if (!isFitted()) {
+            throw new IllegalStateException("Cannot build a scorer for a model which is not fitted.");
+        }
+        List<String> names = new ArrayList<>();
+        for (String inputName : inputNames) {
+            if (!AddIntercept.INTERCEPT.equals(inputName)) {
+                names.add(inputName);
+            }
+        }
+        double[] intercepts = new double[targetNames.length];
+        double[][] coefficients = new double[targetNames.length][names.size()];
+        for (int i = 0; i < targetNames.length; i++) {
+            int pos = 0;
+            for (int k = 0; k < inputNames.length; k++) {
+                if (AddIntercept.INTERCEPT.equals(inputNames[k])) {
+                    intercepts[i] += beta.getDouble(k, i);
+                } else {
+                    coefficients[i][pos++] = beta.getDouble(k, i);
+                }
+            }
+        }
+        return new LinearScorer(names, Arrays.asList(targetNames), intercepts, coefficients);
+    }
+
+    private static final class LinearScorer extends Scorer {
+
+        private final double[] intercepts;
+        private final double[][] coefficients;
+
+        private LinearScorer(List<String> inputNames, List<String> outputNames, double[] intercepts, double[][] coefficients) {
+            super(inputNames, outputNames);
+            this.intercepts = intercepts;
+            this.coefficients = coefficients;
+        }
+
+        @Override
+        public void score(double[] features, double[] out) {
+            for (int i = 0; i < intercepts.length; i++) {
+                double[] c = coefficients[i];
+                double fit = intercepts[i];
+                for (int k = 0; k < c.length; k++) {
+                    fit += c[k] * features[k];
+                }
+                out[i] = fit;
+            }
+        }
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
@@ -25,8 +25,10 @@ import java.io.Serial;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -49,6 +51,7 @@ import rapaio.data.VarType;
 import rapaio.ml.common.Capabilities;
 import rapaio.ml.common.kernel.Kernel;
 import rapaio.ml.common.kernel.RBFKernel;
+import rapaio.ml.common.kernel.cache.KernelCache;
 import rapaio.ml.model.RegressionModel;
 import rapaio.ml.model.RegressionResult;
 import rapaio.ml.model.RunInfo;
@@ -109,6 +112,11 @@ public class RVMRegression extends RegressionModel<RVMRegression, RegressionResu
      */
     public final ValueParam<Integer, RVMRegression> maxFailures = new ValueParam<>(this, 10_000, "maxFailures");
 
+    /**
+     * Memory budget in MB of the kernel cache used for each kernel of the generated features.
+     */
+    public final ValueParam<Long, RVMRegression> cacheSize = new ValueParam<>(this, 100L, "cacheSize", size -> size > 0);
+
     /**
      * RVM regression feature. Features are produced by {@link FeatureProvider} implementations.
      *
@@ -123,7 +131,24 @@ public class RVMRegression extends RegressionModel<RVMRegression, RegressionResu
     }
 
     public interface FeatureProvider extends ParametricEquals<FeatureProvider> {
-        Feature[] generateFeatures(Random random, DArray<Double> mx);
+
+        /**
+         * Generates features, kernel features use their own kernel caches with default memory budget.
+         */
+        default Feature[] generateFeatures(Random random, DArray<Double> mx) {
+            Map<Kernel, KernelCache> caches = new IdentityHashMap<>();
+            return generateFeatures(random, mx, kernel -> caches.computeIfAbsent(kernel, k -> new KernelCache(mx, k)));
+        }
+
+        /**
+         * Generates features.
+         *
+         * @param random random number generator
+         * @param mx     training observations
+         * @param caches provider of kernel caches over training observations, one cache for each kernel
+         * @return generated features
+         */
+        Feature[] generateFeatures(Random random, DArray<Double> mx, Function<Kernel, KernelCache> caches);
     }
 
     /**
@@ -137,7 +162,7 @@ public class RVMRegression extends RegressionModel<RVMRegression, RegressionResu
         }
 
         @Override
-        public Feature[] generateFeatures(Random random, DArray<Double> x) {
+        public Feature[] generateFeatures(Random random, DArray<Double> x, Function<Kernel, KernelCache> caches) {
             return new Feature[] {new Feature("intercept", -1, x.mean1d(0), () -> DArrays.full(Shape.of(x.dim(0)), 1.0), v -> 1.0)};
         }
     }
@@ -172,23 +197,27 @@ public class RVMRegression extends RegressionModel<RVMRegression, RegressionResu
         }
 
         @Override
-        public Feature[] generateFeatures(Random random, DArray<Double> x) {
+        public Feature[] generateFeatures(Random random, DArray<Double> x, Function<Kernel, KernelCache> caches) {
             int len = (int) (x.dim(0) * gammas.size() * p);
             int[] selection = SamplingTools.sampleWOR(x.dim(0) * gammas.size(), len);
             Feature[] factories = new Feature[selection.length];
             Ints.quickSort(selection);
+            RBFKernel[] kernels = new RBFKernel[gammas.size()];
+            for (int i = 0; i < kernels.length; i++) {
+                kernels[i] = new RBFKernel(gammas.getDouble(i));
+            }
             int pp = 0;
             for (int pos : selection) {
                 int sigmaIndex = pos / x.dim(0);
                 int rowIndex = pos % x.dim(0);
                 var xrow = x.selsq(0, rowIndex).copy();
-                double gamma = gammas.getDouble(sigmaIndex);
-                RBFKernel kernel = new RBFKernel(gamma);
+                RBFKernel kernel = kernels[sigmaIndex];
+                KernelCache cache = caches.apply(kernel);
                 factories[pp++] = new Feature(
                         String.format("%s, vector: %s, train trainIndex: %d", kernel.name(), xrow.toString(), rowIndex),
                         rowIndex,
                         xrow,
-                        () -> DArrays.zeros(Shape.of(x.dim(0))).apply_((r, _) -> kernel.compute(xrow, x.selsq(0, r))),
+                        () -> cache.row(rowIndex).darray(),
                         vector -> kernel.compute(vector, xrow)
                 );
             }
@@ -224,11 +253,12 @@ public class RVMRegression extends RegressionModel<RVMRegression, RegressionResu
         }
 
         @Override
-        public Feature[] generateFeatures(Random random, DArray<Double> x) {
+        public Feature[] generateFeatures(Random random, DArray<Double> x, Function<Kernel, KernelCache> caches) {
             int len = Math.max(1, (int) (x.dim(0) * p));
             int[] selection = SamplingTools.sampleWOR(x.dim(0), len);
             Feature[] factories = new Feature[selection.length];
             Ints.quickSort(selection);
+            KernelCache cache = caches.apply(kernel);
             int pp = 0;
             for (int rowIndex : selection) {
                 var xrow = x.selsq(0, rowIndex).copy();
@@ -236,7 +266,7 @@ public class RVMRegression extends RegressionModel<RVMRegression, RegressionResu
                         String.format("%s, vector: %s, train trainIndex: %d", kernel.name(), xrow.toString(), rowIndex),
                         rowIndex,
                         xrow,
-                        () -> DArrays.zeros(Shape.of(x.dim(0))).apply_((r, _) -> kernel.compute(xrow, x.selsq(0, r))),
+                        () -> cache.row(rowIndex).darray(),
                         vector -> kernel.compute(vector, xrow)
                 );
             }
@@ -256,7 +286,7 @@ public class RVMRegression extends RegressionModel<RVMRegression, RegressionResu
         }
 
         @Override
-        public Feature[] generateFeatures(Random random, DArray<Double> x) {
+        public Feature[] generateFeatures(Random random, DArray<Double> x, Function<Kernel, KernelCache> caches) {
             int len = Math.max(1, (int) (gammas.size() * x.dim(0) * p));
             Feature[] factories = new Feature[len];
             for (int i = 0; i < len; i++) {
@@ -403,9 +433,14 @@ public class RVMRegression extends RegressionModel<RVMRegression, RegressionResu
         DArray<Double> mx = buildInput(df);
         DArray<Double> vy = buildTarget(df);
 
+        // kernel features of the same kernel share a cache of kernel rows computed on training observations
+        Map<Kernel, KernelCache> caches = new IdentityHashMap<>();
+        Function<Kernel, KernelCache> cacheProvider =
+                kernel -> caches.computeIfAbsent(kernel, k -> new KernelCache(mx, k, cacheSize.get() << 20, false));
+
         features = new ArrayList<>();
         for (FeatureProvider fp : providers.get()) {
-            features.addAll(Arrays.asList(fp.generateFeatures(random, mx)));
+            features.addAll(Arrays.asList(fp.generateFeatures(random, mx, cacheProvider)));
         }
         methodImpl = switch (method.get()) {
             case EVIDENCE_APPROXIMATION -> new EvidenceApproximation(this, mx, vy);
@@ -413,7 +448,12 @@ public class RVMRegression extends RegressionModel<RVMRegression, RegressionResu
             case ONLINE_PRUNING -> new FastOnline(this, mx, vy);
         };
 
-        return methodImpl.fit();
+        try {
+            return methodImpl.fit();
+        } finally {
+            // release cached rows, features recompute them if needed after fit
+            caches.values().forEach(KernelCache::clean);
+        }
     }
 
     /**
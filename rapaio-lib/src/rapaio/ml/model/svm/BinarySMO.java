@@ -43,6 +43,7 @@ import rapaio.ml.common.Capabilities;
 import rapaio.ml.common.kernel.Kernel;
 import rapaio.ml.common.kernel.PolyKernel;
 import rapaio.ml.common.kernel.cache.KernelCache;
+import rapaio.ml.common.kernel.cache.KernelRow;
 import rapaio.ml.model.ClassifierModel;
 import rapaio.ml.model.ClassifierResult;
 import rapaio.ml.model.RunInfo;
@@ -115,7 +116,14 @@ public class BinarySMO extends ClassifierModel<BinarySMO, ClassifierResult, RunI
     public final ValueParam<Boolean, BinarySMO> prob = new ValueParam<>(this, Boolean.FALSE,
             "probabilities");
 
+    /**
+     * Memory budget of the kernel cache in MB.
+     */
+    public final ValueParam<Long, BinarySMO> cacheSize = new ValueParam<>(this, 100L, "cacheSize", size -> size > 0);
+
     private static final double eps_delta = 1e-200;
+    // number of kernel values computed at once during prediction
+    private static final int PREDICT_BLOCK_SIZE = 1 << 16;
 
     private String label1;
     private String label2;
@@ -233,11 +241,10 @@ public class BinarySMO extends ClassifierModel<BinarySMO, ClassifierResult, RunI
         if (prob.get() == true) {
             logistic = BinaryLogistic.newModel().seed.set(seed.get());
 
-            VarDouble score = VarDouble.empty(_vectors.dim(0)).name("score");
+            VarDouble score = VarDouble.wrap(predictScores(_vectors)).name("score");
             VarBinary target = VarBinary.empty(_vectors.dim(0)).name("target");
 
             for (int i = 0; i < _vectors.dim(0); i++) {
-                score.setDouble(i, predictScore(_vectors, i));
                 target.setInt(i, _y[i] == -1 ? 0 : 1);
             }
 
@@ -391,11 +398,9 @@ public class BinarySMO extends ClassifierModel<BinarySMO, ClassifierResult, RunI
         }
 
         // Compute second derivative of objective function
-        DArray<Double> row1 = state.train.selsq(0, i1);
-        DArray<Double> row2 = state.train.selsq(0, i2);
-        double k11 = state.kernelCache.cachedCompute(i1, i1, row1, row1);
-        double k12 = state.kernelCache.cachedCompute(i1, i2, row1, row2);
-        double k22 = state.kernelCache.cachedCompute(i2, i2, row2, row2);
+        double k11 = state.kernelCache.get(i1, i1);
+        double k12 = state.kernelCache.get(i1, i2);
+        double k22 = state.kernelCache.get(i2, i2);
         double eta = 2 * k12 - k11 - k22;
 
         double a1, a2;
@@ -478,12 +483,11 @@ public class BinarySMO extends ClassifierModel<BinarySMO, ClassifierResult, RunI
         }
 
         // Update error cache using new Lagrange multipliers
+        KernelRow row1 = state.kernelCache.row(i1);
+        KernelRow row2 = state.kernelCache.row(i2);
         for (int j = state.I0.nextSetBit(0); j != -1; j = state.I0.nextSetBit(j + 1)) {
             if ((j != i1) && (j != i2)) {
-                DArray<Double> rowj = state.train.selsq(0, j);
-                state.fCache[j] +=
-                        y1 * (a1 - alpha1) * state.kernelCache.cachedCompute(i1, j, row1, rowj) +
-                                y2 * (a2 - alpha2) * state.kernelCache.cachedCompute(i2, j, row2, rowj);
+                state.fCache[j] += y1 * (a1 - alpha1) * row1.get(j) + y2 * (a2 - alpha2) * row2.get(j);
             }
         }
 
@@ -595,12 +599,47 @@ public class BinarySMO extends ClassifierModel<BinarySMO, ClassifierResult, RunI
         return result;
     }
 
+    /**
+     * Computes scores for all rows. For non-linear kernels, kernel values between rows and support vectors
+     * are computed in blocks of rows, with a single batch kernel evaluation for each block.
+     */
+    private double[] predictScores(DArray<Double> x) {
+        int n = x.dim(0);
+        double[] scores = new double[n];
+        if (kernel.get().isLinear()) {
+            for (int i = 0; i < n; i++) {
+                scores[i] = predictScore(x, i);
+            }
+            return scores;
+        }
+        int m = _vectorsCount;
+        double[] coefficients = new double[m];
+        for (int j = 0; j < m; j++) {
+            coefficients[j] = _y[j] * _alpha[j];
+        }
+        int blockRows = Math.max(1, PREDICT_BLOCK_SIZE / Math.max(1, m));
+        double[] values = new double[Math.min(n, blockRows) * m];
+        for (int start = 0; start < n; start += blockRows) {
+            int end = Math.min(n, start + blockRows);
+            kernel.get().computeBlock(x.narrow(0, start, end), _vectors, values);
+            for (int i = start; i < end; i++) {
+                double result = -_b;
+                int pos = (i - start) * m;
+                for (int j = 0; j < m; j++) {
+                    result += coefficients[j] * values[pos + j];
+                }
+                scores[i] = result;
+            }
+        }
+        return scores;
+    }
 
     @Override
     protected ClassifierResult corePredict(Frame df, boolean withClasses, boolean withDistributions) {
         ClassifierResult cr = ClassifierResult.build(this, df, withClasses, withDistributions);
+        double[] scores = predictScores(df.mapVars(inputNames).darray());
         for (int i = 0; i < df.rowCount(); i++) {
-            double score = predictScore(df.mapVars(inputNames).darray(), i);
+            double score = scores[i];
             if (prob.get()) {
                 ClassifierResult result = logistic.predict(SolidFrame.byVars(VarDouble.scalar(score).name("score")));
                 double p = result.firstDensity().getDouble(0, "true");
@@ -775,7 +814,7 @@ final class State {
         I4 = new BitSet(n);
 
         // init kernel
-        kernelCache = new KernelCache(train, parent.kernel.get());
+        kernelCache = new KernelCache(train, parent.kernel.get(), parent.cacheSize.get() << 20, false);
 
         // Initialize error cache
         fCache = new double[n];
@@ -42,6 +42,7 @@ import rapaio.ml.model.svm.libsvm.ModelInfo;
 import rapaio.ml.model.svm.libsvm.ProblemInfo;
 import rapaio.ml.model.svm.libsvm.Svm;
 import rapaio.ml.model.svm.libsvm.SvmModel;
+import rapaio.ml.model.svm.libsvm.SvmParameter;
 import rapaio.util.collection.Doubles;
 
 public class SvmClassifier extends ClassifierModel<SvmClassifier, ClassifierResult, RunInfo<SvmClassifier>> {
@@ -69,7 +70,8 @@ public class SvmClassifier extends ClassifierModel<SvmClassifier, ClassifierResu
     public final ValueParam<Double, SvmClassifier> nu = new ValueParam<>(this, 0.5, "nu", v -> Double.isFinite(v) && v > 0 && v < 1);
 
     /**
-     * Cache size in MB (default 100MB).
+     * Cache size in MB (default 100MB). When sub problems are trained in parallel, the memory is shared
+     * by the solvers which run at the same time.
      */
     public final ValueParam<Long, SvmClassifier> cacheSize = new ValueParam<>(this, 100L, "cacheSize", size -> size > 0);
 
@@ -137,7 +139,11 @@ public class SvmClassifier extends ClassifierModel<SvmClassifier, ClassifierResu
 
         pi.checkValidProblem();
 
-        svm_model = Svm.svm_train(pi.computeProblem(), pi.computeParameters());
+        // one-vs-one sub problems and probability calibration folds are trained on a pool of poolSize threads,
+        // which share the kernel cache memory budget
+        SvmParameter param = pi.computeParameters();
+        param.threads = computeThreads();
+        svm_model = Svm.svm_train(pi.computeProblem(), param);
         problemInfo = pi;
 
         modelInfo = new ModelInfo(pi);
@@ -165,13 +171,6 @@ public class SvmClassifier extends ClassifierModel<SvmClassifier, ClassifierResu
                 double[] values = new double[k * (k - 1) / 2];
                 double score = Svm.svm_predict_values(svm_model, xs.selsq(0, i), values);
 
-                result.firstClasses().setLabel(i, problemInfo.levels().get((int) score));
-                if(withDistributions) {
-                    for (int j = 0; j < k; j++) {
-                        result.firstDensity().setDouble(i, j, values[j]);
-                    }
-                }
-
                 double[] dist = Doubles.newFill(k, Double.NEGATIVE_INFINITY);
                 int pos = 0;
                 for (int j = 0; j < k; j++) {
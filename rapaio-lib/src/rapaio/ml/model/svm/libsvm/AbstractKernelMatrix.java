@@ -21,31 +21,86 @@
 
 package rapaio.ml.model.svm.libsvm;
 
-import java.util.Arrays;
+import java.util.stream.IntStream;
 
 import rapaio.darray.DArray;
 import rapaio.ml.common.kernel.Kernel;
-import rapaio.util.collection.TArrays;
 
+/**
+ * Base class for Q matrices used by solvers.
+ * <p>
+ * Instances are copied once in row major order and kernel values are computed with
+ * {@link Kernel#compute(double[], int, double[], int, int)}. Large parts of a kernel column are computed
+ * in parallel, in chunks of consecutive positions.
+ */
 public abstract class AbstractKernelMatrix {
 
-    protected final DArray<Double>[] xs;
+    /**
+     * Minimum amount of work, measured as number of multiplications, for which a column is computed in parallel.
+     */
+    private static final long PARALLEL_WORK = 1L << 16;
+    private static final int CHUNK_SIZE = 1_024;
+
     protected final Kernel kernel;
-    protected final Cache cache;
+    protected final double[] x;
+    protected final int dim;
     protected final double[] qd;
 
-    AbstractKernelMatrix(DArray<Double>[] xs, Kernel kernel, Cache cache, double[] qd) {
+    AbstractKernelMatrix(DArray<Double>[] xs, Kernel kernel, double[] qd) {
         this.kernel = kernel;
-        this.xs = Arrays.copyOf(xs, xs.length);
-        this.cache = cache;
+        this.dim = xs.length == 0 ? 0 : xs[0].size();
+        this.x = new double[xs.length * dim];
+        for (int i = 0; i < xs.length; i++) {
+            System.arraycopy(xs[i].toDoubleArray(), 0, x, i * dim, dim);
+        }
         this.qd = qd;
     }
 
     abstract double[] getQD();
 
-    abstract DArray<Double> getQ(int column, int len);
+    abstract float[] getQ(int column, int len);
+
+    abstract void swapIndex(int i, int j);
+
+    /**
+     * Computes kernel value between two instances.
+     *
+     * @param i original index of the first instance
+     * @param j original index of the second instance
+     * @return kernel value
+     */
+    protected final double kernel(int i, int j) {
+        return kernel.compute(x, i * dim, x, j * dim, dim);
+    }
+
+    /**
+     * Computes values of a kernel column {@code out[t] = scale * signs[t] * k(x[row], x[rows[t]])} for positions
+     * {@code t} from {@code start} to {@code end}.
+     *
+     * @param row   original index of the instance
+     * @param rows  original index of the instance from each position, or null if positions are original indexes
+     * @param scale scale factor for all values
+     * @param signs sign for each position, or null if all signs are positive
+     * @param start first position
+     * @param end   position after the last one
+     * @param out   destination for values
+     */
+    protected final void computeColumn(int row, int[] rows, double scale, byte[] signs, int start, int end, float[] out) {
+        if ((long) (end - start) * dim < PARALLEL_WORK) {
+            computeColumnChunk(row, rows, scale, signs, start, end, out);
+            return;
+        }
+        int chunks = (end - start + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            int chunkStart = start + chunk * CHUNK_SIZE;
+            computeColumnChunk(row, rows, scale, signs, chunkStart, Math.min(end, chunkStart + CHUNK_SIZE), out);
+        });
+    }
 
-    void swapIndex(int i, int j) {
-        TArrays.swap(xs, i, j);
+    private void computeColumnChunk(int row, int[] rows, double scale, byte[] signs, int start, int end, float[] out) {
+        for (int t = start; t < end; t++) {
+            double value = kernel(row, rows == null ? t : rows[t]);
+            out[t] = (float) (signs == null ? scale * value : scale * signs[t] * value);
+        }
     }
 }
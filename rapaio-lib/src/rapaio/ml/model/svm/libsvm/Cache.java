@@ -21,13 +21,16 @@
 
 package rapaio.ml.model.svm.libsvm;
 
-import rapaio.darray.DArray;
-import rapaio.darray.DArrays;
-import rapaio.darray.Shape;
+import java.util.Arrays;
+
 import rapaio.util.Reference;
 
 /**
- * Kernel cache.
+ * Kernel cache with least recently used eviction.
+ * <p>
+ * Each entry is a prefix of a kernel column, stored with float precision, as in the reference libsvm
+ * implementation. Storing floats instead of doubles keeps twice as many values in the same memory.
+ * The number of stored values is limited by a memory budget given in bytes.
  */
 public class Cache {
 
@@ -40,26 +43,31 @@ public class Cache {
     private static final class Entry {
         private Entry prev;
         private Entry next;
-        private DArray<Double> data;
+        private float[] data;
 
         public int len() {
-            return data == null ? 0 : data.size();
+            return data == null ? 0 : data.length;
         }
     }
 
     private final Entry[] entries;
     private final Entry lruEntry;
 
-    Cache(int len, long size) {
+    /**
+     * Builds a cache for kernel columns.
+     *
+     * @param len      number of columns
+     * @param maxBytes memory budget in bytes, at least two columns are stored even if they do not fit in the budget
+     */
+    Cache(int len, long maxBytes) {
         entries = new Entry[len];
         for (int i = 0; i < len; i++) {
             entries[i] = new Entry();
         }
-        this.size = Math.max(size, 4L * len);
+        this.size = Math.max(maxBytes / Float.BYTES, 2L * len);
         lruEntry = new Entry();
         lruEntry.next = lruEntry.prev = lruEntry;
     }
-
     private void lruUnlink(Entry h) {
         if (h.len() == 0) {
             return;
@@ -85,7 +93,7 @@ public class Cache {
      * the position until it is computed, starting from 0. The other positions will be filled by
      * the caller and the values will remain in cache since data is passed as reference.
      */
-    public int getData(int index, Reference<DArray<Double>> data, int len) {
+    public int getData(int index, Reference<float[]> data, int len) {
         Entry h = entries[index];
 
         lruUnlink(h);
@@ -102,7 +110,7 @@ public class Cache {
                 old.data = null;
             }
             // allocate new space
-            h.data = (h.data == null) ? DArrays.zeros(Shape.of(len)) : h.data.pad(0, more, 1);
+            h.data = (h.data == null) ? new float[len] : Arrays.copyOf(h.data, len);
             size -= more;
         }
 
@@ -133,9 +141,9 @@ public class Cache {
         for (Entry h = lruEntry.next; h != lruEntry; h = h.next) {
             if (h.len() > i) {
                 if (h.len() > j) {
-                    var tmp = h.data.get(i);
-                    h.data.set(h.data.get(j), i);
-                    h.data.set(tmp, j);
+                    float tmp = h.data[i];
+                    h.data[i] = h.data[j];
+                    h.data[j] = tmp;
                 } else {
                     // give up
                     lruUnlink(h);
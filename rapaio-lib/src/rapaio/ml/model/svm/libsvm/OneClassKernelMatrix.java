@@ -21,28 +21,43 @@
 
 package rapaio.ml.model.svm.libsvm;
 
-import rapaio.darray.DArray;
-import rapaio.util.Reference;
+import rapaio.darray.DArrays;
+import rapaio.darray.Shape;
+import rapaio.ml.common.kernel.cache.KernelCache;
+import rapaio.ml.common.kernel.cache.KernelRow;
 import rapaio.util.collection.TArrays;
 
+/**
+ * Q matrix for one class formulation. Kernel rows are stored with float precision in a {@link KernelCache}
+ * by original instance index, thus swapping indexes does not touch stored rows, the columns are reordered when
+ * they are requested.
+ */
 class OneClassKernelMatrix extends AbstractKernelMatrix {
 
+    private final KernelCache kernelCache;
+    private final int[] index;
+    private int nextBuffer;
+    private final float[][] buffer;
+
     OneClassKernelMatrix(SvmProblem prob, SvmParameter param) {
-        super(prob.xs, param.kernel, new Cache(prob.len, param.cacheSize * (1 << 20)), new double[prob.len]);
+        super(prob.xs, param.kernel, new double[prob.len]);
+        kernelCache = new KernelCache(DArrays.stride(Shape.of(prob.len, dim), x), param.kernel, param.cacheBytes, true);
+        buffer = new float[][] {new float[prob.len], new float[prob.len]};
+        index = new int[prob.len];
         for (int i = 0; i < prob.len; i++) {
-            qd[i] = kernel.compute(xs[i], xs[i]);
+            index[i] = i;
+            qd[i] = kernel(i, i);
         }
     }
 
-    DArray<Double> getQ(int i, int len) {
-        Reference<DArray<Double>> data = new Reference<>();
-        int start = cache.getData(i, data, len);
-        if (start < len) {
-            for (int j = start; j < len; j++) {
-                data.get().set(kernel.compute(xs[i], xs[j]), j);
-            }
+    float[] getQ(int i, int len) {
+        KernelRow row = kernelCache.row(index[i]);
+        float[] buf = buffer[nextBuffer];
+        nextBuffer = 1 - nextBuffer;
+        for (int j = 0; j < len; j++) {
+            buf[j] = (float) row.get(index[j]);
         }
-        return data.get();
+        return buf;
     }
 
     double[] getQD() {
@@ -50,8 +65,7 @@ class OneClassKernelMatrix extends AbstractKernelMatrix {
     }
 
     void swapIndex(int i, int j) {
-        cache.swapIndex(i, j);
-        super.swapIndex(i, j);
+        TArrays.swap(index, i, j);
         TArrays.swap(qd, i, j);
     }
 }
@@ -144,7 +144,7 @@ public record ProblemInfo(Random random, DArray<Double>[] xs, double[] y,
         }
         param.kernel = kernel;
 
-        param.cacheSize = cacheSize;
+        param.cacheBytes = cacheSize << 20;
         param.eps = eps;
         param.c = c;    // for C_SVC, EPSILON_SVR and NU_SVR
 
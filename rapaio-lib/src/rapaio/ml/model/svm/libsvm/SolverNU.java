@@ -21,8 +21,6 @@
 
 package rapaio.ml.model.svm.libsvm;
 
-import rapaio.darray.DArray;
-
 /**
  * Solver for nu-svm classification and regression.
  * <p>
@@ -77,8 +75,8 @@ public final class SolverNU extends SolverC {
 
         int ip = gmaxpIdx;
         int in = gmaxnIdx;
-        DArray<Double> qip = null;
-        DArray<Double> qin = null;
+        float[] qip = null;
+        float[] qin = null;
 
         // null Q_ip not accessed: Gmaxp=-INF if ip=-1
         if (ip != -1) {
@@ -97,7 +95,7 @@ public final class SolverNU extends SolverC {
                     }
                     if (gradDiff > 0) {
                         double objDiff;
-                        double quadCoef = qd[ip] + qd[j] - 2 * qip.get(j);
+                        double quadCoef = qd[ip] + qd[j] - 2 * qip[j];
                         if (quadCoef > 0) {
                             objDiff = -(gradDiff * gradDiff) / quadCoef;
                         } else {
@@ -118,7 +116,7 @@ public final class SolverNU extends SolverC {
                     }
                     if (gradDiff > 0) {
                         double objDiff;
-                        double quadCoef = qd[in] + qd[j] - 2 * qin.get(j);
+                        double quadCoef = qd[in] + qd[j] - 2 * qin[j];
                         if (quadCoef > 0) {
                             objDiff = -(gradDiff * gradDiff) / quadCoef;
                         } else {
@@ -32,23 +32,27 @@ import rapaio.util.collection.TArrays;
  * Q matrix for C formulation.
  */
 class SvcKernelMatrix extends AbstractKernelMatrix {
+    private final Cache cache;
     private final byte[] y;
+    // original index of the instance from each position
+    private final int[] index;
 
-    public SvcKernelMatrix(int l, DArray<Double>[] xs, Kernel kernel, long cacheSize, byte[] y) {
-        super(xs, kernel, new Cache(l, cacheSize * (1 << 20)), new double[l]);
+    public SvcKernelMatrix(int l, DArray<Double>[] xs, Kernel kernel, long cacheBytes, byte[] y) {
+        super(xs, kernel, new double[l]);
+        this.cache = new Cache(l, cacheBytes);
         this.y = Arrays.copyOf(y, y.length);
+        this.index = new int[l];
         for (int i = 0; i < l; i++) {
-            this.qd[i] = kernel.compute(xs[i], xs[i]);
+            this.index[i] = i;
+            this.qd[i] = kernel(i, i);
         }
     }
 
-    DArray<Double> getQ(int i, int len) {
-        Reference<DArray<Double>> data = new Reference<>();
+    float[] getQ(int i, int len) {
+        Reference<float[]> data = new Reference<>();
         int start = cache.getData(i, data, len);
         if (start < len) {
-            for (int j = start; j < len; j++) {
-                data.get().set(y[i] * y[j] * kernel.compute(xs[i], xs[j]), j);
-            }
+            computeColumn(index[i], index, y[i], y, start, len, data.get());
         }
         return data.get();
     }
@@ -59,7 +63,7 @@ class SvcKernelMatrix extends AbstractKernelMatrix {
 
     void swapIndex(int i, int j) {
         cache.swapIndex(i, j);
-        super.swapIndex(i, j);
+        TArrays.swap(index, i, j);
         TArrays.swap(y, i, j);
         TArrays.swap(qd, i, j);
     }
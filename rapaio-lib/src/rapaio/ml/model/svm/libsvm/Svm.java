@@ -21,8 +21,15 @@
 
 package rapaio.ml.model.svm.libsvm;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.LongConsumer;
 import java.util.logging.Logger;
 
 import rapaio.darray.DArray;
@@ -47,7 +54,7 @@ public class Svm {
 
         SolverC s = new SolverC();
         SolutionInfo si = new SolutionInfo();
-        s.solve(l, new SvcKernelMatrix(prob.len, prob.xs, param.kernel, param.cacheSize, y), minus_ones, y,
+        s.solve(l, new SvcKernelMatrix(prob.len, prob.xs, param.kernel, param.cacheBytes, y), minus_ones, y,
                 alpha, cp, cn, param.eps, si, param.shrinking);
 
         double sumAlpha = DArrays.stride(alpha).sum();
@@ -98,7 +105,7 @@ public class Svm {
 
         SolverNU s = new SolverNU();
         SolutionInfo si = new SolutionInfo();
-        s.solve(l, new SvcKernelMatrix(prob.len, prob.xs, param.kernel, param.cacheSize, y), zeros, y,
+        s.solve(l, new SvcKernelMatrix(prob.len, prob.xs, param.kernel, param.cacheBytes, y), zeros, y,
                 alpha, 1.0, 1.0, param.eps, si, param.shrinking);
         double r = si.r;
 
@@ -165,7 +172,7 @@ public class Svm {
 
         SolverC s = new SolverC();
         SolutionInfo si = new SolutionInfo();
-        s.solve(2 * l, new SvrKernelMatrix(prob.len, prob.xs, param.kernel, param.cacheSize), linear_term, y,
+        s.solve(2 * l, new SvrKernelMatrix(prob.len, prob.xs, param.kernel, param.cacheBytes), linear_term, y,
                 alpha2, param.c, param.c, param.eps, si, param.shrinking);
 
         double sum_alpha = 0;
@@ -199,7 +206,7 @@ public class Svm {
 
         SolverNU s = new SolverNU();
         SolutionInfo si = new SolutionInfo();
-        s.solve(2 * l, new SvrKernelMatrix(prob.len, prob.xs, param.kernel, param.cacheSize), linear_term, y,
+        s.solve(2 * l, new SvrKernelMatrix(prob.len, prob.xs, param.kernel, param.cacheBytes), linear_term, y,
                 alpha2, C, C, param.eps, si, param.shrinking);
 
         LOGGER.fine("epsilon = " + (-si.r) + "\n");
@@ -435,10 +442,45 @@ public class Svm {
 
     // Cross-validation decision values for probability estimates
     public static double[] svm_binary_svc_probability(SvmProblem prob, SvmParameter param, double cp, double cn) {
+        double[] dec_values = new double[prob.len];
+        for (CalibrationFold fold : calibration_folds(prob, param, cp, cn, dec_values)) {
+            fold.run(param.cacheBytes);
+        }
+        return sigmoid_train(prob.len, dec_values, prob.y);
+    }
+
+    /**
+     * Cross validation fold used to calibrate probabilities of a binary problem. A fold trains a model
+     * on the other folds and fills the decision values of its own instances.
+     */
+    private record CalibrationFold(SvmProblem prob, SvmProblem subprob, SvmParameter subparam, int[] perm,
+                                   int begin, int end, double[] dec_values) {
+
+        void run(long cacheBytes) {
+            SvmParameter param = subparam.copy();
+            param.cacheBytes = cacheBytes;
+            SvmModel submodel = svm_train(subprob, param);
+            for (int j = begin; j < end; j++) {
+                double[] dec_value = new double[1];
+                svm_predict_values(submodel, prob.xs[perm[j]], dec_value);
+                dec_values[perm[j]] = dec_value[0];
+                // ensure +1 -1 order; reason not using CV subroutine
+                dec_values[perm[j]] *= submodel.label[0];
+            }
+        }
+    }
+
+    /**
+     * Builds the folds used to calibrate probabilities of a binary problem. All random values are drawn
+     * while folds are built, thus folds can be run in any order, or concurrently, with the same results.
+     * Decision values of folds which do not require training are filled directly.
+     */
+    private static List<CalibrationFold> calibration_folds(SvmProblem prob, SvmParameter param, double cp, double cn,
+            double[] dec_values) {
         int i;
         int nr_fold = 5;
         int[] perm = Ints.seq(0, prob.len);
-        double[] dec_values = new double[prob.len];
+        List<CalibrationFold> folds = new ArrayList<>();
 
         // random shuffle
         for (i = 0; i < prob.len; i++) {
@@ -491,6 +533,7 @@ public class Svm {
             } else {
                 SvmParameter subparam = param.copy();
                 subparam.probability = 0;
+                subparam.threads = 1;
                 subparam.c = 1.0;
                 subparam.nrWeight = 2;
                 subparam.weightLabel = new int[2];
@@ -499,17 +542,10 @@ public class Svm {
                 subparam.weightLabel[1] = -1;
                 subparam.weight[0] = cp;
                 subparam.weight[1] = cn;
-                SvmModel submodel = svm_train(subprob, subparam);
-                for (j = begin; j < end; j++) {
-                    double[] dec_value = new double[1];
-                    svm_predict_values(submodel, prob.xs[perm[j]], dec_value);
-                    dec_values[perm[j]] = dec_value[0];
-                    // ensure +1 -1 order; reason not using CV subroutine
-                    dec_values[perm[j]] *= submodel.label[0];
-                }
+                folds.add(new CalibrationFold(prob, subprob, subparam, perm, begin, end, dec_values));
             }
         }
-        return sigmoid_train(prob.len, dec_values, prob.y);
+        return folds;
     }
 
     // Return parameter of a Laplace distribution
@@ -614,6 +650,40 @@ public class Svm {
         count_ret[0] = count;
     }
 
+    /**
+     * Solver which can be run independently, with a given memory budget for kernel caches.
+     *
+     * @param size   number of instances of the problem, used to schedule larger problems first
+     * @param solver solver which receives the memory budget in bytes
+     */
+    private record SolverTask(int size, LongConsumer solver) {
+    }
+
+    /**
+     * Runs solvers. With multiple threads, solvers are run concurrently on a shared pool, larger problems first,
+     * and the memory budget for kernel caches is split evenly between the solvers which can run at the same time.
+     */
+    private static void run_tasks(List<SolverTask> tasks, SvmParameter param) {
+        int threads = Math.min(param.threads, tasks.size());
+        if (threads <= 1) {
+            for (SolverTask task : tasks) {
+                task.solver().accept(param.cacheBytes);
+            }
+            return;
+        }
+        long cacheBytes = param.cacheBytes / threads;
+        List<SolverTask> sorted = new ArrayList<>(tasks);
+        sorted.sort(Comparator.comparingInt(SolverTask::size).reversed());
+        ExecutorService executor = Executors.newWorkStealingPool(threads);
+        try {
+            CompletableFuture.allOf(sorted.stream()
+                    .map(task -> CompletableFuture.runAsync(() -> task.solver().accept(cacheBytes), executor))
+                    .toArray(CompletableFuture[]::new)).join();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     public static SvmModel svm_train(SvmProblem prob, SvmParameter param) {
         SvmModel model = new SvmModel();
         model.param = param;
@@ -710,6 +780,11 @@ public class Svm {
                 probB = new double[nr_class * (nr_class - 1) / 2];
             }
 
+            // sub problems and calibration folds are built first, drawing random values in a fixed order,
+            // thus the results do not depend on the order in which solvers are run
+            SvmProblem[] sub_probs = new SvmProblem[f.length];
+            double[][] dec_values = new double[f.length][];
+            List<SolverTask> tasks = new ArrayList<>();
             int p = 0;
             for (int i = 0; i < nr_class; i++) {
                 for (int j = i + 1; j < nr_class; j++) {
@@ -729,14 +804,40 @@ public class Svm {
                         sub_prob.xs[ci + k] = x[sj + k];
                         sub_prob.y[ci + k] = -1;
                     }
+                    sub_probs[p] = sub_prob;
 
                     if (param.probability == 1) {
-                        double[] probAB = svm_binary_svc_probability(sub_prob, param, weighted_C[i], weighted_C[j]);
+                        dec_values[p] = new double[sub_prob.len];
+                        for (CalibrationFold fold : calibration_folds(sub_prob, param, weighted_C[i], weighted_C[j], dec_values[p])) {
+                            tasks.add(new SolverTask(fold.subprob().len, fold::run));
+                        }
+                    }
+
+                    int index = p;
+                    double cp = weighted_C[i];
+                    double cn = weighted_C[j];
+                    tasks.add(new SolverTask(sub_prob.len, cacheBytes -> {
+                        SvmParameter sub_param = param.copy();
+                        sub_param.cacheBytes = cacheBytes;
+                        f[index] = svm_train_one(sub_prob, sub_param, cp, cn);
+                    }));
+                    ++p;
+                }
+            }
+
+            run_tasks(tasks, param);
+
+            p = 0;
+            for (int i = 0; i < nr_class; i++) {
+                for (int j = i + 1; j < nr_class; j++) {
+                    int si = start[i], sj = start[j];
+                    int ci = count[i], cj = count[j];
+                    int k;
+                    if (param.probability == 1) {
+                        double[] probAB = sigmoid_train(sub_probs[p].len, dec_values[p], sub_probs[p].y);
                         probA[p] = probAB[0];
                         probB[p] = probAB[1];
                     }
-
-                    f[p] = svm_train_one(sub_prob, param, weighted_C[i], weighted_C[j]);
                     for (k = 0; k < ci; k++) {
                         if (Math.abs(f[p].alpha[k]) > 0) {
                             nonzero[si + k] = true;
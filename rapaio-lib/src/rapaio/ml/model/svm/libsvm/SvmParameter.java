@@ -36,7 +36,7 @@ public class SvmParameter implements java.io.Serializable {
     public Kernel kernel;
 
     // these are for training only
-    public long cacheSize; // in MB
+    public long cacheBytes; // memory budget of kernel caches, in bytes
     public double eps;    // stopping criteria
     public double c;    // for C_SVC, EPSILON_SVR and NU_SVR
     public int nrWeight;        // for C_SVC
@@ -46,12 +46,13 @@ public class SvmParameter implements java.io.Serializable {
     public double p;    // for EPSILON_SVR
     public int shrinking;    // use the shrinking heuristics
     public int probability; // do probability estimates
+    public int threads = 1; // number of threads used to train sub problems
 
     public SvmParameter copy() {
         SvmParameter copy = new SvmParameter();
         copy.svmType = svmType;
         copy.kernel = kernel;
-        copy.cacheSize = cacheSize;
+        copy.cacheBytes = cacheBytes;
         copy.eps = eps;
         copy.c = c;
         copy.nrWeight = nrWeight;
@@ -61,6 +62,7 @@ public class SvmParameter implements java.io.Serializable {
         copy.p = p;
         copy.shrinking = shrinking;
         copy.probability = probability;
+        copy.threads = threads;
         return copy;
     }
 }
\ No newline at end of file
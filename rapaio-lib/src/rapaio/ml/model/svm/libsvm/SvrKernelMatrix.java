@@ -22,27 +22,24 @@
 package rapaio.ml.model.svm.libsvm;
 
 import rapaio.darray.DArray;
-import rapaio.darray.DArrays;
-import rapaio.darray.Shape;
 import rapaio.ml.common.kernel.Kernel;
 import rapaio.util.Reference;
 import rapaio.util.collection.TArrays;
 
 class SvrKernelMatrix extends AbstractKernelMatrix {
 
+    private final Cache cache;
     private final int l;
     private final byte[] sign;
     private final int[] index;
     private int nextBuffer;
-    private final DArray<Double>[] buffer;
+    private final float[][] buffer;
 
-    SvrKernelMatrix(int len, DArray<Double>[] xs, Kernel kernel, long cacheSize) {
-        super(xs, kernel, new Cache(len, cacheSize * (1 << 20)), new double[2 * len]);
+    SvrKernelMatrix(int len, DArray<Double>[] xs, Kernel kernel, long cacheBytes) {
+        super(xs, kernel, new double[2 * len]);
+        this.cache = new Cache(len, cacheBytes);
         this.l = len;
-        buffer = new DArray[] {
-                DArrays.zeros(Shape.of(2 * len)),
-                DArrays.zeros(Shape.of(2 * len))
-        };
+        buffer = new float[][] {new float[2 * len], new float[2 * len]};
         sign = new byte[2 * len];
         index = new int[2 * len];
         for (int k = 0; k < len; k++) {
@@ -50,7 +47,7 @@ class SvrKernelMatrix extends AbstractKernelMatrix {
             sign[k + len] = -1;
             index[k] = k;
             index[k + len] = k;
-            qd[k] = kernel.compute(xs[k], xs[k]);
+            qd[k] = kernel(k, k);
             qd[k + len] = qd[k];
         }
         nextBuffer = 0;
@@ -62,20 +59,19 @@ class SvrKernelMatrix extends AbstractKernelMatrix {
         TArrays.swap(qd, i, j);
     }
 
-    DArray<Double> getQ(int i, int len) {
-        Reference<DArray<Double>> data = new Reference<>();
+    float[] getQ(int i, int len) {
+        Reference<float[]> data = new Reference<>();
         if (cache.getData(index[i], data, l) < l) {
-            for (int j = 0; j < l; j++) {
-                data.get().set(kernel.compute(xs[index[i]], xs[j]), j);
-            }
+            computeColumn(index[i], null, 1, null, 0, l, data.get());
         }
 
         // reorder and copy
-        DArray<Double> buf = buffer[nextBuffer];
+        float[] values = data.get();
+        float[] buf = buffer[nextBuffer];
         nextBuffer = 1 - nextBuffer;
         byte si = sign[i];
         for (int j = 0; j < len; j++) {
-            buf.set(si * sign[j] * data.get().get(index[j]), j);
+            buf[j] = si * sign[j] * values[index[j]];
         }
         return buf;
     }
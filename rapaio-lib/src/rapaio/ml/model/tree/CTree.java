@@ -23,6 +23,8 @@ package rapaio.ml.model.tree;
 
 import java.io.Serial;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -30,12 +32,16 @@ import java.util.Objects;
 import java.util.Queue;
 import java.util.Random;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import rapaio.core.param.MultiParam;
 import rapaio.core.param.ParametricEquals;
 import rapaio.core.param.ValueParam;
 import rapaio.core.tools.DensityVector;
 import rapaio.data.Frame;
+import rapaio.data.Mapping;
 import rapaio.data.Var;
 import rapaio.data.VarType;
 import rapaio.ml.common.Capabilities;
@@ -43,7 +49,9 @@ import rapaio.ml.common.VarSelector;
 import rapaio.ml.model.ClassifierModel;
 import rapaio.ml.model.ClassifierResult;
 import rapaio.ml.model.RunInfo;
+import rapaio.ml.model.Scorer;
 import rapaio.ml.model.tree.ctree.Candidate;
+import rapaio.ml.model.tree.ctree.HistogramSearch;
 import rapaio.ml.model.tree.ctree.Node;
 import rapaio.ml.model.tree.ctree.Pruning;
 import rapaio.ml.model.tree.ctree.Purity;
@@ -54,6 +62,7 @@ import rapaio.printer.Printable;
 import rapaio.printer.Printer;
 import rapaio.printer.opt.POpt;
 import rapaio.util.Pair;
+import rapaio.util.collection.Ints;
 
 /**
  * Tree classifier.
@@ -179,12 +188,93 @@ public class CTree extends ClassifierModel<CTree, ClassifierResult, RunInfo<CTre
      */
     public final ValueParam<Frame, CTree> pruningDf = new ValueParam<>(this, null, "pruningDf", x -> true);
 
+    /**
+     * Number of bins used to quantize numeric features for histogram based split search. If the value
+     * is positive, numeric variables tested with {@link Search#NumericBinary} are quantized once in at most
+     * the given number of bins, and candidate splits are evaluated only between bins, using class weight
+     * histograms computed for each node. The value 0 disables histogram search.
+     */
+    public final ValueParam<Integer, CTree> histogramBins = new ValueParam<>(this, 0, "histogramBins",
+            x -> x != null && (x == 0 || (x >= 2 && x <= FeatureBins.MAX_BINS)));
+
+    /**
+     * If true, numeric variables tested with {@link Search#NumericBinary} are sorted once, when the fit starts,
+     * and the sorted rows of each node are obtained from the sorted rows of its parent, without sorting.
+     * The candidates are the same as the ones found by sorting the rows of each node. It is not used when
+     * histogram search is enabled.
+     */
+    public final ValueParam<Boolean, CTree> presorted = new ValueParam<>(this, false, "presorted");
+
     private Node root;
 
+    // feature bins shared by an ensemble, used only for the next fit
+    private transient FeatureBins sharedBins;
+    private transient Mapping sharedBinRows;
+
+    // sorted column index shared by an ensemble, used only for the next fit
+    private transient SortedColumnIndex sharedIndex;
+    private transient Mapping sharedIndexRows;
+
+    // grows the tree level-wise also with a single thread, used to compare level-wise trees between thread counts
+    boolean levelWise = false;
+
     public Node getRoot() {
         return root;
     }
 
+    /**
+     * Compiles the fitted tree into a flat array based predictor. The outputs of the compiled
+     * predictor are the class densities, one for each target level.
+     *
+     * @return compiled tree
+     */
+    public CompiledTrees compile() {
+        if (!hasLearned()) {
+            throw new IllegalStateException("Cannot compile a model which is not fitted.");
+        }
+        return CompiledTrees.empty(firstTargetLevels().size(), CompiledTrees.Link.IDENTITY).add(this, 1, false);
+    }
+
+    /**
+     * Builds a scorer from the compiled model. The outputs are the class densities, one for each target level.
+     *
+     * @return thread safe scorer
+     */
+    @Override
+    public Scorer scorer() {
+        return compile().scorer(Arrays.asList(inputNames()), firstTargetLevels());
+    }
+
+    /**
+     * Sets feature bins built by an ensemble once for all its trees, to be used by histogram search
+     * in the next fit. The bins are used only if {@link #histogramBins} is positive. Otherwise, the
+     * tree builds its own bins at fit time.
+     *
+     * @param bins feature bins
+     * @param rows mapping from the rows of the frame used to fit this tree to the rows of the bins
+     * @return tree instance
+     */
+    public CTree withFeatureBins(FeatureBins bins, Mapping rows) {
+        this.sharedBins = bins;
+        this.sharedBinRows = rows;
+        return this;
+    }
+
+    /**
+     * Sets a sorted column index built by an ensemble once for all its trees, to be used by exact split
+     * search in the next fit. The index is used only if {@link #presorted} is true. Otherwise, the tree
+     * builds its own index at fit time.
+     *
+     * @param index sorted column index
+     * @param rows  mapping from the rows of the frame used to fit this tree to the rows of the index
+     * @return tree instance
+     */
+    public CTree withSortedIndex(SortedColumnIndex index, Mapping rows) {
+        this.sharedIndex = index;
+        this.sharedIndexRows = rows;
+        return this;
+    }
+
     @Override
     public CTree newInstance() {
         return new CTree().copyParameterValues(this);
@@ -211,16 +301,39 @@ public class CTree extends ClassifierModel<CTree, ClassifierResult, RunInfo<CTre
         VarSelector nodeVarSelector = this.varSelector.get().withVarNames(inputNames());
 
         // create the root node
-        int id = 1;
-        root = new Node(null, id++, 0, "root", RowPredicate.all());
+        root = new Node(null, 1, 0, "root", RowPredicate.all());
 
+        NodeHistograms rootHistograms = buildRootHistograms(df, weights);
+        NodeSortedRows rootSorted = rootHistograms == null ? buildRootSortedRows(df) : null;
+        int threads = computeThreads();
+        if (threads > 1 || levelWise) {
+            growLevelWise(df, weights, rootHistograms, rootSorted, nodeVarSelector, random, threads);
+        } else {
+            grow(df, weights, rootHistograms, rootSorted, nodeVarSelector, random);
+        }
+
+        sharedBins = null;
+        sharedBinRows = null;
+        sharedIndex = null;
+        sharedIndexRows = null;
+
+        pruning.get().prune(this, (pruningDf.get() == null) ? df : pruningDf.get(), false);
+        return true;
+    }
+
+    private void grow(Frame df, Var weights, NodeHistograms rootHistograms, NodeSortedRows rootSorted,
+            VarSelector nodeVarSelector, Random random) {
+        int id = 2;
         Queue<QueueNode> queue = new ConcurrentLinkedQueue<>();
-        queue.add(new QueueNode(root, df, weights));
+        queue.add(new QueueNode(root, df, weights, rootHistograms, rootSorted));
 
         while (!queue.isEmpty()) {
             var last = queue.poll();
 
-            learnNode(last.node, last.df, last.weight, nodeVarSelector, random);
+            learnNode(last.node, last.df, last.weight, last.histograms, last.sorted, nodeVarSelector, random);
+            if (last.histograms != null) {
+                last.histograms.release();
+            }
 
             if (last.node.leaf) {
                 continue;
@@ -228,60 +341,330 @@ public class CTree extends ClassifierModel<CTree, ClassifierResult, RunInfo<CTre
             Candidate bestCandidate = last.node.bestCandidate;
 
             // now that we have a best candidate, do the effective split
-            Pair<List<Frame>, List<Var>> frames = splitter.get().performSplit(last.df, last.weight,
+            Pair<List<Mapping>, List<Var>> split = splitter.get().performSplitMapping(last.df, last.weight,
                     bestCandidate.groupPredicates(), random);
 
             for (RowPredicate predicate : bestCandidate.groupPredicates()) {
                 var child = new Node(last.node, id++, last.node.depth + 1, predicate.toString(), predicate);
                 last.node.children.add(child);
             }
+            List<Frame> frames = split.v1.stream().map(last.df::mapRows).toList();
+            List<NodeHistograms> childHistograms = splitHistograms(last.histograms, split.v1, frames, split.v2, null);
+            List<NodeSortedRows> childSorted = last.sorted != null ? last.sorted.split(split.v1) : null;
             for (int i = 0; i < last.node.children.size(); i++) {
                 var child = last.node.children.get(i);
-                queue.add(new QueueNode(child, frames.v1.get(i), frames.v2.get(i)));
+                queue.add(new QueueNode(child, frames.get(i), split.v2.get(i),
+                        childHistograms != null ? childHistograms.get(i) : null,
+                        childSorted != null ? childSorted.get(i) : null));
             }
         }
+    }
 
-        pruning.get().prune(this, (pruningDf.get() == null) ? df : pruningDf.get(), false);
-        return true;
+    record QueueNode(Node node, Frame df, Var weight, NodeHistograms histograms, NodeSortedRows sorted) {
     }
 
-    record QueueNode(Node node, Frame df, Var weight){}
+    /**
+     * Grows the tree one level at a time. Node statistics, candidate searches for each pair of node and test
+     * variable, and node splits of a level are computed in parallel on a pool with the given number of threads.
+     * <p>
+     * The rows of all nodes are kept in a single array of row indexes of the root frame, each node owning
+     * a segment {@code [start, end)}. Node statistics and split searches are computed directly on the segment
+     * and the root frame, and splitting a node rearranges its segment in place, such that the rows of each child
+     * are contiguous. No frame is built for a node. Only the weighted splitter copies rows with missing values
+     * into multiple children with diminished weights, in which case the children frames are obtained from
+     * the parent frame with the legacy split.
+     * <p>
+     * Each node uses its own random number generator, seeded from the random number generator of the tree
+     * in the order of nodes, which makes the result reproducible for a given seed, independent of scheduling
+     * and of the number of threads. The random numbers are drawn in a different order than in the sequential
+     * growth, and the rows of the children produced by an in place split can be in a different order, thus
+     * for the same seed the level-wise tree is not guaranteed to be identical with the tree grown sequentially.
+     */
+    private void growLevelWise(Frame df, Var weights, NodeHistograms rootHistograms, NodeSortedRows rootSorted,
+            VarSelector nodeVarSelector, Random random, int threads) {
+        int[] index = Ints.seq(0, df.rowCount());
+        int[] buffer = new int[index.length];
+
+        int id = 2;
+        List<LevelNode> level = List.of(new LevelNode(root, df, weights, index, 0, index.length, rootHistograms, rootSorted));
+        try (ForkJoinPool pool = new ForkJoinPool(threads)) {
+            while (!level.isEmpty()) {
+                List<LevelNode> current = level;
+                int size = current.size();
+                Random[] randoms = new Random[size];
+                for (int i = 0; i < size; i++) {
+                    randoms[i] = new Random(random.nextLong());
+                }
 
-    private void learnNode(Node node, Frame df, Var weights, VarSelector nodeVarSelector, Random random) {
-        node.density = DensityVector.fromLevelWeights(false, df.rvar(firstTargetName()), weights);
-        node.counter = DensityVector.fromLevelCounts(false, df.rvar(firstTargetName()));
-        node.bestLabel = node.density.findBestLabel();
+                // node statistics and test variables
+                String[][] testNames = new String[size][];
+                pool.submit(() -> IntStream.range(0, size).parallel().forEach(i -> {
+                    LevelNode ln = current.get(i);
+                    testNames[i] = prepareNode(ln.node, ln.df, ln.weight, ln.rows, ln.start, ln.end, nodeVarSelector, randoms[i]);
+                })).join();
+
+                // candidate search for each pair of node and test variable
+                List<int[]> items = new ArrayList<>();
+                List<Random> itemRandoms = new ArrayList<>();
+                Candidate[][] candidates = new Candidate[size][];
+                for (int i = 0; i < size; i++) {
+                    if (testNames[i] == null) {
+                        continue;
+                    }
+                    candidates[i] = new Candidate[testNames[i].length];
+                    for (int j = 0; j < testNames[i].length; j++) {
+                        items.add(new int[] {i, j});
+                        itemRandoms.add(new Random(randoms[i].nextLong()));
+                    }
+                }
+                pool.submit(() -> IntStream.range(0, items.size()).parallel().forEach(k -> {
+                    int i = items.get(k)[0];
+                    int j = items.get(k)[1];
+                    LevelNode ln = current.get(i);
+                    Search test = searchMap.get().get(ln.df.type(testNames[i][j]));
+                    candidates[i][j] = computeCandidate(test, ln.df, ln.weight, ln.rows, ln.start, ln.end, ln.histograms, ln.sorted,
+                            testNames[i][j], itemRandoms.get(k));
+                })).join();
+                for (int i = 0; i < size; i++) {
+                    LevelNode ln = current.get(i);
+                    if (candidates[i] != null) {
+                        // keep the first candidates in the order of test variables, as in sequential growth
+                        List<Candidate> candidateList = Arrays.stream(candidates[i])
+                                .filter(Objects::nonNull)
+                                .limit(Math.max(0, nodeVarSelector.mCount()))
+                                .collect(Collectors.toList());
+                        selectCandidate(ln.node, candidateList);
+                    }
+                    if (ln.histograms != null) {
+                        ln.histograms.release();
+                    }
+                }
 
-        if (df.rowCount() == 0) {
-            node.bestLabel = node.parent.bestLabel;
-            return;
+                // split nodes
+                List<List<LevelNode>> splits = new ArrayList<>(Collections.nCopies(size, null));
+                pool.submit(() -> IntStream.range(0, size).parallel().forEach(i -> {
+                    if (!current.get(i).node.leaf) {
+                        splits.set(i, splitLevelNode(current.get(i), buffer, randoms[i]));
+                    }
+                })).join();
+
+                // children are created in the order of nodes, to have the same numbering as sequential growth
+                List<LevelNode> next = new ArrayList<>();
+                for (int i = 0; i < size; i++) {
+                    LevelNode ln = current.get(i);
+                    if (ln.node.leaf) {
+                        continue;
+                    }
+                    List<LevelNode> children = splits.get(i);
+                    for (int j = 0; j < children.size(); j++) {
+                        RowPredicate predicate = ln.node.bestCandidate.groupPredicates().get(j);
+                        var child = new Node(ln.node, id++, ln.node.depth + 1, predicate.toString(), predicate);
+                        ln.node.children.add(child);
+                        next.add(children.get(j).withNode(child));
+                    }
+                }
+                level = next;
+            }
         }
-        if (node.counter.countValues(x -> x > 0) == 1 || (maxDepth.get() > 0 && node.depth > maxDepth.get())
-                || df.rowCount() <= minCount.get()) {
-            return;
+    }
+
+    /**
+     * Node from a level of the tree. The rows of the node are the rows of the frame {@code df} from the segment
+     * {@code [start, end)} of the array {@code rows}, and the weights are indexed by frame rows. If the splitter
+     * partitions the rows, all nodes share the root frame and the same array of rows. Otherwise, each node has
+     * its own frame and {@code rows} contains all the frame rows in order.
+     */
+    record LevelNode(Node node, Frame df, Var weight, int[] rows, int start, int end, NodeHistograms histograms,
+                     NodeSortedRows sorted) {
+
+        LevelNode withNode(Node node) {
+            return new LevelNode(node, df, weight, rows, start, end, histograms, sorted);
         }
+    }
 
-        String[] nextVarNames = nodeVarSelector.nextVarNames(random);
-        List<Candidate> candidateList = new ArrayList<>();
+    private List<LevelNode> splitLevelNode(LevelNode parent, int[] buffer, Random random) {
+        List<RowPredicate> predicates = parent.node.bestCandidate.groupPredicates();
+        int count = predicates.size();
+        List<LevelNode> children = new ArrayList<>(count);
+
+        if (!splitter.get().partitions()) {
+            Pair<List<Mapping>, List<Var>> split = splitter.get().performSplitMapping(parent.df, parent.weight, predicates, random);
+            List<Frame> frames = split.v1.stream().map(parent.df::mapRows).toList();
+            List<NodeHistograms> childHistograms = splitHistograms(parent.histograms, split.v1, frames, split.v2, null);
+            List<NodeSortedRows> childSorted = parent.sorted != null ? parent.sorted.split(split.v1) : null;
+            for (int i = 0; i < count; i++) {
+                Frame frame = frames.get(i);
+                children.add(new LevelNode(null, frame, split.v2.get(i), Ints.seq(0, frame.rowCount()), 0, frame.rowCount(),
+                        childHistograms != null ? childHistograms.get(i) : null,
+                        childSorted != null ? childSorted.get(i) : null));
+            }
+            return children;
+        }
+
+        // rows of each child are moved contiguously in the segment of the parent, rows which
+        // are not assigned to any child are dropped
+        List<Mapping> mappings = splitter.get().splitRows(parent.df, parent.rows, parent.start, parent.end, predicates, random);
+        int[] starts = new int[count];
+        int[] ends = new int[count];
+        int pos = parent.start;
+        for (int i = 0; i < count; i++) {
+            Mapping mapping = mappings.get(i);
+            starts[i] = pos;
+            for (int j = 0; j < mapping.size(); j++) {
+                buffer[pos++] = parent.rows[parent.start + mapping.get(j)];
+            }
+            ends[i] = pos;
+        }
+        System.arraycopy(buffer, parent.start, parent.rows, parent.start, pos - parent.start);
+
+        List<int[]> dfRows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            dfRows.add(Arrays.copyOfRange(parent.rows, starts[i], ends[i]));
+        }
+        List<NodeHistograms> childHistograms = splitHistograms(parent.histograms, mappings,
+                Collections.nCopies(count, parent.df), Collections.nCopies(count, parent.weight), dfRows);
+        List<NodeSortedRows> childSorted = parent.sorted != null ? parent.sorted.split(mappings) : null;
+        for (int i = 0; i < count; i++) {
+            children.add(new LevelNode(null, parent.df, parent.weight, parent.rows, starts[i], ends[i],
+                    childHistograms != null ? childHistograms.get(i) : null,
+                    childSorted != null ? childSorted.get(i) : null));
+        }
+        return children;
+    }
 
+    private NodeSortedRows buildRootSortedRows(Frame df) {
+        if (!presorted.get()) {
+            return null;
+        }
+        int[] rows = new int[df.rowCount()];
+        if (sharedIndex != null) {
+            if (sharedIndexRows.size() != df.rowCount()) {
+                throw new IllegalArgumentException("Sorted column index row mapping does not match the number of rows.");
+            }
+            for (int i = 0; i < rows.length; i++) {
+                rows[i] = sharedIndexRows.get(i);
+            }
+            return sharedIndex.root(rows);
+        }
+        String[] sortedVarNames = Arrays.stream(inputNames())
+                .filter(name -> df.type(name).isNumeric() && searchMap.get().get(df.type(name)) == Search.NumericBinary)
+                .toArray(String[]::new);
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = i;
+        }
+        return SortedColumnIndex.of(df, sortedVarNames).root(rows);
+    }
+
+    private NodeHistograms buildRootHistograms(Frame df, Var weights) {
+        if (histogramBins.get() == 0) {
+            return null;
+        }
+        if (sharedBins != null) {
+            if (sharedBinRows.size() != df.rowCount()) {
+                throw new IllegalArgumentException("Feature bins row mapping does not match the number of rows.");
+            }
+            int[] rows = new int[df.rowCount()];
+            for (int i = 0; i < rows.length; i++) {
+                rows[i] = sharedBinRows.get(i);
+            }
+            return new NodeHistograms(sharedBins, rows, df, weights);
+        }
+        String[] binVarNames = Arrays.stream(inputNames())
+                .filter(name -> df.type(name).isNumeric() && searchMap.get().get(df.type(name)) == Search.NumericBinary)
+                .toArray(String[]::new);
+        int[] rows = new int[df.rowCount()];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = i;
+        }
+        return new NodeHistograms(FeatureBins.of(df, binVarNames, histogramBins.get()), rows, df, weights);
+    }
+
+    private List<NodeHistograms> splitHistograms(NodeHistograms parent, List<Mapping> mappings, List<Frame> frames,
+            List<Var> weights, List<int[]> dfRows) {
+        if (parent == null) {
+            return null;
+        }
+        int[] parentRows = parent.rows();
+        List<NodeHistograms> children = new ArrayList<>();
+        int total = 0;
+        for (int i = 0; i < mappings.size(); i++) {
+            Mapping mapping = mappings.get(i);
+            int[] rows = new int[mapping.size()];
+            for (int j = 0; j < rows.length; j++) {
+                rows[j] = parentRows[mapping.get(j)];
+            }
+            total += rows.length;
+            children.add(new NodeHistograms(parent.bins(), rows, dfRows != null ? dfRows.get(i) : null, frames.get(i),
+                    weights.get(i)));
+        }
+        // the histograms of a child can be derived by subtraction only if children partitions the parent rows,
+        // with unchanged weights
+        if (children.size() == 2) {
+            boolean partition = splitter.get().partitions() && total == parentRows.length;
+            parent.linkChildren(children.get(0), children.get(1), partition);
+        }
+        return children;
+    }
+
+    private void learnNode(Node node, Frame df, Var weights, NodeHistograms histograms, NodeSortedRows sorted,
+            VarSelector nodeVarSelector, Random random) {
+        int[] rows = Ints.seq(0, df.rowCount());
+        String[] testNames = prepareNode(node, df, weights, rows, 0, rows.length, nodeVarSelector, random);
+        if (testNames == null) {
+            return;
+        }
+        List<Candidate> candidateList = new ArrayList<>();
         int m = nodeVarSelector.mCount();
-        for (String testCol : nextVarNames) {
+        for (String testCol : testNames) {
             if (m <= 0) {
-                continue;
+                break;
             }
+            var test = searchMap.get().get(df.type(testCol));
+            var candidate = computeCandidate(test, df, weights, rows, 0, rows.length, histograms, sorted, testCol, random);
+            if (candidate != null) {
+                candidateList.add(candidate);
+                m--;
+            }
+        }
+        selectCandidate(node, candidateList);
+    }
+
+    /**
+     * Computes node statistics and selects test variables. The node rows are the frame rows
+     * from the segment {@code [start, end)} of the array of rows.
+     *
+     * @return names of test variables or null if the node remains a leaf
+     */
+    private String[] prepareNode(Node node, Frame df, Var weights, int[] rows, int start, int end, VarSelector nodeVarSelector,
+            Random random) {
+        Var target = df.rvar(firstTargetName());
+        node.density = DensityVector.fromLevelWeights(false, target, weights, rows, start, end);
+        node.counter = DensityVector.fromLevelCounts(false, target, rows, start, end);
+        node.bestLabel = node.density.findBestLabel();
+
+        if (end == start) {
+            node.bestLabel = node.parent.bestLabel;
+            return null;
+        }
+        if (node.counter.countValues(x -> x > 0) == 1 || (maxDepth.get() > 0 && node.depth > maxDepth.get())
+                || end - start <= minCount.get()) {
+            return null;
+        }
+
+        List<String> testNames = new ArrayList<>();
+        for (String testCol : nodeVarSelector.nextVarNames(random)) {
             if (testCol.equals(firstTargetName())) {
                 continue;
             }
             if (!(searchMap.get().containsKey(df.type(testCol)))) {
                 throw new IllegalArgumentException("No test for given variable type: " + testCol + " [" + df.type(testCol).name() + "]");
             }
-            var test = searchMap.get().get(df.type(testCol));
-            var candidate = test.computeCandidate(this, df, weights, testCol, firstTargetName(), purity.get(), random);
-            if (candidate != null) {
-                candidateList.add(candidate);
-                m--;
-            }
+            testNames.add(testCol);
         }
+        return testNames.toArray(String[]::new);
+    }
+
+    private void selectCandidate(Node node, List<Candidate> candidateList) {
         candidateList.sort((o1, o2) -> -(Double.compare(o1.score(), o2.score())));
         if (candidateList.isEmpty() || candidateList.get(0).groupPredicates().isEmpty()) {
             return;
@@ -295,6 +678,32 @@ public class CTree extends ClassifierModel<CTree, ClassifierResult, RunInfo<CTre
         node.bestCandidate = candidateList.get(0);
     }
 
+    private Candidate computeCandidate(Search test, Frame df, Var weights, int[] rows, int start, int end,
+            NodeHistograms histograms, NodeSortedRows sorted, String testCol, Random random) {
+        if (test == Search.NumericBinary) {
+            if (histograms != null) {
+                int feature = histograms.bins().featureIndex(testCol);
+                if (feature >= 0) {
+                    return HistogramSearch.computeCandidate(this, histograms, feature, testCol, firstTargetName(), purity.get());
+                }
+            }
+            if (sorted != null) {
+                int feature = sorted.index().featureIndex(testCol);
+                if (feature >= 0) {
+                    // sorted node rows are positions in the node segment
+                    int[] order = sorted.order(feature);
+                    int[] sortedRows = new int[order.length];
+                    for (int i = 0; i < order.length; i++) {
+                        sortedRows[i] = rows[start + order[i]];
+                    }
+                    return Search.numericBinary(this, df, weights, rows, start, end, sortedRows, sortedRows.length, testCol,
+                            firstTargetName(), purity.get());
+                }
+            }
+        }
+        return test.computeCandidate(this, df, weights, rows, start, end, testCol, firstTargetName(), purity.get(), random);
+    }
+
     public void prune(Frame df) {
         prune(df, false);
     }
@@ -342,7 +751,7 @@ public class CTree extends ClassifierModel<CTree, ClassifierResult, RunInfo<CTre
             dv.plus(d, wc);
             w += wc;
         }
-        for (int i = 1; i < dict.size(); i++) {
+        for (int i = 0; i < dict.size(); i++) {
             dv.set(tree.firstTargetLevel(i), dv.get(tree.firstTargetLevel(i)) / w);
         }
         return Pair.from(dv.findBestLabel(), dv);
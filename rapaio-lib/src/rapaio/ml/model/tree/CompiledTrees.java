@@ -0,0 +1,448 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.model.tree;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import rapaio.darray.DArray;
+import rapaio.darray.DArrays;
+import rapaio.darray.Shape;
+import rapaio.data.Frame;
+import rapaio.data.Var;
+import rapaio.ml.model.Scorer;
+
+/**
+ * Fitted trees compiled into flat array based predictors, used for fast scoring.
+ * <p>
+ * Each tree is stored as a structure of arrays with node and edge information: feature index, threshold,
+ * children and leaf values. Feature names are resolved once, the input frame being converted into a
+ * column matrix which contains a row of values for each feature used by trees. Nominal values are encoded
+ * with the codes of the labels used in tree predicates. Evaluation walks the flat arrays without allocating
+ * and without looking up columns by name. Rows are split in blocks which are scored in parallel.
+ * <p>
+ * A compiled model produces a fixed number of outputs for each row. Each tree adds its scaled prediction
+ * to a range of outputs, either the leaf values or a vote for the class with maximum density. A bias is
+ * added to each output and, at the end, a link function is applied on the outputs of each row.
+ * <p>
+ * Prediction rules for missing values are the same as in the source trees. Compiled trees do not keep any
+ * reference to the source models and do not change if the source models are fitted again.
+ */
+public final class CompiledTrees implements Serializable {
+
+    /**
+     * Function applied on the outputs of each row, after all trees were evaluated.
+     */
+    public enum Link {
+        /**
+         * Outputs are left unchanged.
+         */
+        IDENTITY,
+        /**
+         * Outputs are divided by their sum, if the sum is not zero.
+         */
+        NORMALIZE,
+        /**
+         * Outputs are transformed into probabilities with softmax function.
+         */
+        SOFTMAX
+    }
+
+    /**
+     * Creates an empty compiled model.
+     *
+     * @param outputs number of outputs for each row
+     * @param link    link function applied on the outputs of a row
+     * @return new compiled model without trees
+     */
+    public static CompiledTrees empty(int outputs, Link link) {
+        if (outputs < 1) {
+            throw new IllegalArgumentException("Number of outputs must be positive.");
+        }
+        return new CompiledTrees(outputs, link);
+    }
+
+    @Serial
+    private static final long serialVersionUID = -6620281093367616021L;
+
+    private static final int BLOCK_SIZE = 1024;
+
+    private final int outputs;
+    private final Link link;
+    private final double[] bias;
+    private final Schema schema = new Schema();
+    private final List<FlatTree> trees = new ArrayList<>();
+    private final List<TreeOutput> treeOutputs = new ArrayList<>();
+
+    private CompiledTrees(int outputs, Link link) {
+        this.outputs = outputs;
+        this.link = link;
+        this.bias = new double[outputs];
+    }
+
+    /**
+     * Adds a classification tree. The tree contributes to all outputs, which correspond to target levels.
+     *
+     * @param tree  fitted classification tree
+     * @param scale factor multiplied with tree contribution
+     * @param vote  if true the tree contributes with a single vote for its predicted class, otherwise
+     *              with its predicted densities
+     * @return compiled model instance
+     */
+    public CompiledTrees add(CTree tree, double scale, boolean vote) {
+        if (!tree.hasLearned()) {
+            throw new IllegalArgumentException("Cannot compile a tree which is not fitted.");
+        }
+        if (tree.firstTargetLevels().size() != outputs) {
+            throw new IllegalArgumentException("Number of target levels does not match the number of outputs.");
+        }
+        trees.add(FlatTree.of(tree, schema));
+        treeOutputs.add(new TreeOutput(0, scale, vote));
+        return this;
+    }
+
+    /**
+     * Adds a regression tree. The tree contributes to a single output.
+     *
+     * @param tree   fitted regression tree
+     * @param output index of the output updated by tree
+     * @param scale  factor multiplied with tree prediction
+     * @return compiled model instance
+     */
+    public CompiledTrees add(RTree tree, int output, double scale) {
+        if (!tree.isFitted()) {
+            throw new IllegalArgumentException("Cannot compile a tree which is not fitted.");
+        }
+        if (output < 0 || output >= outputs) {
+            throw new IllegalArgumentException("Output index is out of bounds.");
+        }
+        trees.add(FlatTree.of(tree, schema));
+        treeOutputs.add(new TreeOutput(output, scale, false));
+        return this;
+    }
+
+    /**
+     * Sets the constant value added to an output.
+     *
+     * @param output index of the output
+     * @param value  bias value
+     * @return compiled model instance
+     */
+    public CompiledTrees bias(int output, double value) {
+        bias[output] = value;
+        return this;
+    }
+
+    public int outputs() {
+        return outputs;
+    }
+
+    public Link link() {
+        return link;
+    }
+
+    public int treeCount() {
+        return trees.size();
+    }
+
+    /**
+     * @return names of the features used by trees, in the order of the rows from column matrix
+     */
+    public String[] featureNames() {
+        return schema.names.toArray(String[]::new);
+    }
+
+    /**
+     * Extracts from a frame the column matrix used for scoring. The matrix contains one array of values for
+     * each feature, in the order given by {@link #featureNames()}. Numeric values are copied, missing values
+     * being encoded as {@code NaN}. Nominal values are replaced by label codes of the compiled predicates.
+     *
+     * @param df frame which contains all features used by trees
+     * @return column matrix
+     */
+    public double[][] columns(Frame df) {
+        double[][] columns = new double[schema.names.size()][];
+        IntStream.range(0, columns.length).parallel().forEach(f -> {
+            Var var = df.rvar(schema.names.get(f));
+            double[] values = new double[df.rowCount()];
+            Map<String, Integer> codes = schema.codes.get(f);
+            for (int i = 0; i < values.length; i++) {
+                if (codes != null) {
+                    values[i] = codes.getOrDefault(var.getLabel(i), -1);
+                } else {
+                    values[i] = var.isMissing(i) ? Double.NaN : var.getDouble(i);
+                }
+            }
+            columns[f] = values;
+        });
+        return columns;
+    }
+
+    /**
+     * Scores a frame. Rows are processed in parallel in blocks.
+     *
+     * @param df input frame
+     * @return matrix with a row for each frame row and a column for each output
+     */
+    public DArray<Double> predict(Frame df) {
+        double[][] columns = columns(df);
+        int rows = df.rowCount();
+        double[] out = new double[rows * outputs];
+        int blocks = (rows + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        IntStream.range(0, blocks).parallel().forEach(block -> {
+            int start = block * BLOCK_SIZE;
+            predict(columns, start, Math.min(rows, start + BLOCK_SIZE), out);
+        });
+        return DArrays.stride(Shape.of(rows, outputs), out);
+    }
+
+    /**
+     * Scores a range of rows from a column matrix. The outputs of row {@code i} are written in {@code out}
+     * at positions starting with {@code i * outputs()}. Previous values from those positions are overwritten.
+     * Different row ranges can be scored concurrently on the same output array.
+     *
+     * @param columns column matrix obtained with {@link #columns(Frame)}
+     * @param start   first row, inclusive
+     * @param end     last row, exclusive
+     * @param out     output array
+     */
+    public void predict(double[][] columns, int start, int end, double[] out) {
+        predict(columns, start, end, out, new double[outputs], new double[1]);
+    }
+
+    private void predict(double[][] columns, int start, int end, double[] out, double[] buffer, double[] w) {
+        for (int row = start; row < end; row++) {
+            int offset = row * outputs;
+            System.arraycopy(bias, 0, out, offset, outputs);
+            for (int t = 0; t < trees.size(); t++) {
+                FlatTree tree = trees.get(t);
+                TreeOutput to = treeOutputs.get(t);
+                if (tree.regression) {
+                    out[offset + to.output] += to.scale * tree.regress(0, columns, row, w);
+                    continue;
+                }
+                int leaf = tree.descend(0, columns, row);
+                if (leaf >= 0) {
+                    if (to.vote) {
+                        out[offset + tree.best[leaf]] += to.scale;
+                    } else {
+                        int pos = leaf * tree.width;
+                        for (int j = 0; j < tree.width; j++) {
+                            out[offset + j] += to.scale * tree.values[pos + j];
+                        }
+                    }
+                    continue;
+                }
+                // the row is not accepted by any child of a node, densities are blended from children
+                Arrays.fill(buffer, 0);
+                tree.accumulate(-leaf - 1, columns, row, 1, buffer);
+                if (to.vote) {
+                    out[offset + argmax(buffer)] += to.scale;
+                } else {
+                    for (int j = 0; j < tree.width; j++) {
+                        out[offset + j] += to.scale * buffer[j];
+                    }
+                }
+            }
+            applyLink(out, offset);
+        }
+    }
+
+    /**
+     * Builds a scorer which receives the values of input features in the given order. All features used
+     * by trees must be found in the input names, while the inputs which are not used by trees are ignored.
+     * Nominal labels are encoded with the label codes of the compiled predicates.
+     *
+     * @param inputNames  names of input features, usually the input names of the source model
+     * @param outputNames names of outputs
+     * @return thread safe scorer
+     */
+    public Scorer scorer(List<String> inputNames, List<String> outputNames) {
+        if (outputNames.size() != outputs) {
+            throw new IllegalArgumentException("Number of output names does not match the number of outputs.");
+        }
+        int[] inputIndex = new int[schema.names.size()];
+        for (int f = 0; f < inputIndex.length; f++) {
+            inputIndex[f] = inputNames.indexOf(schema.names.get(f));
+            if (inputIndex[f] < 0) {
+                throw new IllegalArgumentException("Feature " + schema.names.get(f) + " is not found in input names.");
+            }
+        }
+        return new CompiledScorer(this, inputNames, outputNames, inputIndex);
+    }
+
+    private void applyLink(double[] out, int offset) {
+        switch (link) {
+            case NORMALIZE -> {
+                double sum = 0;
+                for (int j = 0; j < outputs; j++) {
+                    sum += out[offset + j];
+                }
+                if (sum != 0) {
+                    for (int j = 0; j < outputs; j++) {
+                        out[offset + j] /= sum;
+                    }
+                }
+            }
+            case SOFTMAX -> {
+                double max = Double.NEGATIVE_INFINITY;
+                for (int j = 0; j < outputs; j++) {
+                    max = Math.max(max, out[offset + j]);
+                }
+                double sum = 0;
+                for (int j = 0; j < outputs; j++) {
+                    out[offset + j] = Math.exp(out[offset + j] - max);
+                    sum += out[offset + j];
+                }
+                for (int j = 0; j < outputs; j++) {
+                    out[offset + j] /= sum;
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    private static int argmax(double[] values) {
+        int best = 0;
+        for (int j = 1; j < values.length; j++) {
+            if (values[j] > values[best]) {
+                best = j;
+            }
+        }
+        return best;
+    }
+
+    private record TreeOutput(int output, double scale, boolean vote) implements Serializable {
+    }
+
+    /**
+     * Scorer which copies the features of a row into a per-thread column matrix with a single row.
+     */
+    private static final class CompiledScorer extends Scorer {
+
+        private final CompiledTrees trees;
+        // for each compiled feature the index of the input, and for each input the compiled feature or -1
+        private final int[] inputIndex;
+        private final int[] featureIndex;
+        // codes used for missing values of nominal features, NaN for numeric features
+        private final double[] missingCodes;
+        private final ThreadLocal<Scratch> scratch;
+
+        private CompiledScorer(CompiledTrees trees, List<String> inputNames, List<String> outputNames, int[] inputIndex) {
+            super(inputNames, outputNames);
+            this.trees = trees;
+            this.inputIndex = inputIndex;
+            this.featureIndex = new int[inputNames.size()];
+            Arrays.fill(featureIndex, -1);
+            for (int f = 0; f < inputIndex.length; f++) {
+                featureIndex[inputIndex[f]] = f;
+            }
+            this.missingCodes = new double[inputIndex.length];
+            for (int f = 0; f < inputIndex.length; f++) {
+                Map<String, Integer> codes = trees.schema.codes.get(f);
+                missingCodes[f] = codes == null ? Double.NaN : codes.getOrDefault("?", -1);
+            }
+            this.scratch = ThreadLocal.withInitial(() -> new Scratch(new double[inputIndex.length][1],
+                    new double[trees.outputs], new double[1]));
+        }
+
+        @Override
+        public double encode(int feature, String label) {
+            int f = featureIndex[feature];
+            if (f < 0) {
+                // feature is not used by trees, any value is ignored
+                return Double.NaN;
+            }
+            Map<String, Integer> codes = trees.schema.codes.get(f);
+            if (codes == null) {
+                return super.encode(feature, label);
+            }
+            return codes.getOrDefault(label, -1);
+        }
+
+        @Override
+        public void score(double[] features, double[] out) {
+            Scratch s = scratch.get();
+            for (int f = 0; f < inputIndex.length; f++) {
+                double value = features[inputIndex[f]];
+                s.columns[f][0] = Double.isNaN(value) ? missingCodes[f] : value;
+            }
+            trees.predict(s.columns, 0, 1, out, s.buffer, s.w);
+        }
+
+        private record Scratch(double[][] columns, double[] buffer, double[] w) {
+        }
+    }
+
+    /**
+     * Features used by compiled trees, shared by all trees of a compiled model.
+     */
+    static final class Schema implements Serializable {
+
+        @Serial
+        private static final long serialVersionUID = 4305719930461380574L;
+
+        private final List<String> names = new ArrayList<>();
+        private final Map<String, Integer> index = new HashMap<>();
+        // label codes for nominal features, null for numeric features
+        private final List<Map<String, Integer>> codes = new ArrayList<>();
+
+        int numericFeature(String name) {
+            int f = feature(name, false);
+            if (codes.get(f) != null) {
+                throw new IllegalArgumentException("Feature " + name + " is used both as nominal and numeric.");
+            }
+            return f;
+        }
+
+        int nominalFeature(String name) {
+            int f = feature(name, true);
+            if (codes.get(f) == null) {
+                throw new IllegalArgumentException("Feature " + name + " is used both as nominal and numeric.");
+            }
+            return f;
+        }
+
+        int nominalCode(int feature, String label) {
+            Map<String, Integer> map = codes.get(feature);
+            return map.computeIfAbsent(label, _ -> map.size());
+        }
+
+        private int feature(String name, boolean nominal) {
+            Integer f = index.get(name);
+            if (f == null) {
+                f = names.size();
+                names.add(name);
+                index.put(name, f);
+                codes.add(nominal ? new HashMap<>() : null);
+            }
+            return f;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.model.tree;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import rapaio.core.stat.QuantileSketch;
+import rapaio.core.stat.Quantiles;
+import rapaio.data.Frame;
+import rapaio.data.Var;
+
+/**
+ * Quantized representation of numeric features used by histogram based split search in trees.
+ * <p>
+ * Each numeric feature is split once into at most {@link #MAX_BINS} intervals of approximately equal
+ * frequency, using quantile sketches. Each row value is replaced by the index of its interval, stored
+ * as a byte. Missing values receive a separate code, {@link #MISSING}. Bin {@code b} contains the values
+ * {@code x} with {@code threshold(b-1) < x <= threshold(b)}, thus a split after bin {@code b}
+ * corresponds to the test {@code x <= threshold(b)}.
+ * <p>
+ * The rows of the bins are the rows of the frame used to build them. Ensembles can build the bins
+ * once and share them among all their trees, each tree receiving also a mapping from its own rows
+ * to the rows of the bins.
+ */
+public final class FeatureBins implements Serializable {
+
+    /**
+     * Maximum number of value bins of a feature. One more code is reserved for missing values.
+     */
+    public static final int MAX_BINS = 255;
+
+    /**
+     * Code used for missing values.
+     */
+    public static final int MISSING = 255;
+
+    /**
+     * Builds bins for the given numeric variables. Features are processed in parallel.
+     *
+     * @param df       source frame
+     * @param varNames names of numeric variables to be quantized
+     * @param maxBins  maximum number of bins for a feature, at most {@link #MAX_BINS}
+     * @return feature bins
+     */
+    public static FeatureBins of(Frame df, String[] varNames, int maxBins) {
+        if (maxBins < 2 || maxBins > MAX_BINS) {
+            throw new IllegalArgumentException("Number of bins must be in interval [2," + MAX_BINS + "].");
+        }
+        for (String varName : varNames) {
+            if (!df.type(varName).isNumeric()) {
+                throw new IllegalArgumentException("Variable " + varName + " is not numeric.");
+            }
+        }
+        return new FeatureBins(df, varNames, maxBins);
+    }
+
+    @Serial
+    private static final long serialVersionUID = -1822715094385014316L;
+
+    private final int rowCount;
+    private final String[] varNames;
+    private final Map<String, Integer> index = new HashMap<>();
+    private final byte[][] codes;
+    private final double[][] thresholds;
+
+    private FeatureBins(Frame df, String[] varNames, int maxBins) {
+        this.rowCount = df.rowCount();
+        this.varNames = Arrays.copyOf(varNames, varNames.length);
+        this.codes = new byte[varNames.length][];
+        this.thresholds = new double[varNames.length][];
+        for (int i = 0; i < varNames.length; i++) {
+            index.put(varNames[i], i);
+        }
+        // the error bound of the sketch is small enough to not merge adjacent bins
+        double eps = 1.0 / (4.0 * maxBins);
+        IntStream.range(0, varNames.length).parallel().forEach(i -> {
+            Var var = df.rvar(varNames[i]);
+            QuantileSketch sketch = Quantiles.sketch(var, eps);
+            double[] cuts = sketch.cutPoints(maxBins);
+            // last cut point equals the maximum and would produce an empty bin
+            if (cuts.length > 0 && cuts[cuts.length - 1] >= sketch.max()) {
+                cuts = Arrays.copyOf(cuts, cuts.length - 1);
+            }
+            byte[] col = new byte[rowCount];
+            for (int row = 0; row < rowCount; row++) {
+                col[row] = (byte) (var.isMissing(row) ? MISSING : bin(cuts, var.getDouble(row)));
+            }
+            thresholds[i] = cuts;
+            codes[i] = col;
+        });
+    }
+
+    private static int bin(double[] cuts, double value) {
+        int lo = 0;
+        int hi = cuts.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (cuts[mid] < value) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * @return number of rows of the frame used to build the bins
+     */
+    public int rowCount() {
+        return rowCount;
+    }
+
+    public String[] varNames() {
+        return Arrays.copyOf(varNames, varNames.length);
+    }
+
+    /**
+     * @param varName variable name
+     * @return index of the feature or -1 if the variable was not quantized
+     */
+    public int featureIndex(String varName) {
+        return index.getOrDefault(varName, -1);
+    }
+
+    /**
+     * @param feature feature index
+     * @return number of value bins of the feature, without the missing code
+     */
+    public int binCount(int feature) {
+        return thresholds[feature].length + 1;
+    }
+
+    /**
+     * Threshold value of a bin, all the values from the bin are less or equal than the threshold.
+     *
+     * @param feature feature index
+     * @param bin     bin index, smaller than the last bin
+     * @return threshold value
+     */
+    public double threshold(int feature, int bin) {
+        return thresholds[feature][bin];
+    }
+
+    /**
+     * @param feature feature index
+     * @param row     row index
+     * @return bin code of the value, or {@link #MISSING}
+     */
+    public int code(int feature, int row) {
+        return codes[feature][row] & 0xFF;
+    }
+}
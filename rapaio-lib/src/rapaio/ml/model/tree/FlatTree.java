@@ -0,0 +1,348 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.model.tree;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import rapaio.core.tools.DensityVector;
+import rapaio.ml.model.tree.rowpredicate.All;
+import rapaio.ml.model.tree.rowpredicate.BinaryEqual;
+import rapaio.ml.model.tree.rowpredicate.BinaryNotEqual;
+import rapaio.ml.model.tree.rowpredicate.NominalEqual;
+import rapaio.ml.model.tree.rowpredicate.NominalInSet;
+import rapaio.ml.model.tree.rowpredicate.NominalNotEqual;
+import rapaio.ml.model.tree.rowpredicate.NominalNotInSet;
+import rapaio.ml.model.tree.rowpredicate.NumGreater;
+import rapaio.ml.model.tree.rowpredicate.NumGreaterEqual;
+import rapaio.ml.model.tree.rowpredicate.NumLess;
+import rapaio.ml.model.tree.rowpredicate.NumLessEqual;
+
+/**
+ * Flat representation of a fitted tree, stored as a structure of arrays.
+ * <p>
+ * Nodes are numbered in pre-order, the root having index 0. The children of a node are reached through
+ * a contiguous range of edges. Each edge contains the compiled predicate of the child: kind, feature index,
+ * threshold value or a mask of nominal codes, and the index of the child node. A node without edges is a leaf.
+ * <p>
+ * When a row is not accepted by any child predicate, which happens for missing values, the prediction
+ * is blended from all children in the same way as the source tree does it.
+ */
+final class FlatTree implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 2671459006351843915L;
+
+    static final byte ALL = 0;
+    static final byte LESS_EQUAL = 1;
+    static final byte LESS = 2;
+    static final byte GREATER_EQUAL = 3;
+    static final byte GREATER = 4;
+    static final byte EQUAL = 5;
+    static final byte NOT_EQUAL = 6;
+    static final byte IN_SET = 7;
+    static final byte NOT_IN_SET = 8;
+
+    /**
+     * Compiles a classification tree. Leaf values are normalized class densities.
+     */
+    static FlatTree of(CTree tree, CompiledTrees.Schema schema) {
+        List<String> levels = tree.firstTargetLevels();
+        FlatTree flat = new FlatTree(false, levels.size());
+        flat.addClassificationNode(tree.getRoot(), levels, schema);
+        flat.trim();
+        return flat;
+    }
+
+    /**
+     * Compiles a regression tree with a single output value.
+     */
+    static FlatTree of(RTree tree, CompiledTrees.Schema schema) {
+        FlatTree flat = new FlatTree(true, 1);
+        flat.addRegressionNode(tree.root(), schema);
+        flat.trim();
+        return flat;
+    }
+
+    final boolean regression;
+    final int width;
+
+    // nodes
+    int nodeCount;
+    int[] edgeStart = new int[16];
+    int[] edgeCount = new int[16];
+    double[] weight = new double[16];
+    double[] values;
+    int[] best = new int[16];
+
+    // edges
+    int edgeLen;
+    byte[] kind = new byte[16];
+    int[] feature = new int[16];
+    double[] threshold = new double[16];
+    boolean[][] mask = new boolean[16][];
+    int[] child = new int[16];
+
+    private FlatTree(boolean regression, int width) {
+        this.regression = regression;
+        this.width = width;
+        this.values = new double[16 * width];
+    }
+
+    private int addClassificationNode(rapaio.ml.model.tree.ctree.Node node, List<String> levels, CompiledTrees.Schema schema) {
+        int id = newNode();
+        DensityVector<String> density = node.density.copy().normalize();
+        double max = Double.NEGATIVE_INFINITY;
+        for (int j = 0; j < width; j++) {
+            double value = density.get(levels.get(j));
+            values[id * width + j] = value;
+            if (value > max) {
+                max = value;
+                best[id] = j;
+            }
+        }
+        weight[id] = node.density.sum();
+        if (node.leaf || node.children.isEmpty()) {
+            // a leaf predicts its own best label, which is not always the first label with maximum density
+            int bestIndex = levels.indexOf(node.bestLabel);
+            if (bestIndex >= 0) {
+                best[id] = bestIndex;
+            }
+            return id;
+        }
+        int start = newEdges(node.children.size());
+        edgeStart[id] = start;
+        edgeCount[id] = node.children.size();
+        for (int i = 0; i < node.children.size(); i++) {
+            var c = node.children.get(i);
+            compilePredicate(start + i, c.predicate, schema);
+            // arrays can grow during recursion, thus the child index is stored after the call
+            int childId = addClassificationNode(c, levels, schema);
+            child[start + i] = childId;
+        }
+        return id;
+    }
+
+    private int addRegressionNode(rapaio.ml.model.tree.rtree.Node node, CompiledTrees.Schema schema) {
+        int id = newNode();
+        values[id] = node.value;
+        weight[id] = node.weight;
+        if (node.leaf || node.children.isEmpty()) {
+            return id;
+        }
+        int start = newEdges(node.children.size());
+        edgeStart[id] = start;
+        edgeCount[id] = node.children.size();
+        for (int i = 0; i < node.children.size(); i++) {
+            var c = node.children.get(i);
+            compilePredicate(start + i, c.predicate, schema);
+            int childId = addRegressionNode(c, schema);
+            child[start + i] = childId;
+        }
+        return id;
+    }
+
+    private void compilePredicate(int e, RowPredicate predicate, CompiledTrees.Schema schema) {
+        switch (predicate) {
+            case All _ -> kind[e] = ALL;
+            case NumLessEqual p -> numeric(e, LESS_EQUAL, p.testName(), p.testValue(), schema);
+            case NumLess p -> numeric(e, LESS, p.testName(), p.testValue(), schema);
+            case NumGreaterEqual p -> numeric(e, GREATER_EQUAL, p.testName(), p.testValue(), schema);
+            case NumGreater p -> numeric(e, GREATER, p.testName(), p.testValue(), schema);
+            case BinaryEqual p -> numeric(e, EQUAL, p.testName(), p.testValue() ? 1 : 0, schema);
+            case BinaryNotEqual p -> numeric(e, NOT_EQUAL, p.testName(), p.testValue() ? 1 : 0, schema);
+            case NominalEqual p -> nominal(e, IN_SET, p.testName(), Set.of(p.testValue()), schema);
+            case NominalNotEqual p -> nominal(e, NOT_IN_SET, p.testName(), Set.of(p.testValue()), schema);
+            case NominalInSet p -> nominal(e, IN_SET, p.testName(), p.testValues(), schema);
+            case NominalNotInSet p -> nominal(e, NOT_IN_SET, p.testName(), p.testValues(), schema);
+            default -> throw new IllegalArgumentException("Row predicate cannot be compiled: " + predicate);
+        }
+    }
+
+    private void numeric(int e, byte k, String name, double value, CompiledTrees.Schema schema) {
+        kind[e] = k;
+        feature[e] = schema.numericFeature(name);
+        threshold[e] = value;
+    }
+
+    private void nominal(int e, byte k, String name, Set<String> labels, CompiledTrees.Schema schema) {
+        kind[e] = k;
+        feature[e] = schema.nominalFeature(name);
+        List<Integer> codes = new ArrayList<>();
+        int max = -1;
+        for (String label : labels) {
+            int code = schema.nominalCode(feature[e], label);
+            codes.add(code);
+            max = Math.max(max, code);
+        }
+        boolean[] m = new boolean[max + 1];
+        for (int code : codes) {
+            m[code] = true;
+        }
+        mask[e] = m;
+    }
+
+    private int newNode() {
+        if (nodeCount == edgeStart.length) {
+            int len = nodeCount * 2;
+            edgeStart = Arrays.copyOf(edgeStart, len);
+            edgeCount = Arrays.copyOf(edgeCount, len);
+            weight = Arrays.copyOf(weight, len);
+            best = Arrays.copyOf(best, len);
+            values = Arrays.copyOf(values, len * width);
+        }
+        return nodeCount++;
+    }
+
+    private int newEdges(int count) {
+        while (edgeLen + count > kind.length) {
+            int len = kind.length * 2;
+            kind = Arrays.copyOf(kind, len);
+            feature = Arrays.copyOf(feature, len);
+            threshold = Arrays.copyOf(threshold, len);
+            mask = Arrays.copyOf(mask, len);
+            child = Arrays.copyOf(child, len);
+        }
+        int start = edgeLen;
+        edgeLen += count;
+        return start;
+    }
+
+    private void trim() {
+        edgeStart = Arrays.copyOf(edgeStart, nodeCount);
+        edgeCount = Arrays.copyOf(edgeCount, nodeCount);
+        weight = Arrays.copyOf(weight, nodeCount);
+        best = Arrays.copyOf(best, nodeCount);
+        values = Arrays.copyOf(values, nodeCount * width);
+        kind = Arrays.copyOf(kind, edgeLen);
+        feature = Arrays.copyOf(feature, edgeLen);
+        threshold = Arrays.copyOf(threshold, edgeLen);
+        mask = Arrays.copyOf(mask, edgeLen);
+        child = Arrays.copyOf(child, edgeLen);
+    }
+
+    /**
+     * Tests the predicate of an edge against a row from the column matrix.
+     */
+    boolean test(int e, double[][] columns, int row) {
+        byte k = kind[e];
+        if (k == ALL) {
+            return true;
+        }
+        double v = columns[feature[e]][row];
+        return switch (k) {
+            case LESS_EQUAL -> v <= threshold[e];
+            case LESS -> v < threshold[e];
+            case GREATER_EQUAL -> v >= threshold[e];
+            case GREATER -> v > threshold[e];
+            case EQUAL -> v == threshold[e];
+            case NOT_EQUAL -> !Double.isNaN(v) && v != threshold[e];
+            case IN_SET -> inMask(mask[e], v);
+            case NOT_IN_SET -> !inMask(mask[e], v);
+            default -> false;
+        };
+    }
+
+    private static boolean inMask(boolean[] m, double v) {
+        int code = (int) v;
+        return code >= 0 && code < m.length && m[code];
+    }
+
+    /**
+     * Descends the tree from a given node, following the accepted predicates.
+     *
+     * @return index of the reached leaf, or {@code -node-1} where {@code node} is the first node where no child
+     * accepts the row
+     */
+    int descend(int start, double[][] columns, int row) {
+        int node = start;
+        while (edgeCount[node] > 0) {
+            int first = edgeStart[node];
+            int end = first + edgeCount[node];
+            int next = -1;
+            for (int e = first; e < end; e++) {
+                if (test(e, columns, row)) {
+                    next = child[e];
+                    break;
+                }
+            }
+            if (next < 0) {
+                return -node - 1;
+            }
+            node = next;
+        }
+        return node;
+    }
+
+    /**
+     * Adds to {@code out} the class densities predicted from a node, multiplied with a factor. Rows
+     * which are not accepted by any child are distributed to all children proportionally with their weights.
+     */
+    void accumulate(int node, double[][] columns, int row, double factor, double[] out) {
+        int reached = descend(node, columns, row);
+        if (reached >= 0) {
+            for (int j = 0; j < width; j++) {
+                out[j] += factor * values[reached * width + j];
+            }
+            return;
+        }
+        int blended = -reached - 1;
+        int start = edgeStart[blended];
+        int end = start + edgeCount[blended];
+        double total = 0;
+        for (int e = start; e < end; e++) {
+            total += weight[child[e]];
+        }
+        for (int e = start; e < end; e++) {
+            accumulate(child[e], columns, row, factor * weight[child[e]] / total, out);
+        }
+    }
+
+    /**
+     * Predicts the value of a regression tree starting from a node. The weight associated with the prediction
+     * is stored in {@code w[0]}. Rows which are not accepted by any child receive the weighted mean of children
+     * predictions and the mean of children weights.
+     */
+    double regress(int node, double[][] columns, int row, double[] w) {
+        int reached = descend(node, columns, row);
+        if (reached >= 0) {
+            w[0] = weight[reached];
+            return values[reached];
+        }
+        int blended = -reached - 1;
+        int start = edgeStart[blended];
+        int end = start + edgeCount[blended];
+        double sum = 0;
+        double weightSum = 0;
+        for (int e = start; e < end; e++) {
+            double value = regress(child[e], columns, row, w);
+            sum += w[0] * value;
+            weightSum += w[0];
+        }
+        w[0] = weightSum / (end - start);
+        return sum / weightSum;
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.model.tree;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import rapaio.data.Frame;
+import rapaio.data.Var;
+
+/**
+ * Histograms of a tree node used by histogram based split search.
+ * <p>
+ * A histogram of a feature contains for each bin a fixed number of accumulated statistics, for example
+ * class weights or gradient sums, laid out in a flat array with {@code stride} values for each bin. The last
+ * bin is reserved for missing values. Histograms are computed lazily, once per node and feature.
+ * <p>
+ * When a node is split in two children which partition exactly its rows, the histogram of the larger child is
+ * obtained by subtracting the histogram of the smaller child from the parent histogram. This way only the
+ * rows of the smaller child are scanned.
+ */
+public final class NodeHistograms {
+
+    /**
+     * Builds a histogram for a node and a feature by scanning the rows of the node.
+     */
+    @FunctionalInterface
+    public interface Builder {
+        double[] build(NodeHistograms node, int feature);
+    }
+
+    private final FeatureBins bins;
+    private final int[] rows;
+    private final int[] dfRows;
+    private final Frame df;
+    private final Var weights;
+    private final Map<Integer, double[]> cache = new ConcurrentHashMap<>();
+
+    private volatile NodeHistograms parent;
+    private volatile NodeHistograms sibling;
+
+    /**
+     * @param bins    feature bins
+     * @param rows    rows of the bins which corresponds to node frame rows, in the same order
+     * @param df      node frame
+     * @param weights node weights
+     */
+    public NodeHistograms(FeatureBins bins, int[] rows, Frame df, Var weights) {
+        this(bins, rows, null, df, weights);
+    }
+
+    /**
+     * Builds the context of a node whose rows are a subset of the rows of a frame, without a node frame.
+     *
+     * @param bins    feature bins
+     * @param rows    rows of the bins which corresponds to node rows
+     * @param dfRows  rows of the frame which corresponds to node rows, in the same order, if null the node rows
+     *                are all the frame rows
+     * @param df      frame which contains node rows
+     * @param weights weights indexed by frame rows
+     */
+    public NodeHistograms(FeatureBins bins, int[] rows, int[] dfRows, Frame df, Var weights) {
+        this.bins = bins;
+        this.rows = rows;
+        this.dfRows = dfRows;
+        this.df = df;
+        this.weights = weights;
+    }
+
+    public FeatureBins bins() {
+        return bins;
+    }
+
+    public int[] rows() {
+        return rows;
+    }
+
+    /**
+     * Returns the row of the frame which corresponds to a node row.
+     *
+     * @param i node row
+     * @return frame row
+     */
+    public int dfRow(int i) {
+        return dfRows == null ? i : dfRows[i];
+    }
+
+    /**
+     * @return sum of the non-missing weights of node rows
+     */
+    public double weightSum() {
+        double sum = 0;
+        for (int i = 0; i < rows.length; i++) {
+            double w = weights.getDouble(dfRow(i));
+            if (!Double.isNaN(w)) {
+                sum += w;
+            }
+        }
+        return sum;
+    }
+
+    public Frame df() {
+        return df;
+    }
+
+    public Var weights() {
+        return weights;
+    }
+
+    /**
+     * Builds the contexts of two children. If the children partition exactly the rows of this node, the histograms
+     * of the larger child are derived from the histograms of this node and of the smaller child.
+     *
+     * @param left      left child context
+     * @param right     right child context
+     * @param partition true if the rows of the children are a partition of the rows of this node, with same weights
+     */
+    public void linkChildren(NodeHistograms left, NodeHistograms right, boolean partition) {
+        if (!partition) {
+            return;
+        }
+        NodeHistograms large = left.rows.length >= right.rows.length ? left : right;
+        NodeHistograms small = large == left ? right : left;
+        large.parent = this;
+        large.sibling = small;
+    }
+
+    /**
+     * Returns the histogram of a feature for this node. The histogram is computed if it was not computed before.
+     *
+     * @param feature feature index
+     * @param builder builder used to compute the histogram by scanning the rows
+     * @return histogram of the feature
+     */
+    public double[] histogram(int feature, Builder builder) {
+        double[] histogram = cache.get(feature);
+        if (histogram != null) {
+            return histogram;
+        }
+        NodeHistograms p = parent;
+        NodeHistograms s = sibling;
+        if (p != null && s != null && p.cache.containsKey(feature)) {
+            double[] ph = p.cache.get(feature);
+            double[] sh = s.histogram(feature, builder);
+            histogram = new double[ph.length];
+            for (int i = 0; i < histogram.length; i++) {
+                histogram[i] = ph[i] - sh[i];
+            }
+        } else {
+            histogram = builder.build(this, feature);
+        }
+        cache.put(feature, histogram);
+        return histogram;
+    }
+
+    /**
+     * Drops the references to the parent and sibling contexts, after the node was processed.
+     */
+    public void release() {
+        parent = null;
+        sibling = null;
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.model.tree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import rapaio.data.Mapping;
+
+/**
+ * Rows of a tree node sorted by the values of each feature from a {@link SortedColumnIndex}.
+ * <p>
+ * Node rows are identified by their position in the node frame. For each feature, the node keeps the
+ * positions of the rows with non-missing values, in ascending order of the values. Child nodes derive
+ * their sorted rows from the parent with a stable partition, thus sorting is performed only once, when
+ * the index is built.
+ */
+public final class NodeSortedRows {
+
+    private final SortedColumnIndex index;
+    private final int[] rows;
+    private final int[][] orders;
+
+    NodeSortedRows(SortedColumnIndex index, int[] rows, int[][] orders) {
+        this.index = index;
+        this.rows = rows;
+        this.orders = orders;
+    }
+
+    public SortedColumnIndex index() {
+        return index;
+    }
+
+    /**
+     * @return rows of the index which corresponds to node rows
+     */
+    public int[] rows() {
+        return rows;
+    }
+
+    /**
+     * Returns the positions of the node rows with non-missing values of the feature, sorted by value.
+     * The returned array is not a copy and must not be modified.
+     *
+     * @param feature feature index
+     * @return sorted node rows
+     */
+    public int[] order(int feature) {
+        return orders[feature];
+    }
+
+    /**
+     * Builds the sorted rows of child nodes. Each mapping contains positions of node rows which forms a
+     * child node. A node row can be assigned to more than one child or to none of them.
+     *
+     * @param mappings mappings from child rows to node rows
+     * @return sorted rows of child nodes
+     */
+    public List<NodeSortedRows> split(List<Mapping> mappings) {
+        List<NodeSortedRows> children = new ArrayList<>(mappings.size());
+        int[] pos = new int[rows.length];
+        int[] buffer = new int[rows.length];
+        for (Mapping mapping : mappings) {
+            Arrays.fill(pos, -1);
+            int[] childRows = new int[mapping.size()];
+            for (int j = 0; j < childRows.length; j++) {
+                int row = mapping.get(j);
+                pos[row] = j;
+                childRows[j] = rows[row];
+            }
+            int[][] childOrders = new int[orders.length][];
+            for (int f = 0; f < orders.length; f++) {
+                int len = 0;
+                for (int row : orders[f]) {
+                    if (pos[row] >= 0) {
+                        buffer[len++] = pos[row];
+                    }
+                }
+                childOrders[f] = Arrays.copyOf(buffer, len);
+            }
+            children.add(new NodeSortedRows(index, childRows, childOrders));
+        }
+        return children;
+    }
+}
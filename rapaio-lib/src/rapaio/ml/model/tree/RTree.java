@@ -24,11 +24,13 @@ package rapaio.ml.model.tree;
 import static rapaio.printer.Format.floatFlex;
 
 import java.io.Serial;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Queue;
 import java.util.Random;
 import java.util.concurrent.ConcurrentLinkedQueue;
@@ -49,8 +51,10 @@ import rapaio.ml.loss.L2LossFunction;
 import rapaio.ml.loss.LossFunction;
 import rapaio.ml.model.RegressionResult;
 import rapaio.ml.model.RunInfo;
+import rapaio.ml.model.Scorer;
 import rapaio.ml.model.boost.GBTRtree;
 import rapaio.ml.model.tree.rtree.Candidate;
+import rapaio.ml.model.tree.rtree.HistogramSearch;
 import rapaio.ml.model.tree.rtree.Node;
 import rapaio.ml.model.tree.rtree.Search;
 import rapaio.ml.model.tree.rtree.Splitter;
@@ -152,10 +156,21 @@ public class RTree extends GBTRtree<RTree, RegressionResult, RunInfo<RTree>> {
      */
     public final MultiParam<VarType, Search, RTree> test = new MultiParam<>(this, DEFAULT_TEST_MAP, "testMap", Objects::nonNull);
 
+    /**
+     * If true, numeric variables tested with {@link Search#NumericBinary} are sorted once, when the fit starts,
+     * and the sorted rows of each node are obtained from the sorted rows of its parent, without sorting.
+     * It is not used when histogram search is enabled.
+     */
+    public final ValueParam<Boolean, RTree> presorted = new ValueParam<>(this, false, "presorted");
+
     // tree root node
 
     private Node root;
 
+    // sorted column index shared by an ensemble, used only for the next fit
+    private transient SortedColumnIndex sharedIndex;
+    private transient Mapping sharedIndexRows;
+
     private RTree() {
     }
 
@@ -180,6 +195,43 @@ public class RTree extends GBTRtree<RTree, RegressionResult, RunInfo<RTree>> {
         return root;
     }
 
+    /**
+     * Compiles the fitted tree into a flat array based predictor with a single output.
+     *
+     * @return compiled tree
+     */
+    public CompiledTrees compile() {
+        if (!isFitted()) {
+            throw new IllegalStateException("Cannot compile a model which is not fitted.");
+        }
+        return CompiledTrees.empty(1, CompiledTrees.Link.IDENTITY).add(this, 0, 1);
+    }
+
+    /**
+     * Builds a scorer from the compiled model, with a single output, the prediction of the target variable.
+     *
+     * @return thread safe scorer
+     */
+    @Override
+    public Scorer scorer() {
+        return compile().scorer(Arrays.asList(inputNames()), List.of(firstTargetName()));
+    }
+
+    /**
+     * Sets a sorted column index built by an ensemble once for all its trees, to be used by exact split
+     * search in the next fit. The index is used only if {@link #presorted} is true. Otherwise, the tree
+     * builds its own index at fit time.
+     *
+     * @param index sorted column index
+     * @param rows  mapping from the rows of the frame used to fit this tree to the rows of the index
+     * @return tree instance
+     */
+    public RTree withSortedIndex(SortedColumnIndex index, Mapping rows) {
+        this.sharedIndex = index;
+        this.sharedIndexRows = rows;
+        return this;
+    }
+
     @Override
     protected boolean coreFit(Frame df, Var weights) {
 
@@ -196,11 +248,16 @@ public class RTree extends GBTRtree<RTree, RegressionResult, RunInfo<RTree>> {
         // make queue and initialize it
 
         Queue<QueueNode> queue = new ConcurrentLinkedQueue<>();
-        queue.add(new QueueNode(root, df, weights));
+        NodeHistograms rootHistograms = buildRootHistograms(df, weights);
+        NodeSortedRows rootSorted = rootHistograms == null ? buildRootSortedRows(df) : null;
+        queue.add(new QueueNode(root, df, weights, rootHistograms, rootSorted));
 
         while (!queue.isEmpty()) {
             QueueNode last = queue.poll();
-            learnNode(last.node, last.df, last.weight, nodeVarSelector, random);
+            learnNode(last.node, last.df, last.weight, last.histograms, last.sorted, nodeVarSelector, random);
+            if (last.histograms != null) {
+                last.histograms.release();
+            }
 
             if (last.node.leaf) {
                 continue;
@@ -209,21 +266,103 @@ public class RTree extends GBTRtree<RTree, RegressionResult, RunInfo<RTree>> {
 
             List<RowPredicate> predicates = last.node.bestCandidate.getGroupPredicates();
             List<Mapping> mappings = splitter.get().performSplitMapping(last.df, last.weight, predicates, random);
+            List<NodeHistograms> childHistograms = splitHistograms(last, mappings);
+            List<NodeSortedRows> childSorted = last.sorted != null ? last.sorted.split(mappings) : null;
 
             for (int i = 0; i < predicates.size(); i++) {
                 RowPredicate predicate = predicates.get(i);
                 Node child = new Node(last.node, id++, predicate.toString(), predicate, last.node.depth + 1);
                 last.node.children.add(child);
-                queue.add(new QueueNode(child, last.df.mapRows(mappings.get(i)), last.weight.mapRows(mappings.get(i))));
+                if (childHistograms != null) {
+                    NodeHistograms h = childHistograms.get(i);
+                    queue.add(new QueueNode(child, h.df(), h.weights(), h, null));
+                } else {
+                    queue.add(new QueueNode(child, last.df.mapRows(mappings.get(i)), last.weight.mapRows(mappings.get(i)), null,
+                            childSorted != null ? childSorted.get(i) : null));
+                }
             }
         }
+        sharedBins = null;
+        sharedBinRows = null;
+        sharedIndex = null;
+        sharedIndexRows = null;
         return true;
     }
 
-    record QueueNode(Node node, Frame df, Var weight) {
+    record QueueNode(Node node, Frame df, Var weight, NodeHistograms histograms, NodeSortedRows sorted) {
     }
 
-    private void learnNode(Node node, Frame df, Var weights, VarSelector nodeVarSelector, Random random) {
+    private NodeSortedRows buildRootSortedRows(Frame df) {
+        if (!presorted.get()) {
+            return null;
+        }
+        int[] rows = new int[df.rowCount()];
+        if (sharedIndex != null) {
+            if (sharedIndexRows.size() != df.rowCount()) {
+                throw new IllegalArgumentException("Sorted column index row mapping does not match the number of rows.");
+            }
+            for (int i = 0; i < rows.length; i++) {
+                rows[i] = sharedIndexRows.get(i);
+            }
+            return sharedIndex.root(rows);
+        }
+        String[] sortedVarNames = Arrays.stream(inputNames())
+                .filter(name -> df.type(name).isNumeric() && test.get().get(df.type(name)) == Search.NumericBinary)
+                .toArray(String[]::new);
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = i;
+        }
+        return SortedColumnIndex.of(df, sortedVarNames).root(rows);
+    }
+
+    private NodeHistograms buildRootHistograms(Frame df, Var weights) {
+        if (histogramBins.get() == 0) {
+            return null;
+        }
+        int[] rows = new int[df.rowCount()];
+        if (sharedBins != null) {
+            if (sharedBinRows.size() != df.rowCount()) {
+                throw new IllegalArgumentException("Feature bins row mapping does not match the number of rows.");
+            }
+            for (int i = 0; i < rows.length; i++) {
+                rows[i] = sharedBinRows.get(i);
+            }
+            return new NodeHistograms(sharedBins, rows, df, weights);
+        }
+        String[] binVarNames = Arrays.stream(inputNames())
+                .filter(name -> df.type(name).isNumeric() && test.get().get(df.type(name)) == Search.NumericBinary)
+                .toArray(String[]::new);
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = i;
+        }
+        return new NodeHistograms(FeatureBins.of(df, binVarNames, histogramBins.get()), rows, df, weights);
+    }
+
+    private List<NodeHistograms> splitHistograms(QueueNode parent, List<Mapping> mappings) {
+        if (parent.histograms == null) {
+            return null;
+        }
+        int[] parentRows = parent.histograms.rows();
+        List<NodeHistograms> children = new ArrayList<>();
+        int total = 0;
+        for (Mapping mapping : mappings) {
+            int[] rows = new int[mapping.size()];
+            for (int j = 0; j < rows.length; j++) {
+                rows[j] = parentRows[mapping.get(j)];
+            }
+            total += rows.length;
+            children.add(new NodeHistograms(parent.histograms.bins(), rows, parent.df.mapRows(mapping),
+                    parent.weight.mapRows(mapping)));
+        }
+        // the histograms of a child can be derived by subtraction only if children partitions the parent rows
+        if (children.size() == 2) {
+            parent.histograms.linkChildren(children.get(0), children.get(1), total == parentRows.length);
+        }
+        return children;
+    }
+
+    private void learnNode(Node node, Frame df, Var weights, NodeHistograms histograms, NodeSortedRows sorted,
+            VarSelector nodeVarSelector, Random random) {
 
         node.leaf = true;
         node.value = loss.get().scalarMinimizer(df.rvar(firstTargetName()), weights);
@@ -240,9 +379,7 @@ public class RTree extends GBTRtree<RTree, RegressionResult, RunInfo<RTree>> {
 
         List<Candidate> candidates = Arrays.stream(nodeVarSelector.nextVarNames(random))
                 .parallel()
-                .map(testCol -> test.get(df.type(testCol))
-                        .computeCandidate(this, df, weights, testCol, firstTargetName(), random)
-                        .orElse(null))
+                .map(testCol -> computeCandidate(df, weights, histograms, sorted, testCol, random).orElse(null))
                 .filter(Objects::nonNull)
                 .toList();
 
@@ -262,6 +399,24 @@ public class RTree extends GBTRtree<RTree, RegressionResult, RunInfo<RTree>> {
         node.leaf = false;
     }
 
+    private Optional<Candidate> computeCandidate(Frame df, Var weights, NodeHistograms histograms, NodeSortedRows sorted,
+            String testCol, Random random) {
+        Search search = test.get(df.type(testCol));
+        if (histograms != null && search == Search.NumericBinary) {
+            int feature = histograms.bins().featureIndex(testCol);
+            if (feature >= 0) {
+                return HistogramSearch.computeCandidate(this, histograms, feature, testCol, firstTargetName(), random);
+            }
+        }
+        if (sorted != null && search == Search.NumericBinary) {
+            int feature = sorted.index().featureIndex(testCol);
+            if (feature >= 0) {
+                return Search.numericBinary(this, df, weights, sorted.order(feature), testCol, firstTargetName(), random);
+            }
+        }
+        return search.computeCandidate(this, df, weights, testCol, firstTargetName(), random);
+    }
+
     @Override
     protected RegressionResult corePredict(Frame df, boolean withResiduals, final double... quantiles) {
         RegressionResult prediction = RegressionResult.build(this, df, withResiduals, quantiles);
@@ -364,4 +519,28 @@ public class RTree extends GBTRtree<RTree, RegressionResult, RunInfo<RTree>> {
     public void boostUpdate(Frame x, Var y, Var fx, LossFunction lossFunction) {
         root.boostUpdate(x, y, fx, lossFunction, splitter.get(), getRandom());
     }
+
+    /**
+     * Updates leaf values like {@link #boostUpdate(Frame, Var, Var, LossFunction)} and writes the updated
+     * prediction of each row of {@code x} into {@code predictions}. Rows which reach a leaf through node
+     * predicates take the value of their leaf, without a new descent in the tree. Only rows which
+     * do not satisfy the predicates of some node, usually because of missing values, are predicted.
+     *
+     * @param x            frame with input variables
+     * @param y            target values
+     * @param fx           current fitted values
+     * @param lossFunction loss function
+     * @param predictions  array which receives the prediction of each row of {@code x}
+     */
+    public void boostUpdate(Frame x, Var y, Var fx, LossFunction lossFunction, double[] predictions) {
+        int[] rows = new int[x.rowCount()];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = i;
+        }
+        Node[] leaves = new Node[x.rowCount()];
+        root.boostUpdate(x, y, fx, lossFunction, splitter.get(), getRandom(), rows, leaves);
+        for (int i = 0; i < leaves.length; i++) {
+            predictions[i] = leaves[i] != null ? leaves[i].value : predict(i, x, root).v1;
+        }
+    }
 }
@@ -0,0 +1,164 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.model.tree;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import rapaio.data.Frame;
+import rapaio.data.Var;
+import rapaio.util.collection.Ints;
+
+/**
+ * Numeric features sorted once, used by exact split search in trees to avoid sorting node rows.
+ * <p>
+ * For each numeric feature the index stores the rows with non-missing values, sorted ascending by value.
+ * Rows with equal values are sorted by row index. Missing values are not part of the sorted rows.
+ * <p>
+ * The rows of the index are the rows of the frame used to build it. Ensembles can build the index once
+ * and share it among all their trees, each tree receiving also a mapping from its own rows to the rows
+ * of the index. The sorted rows of a tree node are obtained with {@link #root(int[])} and
+ * {@link NodeSortedRows#split(java.util.List)}, without any further sorting.
+ */
+public final class SortedColumnIndex implements Serializable {
+
+    /**
+     * Builds the index for the given numeric variables. Features are sorted in parallel.
+     *
+     * @param df       source frame
+     * @param varNames names of numeric variables to be sorted
+     * @return sorted column index
+     */
+    public static SortedColumnIndex of(Frame df, String[] varNames) {
+        for (String varName : varNames) {
+            if (!df.type(varName).isNumeric()) {
+                throw new IllegalArgumentException("Variable " + varName + " is not numeric.");
+            }
+        }
+        return new SortedColumnIndex(df, varNames);
+    }
+
+    @Serial
+    private static final long serialVersionUID = 3140588254711866934L;
+
+    private final int rowCount;
+    private final String[] varNames;
+    private final Map<String, Integer> index = new HashMap<>();
+    private final int[][] orders;
+
+    private SortedColumnIndex(Frame df, String[] varNames) {
+        this.rowCount = df.rowCount();
+        this.varNames = Arrays.copyOf(varNames, varNames.length);
+        this.orders = new int[varNames.length][];
+        for (int i = 0; i < varNames.length; i++) {
+            index.put(varNames[i], i);
+        }
+        IntStream.range(0, varNames.length).parallel().forEach(i -> {
+            Var var = df.rvar(varNames[i]);
+            double[] values = new double[rowCount];
+            int[] rows = new int[rowCount];
+            int len = 0;
+            for (int row = 0; row < rowCount; row++) {
+                if (!var.isMissing(row)) {
+                    values[row] = var.getDouble(row);
+                    rows[len++] = row;
+                }
+            }
+            Ints.quickSort(rows, 0, len, (r1, r2) -> {
+                int cmp = Double.compare(values[r1], values[r2]);
+                return cmp != 0 ? cmp : Integer.compare(r1, r2);
+            });
+            orders[i] = Arrays.copyOf(rows, len);
+        });
+    }
+
+    /**
+     * @return number of rows of the frame used to build the index
+     */
+    public int rowCount() {
+        return rowCount;
+    }
+
+    public String[] varNames() {
+        return Arrays.copyOf(varNames, varNames.length);
+    }
+
+    /**
+     * @param varName variable name
+     * @return index of the feature or -1 if the variable was not sorted
+     */
+    public int featureIndex(String varName) {
+        return index.getOrDefault(varName, -1);
+    }
+
+    /**
+     * Returns the rows of the index with non-missing values of the feature, sorted by value. The
+     * returned array is not a copy and must not be modified.
+     *
+     * @param feature feature index
+     * @return sorted rows
+     */
+    public int[] order(int feature) {
+        return orders[feature];
+    }
+
+    /**
+     * Builds the sorted rows of a tree root. Rows of the index can appear multiple times in a root,
+     * for example in a bootstrap sample, or can be missing. The root rows of each feature are derived
+     * with a counting pass over the sorted rows of the index, which keeps the cost linear.
+     *
+     * @param rows rows of the index which corresponds to root rows, in the same order
+     * @return sorted rows of the root
+     */
+    public NodeSortedRows root(int[] rows) {
+        // group root rows by index row, start[r] .. start[r+1] are the positions of index row r
+        int[] start = new int[rowCount + 1];
+        for (int row : rows) {
+            start[row + 1]++;
+        }
+        for (int r = 0; r < rowCount; r++) {
+            start[r + 1] += start[r];
+        }
+        int[] next = Arrays.copyOf(start, rowCount);
+        int[] positions = new int[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            positions[next[rows[i]]++] = i;
+        }
+
+        int[][] rootOrders = new int[orders.length][];
+        int[] buffer = new int[rows.length];
+        for (int f = 0; f < orders.length; f++) {
+            int len = 0;
+            for (int row : orders[f]) {
+                for (int k = start[row]; k < start[row + 1]; k++) {
+                    buffer[len++] = positions[k];
+                }
+            }
+            rootOrders[f] = Arrays.copyOf(buffer, len);
+        }
+        return new NodeSortedRows(this, rows, rootOrders);
+    }
+}
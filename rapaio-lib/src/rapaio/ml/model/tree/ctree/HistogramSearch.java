@@ -0,0 +1,128 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.model.tree.ctree;
+
+import rapaio.core.tools.DensityTable;
+import rapaio.data.Frame;
+import rapaio.data.Var;
+import rapaio.ml.model.tree.CTree;
+import rapaio.ml.model.tree.FeatureBins;
+import rapaio.ml.model.tree.NodeHistograms;
+import rapaio.ml.model.tree.RowPredicate;
+
+/**
+ * Histogram based binary split search on numeric features.
+ * <p>
+ * It produces the same kind of candidates as {@link Search#NumericBinary}, but instead of sorting
+ * the node rows by test values, it accumulates the class weights for each bin of the quantized feature
+ * and evaluates only splits between consecutive non-empty bins. The histogram of a bin contains the
+ * weight of each target level followed by the number of rows.
+ */
+public final class HistogramSearch {
+
+    private HistogramSearch() {
+    }
+
+    public static Candidate computeCandidate(CTree c, NodeHistograms node, int feature, String testName, String targetName,
+            Purity function) {
+
+        Frame df = node.df();
+        int targetIndex = df.varIndex(targetName);
+        int levels = df.levels(targetName).size();
+        int stride = levels + 1;
+        FeatureBins bins = node.bins();
+        int binCount = bins.binCount(feature);
+
+        double[] h = node.histogram(feature, (n, f) -> build(n, f, targetIndex, levels));
+
+        // totals of non-missing values are accumulated on the right side
+        var dt = DensityTable.empty(true, DensityTable.NUMERIC_DEFAULT_LABELS, df.levels(targetName));
+        double totalCount = 0;
+        for (int b = 0; b < binCount; b++) {
+            for (int j = 0; j < levels; j++) {
+                dt.inc(1, j, h[b * stride + j]);
+            }
+            totalCount += h[b * stride + levels];
+        }
+        double missingWeight = 0;
+        for (int j = 0; j < levels; j++) {
+            missingWeight += h[binCount * stride + j];
+        }
+
+        double bestScore = Double.NaN;
+        int bestBin = -1;
+        double leftCount = 0;
+        for (int b = 0; b < binCount - 1; b++) {
+            double count = h[b * stride + levels];
+            if (count < 0.5) {
+                continue;
+            }
+            for (int j = 0; j < levels; j++) {
+                dt.inc(0, j, +h[b * stride + j]);
+                dt.inc(1, j, -h[b * stride + j]);
+            }
+            leftCount += count;
+            double rightCount = totalCount - leftCount;
+            if (leftCount < c.minCount.get() + 0.5 || rightCount < c.minCount.get() - 0.5 || rightCount < 0.5) {
+                continue;
+            }
+            double currentScore = function.compute(dt);
+            if (Double.isNaN(bestScore) || bestScore < currentScore) {
+                bestScore = currentScore;
+                bestBin = b;
+            }
+        }
+
+        if (Double.isNaN(bestScore)) {
+            return null;
+        }
+
+        if (c.missingPenalty.get()) {
+            double sum = node.weightSum();
+            bestScore = bestScore * (sum - missingWeight) / sum;
+        }
+
+        double testValue = bins.threshold(feature, bestBin);
+        Candidate best = new Candidate(bestScore, testName);
+        best.addGroup(RowPredicate.numLessEqual(testName, testValue));
+        best.addGroup(RowPredicate.numGreater(testName, testValue));
+        return best;
+    }
+
+    private static double[] build(NodeHistograms node, int feature, int targetIndex, int levels) {
+        int stride = levels + 1;
+        FeatureBins bins = node.bins();
+        int binCount = bins.binCount(feature);
+        double[] h = new double[(binCount + 1) * stride];
+        int[] rows = node.rows();
+        Frame df = node.df();
+        Var weights = node.weights();
+        for (int i = 0; i < rows.length; i++) {
+            int code = bins.code(feature, rows[i]);
+            int offset = (code == FeatureBins.MISSING ? binCount : code) * stride;
+            int row = node.dfRow(i);
+            h[offset + df.getInt(row, targetIndex)] += weights.getDouble(row);
+            h[offset + levels] += 1;
+        }
+        return h;
+    }
+}
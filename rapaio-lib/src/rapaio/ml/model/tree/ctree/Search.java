@@ -44,35 +44,40 @@ public enum Search implements Serializable {
 
     Ignore {
         @Override
-        public Candidate computeCandidate(CTree c, Frame df, Var w, String testName, String targetName, Purity function, Random random) {
+        public Candidate computeCandidate(CTree c, Frame df, Var w, int[] rows, int start, int end, String testName,
+                String targetName, Purity function, Random random) {
             return null;
         }
     },
     NumericRandom {
         @Override
-        public Candidate computeCandidate(CTree c, Frame df, Var w, String testName, String targetName, Purity function, Random random) {
+        public Candidate computeCandidate(CTree c, Frame df, Var w, int[] rows, int start, int end, String testName,
+                String targetName, Purity function, Random random) {
 
+            int testIndex = df.varIndex(testName);
+            int targetIndex = df.varIndex(targetName);
             int split;
             do {
-                split = random.nextInt(df.rowCount());
-            } while (df.isMissing(split, testName));
+                split = rows[start + random.nextInt(end - start)];
+            } while (df.isMissing(split, testIndex));
 
-            double testValue = df.getDouble(split, testName);
+            double testValue = df.getDouble(split, testIndex);
 
             var dt = DensityTable.empty(true, DensityTable.NUMERIC_DEFAULT_LABELS, df.levels(targetName));
             int missingWeights = 0;
-            for (int i = 0; i < df.rowCount(); i++) {
-                if (df.isMissing(i, testName)) {
-                    missingWeights += w.getDouble(i);
+            for (int i = start; i < end; i++) {
+                int row = rows[i];
+                if (df.isMissing(row, testIndex)) {
+                    missingWeights += w.getDouble(row);
                     continue;
                 }
-                dt.inc(df.getDouble(i, testName) <= testValue ? 0 : 1, df.getInt(i, targetName), w.getDouble(i));
+                dt.inc(df.getDouble(row, testIndex) <= testValue ? 0 : 1, df.getInt(row, targetIndex), w.getDouble(row));
             }
 
             double score = function.compute(dt);
 
             if (c.missingPenalty.get()) {
-                double sum = w.darray_().nanSum();
+                double sum = weightSum(w, rows, start, end);
                 score = score * (sum - missingWeights) / sum;
             }
 
@@ -85,71 +90,31 @@ public enum Search implements Serializable {
     },
     NumericBinary {
         @Override
-        public Candidate computeCandidate(CTree c, Frame df, Var weights, String testName, String targetName, Purity function, Random random) {
+        public Candidate computeCandidate(CTree c, Frame df, Var weights, int[] rows, int start, int end, String testName,
+                String targetName, Purity function, Random random) {
 
             int testIndex = df.varIndex(testName);
-            int targetIndex = df.varIndex(targetName);
-            var dt = DensityTable.empty(true, DensityTable.NUMERIC_DEFAULT_LABELS, df.levels(targetName));
-
-            int[] rows = new int[df.rowCount()];
-            double missingWeight = 0;
+            int[] sorted = new int[end - start];
             int len = 0;
-            for (int i = 0; i < df.rowCount(); i++) {
-                if (df.isMissing(i, testIndex)) {
-                    missingWeight += weights.getDouble(i);
-                    continue;
-                }
-                rows[len++] = i;
-                dt.inc(1, dt.colIndex().getIndex(df, targetName, i), weights.getDouble(i));
-            }
-
-            double[] values = df.rvar(testIndex).stream().mapToDouble().toArray();
-            Ints.quickSort(rows, 0, len, (i, j) -> Double.compare(values[i], values[j]));
-
-            double bestScore = Double.NaN;
-            double bestTestValue = Double.NaN;
-
-            for (int i = 0; i < len; i++) {
-
-                int index = df.getInt(rows[i], targetIndex);
-
-                double w = weights.getDouble(rows[i]);
-                dt.inc(0, index, +w);
-                dt.inc(1, index, -w);
-
-                if (i >= c.minCount.get() && i < len - c.minCount.get() && values[rows[i]] < values[rows[i + 1]]) {
-                    double currentScore = function.compute(dt);
-                    if (Double.isNaN(bestScore) || bestScore < currentScore) {
-                        bestScore = currentScore;
-                        bestTestValue = (values[rows[i]] + values[rows[i + 1]]) / 2.0;
-                    }
+            for (int i = start; i < end; i++) {
+                if (!df.isMissing(rows[i], testIndex)) {
+                    sorted[len++] = rows[i];
                 }
             }
 
-            if (Double.isNaN(bestScore)) {
-                return null;
-            }
-
-            if (c.missingPenalty.get()) {
-                double sum = weights.darray_().nanSum();
-                bestScore = bestScore * (sum - missingWeight) / sum;
-            }
+            Ints.quickSort(sorted, 0, len, (i, j) -> Double.compare(df.getDouble(i, testIndex), df.getDouble(j, testIndex)));
 
-            Candidate best = new Candidate(bestScore, testName);
-            best.addGroup(RowPredicate.numLessEqual(testName, bestTestValue));
-            best.addGroup(RowPredicate.numGreater(testName, bestTestValue));
-            return best;
+            return numericBinary(c, df, weights, rows, start, end, sorted, len, testName, targetName, function);
         }
     },
     Binary {
         @Override
-        public Candidate computeCandidate(
-                CTree c, Frame df, Var w, String testName, String targetName,
-                Purity function, Random random) {
+        public Candidate computeCandidate(CTree c, Frame df, Var w, int[] rows, int start, int end, String testName,
+                String targetName, Purity function, Random random) {
 
             Var test = df.rvar(testName);
             Var target = df.rvar(targetName);
-            var dt = DensityTable.fromLabels(false, test, target, null);
+            var dt = DensityTable.fromLabels(false, test, target, null, rows, start, end);
             if (!(dt.hasColsWithMinimumCount(c.minCount.get(), 2))) {
                 return null;
             }
@@ -158,12 +123,12 @@ public enum Search implements Serializable {
 
             if (c.missingPenalty.get()) {
                 double missingWeights = 0.0;
-                for (int i = 0; i < test.size(); i++) {
-                    if (test.isMissing(i)) {
-                        missingWeights += w.getDouble(i);
+                for (int i = start; i < end; i++) {
+                    if (test.isMissing(rows[i])) {
+                        missingWeights += w.getDouble(rows[i]);
                     }
                 }
-                double sum = w.darray_().nanSum();
+                double sum = weightSum(w, rows, start, end);
                 score = score * (sum - missingWeights) / sum;
             }
 
@@ -175,13 +140,15 @@ public enum Search implements Serializable {
     },
     NominalFull {
         @Override
-        public Candidate computeCandidate(CTree c, Frame df, Var weights, String testName, String targetName, Purity function,
-                Random random) {
-            var counts = DensityTable.fromLabels(false, df, testName, targetName, null);
+        public Candidate computeCandidate(CTree c, Frame df, Var weights, int[] rows, int start, int end, String testName,
+                String targetName, Purity function, Random random) {
+            Var test = df.rvar(testName);
+            Var target = df.rvar(targetName);
+            var counts = DensityTable.fromLabels(false, test, target, null, rows, start, end);
             if (!counts.hasColsWithMinimumCount(c.minCount.get(), 2)) {
                 return null;
             }
-            var dt = DensityTable.fromLabels(false, df, testName, targetName, weights);
+            var dt = DensityTable.fromLabels(false, test, target, weights, rows, start, end);
             double score = function.compute(dt);
             Candidate candidate = new Candidate(score, testName);
             df.levels(testName).forEach(label -> candidate.addGroup(RowPredicate.nomEqual(testName, label)));
@@ -190,15 +157,17 @@ public enum Search implements Serializable {
     },
     NominalBinary {
         @Override
-        public Candidate computeCandidate(CTree c, Frame df, Var weights, String testName, String targetName, Purity function,
-                Random random) {
+        public Candidate computeCandidate(CTree c, Frame df, Var weights, int[] rows, int start, int end, String testName,
+                String targetName, Purity function, Random random) {
 
-            var dtCounts = DensityTable.fromLabels(false, df, testName, targetName, null);
+            Var test = df.rvar(testName);
+            Var target = df.rvar(targetName);
+            var dtCounts = DensityTable.fromLabels(false, test, target, null, rows, start, end);
             if (!(dtCounts.hasColsWithMinimumCount(c.minCount.get(), 2))) {
                 return null;
             }
 
-            var dtWeights = DensityTable.fromLabels(false, df, testName, targetName, weights);
+            var dtWeights = DensityTable.fromLabels(false, test, target, weights, rows, start, end);
 
             double[] rowCounts = dtCounts.rowTotals();
             double totalRows = Doubles.nanSum(rowCounts, 0, rowCounts.length);
@@ -297,6 +266,122 @@ public enum Search implements Serializable {
         }
     };
 
-    public abstract Candidate computeCandidate(CTree c, Frame df, Var w, String testName, String targetName, Purity function,
-            Random random);
+    /**
+     * Computes the best candidate for a test variable on all the rows of a node frame.
+     *
+     * @param c          tree model
+     * @param df         instances from the current node
+     * @param w          weights of the instances from the current node
+     * @param testName   test variable name
+     * @param targetName target variable name
+     * @param function   purity function
+     * @param random     random number generator
+     * @return best candidate or null if there is no valid split
+     */
+    public Candidate computeCandidate(CTree c, Frame df, Var w, String testName, String targetName, Purity function, Random random) {
+        return computeCandidate(c, df, w, Ints.seq(0, df.rowCount()), 0, df.rowCount(), testName, targetName, function, random);
+    }
+
+    /**
+     * Computes the best candidate for a test variable on the node rows from the segment {@code [start, end)}
+     * of an array of frame rows. This allows a node to be described by a segment of an array of row indexes
+     * of a frame shared by many nodes, without building a frame for each node.
+     *
+     * @param c          tree model
+     * @param df         frame which contains the instances from the current node
+     * @param w          weights indexed by frame rows
+     * @param rows       array of frame rows
+     * @param start      start position of node rows, inclusive
+     * @param end        end position of node rows, exclusive
+     * @param testName   test variable name
+     * @param targetName target variable name
+     * @param function   purity function
+     * @param random     random number generator
+     * @return best candidate or null if there is no valid split
+     */
+    public abstract Candidate computeCandidate(CTree c, Frame df, Var w, int[] rows, int start, int end, String testName,
+            String targetName, Purity function, Random random);
+
+    private static double weightSum(Var w, int[] rows, int start, int end) {
+        double sum = 0;
+        for (int i = start; i < end; i++) {
+            double value = w.getDouble(rows[i]);
+            if (!Double.isNaN(value)) {
+                sum += value;
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Computes the best binary split on a numeric test variable, from the node rows with non-missing test values
+     * already sorted ascending by test value. This is the candidate computed by {@link #NumericBinary}, which
+     * sorts the rows itself, and it is used directly when the sorted rows are available from a
+     * {@link rapaio.ml.model.tree.SortedColumnIndex}.
+     *
+     * @param c          tree model
+     * @param df         frame which contains the instances from the current node
+     * @param weights    weights indexed by frame rows
+     * @param rows       array of frame rows
+     * @param start      start position of node rows, inclusive
+     * @param end        end position of node rows, exclusive
+     * @param sorted     frame rows of the node with non-missing test values, sorted by test value
+     * @param len        number of sorted rows
+     * @param testName   test variable name
+     * @param targetName target variable name
+     * @param function   purity function
+     * @return best candidate or null if there is no valid split
+     */
+    public static Candidate numericBinary(CTree c, Frame df, Var weights, int[] rows, int start, int end, int[] sorted, int len,
+            String testName, String targetName, Purity function) {
+
+        int testIndex = df.varIndex(testName);
+        int targetIndex = df.varIndex(targetName);
+        var dt = DensityTable.empty(true, DensityTable.NUMERIC_DEFAULT_LABELS, df.levels(targetName));
+
+        double missingWeight = 0;
+        for (int i = start; i < end; i++) {
+            int row = rows[i];
+            if (df.isMissing(row, testIndex)) {
+                missingWeight += weights.getDouble(row);
+                continue;
+            }
+            dt.inc(1, dt.colIndex().getIndex(df, targetName, row), weights.getDouble(row));
+        }
+
+        double bestScore = Double.NaN;
+        double bestTestValue = Double.NaN;
+
+        for (int i = 0; i < len; i++) {
+
+            int index = df.getInt(sorted[i], targetIndex);
+
+            double w = weights.getDouble(sorted[i]);
+            dt.inc(0, index, +w);
+            dt.inc(1, index, -w);
+
+            if (i >= c.minCount.get() && i < len - c.minCount.get()
+                    && df.getDouble(sorted[i], testIndex) < df.getDouble(sorted[i + 1], testIndex)) {
+                double currentScore = function.compute(dt);
+                if (Double.isNaN(bestScore) || bestScore < currentScore) {
+                    bestScore = currentScore;
+                    bestTestValue = (df.getDouble(sorted[i], testIndex) + df.getDouble(sorted[i + 1], testIndex)) / 2.0;
+                }
+            }
+        }
+
+        if (Double.isNaN(bestScore)) {
+            return null;
+        }
+
+        if (c.missingPenalty.get()) {
+            double sum = weightSum(weights, rows, start, end);
+            bestScore = bestScore * (sum - missingWeight) / sum;
+        }
+
+        Candidate best = new Candidate(bestScore, testName);
+        best.addGroup(RowPredicate.numLessEqual(testName, bestTestValue));
+        best.addGroup(RowPredicate.numGreater(testName, bestTestValue));
+        return best;
+    }
 }
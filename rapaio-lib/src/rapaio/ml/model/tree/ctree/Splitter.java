@@ -33,6 +33,7 @@ import rapaio.data.Frame;
 import rapaio.data.Mapping;
 import rapaio.data.Var;
 import rapaio.data.VarDouble;
+import rapaio.data.mapping.ArrayMapping;
 import rapaio.ml.model.tree.RowPredicate;
 import rapaio.util.Pair;
 
@@ -46,7 +47,7 @@ public enum Splitter implements Serializable {
      */
     Ignore {
         @Override
-        public Pair<List<Frame>, List<Var>> performSplit(Frame df, Var weights, List<RowPredicate> p, Random random) {
+        public Pair<List<Mapping>, List<Var>> performSplitMapping(Frame df, Var weights, List<RowPredicate> p, Random random) {
             List<Mapping> mappings = new ArrayList<>(p.size());
             for (int i = 0; i < p.size(); i++) {
                 mappings.add(Mapping.empty());
@@ -60,15 +61,12 @@ public enum Splitter implements Serializable {
                     }
                 }
             }
-            return Pair.from(
-                    mappings.stream().map(df::mapRows).collect(toList()),
-                    mappings.stream().map(weights::mapRows).collect(toList())
-            );
+            return Pair.from(mappings, mappings.stream().map(weights::mapRows).collect(toList()));
         }
     },
     Majority {
         @Override
-        public Pair<List<Frame>, List<Var>> performSplit(Frame df, Var weights, List<RowPredicate> p, Random random) {
+        public Pair<List<Mapping>, List<Var>> performSplitMapping(Frame df, Var weights, List<RowPredicate> p, Random random) {
             List<Mapping> mappings = new ArrayList<>(p.size());
             for (int i = 0; i < p.size(); i++) {
                 mappings.add(Mapping.empty());
@@ -102,10 +100,32 @@ public enum Splitter implements Serializable {
 
             mappings.get(index).addAll(missingSpots.iterator());
 
-            return Pair.from(
-                    mappings.stream().map(df::mapRows).collect(toList()),
-                    mappings.stream().map(weights::mapRows).collect(toList())
-            );
+            return Pair.from(mappings, mappings.stream().map(weights::mapRows).collect(toList()));
+        }
+
+        @Override
+        List<Mapping> partition(int[] groups, int count, Random random) {
+            int[] counts = new int[count];
+            for (int group : groups) {
+                if (group >= 0) {
+                    counts[group]++;
+                }
+            }
+            int majorityGroup = 0;
+            int majoritySize = 0;
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] > majoritySize) {
+                    majorityGroup = i;
+                    majoritySize = counts[i];
+                }
+            }
+            List<Mapping> mappings = mappings(groups, count);
+            for (int i = 0; i < groups.length; i++) {
+                if (groups[i] < 0) {
+                    mappings.get(majorityGroup).add(i);
+                }
+            }
+            return mappings;
         }
     },
     /**
@@ -113,7 +133,7 @@ public enum Splitter implements Serializable {
      */
     Weighted {
         @Override
-        public Pair<List<Frame>, List<Var>> performSplit(Frame df, Var weights, List<RowPredicate> pred, Random random) {
+        public Pair<List<Mapping>, List<Var>> performSplitMapping(Frame df, Var weights, List<RowPredicate> pred, Random random) {
 
             List<Mapping> mappings = new ArrayList<>();
             List<Var> weighting = new ArrayList<>();
@@ -154,8 +174,12 @@ public enum Splitter implements Serializable {
                     }
                 }
             }
-            List<Frame> frames = mappings.stream().map(df::mapRows).collect(toList());
-            return Pair.from(frames, weighting);
+            return Pair.from(mappings, weighting);
+        }
+
+        @Override
+        public boolean partitions() {
+            return false;
         }
     },
     /**
@@ -163,7 +187,7 @@ public enum Splitter implements Serializable {
      */
     Random {
         @Override
-        public Pair<List<Frame>, List<Var>> performSplit(Frame df, Var weights, List<RowPredicate> pred, Random random) {
+        public Pair<List<Mapping>, List<Var>> performSplitMapping(Frame df, Var weights, List<RowPredicate> pred, Random random) {
             // first we collect the prediction category for each observation
             // and the counts from each category,
             // missing values are placed randomly
@@ -199,13 +223,23 @@ public enum Splitter implements Serializable {
                 pos[t]++;
             }
             // and split the observations
-            List<Frame> frameList = new ArrayList<>();
+            List<Mapping> mappingList = new ArrayList<>();
             List<Var> weightList = new ArrayList<>();
             for (int i = 0; i < pred.size(); i++) {
-                frameList.add(df.mapRows(maps[i]));
+                mappingList.add(Mapping.wrap(maps[i]));
                 weightList.add(weights.mapRows(maps[i]));
             }
-            return Pair.from(frameList, weightList);
+            return Pair.from(mappingList, weightList);
+        }
+
+        @Override
+        List<Mapping> partition(int[] groups, int count, Random random) {
+            for (int i = 0; i < groups.length; i++) {
+                if (groups[i] < 0) {
+                    groups[i] = random.nextInt(count);
+                }
+            }
+            return mappings(groups, count);
         }
     };
 
@@ -219,5 +253,104 @@ public enum Splitter implements Serializable {
      * @param random
      * @return a pair with a list of frames and a list of weights
      */
-    public abstract Pair<List<Frame>, List<Var>> performSplit(Frame df, Var weights, List<RowPredicate> predicates, Random random);
+    public Pair<List<Frame>, List<Var>> performSplit(Frame df, Var weights, List<RowPredicate> predicates, Random random) {
+        Pair<List<Mapping>, List<Var>> split = performSplitMapping(df, weights, predicates, random);
+        return Pair.from(split.v1.stream().map(df::mapRows).collect(toList()), split.v2);
+    }
+
+    /**
+     * Splits the initial data set and returns for each child the mapping of rows relative
+     * to the initial data set, together with the child weights.
+     *
+     * @param df         initial data set
+     * @param weights    initial weights
+     * @param predicates rules/criteria used to perform the splitting
+     * @param random     random number generator
+     * @return a pair with a list of row mappings and a list of weights
+     */
+    public abstract Pair<List<Mapping>, List<Var>> performSplitMapping(Frame df, Var weights, List<RowPredicate> predicates,
+            Random random);
+
+    /**
+     * @return true if each row is assigned to at most one child, with unchanged weight
+     */
+    public boolean partitions() {
+        return true;
+    }
+
+    /**
+     * Splits the node rows from the segment {@code [start, end)} of an array of frame rows, according with
+     * the policy for missing values implemented by the splitter. The rows are not copied into a node frame,
+     * the predicates are evaluated directly on the given frame. The result is the same as the mappings
+     * produced by {@link #performSplitMapping(Frame, Var, List, Random)} on a frame with the node rows, and
+     * it is available only for splitters which {@link #partitions()} the rows.
+     *
+     * @param df         frame which contains the node rows
+     * @param rows       array of frame rows
+     * @param start      start position of node rows, inclusive
+     * @param end        end position of node rows, exclusive
+     * @param predicates rules/criteria used to perform the splitting
+     * @param random     random number generator
+     * @return for each child the positions of node rows, relative to {@code start}
+     */
+    public List<Mapping> splitRows(Frame df, int[] rows, int start, int end, List<RowPredicate> predicates, Random random) {
+        if (!partitions()) {
+            throw new UnsupportedOperationException("Splitter " + name() + " does not partition the node rows.");
+        }
+        return partition(groups(df, rows, start, end, predicates), predicates.size(), random);
+    }
+
+    /**
+     * Builds the child mappings from the rule index of each node row, placing the rows not accepted
+     * by any rule according with the policy for missing values. The default policy ignores them.
+     *
+     * @param groups for each node row the index of the first accepting rule, or -1 if no rule accepts the row
+     * @param count  number of children
+     * @param random random number generator
+     * @return for each child the positions of node rows
+     */
+    List<Mapping> partition(int[] groups, int count, Random random) {
+        return mappings(groups, count);
+    }
+
+    /**
+     * @return for each node row the index of the first accepting rule, or -1 if no rule accepts the row
+     */
+    private static int[] groups(Frame df, int[] rows, int start, int end, List<RowPredicate> predicates) {
+        int[] groups = new int[end - start];
+        for (int i = 0; i < groups.length; i++) {
+            groups[i] = -1;
+            for (int j = 0; j < predicates.size(); j++) {
+                if (predicates.get(j).test(rows[start + i], df)) {
+                    groups[i] = j;
+                    break;
+                }
+            }
+        }
+        return groups;
+    }
+
+    private static List<Mapping> mappings(int[] groups, int count) {
+        int[] counts = new int[count];
+        for (int group : groups) {
+            if (group >= 0) {
+                counts[group]++;
+            }
+        }
+        int[][] positions = new int[count][];
+        for (int i = 0; i < count; i++) {
+            positions[i] = new int[counts[i]];
+            counts[i] = 0;
+        }
+        for (int i = 0; i < groups.length; i++) {
+            if (groups[i] >= 0) {
+                positions[groups[i]][counts[groups[i]]++] = i;
+            }
+        }
+        List<Mapping> mappings = new ArrayList<>(count);
+        for (int[] position : positions) {
+            mappings.add(ArrayMapping.wrapArray(position));
+        }
+        return mappings;
+    }
 }
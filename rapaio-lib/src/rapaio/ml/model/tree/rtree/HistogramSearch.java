@@ -0,0 +1,142 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.model.tree.rtree;
+
+import java.util.Optional;
+import java.util.Random;
+
+import rapaio.data.Frame;
+import rapaio.data.Var;
+import rapaio.ml.model.tree.FeatureBins;
+import rapaio.ml.model.tree.NodeHistograms;
+import rapaio.ml.model.tree.RTree;
+import rapaio.ml.model.tree.RowPredicate;
+
+/**
+ * Histogram based binary split search on numeric features.
+ * <p>
+ * It produces the same kind of candidates as {@link Search#NumericBinary}, but instead of sorting
+ * the node rows by test values, it accumulates for each bin of the quantized feature the weight sum,
+ * the weighted sum of target values, the weighted sum of squared target values and the number of rows.
+ * Weighted variances of both sides of a split are derived from those sums, for each split between
+ * consecutive non-empty bins.
+ */
+public final class HistogramSearch {
+
+    private static final int STRIDE = 4;
+
+    private HistogramSearch() {
+    }
+
+    public static Optional<Candidate> computeCandidate(RTree c, NodeHistograms node, int feature, String testName,
+            String targetName, Random random) {
+
+        int targetIndex = node.df().varIndex(targetName);
+        FeatureBins bins = node.bins();
+        int binCount = bins.binCount(feature);
+
+        double[] h = node.histogram(feature, (n, f) -> build(n, f, targetIndex));
+
+        double totalWeight = 0;
+        double totalSum = 0;
+        double totalSquares = 0;
+        double totalCount = 0;
+        for (int b = 0; b < binCount; b++) {
+            totalWeight += h[b * STRIDE];
+            totalSum += h[b * STRIDE + 1];
+            totalSquares += h[b * STRIDE + 2];
+            totalCount += h[b * STRIDE + 3];
+        }
+
+        SearchPayload p = new SearchPayload(2);
+        p.totalVar = variance(totalWeight, totalSum, totalSquares);
+        p.totalWeight = totalWeight;
+
+        Candidate best = null;
+        double bestScore = -1e100;
+
+        double leftWeight = 0;
+        double leftSum = 0;
+        double leftSquares = 0;
+        double leftCount = 0;
+        for (int b = 0; b < binCount - 1; b++) {
+            double count = h[b * STRIDE + 3];
+            if (count < 0.5) {
+                continue;
+            }
+            leftWeight += h[b * STRIDE];
+            leftSum += h[b * STRIDE + 1];
+            leftSquares += h[b * STRIDE + 2];
+            leftCount += count;
+            if (leftCount < c.minCount.get() + 0.5 || totalCount - leftCount < c.minCount.get() + 0.5) {
+                continue;
+            }
+
+            p.splitVar[0] = variance(leftWeight, leftSum, leftSquares);
+            p.splitWeight[0] = leftWeight;
+            p.splitVar[1] = variance(totalWeight - leftWeight, totalSum - leftSum, totalSquares - leftSquares);
+            p.splitWeight[1] = totalWeight - leftWeight;
+
+            double score = c.loss.get().computeSplitLossScore(p);
+            if (score < bestScore) {
+                continue;
+            }
+            if (score == bestScore && random.nextDouble() < 0.5) {
+                continue;
+            }
+            bestScore = score;
+            best = new Candidate(score, testName);
+
+            double testValue = bins.threshold(feature, b);
+            best.addGroup(RowPredicate.numLessEqual(testName, testValue));
+            best.addGroup(RowPredicate.numGreater(testName, testValue));
+        }
+        return Optional.ofNullable(best);
+    }
+
+    private static double variance(double weight, double sum, double squares) {
+        if (weight <= 0) {
+            return 0;
+        }
+        return Math.max(0, (squares - sum * sum / weight) / weight);
+    }
+
+    private static double[] build(NodeHistograms node, int feature, int targetIndex) {
+        FeatureBins bins = node.bins();
+        int binCount = bins.binCount(feature);
+        double[] h = new double[(binCount + 1) * STRIDE];
+        int[] rows = node.rows();
+        Frame df = node.df();
+        Var weights = node.weights();
+        for (int i = 0; i < rows.length; i++) {
+            int code = bins.code(feature, rows[i]);
+            int offset = (code == FeatureBins.MISSING ? binCount : code) * STRIDE;
+            double w = weights.getDouble(i);
+            double y = df.getDouble(i, targetIndex);
+            h[offset] += w;
+            h[offset + 1] += w * y;
+            h[offset + 2] += w * y * y;
+            h[offset + 3] += 1;
+        }
+        return h;
+    }
+}
@@ -65,8 +65,28 @@ public class Node implements Serializable {
     }
 
     public void boostUpdate(Frame x, Var y, Var fx, LossFunction lossFunction, Splitter splitter, Random random) {
+        boostUpdate(x, y, fx, lossFunction, splitter, random, null, null);
+    }
+
+    /**
+     * Updates leaf values and collects the leaves reached by rows. A row is assigned to a leaf only if it
+     * satisfies the predicates of all nodes on the path to that leaf, rows distributed by the splitter
+     * without satisfying a predicate are not assigned.
+     *
+     * @param rows   positions of the rows of {@code x} in the frame used at root, -1 for rows which are not tracked
+     * @param leaves leaves reached by each row of the frame used at root
+     */
+    public void boostUpdate(Frame x, Var y, Var fx, LossFunction lossFunction, Splitter splitter, Random random,
+            int[] rows, Node[] leaves) {
         if (leaf) {
             value = lossFunction.additiveScalarMinimizer(y, fx);
+            if (leaves != null) {
+                for (int row : rows) {
+                    if (row >= 0) {
+                        leaves[row] = this;
+                    }
+                }
+            }
             return;
         }
 
@@ -78,11 +98,18 @@ public class Node implements Serializable {
         List<Mapping> mappings = splitter.performSplitMapping(x, VarDouble.fill(x.rowCount(), 1), groupPredicates, random);
 
         for (int i = 0; i < children.size(); i++) {
-            children.get(i).boostUpdate(
-                    x.mapRows(mappings.get(i)),
-                    y.mapRows(mappings.get(i)),
-                    fx.mapRows(mappings.get(i)),
-                    lossFunction, splitter, random);
+            Node child = children.get(i);
+            Mapping mapping = mappings.get(i);
+            int[] childRows = null;
+            if (leaves != null) {
+                childRows = new int[mapping.size()];
+                for (int j = 0; j < childRows.length; j++) {
+                    int row = mapping.get(j);
+                    childRows[j] = child.predicate.test(row, x) ? rows[row] : -1;
+                }
+            }
+            child.boostUpdate(x.mapRows(mapping), y.mapRows(mapping), fx.mapRows(mapping),
+                    lossFunction, splitter, random, childRows, leaves);
         }
     }
 }
@@ -62,71 +62,9 @@ public enum Search implements Serializable {
         @Override
         public Optional<Candidate> computeCandidate(RTree c, Frame df, Var weights, String testName, String targetName, Random random) {
 
-            int testIndex = df.varIndex(testName);
-            int targetIndex = df.varIndex(targetName);
-
-            int[] rows = df.rvar(testIndex).rowsComplete();
-            df.rvar(testIndex).darray_().externalSort(rows, true);
-
-            double[] leftWeight = new double[rows.length];
-            double[] leftVar = new double[rows.length];
-            double[] rightWeight = new double[rows.length];
-            double[] rightVar = new double[rows.length];
-
-            WeightedOnlineStat so = WeightedOnlineStat.empty();
-
-            so.update(df.getDouble(rows[0], targetIndex), weights.getDouble(rows[0]));
-            leftWeight[0] = weights.getDouble(rows[0]);
-            leftVar[0] = 0;
-            for (int i = 1; i < rows.length; i++) {
-                so.update(df.getDouble(rows[i], targetIndex), weights.getDouble(rows[i]));
-                leftWeight[i] = weights.getDouble(rows[i]) + leftWeight[i - 1];
-                leftVar[i] = so.variance();
-            }
-
-            so = WeightedOnlineStat.empty();
-            so.update(df.getDouble(rows[rows.length - 1], targetIndex), weights.getDouble(rows[rows.length - 1]));
-            rightWeight[rows.length - 1] = weights.getDouble(rows[rows.length - 1]);
-            rightVar[rows.length - 1] = 0;
-            for (int i = rows.length - 2; i >= 0; i--) {
-                so.update(df.getDouble(rows[i], targetIndex), weights.getDouble(rows[i]));
-                rightWeight[i] = weights.getDouble(rows[i]) + rightWeight[i + 1];
-                rightVar[i] = so.variance();
-            }
-
-            Candidate best = null;
-            double bestScore = -1e100;
-
-            SearchPayload p = new SearchPayload(2);
-
-            p.totalVar = rightVar[0];
-            p.totalWeight = rightWeight[0];
-
-            for (int i = c.minCount.get(); i < rows.length - c.minCount.get() - 1; i++) {
-                if (df.getDouble(rows[i], testIndex) == df.getDouble(rows[i + 1], testIndex)) {
-                    continue;
-                }
-
-                p.splitVar[0] = leftVar[i];
-                p.splitWeight[0] = leftWeight[i];
-                p.splitVar[1] = rightVar[i + 1];
-                p.splitWeight[1] = rightWeight[i + 1];
-
-                double score = c.loss.get().computeSplitLossScore(p);
-                if (score < bestScore) {
-                    continue;
-                }
-                if (score == bestScore && random.nextDouble() < 0.5) {
-                    continue;
-                }
-                bestScore = score;
-                best = new Candidate(score, testName);
-
-                double testValue = (df.getDouble(rows[i], testName) + df.getDouble(rows[i + 1], testName)) / 2.0;
-                best.addGroup(RowPredicate.numLessEqual(testName, testValue));
-                best.addGroup(RowPredicate.numGreater(testName, testValue));
-            }
-            return (best != null) ? Optional.of(best) : Optional.empty();
+            int[] rows = df.rvar(testName).rowsComplete();
+            df.rvar(testName).darray_().externalSort(rows, true);
+            return numericBinary(c, df, weights, rows, testName, targetName, random);
         }
     },
     /**
@@ -285,4 +223,89 @@ public enum Search implements Serializable {
      */
     public abstract Optional<Candidate> computeCandidate(RTree tree, Frame df, Var w, String testVarName, String targetVarName,
             Random random);
-}
\ No newline at end of file
+
+    /**
+     * Computes the best binary split on a numeric test variable, from the node rows with non-missing test values
+     * already sorted ascending by test value. This is the candidate computed by {@link #NumericBinary}, which
+     * sorts the rows itself, and it is used directly when the sorted rows are available from a
+     * {@link rapaio.ml.model.tree.SortedColumnIndex}.
+     *
+     * @param c          tree model
+     * @param df         instances from the current node
+     * @param weights    weights of the instances from the current node
+     * @param rows       node rows with non-missing test values, sorted by test value
+     * @param testName   test variable name
+     * @param targetName target variable name
+     * @param random     random number generator used to break ties
+     * @return the best candidate
+     */
+    public static Optional<Candidate> numericBinary(RTree c, Frame df, Var weights, int[] rows, String testName, String targetName,
+            Random random) {
+
+        if (rows.length == 0) {
+            return Optional.empty();
+        }
+        int testIndex = df.varIndex(testName);
+        int targetIndex = df.varIndex(targetName);
+
+        double[] leftWeight = new double[rows.length];
+        double[] leftVar = new double[rows.length];
+        double[] rightWeight = new double[rows.length];
+        double[] rightVar = new double[rows.length];
+
+        WeightedOnlineStat so = WeightedOnlineStat.empty();
+
+        so.update(df.getDouble(rows[0], targetIndex), weights.getDouble(rows[0]));
+        leftWeight[0] = weights.getDouble(rows[0]);
+        leftVar[0] = 0;
+        for (int i = 1; i < rows.length; i++) {
+            so.update(df.getDouble(rows[i], targetIndex), weights.getDouble(rows[i]));
+            leftWeight[i] = weights.getDouble(rows[i]) + leftWeight[i - 1];
+            leftVar[i] = so.variance();
+        }
+
+        so = WeightedOnlineStat.empty();
+        so.update(df.getDouble(rows[rows.length - 1], targetIndex), weights.getDouble(rows[rows.length - 1]));
+        rightWeight[rows.length - 1] = weights.getDouble(rows[rows.length - 1]);
+        rightVar[rows.length - 1] = 0;
+        for (int i = rows.length - 2; i >= 0; i--) {
+            so.update(df.getDouble(rows[i], targetIndex), weights.getDouble(rows[i]));
+            rightWeight[i] = weights.getDouble(rows[i]) + rightWeight[i + 1];
+            rightVar[i] = so.variance();
+        }
+
+        Candidate best = null;
+        double bestScore = -1e100;
+
+        SearchPayload p = new SearchPayload(2);
+
+        p.totalVar = rightVar[0];
+        p.totalWeight = rightWeight[0];
+
+        for (int i = c.minCount.get(); i < rows.length - c.minCount.get() - 1; i++) {
+            if (df.getDouble(rows[i], testIndex) == df.getDouble(rows[i + 1], testIndex)) {
+                continue;
+            }
+
+            p.splitVar[0] = leftVar[i];
+            p.splitWeight[0] = leftWeight[i];
+            p.splitVar[1] = rightVar[i + 1];
+            p.splitWeight[1] = rightWeight[i + 1];
+
+            double score = c.loss.get().computeSplitLossScore(p);
+            if (score < bestScore) {
+                continue;
+            }
+            if (score == bestScore && random.nextDouble() < 0.5) {
+                continue;
+            }
+            bestScore = score;
+            best = new Candidate(score, testName);
+
+            double testValue = (df.getDouble(rows[i], testName) + df.getDouble(rows[i + 1], testName)) / 2.0;
+            best.addGroup(RowPredicate.numLessEqual(testName, testValue));
+            best.addGroup(RowPredicate.numGreater(testName, testValue));
+        }
+        return (best != null) ? Optional.of(best) : Optional.empty();
+    }
+}
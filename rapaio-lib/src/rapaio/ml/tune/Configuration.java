@@ -0,0 +1,84 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.tune;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import rapaio.core.param.Param;
+import rapaio.core.param.ParamSet;
+import rapaio.printer.Format;
+
+/**
+ * Configuration of hyperparameters, which contains values for parameters identified by name.
+ *
+ * @param values values of parameters by name
+ * @author <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>
+ */
+public record Configuration(Map<String, Object> values) implements Serializable {
+
+    public Configuration {
+        values = Collections.unmodifiableMap(new LinkedHashMap<>(values));
+    }
+
+    /**
+     * @return value of the parameter with given name
+     */
+    public Object get(String name) {
+        return values.get(name);
+    }
+
+    /**
+     * Sets the values of the configuration on the parameters with the same names.
+     *
+     * @param params parameter set, usually a model
+     * @param <T>    type of parameter set
+     * @return the same parameter set
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends ParamSet<?>> T apply(T params) {
+        for (var e : values.entrySet()) {
+            Param<Object, ?> param = (Param<Object, ?>) params.getParameterMap().get(e.getKey());
+            if (param == null) {
+                throw new IllegalArgumentException("Parameter " + e.getKey() + " does not exist.");
+            }
+            param.set(e.getValue());
+        }
+        return params;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{");
+        for (var e : values.entrySet()) {
+            if (sb.length() > 1) {
+                sb.append(",");
+            }
+            sb.append(e.getKey()).append("=");
+            sb.append(e.getValue() instanceof Double d ? Format.floatFlex(d) : String.valueOf(e.getValue()));
+        }
+        return sb.append("}").toString();
+    }
+}
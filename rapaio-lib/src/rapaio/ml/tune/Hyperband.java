@@ -0,0 +1,60 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.tune;
+
+import java.util.Random;
+
+/**
+ * Hyperband, as described in "Hyperband: A Novel Bandit-Based Approach to Hyperparameter Optimization" by
+ * Lisha Li, Kevin Jamieson, Giulia DeSalvo, Afshin Rostamizadeh and Ameet Talwalkar.
+ * <p>
+ * Successive halving needs to choose between evaluating many configurations with small resources or few
+ * configurations with large resources. Hyperband runs multiple brackets of successive halving with different
+ * trade-offs: the first bracket starts many configurations with the minimum fraction of the resource,
+ * while the last bracket evaluates few configurations with the full resource. Each bracket samples new
+ * configurations from the search space.
+ *
+ * @param eta         reduction factor, greater than one
+ * @param minFraction smallest fraction of the resource used, in interval {@code (0,1]}
+ * @author <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>
+ */
+public record Hyperband(double eta, double minFraction) implements SearchStrategy {
+
+    public Hyperband {
+        if (!(eta > 1)) {
+            throw new IllegalArgumentException("Reduction factor eta must be greater than one.");
+        }
+        if (!(minFraction > 0 && minFraction <= 1)) {
+            throw new IllegalArgumentException("Minimum fraction must be in interval (0,1].");
+        }
+    }
+
+    @Override
+    public void search(SearchSpace space, Random random, Evaluator evaluator) {
+        int maxRungs = SuccessiveHalving.rungs(eta, minFraction);
+        for (int s = maxRungs; s >= 0; s--) {
+            int count = (int) Math.ceil((maxRungs + 1) / (double) (s + 1) * Math.pow(eta, s));
+            double bracketFraction = minFraction * Math.pow(eta, maxRungs - s);
+            SuccessiveHalving.halving(space.sample(random, count), eta, s, bracketFraction, evaluator);
+        }
+    }
+}
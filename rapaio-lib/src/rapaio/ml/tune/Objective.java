@@ -0,0 +1,128 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.tune;
+
+import java.io.Serializable;
+
+import rapaio.data.Frame;
+import rapaio.data.Var;
+import rapaio.ml.eval.ThreadBudget;
+import rapaio.ml.eval.metric.ClassifierMetric;
+import rapaio.ml.eval.metric.RegressionMetric;
+import rapaio.ml.model.ClassifierModel;
+import rapaio.ml.model.RegressionModel;
+
+/**
+ * Fits a model configured with given hyperparameters and scores it on a testing data set.
+ */
+interface Objective extends Serializable {
+
+    /**
+     * @return full name of the tuned model
+     */
+    String modelName();
+
+    /**
+     * @return name of the metric
+     */
+    String metricName();
+
+    /**
+     * Fits a model with a configuration of hyperparameters and computes the metric on testing data.
+     *
+     * @param configuration values of hyperparameters
+     * @param runsFraction  fraction of the runs of the model used for fitting
+     * @param budget        thread budget which limits the pool size of the model
+     * @param train         training data
+     * @param weights       training weights, or null
+     * @param test          testing data
+     * @param targetName    target variable name
+     * @return metric score
+     */
+    double score(Configuration configuration, double runsFraction, ThreadBudget budget,
+            Frame train, Var weights, Frame test, String targetName);
+
+    static int scaleRuns(int runs, double fraction) {
+        return fraction < 1 ? Math.max(1, (int) Math.round(runs * fraction)) : runs;
+    }
+
+    record ClassifierObjective(ClassifierModel<?, ?, ?> model, ClassifierMetric metric) implements Objective {
+
+        @Override
+        public String modelName() {
+            return model.fullName();
+        }
+
+        @Override
+        public String metricName() {
+            return metric.getName();
+        }
+
+        @Override
+        public double score(Configuration configuration, double runsFraction, ThreadBudget budget,
+                Frame train, Var weights, Frame test, String targetName) {
+            var m = configuration.apply(model.newInstance());
+            m.runs.set(scaleRuns(m.runs.get(), runsFraction));
+            m.poolSize.set(budget.modelPoolSize(m.poolSize.get()));
+            if (weights == null) {
+                m.fit(train, targetName);
+            } else {
+                m.fit(train, weights, targetName);
+            }
+            var prediction = m.predict(test, true, true);
+            // metrics keep the last computed score, thus they are not safe to use concurrently
+            synchronized (metric) {
+                return metric.compute(test.rvar(targetName), prediction).getScore().value();
+            }
+        }
+    }
+
+    record RegressionObjective(RegressionModel<?, ?, ?> model, RegressionMetric metric) implements Objective {
+
+        @Override
+        public String modelName() {
+            return model.fullName();
+        }
+
+        @Override
+        public String metricName() {
+            return metric.getName();
+        }
+
+        @Override
+        public double score(Configuration configuration, double runsFraction, ThreadBudget budget,
+                Frame train, Var weights, Frame test, String targetName) {
+            var m = configuration.apply(model.newInstance());
+            m.runs.set(scaleRuns(m.runs.get(), runsFraction));
+            m.poolSize.set(budget.modelPoolSize(m.poolSize.get()));
+            if (weights == null) {
+                m.fit(train, targetName);
+            } else {
+                m.fit(train, weights, targetName);
+            }
+            var prediction = m.predict(test);
+            synchronized (metric) {
+                return metric.compute(test.rvar(targetName), prediction).value();
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.tune;
+
+import java.util.Random;
+
+/**
+ * Evaluates a number of configurations sampled from the search space with the full resource.
+ *
+ * @param trials number of sampled configurations
+ * @author <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>
+ */
+public record RandomSearch(int trials) implements SearchStrategy {
+
+    public RandomSearch {
+        if (trials < 1) {
+            throw new IllegalArgumentException("Number of trials must be positive.");
+        }
+    }
+
+    @Override
+    public void search(SearchSpace space, Random random, Evaluator evaluator) {
+        evaluator.evaluate(space.sample(random, trials), 1);
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.tune;
+
+/**
+ * Resource allocated by search strategies to configurations which are evaluated with a fraction of
+ * the maximum budget.
+ *
+ * @author <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>
+ */
+public enum Resource {
+
+    /**
+     * The number of runs of the model is scaled by the fraction. The maximum budget is the value of the
+     * {@code runs} parameter of the model for the evaluated configuration. Suited for ensembles and boosting
+     * models, like random forests or gradient boosting trees.
+     */
+    RUNS,
+
+    /**
+     * The model is trained on a fraction of the training rows of each fold, while it is always tested on all
+     * the testing rows. The sampled rows are the same for all configurations and smaller fractions use subsets
+     * of the rows used by larger fractions.
+     */
+    DATA
+}
@@ -0,0 +1,284 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.tune;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Search space of hyperparameters. Each dimension of the search space is identified by the name of a parameter
+ * of a model and describes the values the parameter can take.
+ * <p>
+ * Dimensions can be finite, given as a list of values or as a range of integers, or continuous, given as
+ * an interval of real values sampled uniformly or on a logarithmic scale. A grid can be built only from finite
+ * dimensions, while any dimension can be sampled.
+ *
+ * @author <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>
+ */
+public final class SearchSpace implements Serializable {
+
+    public static SearchSpace empty() {
+        return new SearchSpace();
+    }
+
+    @Serial
+    private static final long serialVersionUID = -6248915097442217583L;
+
+    private final LinkedHashMap<String, Domain> dimensions = new LinkedHashMap<>();
+
+    private SearchSpace() {
+    }
+
+    /**
+     * Adds a dimension with a finite list of values.
+     *
+     * @param name   parameter name
+     * @param values values of the parameter
+     * @return search space
+     */
+    @SafeVarargs
+    public final <T> SearchSpace values(String name, T... values) {
+        if (values.length == 0) {
+            throw new IllegalArgumentException("At least one value is required for parameter " + name + ".");
+        }
+        return add(name, new Choice(Arrays.asList(values)));
+    }
+
+    /**
+     * Adds a dimension with all integer values from an interval.
+     *
+     * @param name parameter name
+     * @param low  smallest value, inclusive
+     * @param high largest value, inclusive
+     * @return search space
+     */
+    public SearchSpace intRange(String name, int low, int high) {
+        if (low > high) {
+            throw new IllegalArgumentException("Invalid range [%d,%d] for parameter %s.".formatted(low, high, name));
+        }
+        return add(name, new IntRange(low, high));
+    }
+
+    /**
+     * Adds a continuous dimension with values sampled uniformly from an interval.
+     *
+     * @param name parameter name
+     * @param low  smallest value
+     * @param high largest value
+     * @return search space
+     */
+    public SearchSpace uniform(String name, double low, double high) {
+        if (!(low <= high)) {
+            throw new IllegalArgumentException("Invalid interval [%f,%f] for parameter %s.".formatted(low, high, name));
+        }
+        return add(name, new Uniform(low, high, false));
+    }
+
+    /**
+     * Adds a continuous dimension with values sampled uniformly on a logarithmic scale, useful for parameters
+     * like learning rates or regularization penalties, which vary on multiple orders of magnitude.
+     *
+     * @param name parameter name
+     * @param low  smallest value, strictly positive
+     * @param high largest value
+     * @return search space
+     */
+    public SearchSpace logUniform(String name, double low, double high) {
+        if (!(low > 0 && low <= high)) {
+            throw new IllegalArgumentException("Invalid interval [%f,%f] for parameter %s.".formatted(low, high, name));
+        }
+        return add(name, new Uniform(low, high, true));
+    }
+
+    private SearchSpace add(String name, Domain domain) {
+        if (dimensions.containsKey(name)) {
+            throw new IllegalArgumentException("Search space already contains parameter " + name + ".");
+        }
+        dimensions.put(name, domain);
+        return this;
+    }
+
+    /**
+     * @return names of the parameters from the search space
+     */
+    public List<String> names() {
+        return List.copyOf(dimensions.keySet());
+    }
+
+    /**
+     * @return true if all dimensions are finite
+     */
+    public boolean isFinite() {
+        return dimensions.values().stream().allMatch(Domain::isFinite);
+    }
+
+    /**
+     * Builds all the configurations from the cartesian product of dimensions. The values of the last
+     * dimension change first.
+     *
+     * @return list of configurations
+     */
+    public List<Configuration> grid() {
+        if (!isFinite()) {
+            throw new IllegalStateException("Grid cannot be built on a search space with continuous dimensions.");
+        }
+        List<String> names = names();
+        List<List<?>> values = names.stream().<List<?>>map(name -> dimensions.get(name).values()).toList();
+        List<Configuration> grid = new ArrayList<>();
+        int[] pos = new int[names.size()];
+        while (true) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            for (int i = 0; i < names.size(); i++) {
+                map.put(names.get(i), values.get(i).get(pos[i]));
+            }
+            grid.add(new Configuration(map));
+            int i = names.size() - 1;
+            while (i >= 0 && ++pos[i] == values.get(i).size()) {
+                pos[i] = 0;
+                i--;
+            }
+            if (i < 0) {
+                return grid;
+            }
+        }
+    }
+
+    /**
+     * Samples a configuration with values drawn independently and uniformly from each dimension.
+     *
+     * @param random random number generator
+     * @return random configuration
+     */
+    public Configuration sample(Random random) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (var e : dimensions.entrySet()) {
+            map.put(e.getKey(), e.getValue().sample(random));
+        }
+        return new Configuration(map);
+    }
+
+    /**
+     * Samples a list of configurations. Configurations are drawn independently, thus duplicates are possible.
+     *
+     * @param random random number generator
+     * @param count  number of configurations
+     * @return list of random configurations
+     */
+    public List<Configuration> sample(Random random, int count) {
+        List<Configuration> configurations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            configurations.add(sample(random));
+        }
+        return configurations;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchSpace" + dimensions;
+    }
+
+    private sealed interface Domain extends Serializable permits Choice, IntRange, Uniform {
+
+        boolean isFinite();
+
+        List<?> values();
+
+        Object sample(Random random);
+    }
+
+    private record Choice(List<?> values) implements Domain {
+
+        @Override
+        public boolean isFinite() {
+            return true;
+        }
+
+        @Override
+        public Object sample(Random random) {
+            return values.get(random.nextInt(values.size()));
+        }
+
+        @Override
+        public String toString() {
+            return values.toString();
+        }
+    }
+
+    private record IntRange(int low, int high) implements Domain {
+
+        @Override
+        public boolean isFinite() {
+            return true;
+        }
+
+        @Override
+        public List<?> values() {
+            List<Integer> values = new ArrayList<>();
+            for (int i = low; i <= high; i++) {
+                values.add(i);
+            }
+            return values;
+        }
+
+        @Override
+        public Object sample(Random random) {
+            return low + random.nextInt(high - low + 1);
+        }
+
+        @Override
+        public String toString() {
+            return "[" + low + ".." + high + "]";
+        }
+    }
+
+    private record Uniform(double low, double high, boolean log) implements Domain {
+
+        @Override
+        public boolean isFinite() {
+            return false;
+        }
+
+        @Override
+        public List<?> values() {
+            throw new IllegalStateException("Continuous dimension has no finite list of values.");
+        }
+
+        @Override
+        public Object sample(Random random) {
+            if (log) {
+                return Math.exp(Math.log(low) + random.nextDouble() * (Math.log(high) - Math.log(low)));
+            }
+            return low + random.nextDouble() * (high - low);
+        }
+
+        @Override
+        public String toString() {
+            return (log ? "logUniform(" : "uniform(") + low + "," + high + ")";
+        }
+    }
+}
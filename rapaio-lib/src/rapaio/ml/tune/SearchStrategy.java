@@ -0,0 +1,62 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.tune;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Strategy which decides which configurations of hyperparameters are evaluated and with which budget.
+ * <p>
+ * The budget is given as a fraction of the maximum resource, which is interpreted by the tuning according
+ * to {@link Resource}. Strategies which evaluate all configurations with the full resource use a fraction of one.
+ *
+ * @author <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>
+ */
+public interface SearchStrategy extends Serializable {
+
+    /**
+     * Runs the search.
+     *
+     * @param space     search space
+     * @param random    random number generator
+     * @param evaluator evaluates configurations
+     */
+    void search(SearchSpace space, Random random, Evaluator evaluator);
+
+    /**
+     * Evaluates configurations of hyperparameters.
+     */
+    @FunctionalInterface
+    interface Evaluator {
+
+        /**
+         * Evaluates a list of configurations with the same budget. Configurations are evaluated concurrently.
+         *
+         * @param configurations configurations to evaluate
+         * @param fraction       fraction of the maximum resource, in interval {@code (0,1]}
+         * @return score of each configuration, larger scores being better
+         */
+        double[] evaluate(List<Configuration> configurations, double fraction);
+    }
+}
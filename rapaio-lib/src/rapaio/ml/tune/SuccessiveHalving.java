@@ -0,0 +1,103 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.tune;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Successive halving, as described in "Non-stochastic Best Arm Identification and Hyperparameter Optimization"
+ * by Kevin Jamieson and Ameet Talwalkar.
+ * <p>
+ * A number of configurations are sampled from the search space and evaluated with a small fraction
+ * of the resource. Only the best {@code 1/eta} configurations are kept and evaluated again with {@code eta} times
+ * more resource, until the last configurations are evaluated with the full resource. Most configurations are
+ * thus abandoned after they consumed only a small part of the resource. If the search space is finite
+ * and the number of configurations is not positive, all configurations from the grid are used.
+ *
+ * @param configurations number of initial configurations, if not positive the grid is used
+ * @param eta            reduction factor, greater than one
+ * @param minFraction    fraction of the resource used in the first rung, in interval {@code (0,1]}
+ * @author <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>
+ */
+public record SuccessiveHalving(int configurations, double eta, double minFraction) implements SearchStrategy {
+
+    public SuccessiveHalving {
+        if (!(eta > 1)) {
+            throw new IllegalArgumentException("Reduction factor eta must be greater than one.");
+        }
+        if (!(minFraction > 0 && minFraction <= 1)) {
+            throw new IllegalArgumentException("Minimum fraction must be in interval (0,1].");
+        }
+    }
+
+    @Override
+    public void search(SearchSpace space, Random random, Evaluator evaluator) {
+        List<Configuration> initial = configurations > 0 ? space.sample(random, configurations) : space.grid();
+        halving(initial, eta, rungs(eta, minFraction), minFraction, evaluator);
+    }
+
+    /**
+     * Number of rungs after the first one, such that the fraction grows by {@code eta} between rungs
+     * from the minimum fraction to one.
+     */
+    static int rungs(double eta, double minFraction) {
+        return (int) Math.floor(Math.log(1 / minFraction) / Math.log(eta) + 1e-9);
+    }
+
+    /**
+     * Runs successive halving on given configurations. The fraction of rung {@code i} is
+     * {@code minFraction * eta^i}, except the last rung which uses the full resource.
+     */
+    static void halving(List<Configuration> configurations, double eta, int rungs, double minFraction, Evaluator evaluator) {
+        List<Configuration> current = configurations;
+        for (int rung = 0; rung <= rungs && !current.isEmpty(); rung++) {
+            double fraction = rung == rungs ? 1 : minFraction * Math.pow(eta, rung);
+            double[] scores = evaluator.evaluate(current, fraction);
+            if (rung < rungs) {
+                current = top(current, scores, Math.max(1, (int) Math.floor(current.size() / eta)));
+            }
+        }
+    }
+
+    /**
+     * Selects the configurations with the best scores, preserving the original order for ties. Missing scores
+     * are considered the worst.
+     */
+    static List<Configuration> top(List<Configuration> configurations, double[] scores, int count) {
+        int[] order = IntStream.range(0, configurations.size()).boxed()
+                .sorted(Comparator.comparingDouble((Integer i) -> Double.isNaN(scores[i]) ? Double.NEGATIVE_INFINITY : scores[i])
+                        .reversed())
+                .mapToInt(i -> i)
+                .limit(count)
+                .sorted()
+                .toArray();
+        List<Configuration> selected = new ArrayList<>(order.length);
+        for (int i : order) {
+            selected.add(configurations.get(i));
+        }
+        return selected;
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.tune;
+
+import java.io.Serial;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+
+import rapaio.core.SamplingTools;
+import rapaio.core.param.ParamSet;
+import rapaio.core.param.ValueParam;
+import rapaio.data.Frame;
+import rapaio.data.Mapping;
+import rapaio.data.Var;
+import rapaio.ml.eval.ThreadBudget;
+import rapaio.ml.eval.metric.ClassifierMetric;
+import rapaio.ml.eval.metric.RegressionMetric;
+import rapaio.ml.eval.split.KFold;
+import rapaio.ml.eval.split.Split;
+import rapaio.ml.eval.split.SplitStrategy;
+import rapaio.ml.model.ClassifierModel;
+import rapaio.ml.model.RegressionModel;
+
+/**
+ * Tuning of the hyperparameters of classification or regression models.
+ * <p>
+ * The configurations of hyperparameters are taken from a {@link SearchSpace}, which contains values for parameters
+ * of the model identified by name. A {@link SearchStrategy} decides which configurations are evaluated
+ * and with which fraction of the {@link Resource}, for example grid search, random search, successive halving
+ * or hyperband. Each configuration is evaluated with the mean score of a metric on the testing data sets
+ * of splits.
+ * <p>
+ * Splits are generated once for each run and reused for all configurations, thus all configurations
+ * are compared on the same folds. The pairs of configurations and folds evaluated in the same step of the search
+ * run concurrently on a shared executor, with a budget of threads split between concurrent fits and the threads
+ * used internally by models.
+ *
+ * @author <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>
+ */
+public class Tuning extends ParamSet<Tuning> {
+
+    public static Tuning classifier(Frame df, String targetName, ClassifierModel<?, ?, ?> model, ClassifierMetric metric) {
+        return new Tuning(new Objective.ClassifierObjective(model, metric))
+                .data.set(df)
+                .targetName.set(targetName);
+    }
+
+    public static Tuning regression(Frame df, String targetName, RegressionModel<?, ?, ?> model, RegressionMetric metric) {
+        return new Tuning(new Objective.RegressionObjective(model, metric))
+                .data.set(df)
+                .targetName.set(targetName)
+                .maximize.set(false);
+    }
+
+    @Serial
+    private static final long serialVersionUID = -2760389744107411361L;
+
+    /**
+     * Data frame
+     */
+    public final ValueParam<Frame, Tuning> data = new ValueParam<>(this, null, "df");
+
+    /**
+     * Instance weights
+     */
+    public final ValueParam<Var, Tuning> weights = new ValueParam<>(this, null, "weights");
+
+    /**
+     * Target variable name
+     */
+    public final ValueParam<String, Tuning> targetName = new ValueParam<>(this, null, "target");
+
+    /**
+     * Split strategy used to obtain train and validation data sets.
+     */
+    public final ValueParam<SplitStrategy, Tuning> splitStrategy = new ValueParam<>(this, new KFold(5), "splitStrategy");
+
+    /**
+     * Search space of hyperparameters.
+     */
+    public final ValueParam<SearchSpace, Tuning> space = new ValueParam<>(this, SearchSpace.empty(), "space");
+
+    /**
+     * Search strategy.
+     */
+    public final ValueParam<SearchStrategy, Tuning> search = new ValueParam<>(this, new GridSearch(), "search");
+
+    /**
+     * Resource allocated to configurations by search strategies which evaluate configurations with
+     * a fraction of the budget.
+     */
+    public final ValueParam<Resource, Tuning> resource = new ValueParam<>(this, Resource.RUNS, "resource");
+
+    /**
+     * If true larger metric scores are better, otherwise smaller scores are better.
+     */
+    public final ValueParam<Boolean, Tuning> maximize = new ValueParam<>(this, true, "maximize");
+
+    /**
+     * Number of threads used for tuning. This is the total budget of threads shared between the fits which
+     * run concurrently and the threads used internally by the models. A negative value means all available
+     * cores except one.
+     */
+    public final ValueParam<Integer, Tuning> threads = new ValueParam<>(this, -1, "threads");
+
+    /**
+     * Executor used to run fits concurrently. The same executor can be shared by multiple tunings or evaluations.
+     * If not specified, an executor is created for each step of the search which runs fits concurrently.
+     */
+    public final ValueParam<ExecutorService, Tuning> executor = new ValueParam<>(this, null, "executor");
+
+    public final ValueParam<Long, Tuning> seed = new ValueParam<>(this, 0L, "seed");
+
+    private final Objective objective;
+
+    private Tuning(Objective objective) {
+        this.objective = objective;
+    }
+
+    public TuningResult run() {
+        Random random = getRandom();
+        List<Split> splits = splitStrategy.get().generateSplits(data.get(), weights.get(), random);
+        int[][] trainOrders = resource.get() == Resource.DATA ? trainOrders(splits, random) : null;
+        int th = Math.max(1, threads.get() < 0 ? Runtime.getRuntime().availableProcessors() - 1 : threads.get());
+
+        TuningResult result = new TuningResult(objective.modelName(), objective.metricName(), maximize.get());
+        search.get().search(space.get(), random,
+                (configurations, fraction) -> evaluate(configurations, fraction, splits, trainOrders, th, result));
+        return result;
+    }
+
+    /**
+     * Draws for each split a random order of the training rows. Fractions of the training data are prefixes
+     * of this order, thus smaller fractions use subsets of the rows used by larger fractions.
+     */
+    private int[][] trainOrders(List<Split> splits, Random random) {
+        int[][] orders = new int[splits.size()][];
+        for (int i = 0; i < splits.size(); i++) {
+            int n = splits.get(i).trainDf().rowCount();
+            orders[i] = SamplingTools.sampleWOR(random, n, n);
+        }
+        return orders;
+    }
+
+    private double[] evaluate(List<Configuration> configurations, double fraction, List<Split> splits,
+            int[][] trainOrders, int th, TuningResult result) {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < configurations.size(); i++) {
+            for (int j = 0; j < splits.size(); j++) {
+                tasks.add(new Task(i, j));
+            }
+        }
+        double runsFraction = resource.get() == Resource.RUNS ? fraction : 1;
+        double[][] scores = new double[configurations.size()][splits.size()];
+        ThreadBudget budget = ThreadBudget.split(th, tasks.size());
+        budget.run(executor.get(), tasks, task -> {
+            Split split = splits.get(task.split);
+            Frame train = split.trainDf();
+            Var w = weights.get() == null ? null : split.trainWeights();
+            if (trainOrders != null && fraction < 1) {
+                int size = Math.max(1, (int) Math.ceil(fraction * train.rowCount()));
+                Mapping rows = Mapping.slice(trainOrders[task.split], 0, size);
+                train = train.mapRows(rows);
+                w = w == null ? null : w.mapRows(rows);
+            }
+            scores[task.configuration][task.split] = objective.score(configurations.get(task.configuration),
+                    runsFraction, budget, train, w, split.testDf(), targetName.get());
+        });
+
+        double[] gains = new double[configurations.size()];
+        for (int i = 0; i < configurations.size(); i++) {
+            TuningResult.Trial trial = result.addTrial(configurations.get(i), fraction, scores[i]);
+            gains[i] = maximize.get() ? trial.mean() : -trial.mean();
+        }
+        return gains;
+    }
+
+    private record Task(int configuration, int split) {
+    }
+
+    protected Random getRandom() {
+        return seed.get() == 0 ? new Random() : new Random(seed.get());
+    }
+}
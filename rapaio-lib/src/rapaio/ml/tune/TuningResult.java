@@ -0,0 +1,165 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.tune;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import rapaio.core.stat.Mean;
+import rapaio.core.stat.Variance;
+import rapaio.data.Frame;
+import rapaio.data.SolidFrame;
+import rapaio.data.VarDouble;
+import rapaio.data.VarInt;
+import rapaio.data.VarNominal;
+import rapaio.printer.Format;
+import rapaio.printer.Printable;
+import rapaio.printer.Printer;
+import rapaio.printer.opt.POpt;
+
+/**
+ * Results of a tuning, which contains all the evaluated trials in the order of evaluation.
+ *
+ * @author <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>
+ */
+public final class TuningResult implements Printable {
+
+    /**
+     * Evaluation of a configuration with a fraction of the resource.
+     *
+     * @param id            index of the trial in the order of evaluation
+     * @param configuration values of hyperparameters
+     * @param fraction      fraction of the resource used
+     * @param mean          mean score over splits
+     * @param std           standard deviation of scores over splits
+     * @param scores        scores for each split
+     */
+    public record Trial(int id, Configuration configuration, double fraction, double mean, double std, double[] scores) {
+    }
+
+    private final String modelName;
+    private final String metricName;
+    private final boolean maximize;
+    private final List<Trial> trials = new ArrayList<>();
+
+    TuningResult(String modelName, String metricName, boolean maximize) {
+        this.modelName = modelName;
+        this.metricName = metricName;
+        this.maximize = maximize;
+    }
+
+    Trial addTrial(Configuration configuration, double fraction, double[] scores) {
+        VarDouble values = VarDouble.wrap(scores);
+        Trial trial = new Trial(trials.size(), configuration, fraction, Mean.of(values).value(),
+                scores.length > 1 ? Variance.of(values).sdValue() : 0, scores);
+        trials.add(trial);
+        return trial;
+    }
+
+    /**
+     * @return all evaluated trials in the order of evaluation
+     */
+    public List<Trial> trials() {
+        return Collections.unmodifiableList(trials);
+    }
+
+    /**
+     * Best trial is the trial with the best mean score among trials evaluated with the largest fraction of
+     * the resource, since scores obtained with smaller fractions are not comparable. For equal scores,
+     * the first evaluated trial is preferred.
+     *
+     * @return best trial
+     */
+    public Trial best() {
+        if (trials.isEmpty()) {
+            throw new IllegalStateException("No trials were evaluated.");
+        }
+        double maxFraction = trials.stream().mapToDouble(Trial::fraction).max().orElse(1);
+        Trial best = null;
+        for (Trial trial : trials) {
+            if (trial.fraction() < maxFraction || Double.isNaN(trial.mean())) {
+                continue;
+            }
+            if (best == null || (maximize ? trial.mean() > best.mean() : trial.mean() < best.mean())) {
+                best = trial;
+            }
+        }
+        return best == null ? trials.getFirst() : best;
+    }
+
+    /**
+     * @return configuration of the best trial
+     */
+    public Configuration bestConfiguration() {
+        return best().configuration();
+    }
+
+    /**
+     * @return frame with one row for each trial
+     */
+    public Frame trialsFrame() {
+        VarInt id = VarInt.empty().name("id");
+        VarNominal configuration = VarNominal.empty().name("configuration");
+        VarDouble fraction = VarDouble.empty().name("fraction");
+        VarDouble mean = VarDouble.empty().name("mean");
+        VarDouble std = VarDouble.empty().name("std");
+        for (Trial trial : trials) {
+            id.addInt(trial.id());
+            configuration.addLabel(trial.configuration().toString());
+            fraction.addDouble(trial.fraction());
+            mean.addDouble(trial.mean());
+            std.addDouble(trial.std());
+        }
+        return SolidFrame.byVars(id, configuration, fraction, mean, std);
+    }
+
+    @Override
+    public String toString() {
+        return "TuningResult{model=" + modelName + ",trials=" + trials.size() + "}";
+    }
+
+    @Override
+    public String toSummary(Printer printer, POpt<?>... options) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Model:\n").append(modelName).append("\n");
+        sb.append("Metric: ").append(metricName).append(maximize ? " (maximize)" : " (minimize)").append("\n");
+        sb.append("Trials: ").append(trials.size()).append("\n");
+        if (!trials.isEmpty()) {
+            Trial best = best();
+            sb.append("Best configuration: ").append(best.configuration()).append("\n");
+            sb.append("Best score: ").append(Format.floatFlex(best.mean()))
+                    .append(" (std: ").append(Format.floatFlex(best.std())).append(")\n");
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toContent(Printer printer, POpt<?>... options) {
+        return toSummary(printer, options) + "Trials:\n" + trialsFrame().toContent(printer, options);
+    }
+
+    @Override
+    public String toFullContent(Printer printer, POpt<?>... options) {
+        return toSummary(printer, options) + "Trials:\n" + trialsFrame().toFullContent(printer, options);
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.util.collection;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import rapaio.util.hash.Murmur3;
+
+/**
+ * Dictionary of strings which assigns consecutive int codes to distinct values.
+ * <p>
+ * Values are stored as UTF-8 bytes in a single byte arena, delimited by an array of offsets.
+ * The reverse index from values to codes is an open addressing hash table with linear probing,
+ * which stores codes in an int array and compares candidates on their bytes. Hashes of stored
+ * values are cached, thus growing the table does not read the arena.
+ * <p>
+ * The dictionary does not support removal of values.
+ */
+public class Utf8Dictionary implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = -4391826650373935409L;
+
+    private static final int SEED = 42;
+    private static final int EMPTY = -1;
+
+    private byte[] arena;
+    private int arenaSize;
+    private int[] offsets;
+    private int[] hashes;
+    private int size;
+    private int[] table;
+
+    public Utf8Dictionary() {
+        this(16);
+    }
+
+    public Utf8Dictionary(int capacity) {
+        capacity = Math.max(capacity, 4);
+        this.arena = new byte[capacity * 8];
+        this.arenaSize = 0;
+        this.offsets = new int[capacity + 1];
+        this.hashes = new int[capacity];
+        this.size = 0;
+        this.table = new int[tableLength(capacity)];
+        Arrays.fill(table, EMPTY);
+    }
+
+    private static int tableLength(int capacity) {
+        int len = 16;
+        while (len < 2 * capacity) {
+            len <<= 1;
+        }
+        return len;
+    }
+
+    /**
+     * @return number of distinct values
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return number of bytes used by the arena of values
+     */
+    public int arenaSize() {
+        return arenaSize;
+    }
+
+    /**
+     * Finds the code of a value.
+     *
+     * @param value value to search for
+     * @return code of the value, or -1 if the value is not in the dictionary
+     */
+    public int code(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        return find(bytes, Murmur3.murmur3A(bytes, 0, bytes.length, SEED));
+    }
+
+    /**
+     * Returns the code of a value, adding it to the dictionary if it is not already present.
+     *
+     * @param value value to add
+     * @return code of the value
+     */
+    public int add(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int hash = Murmur3.murmur3A(bytes, 0, bytes.length, SEED);
+        int code = find(bytes, hash);
+        if (code != EMPTY) {
+            return code;
+        }
+        return append(bytes, hash);
+    }
+
+    /**
+     * Decodes the value with a given code.
+     *
+     * @param code code of the value
+     * @return decoded string
+     */
+    public String get(int code) {
+        if (code < 0 || code >= size) {
+            throw new IndexOutOfBoundsException("Code " + code + " out of bounds for size " + size);
+        }
+        return new String(arena, offsets[code], offsets[code + 1] - offsets[code], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return array with all values, in the order of their codes
+     */
+    public String[] values() {
+        String[] values = new String[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = get(i);
+        }
+        return values;
+    }
+
+    private int find(byte[] bytes, int hash) {
+        int mask = table.length - 1;
+        int pos = hash & mask;
+        while (true) {
+            int code = table[pos];
+            if (code == EMPTY) {
+                return EMPTY;
+            }
+            if (hashes[code] == hash && Arrays.equals(arena, offsets[code], offsets[code + 1], bytes, 0, bytes.length)) {
+                return code;
+            }
+            pos = (pos + 1) & mask;
+        }
+    }
+
+    private int append(byte[] bytes, int hash) {
+        if (size == hashes.length) {
+            int capacity = hashes.length + (hashes.length >> 1);
+            hashes = Arrays.copyOf(hashes, capacity);
+            offsets = Arrays.copyOf(offsets, capacity + 1);
+        }
+        if (arenaSize + bytes.length > arena.length) {
+            arena = Arrays.copyOf(arena, Math.max(arenaSize + bytes.length, arena.length + (arena.length >> 1)));
+        }
+        System.arraycopy(bytes, 0, arena, arenaSize, bytes.length);
+        arenaSize += bytes.length;
+
+        int code = size++;
+        hashes[code] = hash;
+        offsets[code + 1] = arenaSize;
+
+        if (2 * size > table.length) {
+            table = new int[table.length * 2];
+            Arrays.fill(table, EMPTY);
+            for (int i = 0; i < size; i++) {
+                insert(i);
+            }
+        } else {
+            insert(code);
+        }
+        return code;
+    }
+
+    private void insert(int code) {
+        int mask = table.length - 1;
+        int pos = hashes[code] & mask;
+        while (table[pos] != EMPTY) {
+            pos = (pos + 1) & mask;
+        }
+        table[pos] = code;
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.module.ModuleDescriptor;
+import java.lang.module.ModuleFinder;
+import java.lang.module.ModuleReference;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import rapaio.data.Frame;
+
+/**
+ * Checks that packages with public API used by other modules are exported by the module descriptor.
+ * Tests run on the class path, where all packages are accessible, thus the descriptor is read from the location
+ * of compiled classes.
+ */
+public class ModuleExportsTest {
+
+    @Test
+    void testExports() throws URISyntaxException {
+        Path location = Path.of(Frame.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        ModuleReference module = ModuleFinder.of(location).find("rapaio.lib").orElseThrow();
+        Set<String> exports = module.descriptor().exports().stream()
+                .map(ModuleDescriptor.Exports::source)
+                .collect(Collectors.toSet());
+        // packages of types which appear in signatures of exported public API
+        for (String pkg : new String[] {"rapaio.data.filter", "rapaio.data.filter.expr", "rapaio.ml.common.index"}) {
+            assertTrue(exports.contains(pkg), "Package " + pkg + " is not exported.");
+        }
+    }
+}
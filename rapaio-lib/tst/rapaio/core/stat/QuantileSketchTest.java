@@ -0,0 +1,140 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.core.stat;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import rapaio.data.VarDouble;
+
+public class QuantileSketchTest {
+
+    private Random random;
+
+    @BeforeEach
+    void setUp() {
+        random = new Random(42);
+    }
+
+    @Test
+    void testEmpty() {
+        QuantileSketch sketch = QuantileSketch.empty(0.01);
+        assertEquals(0, sketch.n());
+        assertTrue(Double.isNaN(sketch.quantile(0.5)));
+        assertEquals(0, sketch.cutPoints(4).length);
+        assertThrows(IllegalArgumentException.class, () -> QuantileSketch.empty(0));
+        assertThrows(IllegalArgumentException.class, () -> QuantileSketch.empty(1));
+    }
+
+    @Test
+    void testExactForSmallData() {
+        VarDouble x = VarDouble.from(100, () -> random.nextGaussian());
+        QuantileSketch sketch = QuantileSketch.of(x, 0.01);
+
+        assertTrue(sketch.isExact());
+        double[] p = new double[] {0, 0.1, 0.25, 0.5, 0.75, 0.9, 1};
+        assertArrayEquals(Quantiles.of(x, p).values(), sketch.quantiles(p), 1e-12);
+    }
+
+    @Test
+    void testBoundedRankError() {
+        double eps = 0.01;
+        int n = 200_000;
+        double[] values = new double[n];
+        QuantileSketch sketch = QuantileSketch.empty(eps);
+        for (int i = 0; i < n; i++) {
+            values[i] = random.nextDouble() * 1000;
+            sketch.update(values[i]);
+        }
+        assertFalse(sketch.isExact());
+        assertTrue(sketch.retained() < 2_000);
+        assertEquals(n, sketch.n());
+
+        Arrays.sort(values);
+        for (double p = 0.05; p < 1; p += 0.05) {
+            double q = sketch.quantile(p);
+            int rank = Arrays.binarySearch(values, q);
+            rank = rank >= 0 ? rank : -rank - 1;
+            assertEquals(p, rank / (double) n, eps);
+        }
+        assertEquals(values[0], sketch.quantile(0));
+        assertEquals(values[n - 1], sketch.quantile(1));
+    }
+
+    @Test
+    void testMerge() {
+        double eps = 0.01;
+        QuantileSketch all = QuantileSketch.empty(eps);
+        QuantileSketch merged = QuantileSketch.empty(eps);
+        for (int part = 0; part < 10; part++) {
+            QuantileSketch partial = QuantileSketch.empty(eps);
+            for (int i = 0; i < 10_000; i++) {
+                double value = random.nextGaussian() + part;
+                partial.update(value);
+                all.update(value);
+            }
+            merged.update(partial);
+        }
+        assertEquals(all.n(), merged.n());
+        assertEquals(all.min(), merged.min());
+        assertEquals(all.max(), merged.max());
+        for (double p = 0.1; p < 1; p += 0.1) {
+            assertEquals(all.rank(all.quantile(p)), merged.rank(merged.quantile(p)), 2 * eps);
+            assertEquals(p, all.rank(merged.quantile(p)), 2 * eps);
+        }
+        assertThrows(IllegalArgumentException.class, () -> merged.update(QuantileSketch.empty(0.1)));
+    }
+
+    @Test
+    void testCutPoints() {
+        QuantileSketch sketch = QuantileSketch.empty(0.01);
+        for (int i = 0; i < 10_000; i++) {
+            sketch.update(i % 3);
+        }
+        double[] cuts = sketch.cutPoints(10);
+        assertTrue(cuts.length < 9);
+        assertEquals(0, cuts[0]);
+        assertEquals(2, cuts[cuts.length - 1]);
+        for (int i = 1; i < cuts.length; i++) {
+            assertTrue(cuts[i - 1] < cuts[i]);
+        }
+
+        QuantileSketch uniform = QuantileSketch.empty(0.001);
+        for (int i = 0; i < 100_000; i++) {
+            uniform.update(random.nextDouble());
+        }
+        cuts = uniform.cutPoints(4);
+        assertEquals(3, cuts.length);
+        assertEquals(0.25, cuts[0], 0.01);
+        assertEquals(0.5, cuts[1], 0.01);
+        assertEquals(0.75, cuts[2], 0.01);
+    }
+}
@@ -21,6 +21,7 @@
 
 package rapaio.core.stat;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import java.util.Random;
@@ -88,4 +89,27 @@ public class QuantilesTest {
         // aprox 1.96
         assertEquals(1.9615708871881077, qq[3], TOL);
     }
+
+    @Test
+    void testApprox() {
+        Normal normal = Normal.std();
+        VarDouble x = VarDouble.from(1_000_000, () -> normal.sampleNext(random));
+        double[] p = new double[] {0, 0.025, 0.5, 0.975, 1};
+
+        double[] exact = Quantiles.of(x, p).values();
+        double[] approx = Quantiles.approx(x, 0.001, p).values();
+
+        assertEquals(exact[0], approx[0], TOL);
+        assertEquals(exact[4], approx[4], TOL);
+        QuantileSketch sketch = Quantiles.sketch(x, 0.001);
+        for (int i = 1; i < 4; i++) {
+            // the rank error is bounded, not the value error
+            assertEquals(p[i], sketch.rank(exact[i]), 0.003);
+            assertEquals(exact[i], approx[i], 0.02);
+        }
+
+        VarDouble small = VarDouble.from(1_000, () -> normal.sampleNext(random));
+        small.setMissing(10);
+        assertArrayEquals(Quantiles.of(small, p).values(), Quantiles.approx(small, 0.001, p).values(), TOL);
+    }
 }
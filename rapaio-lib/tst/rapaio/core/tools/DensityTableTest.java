@@ -92,6 +92,14 @@ public class DensityTableTest {
         assertEquals(2, dt.get("b", "e"));
         assertEquals(4, dt.get("c", "e"));
 
+        // rows from a segment of an array of rows
+        dt = DensityTable.fromLabels(false, x, y, w, new int[] {3, 2, 0, 1}, 1, 3);
+        assertEquals(Arrays.asList("a", "b", "c"), dt.rowIndex().getValues());
+        assertEquals(Arrays.asList("d", "e"), dt.colIndex().getValues());
+        assertEquals(4, dt.get("a", "d"));
+        assertEquals(0, dt.get("b", "e"));
+        assertEquals(0, dt.get("c", "e"));
+
         dt = DensityTable.fromBinaryLevelWeights(true, df, "x", "y", w, "a");
         assertEquals(Arrays.asList("?", "a", "other"), dt.rowIndex().getValues());
         assertEquals(Arrays.asList("?", "d", "e"), dt.colIndex().getValues());
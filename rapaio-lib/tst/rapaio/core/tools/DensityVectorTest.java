@@ -59,6 +59,13 @@ public class DensityVectorTest {
                         true,
                         VarNominal.copy("a", "a", "b", "c"),
                         VarDouble.copy(0.5, 1.5, 1, 1))));
+
+        // rows from a segment of an array of rows
+        int[] rows = new int[] {3, 0, 2, 1};
+        assertTrue(DensityVector.fromLevelCounts(false, VarNominal.copy("a", "b", "a", "c"), rows, 1, 3)
+                .equalsFull(DensityVector.fromLevelWeights(false, VarNominal.copy("a", "b", "c"), VarDouble.copy(2, 0, 0))));
+        assertTrue(DensityVector.fromLevelWeights(false, VarNominal.copy("a", "b", "a", "c"), VarDouble.copy(1, 2, 3, 4), rows, 0, 3)
+                .equalsFull(DensityVector.fromLevelWeights(false, VarNominal.copy("a", "b", "c"), VarDouble.copy(4, 0, 4))));
     }
 
     @Test
@@ -32,6 +32,8 @@ import java.util.List;
 
 import org.junit.jupiter.api.Test;
 
+import rapaio.data.filter.Expr;
+
 /**
  * @author <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>.
  */
@@ -179,4 +181,20 @@ public class FrameTest {
 
     }
 
+    @Test
+    void testFilter() {
+        SolidFrame df = SolidFrame.byVars(
+                VarNominal.copy("a", "b", "a", "?", "b").name("x"),
+                VarDouble.wrap(1, 2, 3, 4, Double.NaN).name("z")
+        );
+
+        Frame filtered = df.filter(Expr.in("x", "a").or(Expr.gt("z", 3.5)));
+        assertEquals(3, filtered.rowCount());
+        assertEquals(List.of(1., 3., 4.), filtered.rvar("z").stream().mapToDouble().boxed().toList());
+
+        filtered = df.filter(Expr.allOf(Expr.notMissing("x"), Expr.notMissing("z"), Expr.not(Expr.eq("z", 2))));
+        assertEquals(2, filtered.rowCount());
+        assertEquals("a", filtered.getLabel(0, "x"));
+        assertEquals(3, filtered.getDouble(1, "z"), TOL);
+    }
 }
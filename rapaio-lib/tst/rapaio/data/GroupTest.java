@@ -22,6 +22,7 @@
 package rapaio.data;
 
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -29,8 +30,10 @@ import static rapaio.data.Group.count;
 import static rapaio.data.Group.kurtosis;
 import static rapaio.data.Group.max;
 import static rapaio.data.Group.mean;
+import static rapaio.data.Group.median;
 import static rapaio.data.Group.min;
 import static rapaio.data.Group.nunique;
+import static rapaio.data.Group.quantile;
 import static rapaio.data.Group.skewness;
 import static rapaio.data.Group.std;
 import static rapaio.data.Group.sum;
@@ -43,6 +46,7 @@ import java.util.Random;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import rapaio.core.stat.Quantiles;
 import rapaio.data.string.StringBag;
 import rapaio.datasets.Datasets;
 import rapaio.printer.opt.POpt;
@@ -260,6 +264,21 @@ public class GroupTest {
         ).toFrame().toContent(P_OPTS));
     }
 
+    @Test
+    void testQuantileFunctions() {
+        Group group = Group.from(play, "class");
+        Frame df = group.aggregate(median("temp"), quantile(0.9, "temp")).toFrame();
+        assertArrayEquals(new String[] {"class", "temp_median", "temp_q0.9"}, df.varNames());
+
+        for (int i = 0; i < df.rowCount(); i++) {
+            String label = df.getLabel(i, "class");
+            Var temp = play.stream().filter(s -> s.getLabel("class").equals(label)).toMappedFrame().rvar("temp");
+            double[] expected = Quantiles.of(temp, 0.5, 0.9).values();
+            assertEquals(expected[0], df.getDouble(i, "temp_median"), 1e-12);
+            assertEquals(expected[1], df.getDouble(i, "temp_q0.9"), 1e-12);
+        }
+    }
+
     @Test
     void testNominalAggregate() {
 
@@ -278,4 +278,26 @@ public class VarNominalTest {
         var ex = assertThrows(IllegalArgumentException.class, () -> VarNominal.empty(0, "a", "b").setLevels("x"));
         assertEquals("new levels does not contains all old labels", ex.getMessage());
     }
+
+    @Test
+    void testLargeDictionary() {
+        int n = 100_000;
+        VarNominal v = VarNominal.empty();
+        for (int i = 0; i < n; i++) {
+            v.addLabel("id" + i);
+        }
+        v.addLabel("id7");
+        v.addMissing();
+        assertEquals(n, v.levels().size());
+        assertEquals(n - 1, v.getInt(n - 1));
+        assertEquals(7, v.getInt(n));
+        assertEquals("id" + (n - 1), v.getLabel(n - 1));
+        assertTrue(v.isMissing(n + 1));
+
+        v.setLabel(0, "id99999");
+        assertEquals(n - 1, v.getInt(0));
+        v.setLevels(v.levels().toArray(String[]::new));
+        assertEquals("id99999", v.getLabel(0));
+        assertEquals("id7", v.getLabel(n));
+    }
 }
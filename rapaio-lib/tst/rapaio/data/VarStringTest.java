@@ -22,6 +22,7 @@
 package rapaio.data;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -199,4 +200,51 @@ public class VarStringTest {
         assertEquals("l3", x.getLabel(2));
         assertTrue(x.isMissing(3));
     }
+
+    @Test
+    void testDictionaryEncoding() {
+        VarString plain = VarString.from(10_000, row -> row % 3 == 0 ? null : "v" + random.nextInt(100));
+        plain.setMissing(1);
+        VarString dict = plain.copy().withDictionaryEncoding(true);
+        assertTrue(dict.isDictionaryEncoded());
+        assertFalse(plain.isDictionaryEncoded());
+        assertTrue(plain.deepEquals(dict));
+        assertTrue(dict.isMissing(1));
+        assertFalse(dict.isMissing(2));
+        assertNull(dict.getLabel(0));
+
+        for (VarString var : new VarString[] {plain, dict}) {
+            var.setLabel(2, "ăîșț");
+            var.addLabel("日本語");
+            var.removeRow(0);
+            assertEquals("ăîșț", var.getLabel(1));
+            assertEquals("日本語", var.getLabel(var.size() - 1));
+            assertTrue(var.isMissing(0));
+            var.addMissing();
+            assertTrue(var.isMissing(var.size() - 1));
+        }
+        assertTrue(plain.deepEquals(dict));
+        assertTrue(dict.withDictionaryEncoding(false).deepEquals(plain));
+
+        // rewriting values many times keeps the arena compact
+        VarString var = VarString.empty(10);
+        for (int i = 0; i < 100_000; i++) {
+            var.setLabel(i % 10, "value-" + i);
+        }
+        for (int i = 0; i < 10; i++) {
+            assertEquals("value-" + (100_000 - 10 + i), var.getLabel(i));
+        }
+
+        // empty values remain readable after compaction
+        VarString empty = VarString.empty(2);
+        for (int i = 0; i < 10_000; i++) {
+            empty.setLabel(1, "value-" + i);
+        }
+        empty.setLabel(0, "");
+        for (int i = 0; i < 100_000; i++) {
+            empty.setLabel(1, "value-" + i);
+        }
+        assertEquals("", empty.getLabel(0));
+        assertEquals("value-99999", empty.getLabel(1));
+    }
 }
@@ -0,0 +1,132 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.data.filter;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import rapaio.data.Frame;
+import rapaio.data.Mapping;
+import rapaio.data.SolidFrame;
+import rapaio.data.VarDouble;
+import rapaio.data.VarInt;
+import rapaio.data.VarNominal;
+import rapaio.data.mapping.ArrayMapping;
+import rapaio.data.mapping.BitmapMapping;
+import rapaio.data.mapping.IntervalMapping;
+
+public class ExprTest {
+
+    private static final int N = 100_000;
+
+    private Random random;
+    private Frame df;
+
+    @BeforeEach
+    void beforeEach() {
+        random = new Random(42);
+        VarDouble x = VarDouble.from(N, row -> random.nextDouble()).name("x");
+        VarInt k = VarInt.from(N, row -> random.nextInt(10)).name("k");
+        VarNominal c = VarNominal.from(N, row -> String.valueOf((char) ('a' + random.nextInt(4))), "a", "b", "c", "d").name("c");
+        for (int i = 0; i < N; i += 17) {
+            x.setMissing(i);
+            k.setMissing(i + 1);
+            c.setMissing(i + 2);
+        }
+        df = SolidFrame.byVars(x, k, c);
+    }
+
+    @Test
+    void testNumericCompare() {
+        for (double value : new double[] {0.1, 0.5, 0.9}) {
+            check(Expr.lt("x", value), IntStream.range(0, N).filter(r -> !df.isMissing(r, "x") && df.getDouble(r, "x") < value));
+            check(Expr.le("x", value), IntStream.range(0, N).filter(r -> !df.isMissing(r, "x") && df.getDouble(r, "x") <= value));
+            check(Expr.gt("x", value), IntStream.range(0, N).filter(r -> !df.isMissing(r, "x") && df.getDouble(r, "x") > value));
+            check(Expr.ge("x", value), IntStream.range(0, N).filter(r -> !df.isMissing(r, "x") && df.getDouble(r, "x") >= value));
+            check(Expr.ne("x", value), IntStream.range(0, N).filter(r -> !df.isMissing(r, "x") && df.getDouble(r, "x") != value));
+        }
+        check(Expr.eq("k", 3), IntStream.range(0, N).filter(r -> !df.isMissing(r, "k") && df.getInt(r, "k") == 3));
+        check(Expr.ne("k", 3), IntStream.range(0, N).filter(r -> !df.isMissing(r, "k") && df.getInt(r, "k") != 3));
+    }
+
+    @Test
+    void testLabelsAndMissing() {
+        check(Expr.in("c", "a", "d"), IntStream.range(0, N)
+                .filter(r -> !df.isMissing(r, "c") && (df.getLabel(r, "c").equals("a") || df.getLabel(r, "c").equals("d"))));
+        check(Expr.in("c", "b", "?"), IntStream.range(0, N)
+                .filter(r -> df.isMissing(r, "c") || df.getLabel(r, "c").equals("b")));
+        check(Expr.in("k", "1", "2"), IntStream.range(0, N)
+                .filter(r -> !df.isMissing(r, "k") && (df.getInt(r, "k") == 1 || df.getInt(r, "k") == 2)));
+        check(Expr.missing("x"), IntStream.range(0, N).filter(r -> df.isMissing(r, "x")));
+        check(Expr.missing("k"), IntStream.range(0, N).filter(r -> df.isMissing(r, "k")));
+        check(Expr.notMissing("c"), IntStream.range(0, N).filter(r -> !df.isMissing(r, "c")));
+    }
+
+    @Test
+    void testLogical() {
+        Expr expr = Expr.anyOf(Expr.gt("x", 0.7).and(Expr.in("c", "a")), Expr.not(Expr.ge("k", 2)));
+        check(expr, IntStream.range(0, N).filter(r ->
+                (!df.isMissing(r, "x") && df.getDouble(r, "x") > 0.7 && !df.isMissing(r, "c") && df.getLabel(r, "c").equals("a"))
+                        || !(!df.isMissing(r, "k") && df.getInt(r, "k") >= 2)));
+        check(Expr.allOf(), IntStream.range(0, N));
+        check(Expr.anyOf(), IntStream.empty());
+        check(Expr.lt("x", 0.5).or(Expr.ge("x", 0.5)).negate(), IntStream.range(0, N).filter(r -> df.isMissing(r, "x")));
+    }
+
+    @Test
+    void testMappingRepresentation() {
+        assertInstanceOf(IntervalMapping.class, Expr.allOf().mapping(df));
+        assertEquals(0, Expr.anyOf().mapping(df).size());
+        assertInstanceOf(BitmapMapping.class, Expr.gt("x", 0.5).mapping(df));
+        assertInstanceOf(ArrayMapping.class, Expr.gt("x", 0.999).mapping(df));
+
+        Frame filtered = df.filter(Expr.gt("x", 0.5));
+        Frame expected = df.stream().filter(s -> !s.isMissing("x") && s.getDouble("x") > 0.5).toMappedFrame();
+        assertEquals(expected.rowCount(), filtered.rowCount());
+        assertEquals(expected.head(), filtered.head());
+        assertEquals(expected.rvar("x").darray_().sum(), filtered.rvar("x").darray_().sum(), 1e-10);
+
+        // filter a mapped frame
+        Frame twice = filtered.filter(Expr.in("c", "b"));
+        assertArrayEquals(filtered.stream().filter(s -> !s.isMissing("c") && s.getLabel("c").equals("b"))
+                .mapToInt(s -> s.row()).toArray(), Expr.in("c", "b").mapping(filtered).stream().toArray());
+        assertEquals(twice.rowCount(), Expr.in("c", "b").mapping(filtered).size());
+    }
+
+    private void check(Expr expr, IntStream expected) {
+        Mapping mapping = expr.mapping(df);
+        int[] rows = expected.toArray();
+        assertArrayEquals(rows, mapping.stream().toArray(), expr.toString());
+        assertArrayEquals(rows, mapping.elements());
+        assertEquals(rows.length, mapping.size());
+        for (int i = 0; i < rows.length; i += 97) {
+            assertEquals(rows[i], mapping.get(i));
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.data.mapping;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import rapaio.data.Mapping;
+import rapaio.data.VarInt;
+
+public class BitmapMappingTest {
+
+    @Test
+    void testGetAndIterate() {
+        long[] words = new long[] {0b1011L, 0L, -1L, 1L << 63};
+        BitmapMapping mapping = new BitmapMapping(words);
+
+        int[] expected = new int[68];
+        expected[0] = 0;
+        expected[1] = 1;
+        expected[2] = 3;
+        for (int i = 0; i < 64; i++) {
+            expected[3 + i] = 128 + i;
+        }
+        expected[67] = 255;
+
+        assertEquals(68, mapping.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], mapping.get(i));
+        }
+        assertArrayEquals(expected, mapping.elements());
+        assertArrayEquals(expected, mapping.stream().toArray());
+
+        PrimitiveIterator.OfInt it = mapping.iterator();
+        int pos = 0;
+        while (it.hasNext()) {
+            assertEquals(expected[pos++], it.nextInt());
+        }
+        assertEquals(expected.length, pos);
+        assertThrows(IndexOutOfBoundsException.class, () -> mapping.get(68));
+    }
+
+    @Test
+    void testModifications() {
+        BitmapMapping mapping = new BitmapMapping(new long[] {0b110L});
+        mapping.add(10);
+        assertArrayEquals(new int[] {1, 2, 10}, mapping.elements());
+        mapping.addAll(VarInt.wrap(20, 21).iterator());
+        mapping.remove(0);
+        assertArrayEquals(new int[] {2, 10, 20, 21}, mapping.stream().toArray());
+        mapping.removeAll(VarInt.wrap(0, 1).iterator());
+        assertArrayEquals(new int[] {20, 21}, mapping.stream().toArray());
+        mapping.clear();
+        assertEquals(0, mapping.size());
+    }
+
+    @Test
+    void testFromBitmap() {
+        Random random = new Random(42);
+        long[] words = new long[100];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = random.nextLong();
+        }
+        Mapping dense = Mapping.fromBitmap(words, 6400);
+        assertEquals(BitmapMapping.class, dense.getClass());
+
+        long[] sparse = new long[100];
+        sparse[3] = 1L << 7;
+        sparse[70] = 1L << 2;
+        Mapping sparseMapping = Mapping.fromBitmap(sparse, 6400);
+        assertEquals(ArrayMapping.class, sparseMapping.getClass());
+        assertArrayEquals(new int[] {3 * 64 + 7, 70 * 64 + 2}, sparseMapping.elements());
+
+        long[] range = new long[100];
+        range[1] = -1L << 10;
+        range[2] = 0xFFL;
+        Mapping rangeMapping = Mapping.fromBitmap(range, 6400);
+        assertEquals(IntervalMapping.class, rangeMapping.getClass());
+        assertEquals(64 + 10, rangeMapping.get(0));
+        assertEquals(64 - 10 + 8, rangeMapping.size());
+
+        assertEquals(0, Mapping.fromBitmap(new long[100], 6400).size());
+    }
+
+    @Test
+    void testFromBitmapTrailingBits() {
+        // bits for rows past the end are ignored, both in the last word and in extra words
+        Random random = new Random(42);
+        long[] words = new long[120];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = random.nextLong();
+        }
+        int expected = 0;
+        for (int row = 0; row < 6000; row++) {
+            if ((words[row >>> 6] & (1L << row)) != 0) {
+                expected++;
+            }
+        }
+        Mapping dense = Mapping.fromBitmap(words, 6000);
+        assertEquals(expected, dense.size());
+        assertTrue(dense.stream().allMatch(row -> row < 6000));
+
+        long[] sparse = new long[2];
+        sparse[0] = 0b101L;
+        sparse[1] = -1L;
+        assertArrayEquals(new int[] {0, 2}, Mapping.fromBitmap(sparse, 64).elements());
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.data.mapping;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+import rapaio.data.Frame;
+import rapaio.data.Mapping;
+import rapaio.data.SolidFrame;
+import rapaio.data.VarInt;
+
+public class SliceMappingTest {
+
+    @Test
+    void testView() {
+        int[] rows = new int[] {5, 3, 8, 1, 0, 2};
+        Mapping first = Mapping.slice(rows, 0, 3);
+        Mapping second = Mapping.slice(rows, 3, 6);
+
+        assertEquals(3, first.size());
+        assertArrayEquals(new int[] {5, 3, 8}, first.elements());
+        assertArrayEquals(new int[] {1, 0, 2}, second.stream().toArray());
+        assertEquals(2, second.get(2));
+        assertArrayEquals(new int[] {0}, Mapping.slice(rows, 3, 6).stream().filter(x -> x == 0).toArray());
+
+        int sum = 0;
+        var it = first.iterator();
+        while (it.hasNext()) {
+            sum += it.nextInt();
+        }
+        assertEquals(16, sum);
+
+        assertThrows(IndexOutOfBoundsException.class, () -> first.get(3));
+        assertThrows(IllegalArgumentException.class, () -> Mapping.slice(rows, 4, 7));
+        assertThrows(IllegalArgumentException.class, () -> Mapping.slice(rows, 4, 3));
+        assertEquals(0, Mapping.slice(rows, 2, 2).size());
+    }
+
+    @Test
+    void testModifyCopies() {
+        int[] rows = new int[] {5, 3, 8, 1};
+        Mapping mapping = Mapping.slice(rows, 1, 3);
+
+        mapping.add(10);
+        mapping.remove(0);
+        assertArrayEquals(new int[] {8, 10}, mapping.elements());
+        // shared array is not modified
+        assertArrayEquals(new int[] {5, 3, 8, 1}, rows);
+
+        mapping.clear();
+        assertEquals(0, mapping.size());
+    }
+
+    @Test
+    void testMappedFrame() {
+        Frame df = SolidFrame.byVars(VarInt.seq(10).name("x"));
+        int[] rows = new int[] {9, 7, 5, 3, 1};
+        Frame view = df.mapRows(Mapping.slice(rows, 1, 4));
+        assertEquals(3, view.rowCount());
+        assertEquals(7, view.getInt(0, "x"));
+        assertEquals(3, view.getInt(2, "x"));
+    }
+}
@@ -206,4 +206,27 @@ public class FSpotsTest {
         spot.setMissing("y");
         assertTrue(spot.isMissing("y"));
     }
+
+    @Test
+    void testParallelSplit() {
+        Frame x = SolidFrame.byVars(VarDouble.from(100_000, () -> random.nextDouble()).name("x"));
+
+        FSpotSpliterator spliterator = new FSpotSpliterator(x, 0, x.rowCount(), 0);
+        var prefix = spliterator.trySplit();
+        assertEquals(50_000, prefix.estimateSize());
+        assertEquals(50_000, spliterator.estimateSize());
+        int[] first = new int[1];
+        prefix.tryAdvance(s -> first[0] = s.row());
+        assertEquals(0, first[0]);
+
+        int[] rows = x.stream().parallel().mapToInt(FSpot::row).toArray();
+        assertArrayEquals(IntStream.range(0, x.rowCount()).toArray(), rows);
+        assertArrayEquals(rows, x.rowStream().parallel().toArray());
+
+        double sum = x.stream().mapToDouble(s -> s.getDouble(0)).sum();
+        assertEquals(sum, x.stream().parallel().mapToDouble(s -> s.getDouble(0)).sum(), 1e-6);
+        assertEquals(sum, x.doubleStream("x").parallel().sum(), 1e-6);
+        assertEquals(sum, x.mapRows(x.rowStream().filter(r -> r % 2 == 0).toArray()).doubleStream("x").sum()
+                + x.mapRows(x.rowStream().filter(r -> r % 2 == 1).toArray()).doubleStream("x").sum(), 1e-6);
+    }
 }
@@ -24,6 +24,7 @@ package rapaio.data.stream;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.Comparator;
@@ -227,4 +228,26 @@ public class VSpotsTest {
         VSpot copy = new VSpot(1, wrap);
         assertEquals(copy, spot);
     }
+
+    @Test
+    void testParallelSplit() {
+        VarDouble x = VarDouble.from(100_000, () -> random.nextDouble());
+
+        VSpotSpliterator spliterator = new VSpotSpliterator(x, 0, x.size(), 0);
+        var prefix = spliterator.trySplit();
+        assertEquals(50_000, prefix.estimateSize());
+        assertEquals(50_000, spliterator.estimateSize());
+        assertNull(new VSpotSpliterator(x, 0, 100, 0).trySplit());
+
+        int[] rows = x.stream().parallel().mapToInt(VSpot::row).toArray();
+        assertArrayEquals(IntStream.range(0, x.size()).toArray(), rows);
+        assertArrayEquals(rows, x.rowStream().parallel().toArray());
+
+        double sum = x.stream().mapToDouble().sum();
+        assertEquals(sum, x.stream().parallel().mapToDouble().sum(), 1e-6);
+        assertEquals(sum, x.doubleStream().parallel().sum(), 1e-6);
+
+        VarInt ints = VarInt.from(x.size(), row -> row % 10);
+        assertEquals(ints.stream().mapToDouble().sum(), ints.doubleStream().parallel().sum(), 1e-12);
+    }
 }
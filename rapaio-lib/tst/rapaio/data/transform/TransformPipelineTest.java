@@ -0,0 +1,183 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.data.transform;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import rapaio.core.stat.Mean;
+import rapaio.data.Frame;
+import rapaio.data.SolidFrame;
+import rapaio.data.Var;
+import rapaio.data.VarBinary;
+import rapaio.data.VarRange;
+
+public class TransformPipelineTest {
+
+    @Test
+    void testFusedChainMatchesSequentialTransforms() {
+        Frame src = TransformTestUtil.allDoubles(new Random(42), 1_000, 3);
+
+        TransformPipeline pipeline = TransformPipeline.newPipeline(17)
+                .add(VarRange.all(), VarStandardScaler.filter())
+                .add(VarRange.of("V1", "V2"), VarBoxCoxTransform.with(0.5, 10))
+                .add(VarRange.of("V3"), VarBoxCoxTransform.with(0, 10));
+        pipeline.fit(src);
+        Frame fused = pipeline.apply(src.copy());
+
+        Frame expected = src.copy();
+        for (String name : expected.varNames()) {
+            VarStandardScaler.filter().fapply(expected.rvar(name));
+        }
+        VarBoxCoxTransform.with(0.5, 10).fapply(expected.rvar("V1"));
+        VarBoxCoxTransform.with(0.5, 10).fapply(expected.rvar("V2"));
+        VarBoxCoxTransform.with(0, 10).fapply(expected.rvar("V3"));
+
+        assertArrayEquals(src.varNames(), fused.varNames());
+        assertTrue(expected.deepEquals(fused));
+    }
+
+    @Test
+    void testFitDoesNotAlterSource() {
+        Frame src = TransformTestUtil.allDoubles(new Random(42), 100, 2);
+        Frame copy = src.copy();
+
+        Frame fitted = TransformPipeline.newPipeline()
+                .add(VarRange.all(), VarStandardScaler.filter())
+                .fitApply(src);
+
+        assertTrue(copy.deepEquals(src));
+        assertEquals(0, Mean.of(fitted.rvar("V1")).value(), 1e-12);
+    }
+
+    @Test
+    void testFrameTransformBarrier() {
+        Frame src = TransformTestUtil.allDoubleNominal(new Random(1), 200, 2, 1);
+        src.rvar("v1").setMissing(3);
+
+        TransformPipeline pipeline = TransformPipeline.newPipeline(16)
+                .add(VarRange.of("v1"), VarBoxCoxTransform.with(1, 1))
+                .add(FillMissing.onDouble(0, VarRange.of("v1")))
+                .add(VarRange.of("v1", "v2"), VarStandardScaler.filter(0, 2));
+        Frame result = pipeline.fitApply(src.copy());
+
+        assertEquals(0, result.getDouble(3, "v1"));
+        assertEquals(src.getDouble(5, "v1") / 2, result.getDouble(5, "v1"), 1e-12);
+        assertEquals(src.getDouble(7, "v2") / 2, result.getDouble(7, "v2"), 1e-12);
+        assertEquals(src.getLabel(7, "v3"), result.getLabel(7, "v3"));
+    }
+
+    @Test
+    void testApplyBatches() {
+        Frame src = TransformTestUtil.allDoubles(new Random(7), 300, 2);
+        TransformPipeline pipeline = TransformPipeline.newPipeline()
+                .add(VarRange.all(), VarPowerTransform.with(0.5))
+                .add(VarRange.all(), VarStandardScaler.filter());
+        Frame positive = src.copy();
+        for (String name : positive.varNames()) {
+            for (int i = 0; i < positive.rowCount(); i++) {
+                positive.setDouble(i, name, positive.getDouble(i, name) + 1);
+            }
+        }
+        pipeline.fit(positive);
+
+        Frame full = pipeline.apply(positive.copy());
+        List<Frame> batches = pipeline.applyBatches(IntStream.range(0, 3)
+                        .mapToObj(i -> positive.copy().mapRows(IntStream.range(i * 100, (i + 1) * 100).toArray())))
+                .toList();
+
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 100; j++) {
+                for (String name : full.varNames()) {
+                    assertEquals(full.getDouble(i * 100 + j, name), batches.get(i).getDouble(j, name), 1e-12);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testLifecycle() {
+        Frame src = TransformTestUtil.allDoubles(new Random(7), 10, 1);
+        TransformPipeline pipeline = TransformPipeline.newPipeline().add(VarRange.all(), VarStandardScaler.filter());
+
+        assertThrows(IllegalStateException.class, () -> pipeline.apply(src));
+        pipeline.fit(src);
+        assertThrows(IllegalStateException.class, () -> pipeline.fit(src));
+        assertThrows(IllegalStateException.class, () -> pipeline.add(VarRange.all(), VarStandardScaler.filter()));
+
+        TransformPipeline copy = pipeline.newInstance();
+        assertTrue(copy.fitApply(src.copy()).deepEquals(pipeline.apply(src.copy())));
+        assertThrows(IllegalArgumentException.class, () -> TransformPipeline.newPipeline(0));
+    }
+
+    @Test
+    void testFusedBinaryColumn() {
+        // binary values are stored in bit sets, which are not written from parallel chunks
+        Random random = new Random(42);
+        VarBinary flags = VarBinary.from(100_000, _ -> random.nextBoolean()).name("flag");
+        Frame src = SolidFrame.byVars(flags);
+
+        TransformPipeline pipeline = TransformPipeline.newPipeline(17).add(VarRange.all(), new Flip());
+        pipeline.fit(src);
+        Frame result = pipeline.apply(src.copy());
+        for (int i = 0; i < flags.size(); i++) {
+            assertEquals(1 - flags.getInt(i), result.getInt(i, "flag"));
+        }
+    }
+
+    /**
+     * Element-wise transformation which swaps zero and one values.
+     */
+    private static final class Flip implements VarElementwiseTransform {
+
+        @Override
+        public VarTransform newInstance() {
+            return new Flip();
+        }
+
+        @Override
+        public VarTransform fit(Var var) {
+            return this;
+        }
+
+        @Override
+        public Var apply(Var var) {
+            for (int i = 0; i < var.size(); i++) {
+                var.setDouble(i, applyDouble(var.getDouble(i)));
+            }
+            return var;
+        }
+
+        @Override
+        public double applyDouble(double value) {
+            return 1 - value;
+        }
+    }
+}
@@ -23,12 +23,20 @@ package rapaio.data.transform;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
 
 import org.junit.jupiter.api.Test;
 
+import rapaio.data.Frame;
+import rapaio.data.SolidFrame;
 import rapaio.data.Var;
+import rapaio.data.VarBinary;
 import rapaio.data.VarDouble;
 import rapaio.data.VarNominal;
+import rapaio.data.VarType;
 
 public class VarApplyTest {
 
@@ -142,4 +150,59 @@ public class VarApplyTest {
 
     }
 
+
+    @Test
+    void testParallel() {
+        Var x = VarDouble.from(100_000, row -> row % 2 == 0 ? row : Double.NaN);
+        Var y = x.copy().fapply(VarApply.onDouble(v -> Double.isNaN(v) ? -1 : v * 2).parallel());
+        Var z = x.copy().fapply(VarApply.onSpot(s -> s.setDouble(s.isMissing() ? -1 : s.getDouble() * 2)).parallel());
+        Var w = x.copy().fapply(VarApply.onDouble(v -> Double.isNaN(v) ? -1 : v * 2));
+        for (int i = 0; i < x.size(); i++) {
+            double expected = i % 2 == 0 ? 2.0 * i : -1;
+            assertEquals(expected, y.getDouble(i), TOL);
+            assertEquals(expected, z.getDouble(i), TOL);
+            assertEquals(expected, w.getDouble(i), TOL);
+        }
+    }
+
+    @Test
+    void testParallelNonNumeric() {
+        // nominal and binary variables are processed sequentially, since their storage is shared between rows
+        Random random = new Random(42);
+        Var nominal = VarNominal.from(100_000, _ -> "a" + random.nextInt(10));
+        Var labels = nominal.copy().fapply(VarApply.onLabel(label -> label + "x").parallel());
+        Var spots = nominal.copy().fapply(VarApply.onSpot(s -> s.setLabel(s.getLabel() + "y")).parallel());
+        for (int i = 0; i < nominal.size(); i++) {
+            assertEquals(nominal.getLabel(i) + "x", labels.getLabel(i));
+            assertEquals(nominal.getLabel(i) + "y", spots.getLabel(i));
+        }
+
+        Var binary = VarBinary.from(100_000, _ -> random.nextBoolean());
+        Var flipped = binary.copy().fapply(VarApply.onInt(v -> 1 - v).parallel());
+        for (int i = 0; i < binary.size(); i++) {
+            assertEquals(1 - binary.getInt(i), flipped.getInt(i));
+        }
+
+        assertTrue(VarType.DOUBLE.supportsConcurrentRowUpdates());
+        assertFalse(VarType.NOMINAL.supportsConcurrentRowUpdates());
+        assertFalse(VarType.BINARY.supportsConcurrentRowUpdates());
+    }
+
+    @Test
+    void testParallelForEachSpot() {
+        Var x = VarDouble.seq(99_999);
+        x.parallelForEachSpot(s -> s.setDouble(s.getDouble() * 2));
+        for (int i = 0; i < x.size(); i++) {
+            assertEquals(2.0 * i, x.getDouble(i), TOL);
+        }
+    }
+
+    @Test
+    void testAddDoubleApply() {
+        Frame df = SolidFrame.byVars(VarDouble.seq(9_999).name("x"));
+        Frame seq = df.fapply(AddDoubleApply.from("y", s -> s.getDouble("x") * 3));
+        Frame par = df.fapply(AddDoubleApply.from("y", s -> s.getDouble("x") * 3).parallel());
+        assertTrue(seq.deepEquals(par));
+        assertEquals(3 * 9_999, par.getDouble(9_999, "y"), TOL);
+    }
 }
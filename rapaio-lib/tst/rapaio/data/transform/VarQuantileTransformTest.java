@@ -66,6 +66,10 @@ public class VarQuantileTransformTest {
             assertTrue(x.getInt(i - 1) <= x.getInt(i));
         }
 
+        Var q3 = x.fapply(VarQuantileTransform.split(2, 0.01));
+        assertEquals(q1.levels(), q3.levels());
+        assertThrows(IllegalArgumentException.class, () -> VarQuantileTransform.split(2, 1));
+
         Random random = new Random();
         Var y = VarDouble.from(100, row -> row % 7 == 0 ? Double.NaN : random.nextDouble());
         Var qy = y.fapply(VarQuantileTransform.split(10));
@@ -171,6 +171,36 @@ public class CsvTest {
         assertEquals("3", df.getLabel(6, "x4"));
     }
 
+    @Test
+    void testReadBatches() throws IOException {
+        Frame full = Csv.instance().read(Datasets.resourceAsStream("iris-r.csv"));
+
+        List<Frame> batches;
+        try (var stream = Csv.instance().readBatches(Datasets.resourceAsStream("iris-r.csv"), 40)) {
+            batches = stream.toList();
+        }
+        assertEquals(4, batches.size());
+        assertEquals(30, batches.getLast().rowCount());
+
+        int row = 0;
+        for (Frame batch : batches) {
+            assertArrayEquals(full.varNames(), batch.varNames());
+            for (int i = 0; i < batch.rowCount(); i++) {
+                for (String name : full.varNames()) {
+                    assertEquals(full.type(name), batch.type(name));
+                    assertEquals(full.getLabel(row, name), batch.getLabel(i, name));
+                }
+                row++;
+            }
+        }
+        assertEquals(full.rowCount(), row);
+
+        try (var stream = Csv.instance().startRow.set(10).endRow.set(100)
+                .readBatches(Datasets.resourceAsStream("iris-r.csv"), 50)) {
+            assertEquals(90, stream.mapToInt(Frame::rowCount).sum());
+        }
+    }
+
     @Test
     void testSkipRows() throws IOException {
 
@@ -307,4 +337,32 @@ public class CsvTest {
             throw new RuntimeException(e);
         }
     }
+
+    @Test
+    void testReadBatchesWithParsers() throws IOException {
+        String content = """
+                a,b,c
+                T,xx,-1
+                B,yy,2
+                T,aa,-3
+                ?,cc,4
+                T,dd,5
+                """;
+        Csv csv = Csv.instance()
+                .varTypes.add(VarType.BINARY, "a")
+                .varParsers.add("a", value -> "?".equals(value) ? null : "T".equalsIgnoreCase(value))
+                .varTypes.add(VarType.INT, "c")
+                .typeParsers.add(VarType.INT, value -> -Integer.parseInt(value));
+
+        List<Frame> batches;
+        try (var stream = csv.readBatches(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), 2)) {
+            batches = stream.toList();
+        }
+        assertEquals(3, batches.size());
+
+        // parsers are used for all batches, not only for the first one
+        Frame df = batches.getFirst().bindRows(batches.get(1)).bindRows(batches.get(2));
+        assertTrue(VarBinary.copy(1, 0, 1, -1, 1).name("a").deepEquals(df.rvar("a")));
+        assertTrue(VarInt.copy(1, -2, 3, -4, -5).name("c").deepEquals(df.rvar("c")));
+    }
 }
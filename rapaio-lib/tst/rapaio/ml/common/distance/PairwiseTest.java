@@ -0,0 +1,164 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.common.distance;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import rapaio.core.distributions.Normal;
+import rapaio.darray.DArray;
+import rapaio.darray.DArrays;
+import rapaio.darray.Order;
+import rapaio.darray.Shape;
+
+public class PairwiseTest {
+
+    private static final double TOL = 1e-10;
+
+    private Random random;
+
+    @BeforeEach
+    void beforeEach() {
+        random = new Random(42);
+    }
+
+    private DArray<Double> sample(int rows, int cols) {
+        Normal normal = Normal.std();
+        return DArrays.zeros(Shape.of(rows, cols)).apply_(_ -> normal.sampleNext(random));
+    }
+
+    private List<Distance> distances() {
+        return List.of(new EuclideanDistance(), new CosineDistance(), new Manhattan(),
+                new MinkowskiDistance(3), new MinkowskiDistance(0.5), Constant.one());
+    }
+
+    @Test
+    void pairwiseTest() {
+        DArray<Double> x = sample(130, 11);
+        DArray<Double> y = sample(70, 11);
+        for (Distance distance : distances()) {
+            DArray<Double> d = distance.pairwise(x, y);
+            assertEquals(Shape.of(130, 70), d.shape());
+            for (int i = 0; i < x.dim(0); i++) {
+                for (int j = 0; j < y.dim(0); j++) {
+                    assertEquals(distance.compute(x.selsq(0, i), y.selsq(0, j)), d.getDouble(i, j), TOL,
+                            distance.name());
+                }
+            }
+        }
+    }
+
+    @Test
+    void symmetricTest() {
+        DArray<Double> x = sample(50, 4);
+        for (Distance distance : distances()) {
+            DArray<Double> d = distance.pairwise(x, x);
+            for (int i = 0; i < x.dim(0); i++) {
+                if (!(distance instanceof Constant)) {
+                    assertEquals(0, d.getDouble(i, i));
+                }
+                for (int j = 0; j < x.dim(0); j++) {
+                    assertEquals(d.getDouble(i, j), d.getDouble(j, i), TOL);
+                }
+            }
+        }
+    }
+
+    @Test
+    void streamTest() {
+        DArray<Double> x = sample(103, 5);
+        DArray<Double> y = sample(17, 5);
+        for (Distance distance : distances()) {
+            DArray<Double> full = distance.pairwise(x, y);
+            DArray<Double> streamed = DArrays.zeros(Shape.of(103, 17));
+            AtomicInteger blocks = new AtomicInteger();
+            distance.pairwise(x, y, 10, (start, block) -> {
+                blocks.incrementAndGet();
+                assertEquals(17, block.dim(1));
+                for (int i = 0; i < block.dim(0); i++) {
+                    for (int j = 0; j < block.dim(1); j++) {
+                        streamed.setDouble(block.getDouble(i, j), start + i, j);
+                    }
+                }
+            });
+            assertEquals(11, blocks.get());
+            assertEquals(0, full.sub(streamed).abs().sum(), distance.name());
+        }
+    }
+
+    @Test
+    void cosineTest() {
+        DArray<Double> x = DArrays.stride(Shape.of(3, 2), 1, 0, 0, 2, 0, 0);
+        DArray<Double> d = new CosineDistance().pairwise(x, x);
+        assertEquals(1, d.getDouble(0, 1), TOL);
+        assertEquals(1, d.getDouble(0, 2), TOL);
+        assertEquals(0, d.getDouble(2, 2), TOL);
+        assertEquals(2, new CosineDistance().compute(x.selsq(0, 0), x.selsq(0, 0).mul(-1.)), TOL);
+    }
+
+    @Test
+    void validationTest() {
+        var ex = assertThrows(IllegalArgumentException.class,
+                () -> new EuclideanDistance().pairwise(sample(3, 2), sample(3, 3)));
+        assertEquals("Pairwise distances require two matrices with the same number of columns.", ex.getMessage());
+        ex = assertThrows(IllegalArgumentException.class,
+                () -> new Manhattan().pairwise(sample(3, 2), sample(3, 2), 0, (_, _) -> {}));
+        assertEquals("Number of rows in a block must be positive.", ex.getMessage());
+    }
+
+    @Test
+    void dotProductsTest() {
+        DArray<Double> x = sample(37, 13);
+        DArray<Double> y = sample(23, 13);
+        double[] xs = x.toDoubleArray(Order.C);
+        double[] ys = y.toDoubleArray(Order.C);
+        for (int i = 0; i < x.dim(0); i++) {
+            for (int j = 0; j < y.dim(0); j++) {
+                assertEquals(x.selsq(0, i).inner(y.selsq(0, j)), Pairwise.dot(xs, i * 13, ys, j * 13, 13), TOL);
+                double squared = x.selsq(0, i).sub(y.selsq(0, j)).apply_(v -> v * v).sum();
+                assertEquals(squared, Pairwise.squaredDistance(xs, i * 13, ys, j * 13, 13), TOL);
+            }
+        }
+
+        Pairwise.DotProducts dots = new Pairwise.DotProducts(xs, ys, 37, 23, 13, true);
+        double[] block = new double[5 * 23];
+        dots.block(10, 15, block);
+        for (int i = 10; i < 15; i++) {
+            for (int j = 0; j < 23; j++) {
+                double dot = block[(i - 10) * 23 + j];
+                assertEquals(Pairwise.dot(xs, i * 13, ys, j * 13, 13), dot, TOL);
+                assertEquals(Pairwise.squaredDistance(xs, i * 13, ys, j * 13, 13), dots.squaredDistance(i, j, dot), TOL);
+            }
+        }
+
+        // squared distances from the main diagonal are zero for the same matrix
+        Pairwise.DotProducts self = new Pairwise.DotProducts(xs, xs, 37, 37, 13, true);
+        assertEquals(0, self.squaredDistance(3, 3, Pairwise.dot(xs, 39, xs, 39, 13)));
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.common.index;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import rapaio.core.distributions.Normal;
+import rapaio.darray.DArray;
+import rapaio.darray.DArrays;
+import rapaio.darray.Shape;
+import rapaio.ml.common.distance.Constant;
+import rapaio.ml.common.distance.Distance;
+import rapaio.ml.common.distance.EuclideanDistance;
+import rapaio.ml.common.distance.Manhattan;
+import rapaio.ml.common.distance.MinkowskiDistance;
+
+public class NeighborIndexTest {
+
+    private static final double TOL = 1e-12;
+
+    private Random random;
+
+    @BeforeEach
+    void beforeEach() {
+        random = new Random(42);
+    }
+
+    private DArray<Double> sample(int rows, int cols) {
+        Normal normal = Normal.std();
+        return DArrays.zeros(Shape.of(rows, cols)).apply_(_ -> normal.sampleNext(random));
+    }
+
+    private Neighbors naive(DArray<Double> x, DArray<Double> q, Distance distance, int k, double radius) {
+        double[] d = new double[x.dim(0)];
+        for (int i = 0; i < d.length; i++) {
+            d[i] = distance.compute(x.selsq(0, i), q);
+        }
+        int[] order = IntStream.range(0, d.length).boxed()
+                .sorted(Comparator.<Integer>comparingDouble(i -> d[i]).thenComparingInt(i -> i))
+                .filter(i -> d[i] <= radius)
+                .limit(k)
+                .mapToInt(i -> i).toArray();
+        return new Neighbors(order, IntStream.of(order).mapToDouble(i -> d[i]).toArray());
+    }
+
+    private List<NeighborIndex> indexes(DArray<Double> x, Distance distance) {
+        return List.of(
+                NeighborIndex.bruteForce(x, distance),
+                NeighborIndex.kdTree(x, distance, 4),
+                NeighborIndex.ballTree(x, distance, 4));
+    }
+
+    @Test
+    void knnTest() {
+        DArray<Double> x = sample(500, 3);
+        DArray<Double> queries = sample(40, 3);
+        for (Distance distance : List.of(new EuclideanDistance(), new Manhattan(), new MinkowskiDistance(3))) {
+            for (NeighborIndex index : indexes(x, distance)) {
+                assertEquals(500, index.size());
+                assertEquals(3, index.dim());
+                Neighbors[] batch = index.knn(queries, 7);
+                for (int i = 0; i < queries.dim(0); i++) {
+                    DArray<Double> q = queries.selsq(0, i);
+                    Neighbors expected = naive(x, q, distance, 7, Double.POSITIVE_INFINITY);
+                    Neighbors single = index.knn(q.toDoubleArray(), 7);
+                    assertArrayEquals(expected.indexes(), single.indexes());
+                    assertArrayEquals(expected.distances(), single.distances(), TOL);
+                    assertArrayEquals(expected.indexes(), batch[i].indexes());
+                    assertArrayEquals(expected.distances(), batch[i].distances(), TOL);
+                }
+            }
+        }
+    }
+
+    @Test
+    void radiusTest() {
+        DArray<Double> x = sample(400, 2);
+        DArray<Double> queries = sample(30, 2);
+        for (Distance distance : List.of(new EuclideanDistance(), new Manhattan())) {
+            for (NeighborIndex index : indexes(x, distance)) {
+                Neighbors[] batch = index.radius(queries, 0.4);
+                for (int i = 0; i < queries.dim(0); i++) {
+                    Neighbors expected = naive(x, queries.selsq(0, i), distance, Integer.MAX_VALUE, 0.4);
+                    assertArrayEquals(expected.indexes(), batch[i].indexes());
+                    assertArrayEquals(expected.distances(), batch[i].distances(), TOL);
+                }
+            }
+        }
+    }
+
+    @Test
+    void tiesTest() {
+        // integer grid with duplicated points, many neighbours are at equal distances
+        DArray<Double> x = DArrays.zeros(Shape.of(200, 2));
+        for (int i = 0; i < 200; i++) {
+            x.setDouble((i / 2) % 5, i, 0);
+            x.setDouble((i / 2) % 3, i, 1);
+        }
+        DArray<Double> queries = DArrays.stride(Shape.of(3, 2), 0, 0, 2, 1, 4.5, 2);
+        for (NeighborIndex index : indexes(x, new EuclideanDistance())) {
+            Neighbors[] batch = index.knn(queries, 20);
+            for (int i = 0; i < queries.dim(0); i++) {
+                Neighbors expected = naive(x, queries.selsq(0, i), new EuclideanDistance(), 20, Double.POSITIVE_INFINITY);
+                assertArrayEquals(expected.indexes(), batch[i].indexes());
+            }
+        }
+    }
+
+    @Test
+    void smallIndexTest() {
+        DArray<Double> x = DArrays.stride(Shape.of(3, 1), 1, 5, 2);
+        for (NeighborIndex index : indexes(x, new EuclideanDistance())) {
+            Neighbors n = index.knn(new double[] {0}, 10);
+            assertArrayEquals(new int[] {0, 2, 1}, n.indexes());
+            assertArrayEquals(new double[] {1, 2, 5}, n.distances(), TOL);
+        }
+    }
+
+    @Test
+    void selectionTest() {
+        DArray<Double> low = sample(10, 2);
+        DArray<Double> high = sample(10, 20);
+        assertInstanceOf(KDTreeIndex.class, NeighborIndex.of(low, new EuclideanDistance()));
+        assertInstanceOf(BallTreeIndex.class, NeighborIndex.of(high, new Manhattan()));
+        assertInstanceOf(BruteForceIndex.class, NeighborIndex.of(low, Constant.one()));
+        assertInstanceOf(BruteForceIndex.class, NeighborIndex.of(high, new MinkowskiDistance(0.5)));
+    }
+
+    @Test
+    void validationTest() {
+        DArray<Double> x = sample(10, 2);
+        var ex = assertThrows(IllegalArgumentException.class, () -> NeighborIndex.kdTree(x, Constant.one()));
+        assertEquals("KD-tree index requires a coordinate wise distance, distance Constant(c=1) is not supported.",
+                ex.getMessage());
+        ex = assertThrows(IllegalArgumentException.class, () -> NeighborIndex.bruteForce(x, new EuclideanDistance())
+                .knn(new double[2], 0));
+        assertEquals("Number of neighbours must be positive.", ex.getMessage());
+        ex = assertThrows(IllegalArgumentException.class, () -> NeighborIndex.ballTree(x, new EuclideanDistance())
+                .knn(sample(3, 3), 1));
+        assertEquals("Queries must be a matrix with 2 columns.", ex.getMessage());
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.common.kernel;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import rapaio.core.distributions.Uniform;
+import rapaio.darray.DArray;
+import rapaio.darray.DArrays;
+import rapaio.darray.Shape;
+
+public class KernelTest {
+
+    private static final double TOL = 1e-10;
+
+    private final List<Kernel> kernels = List.of(
+            new RBFKernel(0.5),
+            new PolyKernel(2, 1, 0.5),
+            new PolyKernel(1, 2),
+            new LinearKernel(1.5),
+            new SigmoidKernel(0.2, -1),
+            new ChiSquareKernel(),
+            new CauchyKernel(2)
+    );
+
+    private DArray<Double> x;
+    private DArray<Double> y;
+
+    @BeforeEach
+    void beforeEach() {
+        Random random = new Random(42);
+        Uniform uniform = Uniform.of(0.1, 2);
+        x = DArrays.zeros(Shape.of(70, 13)).apply_(_ -> uniform.sampleNext(random));
+        y = DArrays.zeros(Shape.of(40, 13)).apply_(_ -> uniform.sampleNext(random));
+    }
+
+    @Test
+    void computeArraysTest() {
+        double[] xs = x.toDoubleArray();
+        for (Kernel kernel : kernels) {
+            for (int i = 0; i < 10; i++) {
+                for (int j = 0; j < 10; j++) {
+                    assertEquals(kernel.compute(x.selsq(0, i), x.selsq(0, j)),
+                            kernel.compute(xs, i * 13, xs, j * 13, 13), TOL, kernel.name());
+                }
+            }
+        }
+    }
+
+    @Test
+    void computeRowTest() {
+        int[] rows = new int[] {5, 0, 69, 5, 33};
+        for (Kernel kernel : kernels) {
+            double[] out = new double[70];
+            kernel.computeRow(x, 3, null, out);
+            for (int j = 0; j < 70; j++) {
+                assertEquals(kernel.compute(x.selsq(0, 3), x.selsq(0, j)), out[j], TOL, kernel.name());
+            }
+            kernel.computeRow(x, 11, rows, out);
+            for (int j = 0; j < rows.length; j++) {
+                assertEquals(kernel.compute(x.selsq(0, 11), x.selsq(0, rows[j])), out[j], TOL, kernel.name());
+            }
+
+            // the matrix is copied once for all rows
+            KernelRows kernelRows = kernel.rows(x);
+            assertEquals(70, kernelRows.rowCount());
+            for (int i : new int[] {0, 11, 69}) {
+                kernelRows.compute(i, null, out);
+                for (int j = 0; j < 70; j++) {
+                    assertEquals(kernel.compute(x.selsq(0, i), x.selsq(0, j)), out[j], TOL, kernel.name());
+                }
+                kernelRows.compute(i, rows, out);
+                for (int j = 0; j < rows.length; j++) {
+                    assertEquals(kernel.compute(x.selsq(0, i), x.selsq(0, rows[j])), out[j], TOL, kernel.name());
+                }
+            }
+        }
+    }
+
+    @Test
+    void computeBlockTest() {
+        for (Kernel kernel : kernels) {
+            double[] out = new double[70 * 40];
+            kernel.computeBlock(x, y, out);
+            for (int i = 0; i < 70; i++) {
+                for (int j = 0; j < 40; j++) {
+                    assertEquals(kernel.compute(x.selsq(0, i), y.selsq(0, j)), out[i * 40 + j], TOL, kernel.name());
+                }
+            }
+
+            out = new double[70 * 70];
+            kernel.computeBlock(x, x, out);
+            for (int i = 0; i < 70; i++) {
+                for (int j = 0; j < 70; j++) {
+                    assertEquals(kernel.compute(x.selsq(0, i), x.selsq(0, j)), out[i * 70 + j], TOL, kernel.name());
+                }
+            }
+        }
+    }
+
+    @Test
+    void computeLargeBlockTest() {
+        // large enough to be computed in parallel, in multiple blocks
+        Random random = new Random(43);
+        Uniform uniform = Uniform.of(-1, 1);
+        DArray<Double> a = DArrays.zeros(Shape.of(1_500, 20)).apply_(_ -> uniform.sampleNext(random));
+        DArray<Double> b = DArrays.zeros(Shape.of(300, 20)).apply_(_ -> uniform.sampleNext(random));
+        for (Kernel kernel : List.of(new RBFKernel(0.1), new PolyKernel(3), new CauchyKernel(1))) {
+            double[] out = new double[1_500 * 300];
+            kernel.computeBlock(a, b, out);
+            for (int i = 0; i < 1_500; i += 7) {
+                for (int j = 0; j < 300; j += 3) {
+                    assertEquals(kernel.compute(a.selsq(0, i), b.selsq(0, j)), out[i * 300 + j], TOL, kernel.name());
+                }
+            }
+            double[] row = new double[1_500];
+            kernel.computeRow(a, 1_000, null, row);
+            for (int j = 0; j < 1_500; j++) {
+                assertEquals(kernel.compute(a.selsq(0, 1_000), a.selsq(0, j)), row[j], TOL, kernel.name());
+            }
+            kernel.rows(a).compute(1_000, null, row);
+            for (int j = 0; j < 1_500; j++) {
+                assertEquals(kernel.compute(a.selsq(0, 1_000), a.selsq(0, j)), row[j], TOL, kernel.name());
+            }
+        }
+    }
+
+    @Test
+    void validationTest() {
+        Kernel kernel = new RBFKernel(1);
+        var ex = assertThrows(IllegalArgumentException.class, () -> kernel.computeBlock(x, x.t(), new double[70 * 13]));
+        assertEquals("Kernel blocks require two matrices with the same number of columns.", ex.getMessage());
+        ex = assertThrows(IllegalArgumentException.class, () -> kernel.computeBlock(x, y, new double[10]));
+        assertEquals("Output array is too small, it requires 2800 values.", ex.getMessage());
+        ex = assertThrows(IllegalArgumentException.class, () -> kernel.computeRow(x.selsq(0, 1), 0, null, new double[10]));
+        assertEquals("Kernel rows require a data matrix.", ex.getMessage());
+        ex = assertThrows(IllegalArgumentException.class, () -> kernel.rows(x.selsq(0, 1)));
+        assertEquals("Kernel rows require a data matrix.", ex.getMessage());
+        ex = assertThrows(IllegalArgumentException.class, () -> kernel.rows(x).compute(0, null, new double[10]));
+        assertEquals("Output array is too small, it requires 70 values.", ex.getMessage());
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.common.kernel.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import rapaio.core.distributions.Normal;
+import rapaio.darray.DArray;
+import rapaio.darray.DArrays;
+import rapaio.darray.Shape;
+import rapaio.ml.common.kernel.Kernel;
+import rapaio.ml.common.kernel.RBFKernel;
+
+public class KernelCacheTest {
+
+    private DArray<Double> x;
+    private final Kernel kernel = new RBFKernel(0.5);
+
+    @BeforeEach
+    void beforeEach() {
+        Random random = new Random(42);
+        Normal normal = Normal.std();
+        x = DArrays.zeros(Shape.of(50, 3)).apply_(_ -> normal.sampleNext(random));
+    }
+
+    private double expected(int i, int j) {
+        return kernel.compute(x.selsq(0, i), x.selsq(0, j));
+    }
+
+    @Test
+    void valuesTest() {
+        KernelCache cache = new KernelCache(x, kernel);
+        assertEquals(50, cache.size());
+        assertEquals(50, cache.capacity());
+        for (int i = 0; i < 50; i++) {
+            for (int j = 0; j < 50; j++) {
+                assertEquals(expected(i, j), cache.get(i, j));
+            }
+        }
+        KernelRow row = cache.row(7);
+        assertSame(row, cache.row(7));
+        assertEquals(7, row.index());
+        assertEquals(50, row.size());
+        DArray<Double> values = row.darray();
+        for (int j = 0; j < 50; j++) {
+            assertEquals(expected(7, j), values.getDouble(j));
+        }
+    }
+
+    @Test
+    void budgetTest() {
+        // budget for 5 rows of doubles
+        KernelCache cache = new KernelCache(x, kernel, 5 * 50 * Double.BYTES, false);
+        assertEquals(5, cache.capacity());
+        for (int i = 0; i < 50; i++) {
+            for (int j = 0; j < 50; j++) {
+                assertEquals(expected(i, j), cache.get(i, j));
+            }
+        }
+
+        // the same budget keeps twice as many rows of floats
+        KernelCache floatCache = new KernelCache(x, kernel, 5 * 50 * Double.BYTES, true);
+        assertEquals(10, floatCache.capacity());
+        for (int i = 0; i < 50; i++) {
+            for (int j = 0; j < 50; j++) {
+                assertEquals((float) expected(i, j), floatCache.get(i, j));
+            }
+        }
+
+        // at least two rows are kept, whatever the budget is
+        assertEquals(2, new KernelCache(x, kernel, 1, false).capacity());
+    }
+
+    @Test
+    void evictionTest() {
+        KernelCache cache = new KernelCache(x, kernel, 3 * 50 * Double.BYTES, false);
+        KernelRow first = cache.row(0);
+        cache.row(1);
+        cache.row(2);
+        // all rows were referenced, the clock clears references and evicts the oldest row
+        cache.row(3);
+        assertEquals(expected(0, 5), cache.get(0, 5));
+        KernelRow again = cache.row(0);
+        assertEquals(first.get(5), again.get(5));
+
+        cache.clean();
+        assertEquals(expected(4, 9), cache.get(4, 9));
+    }
+
+    @Test
+    void concurrentTest() {
+        KernelCache cache = new KernelCache(x, kernel, 8 * 50 * Double.BYTES, false);
+        IntStream.range(0, 20_000).parallel().forEach(p -> {
+            int i = (p * 31) % 50;
+            int j = (p * 17) % 50;
+            assertEquals(expected(i, j), cache.get(i, j));
+        });
+    }
+
+    @Test
+    void validationTest() {
+        var ex = assertThrows(IllegalArgumentException.class, () -> new KernelCache(DArrays.zeros(Shape.of(3)), kernel));
+        assertEquals("Kernel cache requires a data matrix.", ex.getMessage());
+        ex = assertThrows(IllegalArgumentException.class, () -> new KernelCache(x, kernel, 0, false));
+        assertEquals("Kernel cache memory budget must be positive.", ex.getMessage());
+    }
+}
@@ -22,9 +22,13 @@
 package rapaio.ml.eval;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -32,11 +36,14 @@ import org.junit.jupiter.api.Test;
 import rapaio.data.Frame;
 import rapaio.data.SolidFrame;
 import rapaio.data.VarNominal;
+import rapaio.datasets.Datasets;
 import rapaio.ml.eval.metric.Accuracy;
 import rapaio.ml.eval.metric.ClassifierMetric;
 import rapaio.ml.eval.split.Split;
 import rapaio.ml.eval.split.SplitStrategy;
+import rapaio.ml.eval.split.StratifiedKFold;
 import rapaio.ml.model.rule.ZeroRule;
+import rapaio.ml.model.tree.CTree;
 
 /**
  * @author <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a> on 2/28/20.
@@ -81,4 +88,27 @@ public class ClassifierModelEvaluationTest {
         assertEquals(1, result.getTestScores().getDouble(1, "fold"));
         assertEquals(0.75, result.getTestScores().getDouble(1, metric.getName()));
     }
+
+    @Test
+    void testSharedExecutor() {
+        Frame iris = Datasets.loadIrisDataset();
+        var eval = ClassifierEvaluation.eval(iris, "class", CTree.newCART().seed.set(42L), Accuracy.newMetric())
+                .splitStrategy.set(new StratifiedKFold(3, 5, "class"))
+                .seed.set(42L)
+                .threads.set(1);
+        var sequential = eval.run();
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            eval.threads.set(4).executor.set(executor);
+            var first = eval.run();
+            var second = eval.run();
+            assertEquals(15, first.getTestScores().rowCount());
+            assertTrue(sequential.getTestScores().deepEquals(first.getTestScores()));
+            assertTrue(sequential.getTrainScores().deepEquals(second.getTrainScores()));
+            assertFalse(executor.isShutdown());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 }
@@ -25,11 +25,18 @@ import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.util.Random;
+
 import org.junit.jupiter.api.Test;
 
 import rapaio.core.tools.DistanceMatrix;
+import rapaio.darray.DArray;
+import rapaio.darray.DArrays;
+import rapaio.darray.Shape;
 import rapaio.data.Var;
 import rapaio.data.VarInt;
+import rapaio.ml.common.distance.Distance;
+import rapaio.ml.common.distance.EuclideanDistance;
 
 public class ClusterSilhouetteTest {
 
@@ -182,4 +189,21 @@ Cluster 2 has average silhouette width: 0.23636384893740545
                 ClusterSilhouette.from(VarInt.fill(1, 0), DistanceMatrix.empty(1), true).compute());
         assertEquals("Silhouettes cannot be computed for a single cluster.", ex.getMessage());
     }
+
+    @Test
+    void matrixTest() {
+        Random random = new Random(42);
+        DArray<Double> x = DArrays.zeros(Shape.of(60, 3)).apply_(_ -> random.nextGaussian());
+        Var assignment = VarInt.from(60, row -> row % 3);
+
+        Distance distance = new EuclideanDistance();
+        DistanceMatrix dm = DistanceMatrix.empty(60).fill((i, j) -> distance.compute(x.selsq(0, i), x.selsq(0, j)));
+
+        ClusterSilhouette expected = ClusterSilhouette.from(assignment, dm, false).compute();
+        ClusterSilhouette actual = ClusterSilhouette.from(assignment, x, distance).compute();
+
+        assertArrayEquals(expected.getScores(), actual.getScores(), 1e-12);
+        assertArrayEquals(expected.getClusterScores(), actual.getClusterScores(), 1e-12);
+        assertEquals(expected.getAverageClusterScore(), actual.getAverageClusterScore(), 1e-12);
+    }
 }
@@ -0,0 +1,95 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.eval;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+public class ThreadBudgetTest {
+
+    @Test
+    void testSplit() {
+        assertEquals(new ThreadBudget(1, 1), ThreadBudget.split(1, 10));
+        assertEquals(new ThreadBudget(8, 1), ThreadBudget.split(8, 10));
+        assertEquals(new ThreadBudget(5, 3), ThreadBudget.split(16, 5));
+        assertEquals(new ThreadBudget(1, 8), ThreadBudget.split(8, 1));
+        assertEquals(new ThreadBudget(1, 1), ThreadBudget.split(0, 0));
+
+        ThreadBudget budget = ThreadBudget.split(16, 5);
+        assertEquals(1, budget.modelPoolSize(0));
+        assertEquals(2, budget.modelPoolSize(2));
+        assertEquals(3, budget.modelPoolSize(10));
+        assertTrue(budget.modelPoolSize(-1) <= 3);
+    }
+
+    @Test
+    void testRun() {
+        List<Integer> tasks = IntStream.range(0, 100).boxed().toList();
+        for (int threads : new int[] {1, 4}) {
+            ThreadBudget budget = ThreadBudget.split(threads, tasks.size());
+            int[] done = new int[tasks.size()];
+            AtomicInteger running = new AtomicInteger();
+            AtomicInteger maxRunning = new AtomicInteger();
+            budget.run(null, tasks, task -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                done[task]++;
+                running.decrementAndGet();
+            });
+            assertArrayEquals(IntStream.generate(() -> 1).limit(tasks.size()).toArray(), done);
+            assertTrue(maxRunning.get() <= threads);
+        }
+    }
+
+    @Test
+    void testSharedExecutor() {
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            ThreadBudget budget = ThreadBudget.split(3, 10);
+            AtomicInteger count = new AtomicInteger();
+            budget.run(executor, IntStream.range(0, 10).boxed().toList(), _ -> count.incrementAndGet());
+            budget.run(executor, IntStream.range(0, 10).boxed().toList(), _ -> count.incrementAndGet());
+            assertEquals(20, count.get());
+            // shared executor is not shut down
+            assertFalse(executor.isShutdown());
+
+            var ex = assertThrows(IllegalStateException.class, () -> budget.run(executor, List.of(1, 2, 3), task -> {
+                if (task == 2) {
+                    throw new IllegalStateException("failed");
+                }
+            }));
+            assertEquals("failed", ex.getMessage());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.eval.metric;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import rapaio.data.Frame;
+import rapaio.data.Mapping;
+import rapaio.data.Var;
+import rapaio.data.VarDouble;
+import rapaio.data.VarNominal;
+import rapaio.data.VarString;
+import rapaio.datasets.Datasets;
+import rapaio.ml.model.ClassifierResult;
+import rapaio.ml.model.ensemble.CForest;
+
+public class StreamingMetricTest {
+
+    private static final double TOL = 1e-12;
+
+    @Test
+    void testROC() {
+        Frame iris = Datasets.loadIrisDataset();
+        Var score = iris.rvar(0);
+        Var actual = iris.rvar("class");
+
+        // distinct scores fall into distinct bins, thus the area is exact
+        StreamingROC roc = StreamingROC.newMetric("virginica", 400, 4, 8).update(actual, score);
+        assertEquals(150, roc.count());
+        assertEquals(ROC.from(score, actual, "virginica").auc(), roc.auc(), TOL);
+        assertEquals(averagePrecision(score, actual, "virginica"), roc.prAuc(), TOL);
+
+        Frame data = roc.data();
+        assertEquals(score.stream().mapToDouble().distinct().count(), data.rowCount());
+        assertEquals(1, data.getDouble(data.rowCount() - 1, ROC.fpr), TOL);
+        assertEquals(1, data.getDouble(data.rowCount() - 1, ROC.tpr), TOL);
+        assertEquals(1 / 3., data.getDouble(data.rowCount() - 1, StreamingROC.precision), TOL);
+
+        // batches accumulated in parallel and merged give the same counts
+        StreamingROC merged = IntStream.range(0, 15).parallel()
+                .mapToObj(i -> roc.newInstance().update(actual.mapRows(Mapping.range(i * 10, i * 10 + 10)),
+                        score.mapRows(Mapping.range(i * 10, i * 10 + 10))))
+                .reduce(StreamingROC::merge).orElseThrow();
+        assertEquals(roc.auc(), merged.auc(), TOL);
+        assertEquals(roc.prAuc(), merged.prAuc(), TOL);
+        assertTrue(roc.data().deepEquals(merged.data()));
+
+        // coarse bins on probabilities approximate the exact value
+        CForest model = CForest.newModel().runs.set(10).seed.set(42L).fit(iris, "class");
+        ClassifierResult result = model.predict(iris, true, true);
+        StreamingROC probabilities = StreamingROC.newMetric("versicolor", 100).update(actual, result);
+        assertEquals(ROC.from(result.firstDensity().rvar("versicolor"), actual, "versicolor").auc(), probabilities.auc(), 1e-2);
+
+        // areas are not defined without positive or without negative instances
+        StreamingROC negatives = StreamingROC.newMetric("setosa").update(0.2, false).update(0.7, false);
+        assertTrue(Double.isNaN(negatives.auc()));
+        assertTrue(Double.isNaN(negatives.prAuc()));
+        StreamingROC positives = StreamingROC.newMetric("setosa").update(0.2, true).update(0.7, true);
+        assertTrue(Double.isNaN(positives.auc()));
+        assertEquals(1, positives.prAuc(), TOL);
+
+        assertThrows(IllegalArgumentException.class, () -> roc.merge(roc));
+        assertThrows(IllegalArgumentException.class, () -> roc.merge(StreamingROC.newMetric("virginica", 400)));
+        assertThrows(IllegalArgumentException.class, () -> StreamingROC.newMetric("setosa", 0));
+        assertThrows(IllegalArgumentException.class, () -> StreamingROC.newMetric("x").update(actual, result));
+    }
+
+    @Test
+    void testConfusion() {
+        Frame iris = Datasets.loadIrisDataset();
+        Var actual = iris.rvar("class");
+        Var predict = VarNominal.from(iris.rowCount(), row -> actual.getLabel((row * 7) % iris.rowCount()),
+                actual.levels().toArray(String[]::new));
+
+        StreamingConfusion cm = StreamingConfusion.newMetric(actual.levels()).update(actual, predict);
+        Confusion expected = Confusion.from(actual, predict);
+        assertEquals(expected.accuracy(), cm.accuracy(), TOL);
+        assertEquals(expected.completeCases(), cm.completeCases());
+        assertTrue(expected.frequencyMatrix().deepEquals(cm.frequency()));
+
+        // labels are resolved by name for variables which are not nominal and for single instances
+        StreamingConfusion labels = cm.newInstance().update(actual, VarString.from(predict.size(), row -> predict.getLabel(row)));
+        for (int i = 0; i < 10; i++) {
+            labels.update(actual.getLabel(i), predict.getLabel(i));
+        }
+        assertEquals(cm.completeCases() + 10, labels.completeCases());
+
+        // missing labels are ignored, as for variables
+        labels.update("?", predict.getLabel(0));
+        labels.update(actual.getLabel(0), "?");
+        assertEquals(cm.completeCases() + 10, labels.completeCases());
+
+        StreamingConfusion merged = IntStream.range(0, 3).parallel()
+                .mapToObj(i -> cm.newInstance().update(actual.mapRows(Mapping.range(i * 50, i * 50 + 50)),
+                        predict.mapRows(Mapping.range(i * 50, i * 50 + 50))))
+                .reduce(StreamingConfusion::merge).orElseThrow();
+        assertTrue(cm.frequency().deepEquals(merged.frequency()));
+        for (String label : actual.levels()) {
+            long tp = cm.count(label, label);
+            long predicted = actual.levels().stream().mapToLong(a -> cm.count(a, label)).sum();
+            long actuals = actual.levels().stream().mapToLong(p -> cm.count(label, p)).sum();
+            assertEquals(tp / (double) predicted, merged.precision(label), TOL);
+            assertEquals(tp / (double) actuals, merged.recall(label), TOL);
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> StreamingConfusion.newMetric("a", "a"));
+        assertThrows(IllegalArgumentException.class, () -> cm.update("setosa", "x"));
+        assertThrows(IllegalArgumentException.class, () -> cm.merge(StreamingConfusion.newMetric("a", "b")));
+    }
+
+    @Test
+    void testLogLoss() {
+        Frame iris = Datasets.loadIrisDataset();
+        Var actual = iris.rvar("class");
+        CForest model = CForest.newModel().runs.set(10).seed.set(42L).fit(iris, "class");
+        ClassifierResult result = model.predict(iris, true, true);
+
+        StreamingLogLoss logLoss = StreamingLogLoss.newMetric().update(actual, result);
+        assertEquals(LogLoss.newMetric().compute(actual, result).getScore().value(), logLoss.logLoss(), TOL);
+        assertEquals(LogLoss.newMetric(false).compute(actual, result).getScore().value(), logLoss.sum(), 1e-9);
+
+        StreamingLogLoss merged = IntStream.range(0, 150).parallel()
+                .mapToObj(i -> logLoss.newInstance().update(result.firstDensity().getDouble(i, actual.getLabel(i))))
+                .reduce(StreamingLogLoss::merge).orElseThrow();
+        assertEquals(150, merged.count());
+        assertEquals(logLoss.logLoss(), merged.logLoss(), 1e-9);
+
+        // missing probabilities are ignored
+        merged.update(Double.NaN);
+        assertEquals(150, merged.count());
+        assertEquals(logLoss.logLoss(), merged.logLoss(), 1e-9);
+
+        assertThrows(IllegalArgumentException.class, () -> logLoss.merge(StreamingLogLoss.newMetric(1e-3)));
+    }
+
+    @Test
+    void testRegression() {
+        Random random = new Random(42);
+        VarDouble actual = VarDouble.from(1000, random::nextGaussian);
+        VarDouble prediction = VarDouble.from(actual, v -> v + random.nextGaussian() / 4);
+
+        StreamingRMSE rmse = StreamingRMSE.newMetric().update(actual, prediction);
+        StreamingMAE mae = StreamingMAE.newMetric().update(actual, prediction);
+        assertEquals(RMSE.newMetric().compute(actual, prediction).value(), rmse.rmse(), 1e-9);
+        assertEquals(MAE.from(actual, prediction).mae(0), mae.mae(), 1e-9);
+
+        // a single shared metric updated from parallel threads
+        StreamingRMSE shared = StreamingRMSE.newMetric();
+        StreamingMAE sharedMae = StreamingMAE.newMetric();
+        IntStream.range(0, 10).parallel().forEach(i -> {
+            Var a = actual.mapRows(Mapping.range(i * 100, i * 100 + 100));
+            Var p = prediction.mapRows(Mapping.range(i * 100, i * 100 + 100));
+            shared.update(a, p);
+            sharedMae.update(a, p);
+        });
+        assertEquals(1000, shared.count());
+        assertEquals(rmse.rmse(), shared.rmse(), 1e-9);
+        assertEquals(mae.mae(), sharedMae.mae(), 1e-9);
+
+        // missing values are ignored
+        StreamingRMSE missing = StreamingRMSE.newMetric().update(1, 2).update(Double.NaN, 3).update(VarDouble.copy(1, Double.NaN), VarDouble.copy(3, 4));
+        assertEquals(2, missing.count());
+        assertEquals(Math.sqrt(2.5), missing.rmse(), TOL);
+        assertEquals(missing.mse(), missing.newInstance().merge(missing).mse(), TOL);
+    }
+
+    /**
+     * Average precision over distinct thresholds, computed directly from definition.
+     */
+    private double averagePrecision(Var score, Var actual, String label) {
+        double p = actual.stream().filter(s -> s.getLabel().equals(label)).count();
+        double[] thresholds = score.stream().mapToDouble().distinct().sorted().toArray();
+        double ap = 0;
+        double prevRecall = 0;
+        for (int t = thresholds.length - 1; t >= 0; t--) {
+            double tp = 0;
+            double fp = 0;
+            for (int i = 0; i < score.size(); i++) {
+                if (score.getDouble(i) >= thresholds[t]) {
+                    if (actual.getLabel(i).equals(label)) {
+                        tp++;
+                    } else {
+                        fp++;
+                    }
+                }
+            }
+            ap += (tp / p - prevRecall) * tp / (tp + fp);
+            prevRecall = tp / p;
+        }
+        return ap;
+    }
+}
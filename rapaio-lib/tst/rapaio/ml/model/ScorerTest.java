@@ -0,0 +1,178 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.model;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import rapaio.darray.DArray;
+import rapaio.darray.DArrays;
+import rapaio.darray.Shape;
+import rapaio.data.Frame;
+import rapaio.data.SolidFrame;
+import rapaio.data.Var;
+import rapaio.data.VarNominal;
+import rapaio.data.VarType;
+import rapaio.datasets.Datasets;
+import rapaio.ml.model.bayes.NaiveBayes;
+import rapaio.ml.model.bayes.nb.Estimator;
+import rapaio.ml.model.bayes.nb.GaussianEstimator;
+import rapaio.ml.model.bayes.nb.MultinoulliEstimator;
+import rapaio.ml.model.boost.GBTClassifierModel;
+import rapaio.ml.model.boost.GBTRegressionModel;
+import rapaio.ml.model.ensemble.CForest;
+import rapaio.ml.model.ensemble.RForest;
+import rapaio.ml.model.linear.BinaryLogistic;
+import rapaio.ml.model.linear.LinearRegressionModel;
+import rapaio.ml.model.linear.RidgeRegressionModel;
+import rapaio.ml.model.tree.CTree;
+import rapaio.ml.model.tree.RTree;
+
+public class ScorerTest {
+
+    private static final double TOL = 1e-12;
+
+    @Test
+    void testTreeClassifiers() {
+        Frame iris = Datasets.loadIrisDataset();
+        assertClassifier(CTree.newCART().seed.set(42L).fit(iris, "class"), iris);
+        assertClassifier(CForest.newModel().runs.set(20).seed.set(42L).fit(iris, "class"), iris);
+        assertClassifier(GBTClassifierModel.newModel().runs.set(20).seed.set(42L).fit(iris, "class"), iris);
+
+        // nominal features and missing values
+        Frame play = Datasets.loadPlay();
+        Frame missing = play.copy();
+        missing.setMissing(0, "outlook");
+        missing.setMissing(1, "humidity");
+        assertClassifier(CTree.newC45().fit(play, "class"), missing);
+    }
+
+    @Test
+    void testOtherClassifiers() {
+        Frame iris = Datasets.loadIrisDataset();
+        NaiveBayes nb = NaiveBayes.newModel()
+                .estimators.add(GaussianEstimator.forType(iris, VarType.DOUBLE).toArray(new Estimator[0]))
+                .fit(iris, "class");
+        assertClassifier(nb, iris);
+
+        Frame play = Datasets.loadPlay();
+        assertClassifier(NaiveBayes.newModel()
+                .estimators.add(MultinoulliEstimator.forName("outlook"), MultinoulliEstimator.forName("windy"))
+                .estimators.add(GaussianEstimator.forNames("temp", "humidity").toArray(new Estimator[0]))
+                .fit(play, "class"), play);
+
+        Frame binary = iris.stream().filter(s -> !s.getLabel("class").equals("virginica")).toMappedFrame();
+        VarNominal clazz = VarNominal.from(binary.rowCount(), row -> binary.getLabel(row, "class")).name("clazz");
+        Frame df = binary.removeVars("class").bindVars(clazz).copy();
+        assertClassifier(BinaryLogistic.newModel().l2penalty.set(1.0).fit(df, "clazz"), df);
+    }
+
+    @Test
+    void testRegressions() {
+        Frame df = Datasets.loadISLAdvertising();
+        assertRegression(RTree.newCART().fit(df, "Sales"), df);
+        assertRegression(RForest.newRF().runs.set(10).seed.set(42L).fit(df, "Sales"), df);
+        assertRegression(GBTRegressionModel.newModel().runs.set(20).fit(df, "Sales"), df);
+        assertRegression(LinearRegressionModel.newModel().fit(df, "Sales"), df);
+        assertRegression(LinearRegressionModel.newModel().intercept.set(false).fit(df, "Sales"), df);
+        assertRegression(RidgeRegressionModel.newModel(10).fit(df, "Sales"), df);
+
+        Scorer scorer = LinearRegressionModel.newModel().fit(df, "Sales", "Radio").scorer();
+        assertEquals(List.of("TV", "Newspaper"), scorer.inputNames());
+        assertEquals(List.of("Sales", "Radio"), scorer.outputNames());
+    }
+
+    @Test
+    void testScoreBatch() {
+        Frame iris = Datasets.loadIrisDataset();
+        CForest model = CForest.newModel().runs.set(10).seed.set(42L).fit(iris, "class");
+        Scorer scorer = model.scorer();
+        DArray<Double> rows = DArrays.zeros(Shape.of(iris.rowCount(), scorer.inputNames().size()));
+        DArray<Double> out = DArrays.zeros(Shape.of(iris.rowCount(), scorer.outputNames().size()));
+        for (int i = 0; i < iris.rowCount(); i++) {
+            for (int j = 0; j < scorer.inputNames().size(); j++) {
+                rows.setDouble(iris.getDouble(i, scorer.inputNames().get(j)), i, j);
+            }
+        }
+        scorer.scoreBatch(rows, out);
+        Frame density = model.predict(iris, false, true).firstDensity();
+        for (int i = 0; i < iris.rowCount(); i++) {
+            for (int j = 0; j < scorer.outputNames().size(); j++) {
+                assertEquals(density.getDouble(i, j), out.getDouble(i, j), TOL);
+            }
+        }
+
+        // the same scorer is used concurrently from multiple threads
+        double[][] expected = scoreAll(scorer, iris);
+        IntStream.range(0, 16).parallel().forEach(_ -> assertArrayEquals(expected, scoreAll(scorer, iris)));
+
+        assertThrows(IllegalArgumentException.class, () -> scorer.scoreBatch(rows, DArrays.zeros(Shape.of(2, 4))));
+        assertThrows(IllegalArgumentException.class, () -> scorer.encode(0, "a"));
+        assertThrows(IllegalStateException.class, () -> CTree.newCART().scorer());
+        assertThrows(IllegalArgumentException.class, () -> CTree.newCART().fit(iris, "class").compile().scorer(List.of("x"), List.of("a")));
+    }
+
+    private void assertClassifier(ClassifierModel<?, ?, ?> model, Frame df) {
+        Scorer scorer = model.scorer();
+        assertEquals(model.firstTargetLevels(), scorer.outputNames());
+        Frame density = model.predict(df, true, true).firstDensity();
+        double[][] scores = scoreAll(scorer, df);
+        for (int i = 0; i < df.rowCount(); i++) {
+            for (int j = 0; j < scorer.outputNames().size(); j++) {
+                assertEquals(density.getDouble(i, j), scores[i][j], TOL, model.name() + " row " + i);
+            }
+        }
+    }
+
+    private void assertRegression(RegressionModel<?, ?, ?> model, Frame df) {
+        Scorer scorer = model.scorer();
+        Var prediction = model.predict(df).firstPrediction();
+        double[][] scores = scoreAll(scorer, df);
+        for (int i = 0; i < df.rowCount(); i++) {
+            assertEquals(prediction.getDouble(i), scores[i][0], 1e-9, model.name() + " row " + i);
+        }
+    }
+
+    private double[][] scoreAll(Scorer scorer, Frame df) {
+        List<String> names = scorer.inputNames();
+        double[] features = new double[names.size()];
+        double[][] scores = new double[df.rowCount()][scorer.outputNames().size()];
+        for (int i = 0; i < df.rowCount(); i++) {
+            for (int j = 0; j < names.size(); j++) {
+                Var var = df.rvar(names.get(j));
+                if (var.type() == VarType.NOMINAL) {
+                    features[j] = var.isMissing(i) ? Double.NaN : scorer.encode(j, var.getLabel(i));
+                } else {
+                    features[j] = var.isMissing(i) ? Double.NaN : var.getDouble(i);
+                }
+            }
+            scorer.score(features, scores[i]);
+        }
+        return scores;
+    }
+}
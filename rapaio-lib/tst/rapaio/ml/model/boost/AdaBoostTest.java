@@ -23,15 +23,19 @@ package rapaio.ml.model.boost;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Random;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import rapaio.data.Mapping;
 import rapaio.datasets.Datasets;
+import rapaio.ml.eval.metric.Confusion;
 import rapaio.ml.common.VarSelector;
 import rapaio.ml.model.tree.CTree;
 
@@ -87,4 +91,71 @@ public class AdaBoostTest {
         assertEquals(model.toContent(), copy.toContent());
         assertEquals(model.toFullContent(), copy.toFullContent());
     }
+
+    @Test
+    void earlyStoppingTest() throws IOException {
+        var spam = Datasets.loadSpamBase();
+        var train = spam.mapRows(Mapping.range(0, spam.rowCount()).stream().filter(i -> i % 2 == 0).toArray());
+        var validation = spam.mapRows(Mapping.range(0, spam.rowCount()).stream().filter(i -> i % 2 == 1).toArray());
+        var model = AdaBoost.newModel()
+                .model.set(CTree.newCART().minCount.set(4).maxDepth.set(3))
+                .validationDf.set(validation)
+                .patience.set(5)
+                .runs.set(100)
+                .seed.set(42L);
+        model.fit(train, "spam");
+
+        List<Double> scores = model.getValidationScores();
+        int best = model.getBestIteration();
+        assertEquals(best, model.getLearners().size());
+        assertEquals(best, model.getAlphas().size());
+        assertTrue(scores.get(best - 1) < 0.2);
+
+        // incremental validation error is the error of the truncated model
+        var classes = model.predict(validation).firstClasses();
+        double error = 1 - Confusion.from(validation.rvar("spam"), classes).accuracy();
+        assertEquals(scores.get(best - 1), error, 1e-10);
+    }
+
+    @Test
+    void earlyStoppingMissingTargetTest() throws IOException {
+        var spam = Datasets.loadSpamBase();
+        var train = spam.mapRows(Mapping.range(0, spam.rowCount()).stream().filter(i -> i % 2 == 0).toArray());
+        var validation = spam.mapRows(Mapping.range(0, spam.rowCount()).stream().filter(i -> i % 2 == 1).toArray()).copy();
+        for (int i = 0; i < validation.rowCount(); i += 5) {
+            validation.setMissing(i, "spam");
+        }
+        var model = AdaBoost.newModel()
+                .model.set(CTree.newCART().minCount.set(4).maxDepth.set(3))
+                .validationDf.set(validation)
+                .patience.set(5)
+                .runs.set(30)
+                .seed.set(42L);
+        model.fit(train, "spam");
+
+        // missing validation targets are not counted
+        List<Double> scores = model.getValidationScores();
+        int best = model.getBestIteration();
+        var classes = model.predict(validation).firstClasses();
+        double errors = 0;
+        int count = 0;
+        for (int i = 0; i < validation.rowCount(); i++) {
+            if (validation.isMissing(i, "spam")) {
+                continue;
+            }
+            if (!classes.getLabel(i).equals(validation.getLabel(i, "spam"))) {
+                errors++;
+            }
+            count++;
+        }
+        assertEquals(scores.get(best - 1), errors / count, 1e-10);
+
+        // unknown validation labels are rejected
+        validation.setLabel(1, "spam", "unknown");
+        var unknown = AdaBoost.newModel()
+                .model.set(CTree.newCART().minCount.set(4).maxDepth.set(3))
+                .validationDf.set(validation)
+                .runs.set(5);
+        assertThrows(IllegalArgumentException.class, () -> unknown.fit(train, "spam"));
+    }
 }
@@ -23,15 +23,20 @@ package rapaio.ml.model.boost;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Random;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import rapaio.data.Mapping;
 import rapaio.datasets.Datasets;
 import rapaio.ml.common.VarSelector;
+import rapaio.ml.eval.metric.Confusion;
 import rapaio.ml.model.tree.RTree;
 
 /**
@@ -86,4 +91,117 @@ public class GBTClassifierModelTest {
         assertEquals(model.toContent(), copy.toContent());
         assertEquals(model.toFullContent(), copy.toFullContent());
     }
+
+    @Test
+    void histogramTest() {
+        var iris = Datasets.loadIrisDataset();
+        var model = GBTClassifierModel.newModel()
+                .model.set(RTree.newCART().maxDepth.set(3).minCount.set(5).histogramBins.set(32))
+                .runs.set(20)
+                .seed.set(133L);
+        model.fit(iris, "class");
+
+        double accuracy = Confusion.from(iris.rvar("class"), model.predict(iris).firstClasses()).accuracy();
+        assertTrue(accuracy > 0.95);
+    }
+
+    @Test
+    void parallelClassTreesTest() {
+        var iris = Datasets.loadIrisDataset();
+        var sequential = GBTClassifierModel.newModel()
+                .model.set(RTree.newCART().maxDepth.set(3).minCount.set(5).seed.set(7L))
+                .shrinkage.set(0.3)
+                .runs.set(20)
+                .seed.set(133L);
+        var parallel = sequential.newInstance().poolSize.set(3);
+        sequential.fit(iris, "class");
+        parallel.fit(iris, "class");
+
+        var sequentialDensity = sequential.predict(iris).firstDensity();
+        var parallelDensity = parallel.predict(iris).firstDensity();
+        for (int i = 0; i < iris.rowCount(); i++) {
+            for (int j = 0; j < sequentialDensity.varCount(); j++) {
+                assertEquals(sequentialDensity.getDouble(i, j), parallelDensity.getDouble(i, j));
+            }
+        }
+        double accuracy = Confusion.from(iris.rvar("class"), parallel.predict(iris).firstClasses()).accuracy();
+        assertTrue(accuracy > 0.95);
+    }
+
+    @Test
+    void earlyStoppingTest() {
+        var iris = Datasets.loadIrisDataset();
+        var train = iris.mapRows(Mapping.range(0, iris.rowCount()).stream().filter(i -> i % 3 != 0).toArray());
+        var validation = iris.mapRows(Mapping.range(0, iris.rowCount()).stream().filter(i -> i % 3 == 0).toArray());
+        var model = GBTClassifierModel.newModel()
+                .model.set(RTree.newCART().maxDepth.set(3).minCount.set(2).seed.set(7L))
+                .shrinkage.set(0.5)
+                .runs.set(200)
+                .validationDf.set(validation)
+                .patience.set(5)
+                .seed.set(133L);
+        model.fit(train, "class");
+
+        List<Double> scores = model.getValidationScores();
+        int best = model.getBestIteration();
+        assertEquals(best + 5, scores.size());
+        assertEquals(best, model.getTrees().get(0).size());
+
+        // incremental validation deviance is the deviance of the truncated model
+        var density = model.predict(validation).firstDensity();
+        double deviance = 0;
+        for (int i = 0; i < validation.rowCount(); i++) {
+            deviance -= Math.log(density.getDouble(i, validation.getLabel(i, "class")));
+        }
+        assertEquals(scores.get(best - 1), deviance / validation.rowCount(), 1e-10);
+    }
+
+    @Test
+    void earlyStoppingMissingTargetTest() {
+        var iris = Datasets.loadIrisDataset();
+        var train = iris.mapRows(Mapping.range(0, iris.rowCount()).stream().filter(i -> i % 3 != 0).toArray());
+        var validation = iris.mapRows(Mapping.range(0, iris.rowCount()).stream().filter(i -> i % 3 == 0).toArray()).copy();
+        for (int i = 0; i < validation.rowCount(); i += 7) {
+            validation.setMissing(i, "class");
+        }
+        var model = GBTClassifierModel.newModel()
+                .model.set(RTree.newCART().maxDepth.set(3).minCount.set(2).seed.set(7L))
+                .shrinkage.set(0.5)
+                .runs.set(50)
+                .validationDf.set(validation)
+                .patience.set(5)
+                .seed.set(133L);
+        model.fit(train, "class");
+
+        List<Double> scores = model.getValidationScores();
+        int best = model.getBestIteration();
+        assertTrue(scores.stream().allMatch(Double::isFinite));
+
+        // missing validation targets are not scored
+        var density = model.predict(validation).firstDensity();
+        double deviance = 0;
+        int count = 0;
+        for (int i = 0; i < validation.rowCount(); i++) {
+            if (validation.isMissing(i, "class")) {
+                continue;
+            }
+            deviance -= Math.log(density.getDouble(i, validation.getLabel(i, "class")));
+            count++;
+        }
+        assertEquals(scores.get(best - 1), deviance / count, 1e-10);
+    }
+
+    @Test
+    void earlyStoppingUnknownTargetTest() {
+        var iris = Datasets.loadIrisDataset();
+        var train = iris.mapRows(Mapping.range(0, iris.rowCount()).stream().filter(i -> i % 3 != 0).toArray());
+        var validation = iris.mapRows(Mapping.range(0, iris.rowCount()).stream().filter(i -> i % 3 == 0).toArray()).copy();
+        validation.setLabel(0, "class", "unknown");
+        var model = GBTClassifierModel.newModel()
+                .model.set(RTree.newCART().maxDepth.set(3).minCount.set(2).seed.set(7L))
+                .runs.set(10)
+                .validationDf.set(validation);
+        var ex = assertThrows(IllegalArgumentException.class, () -> model.fit(train, "class"));
+        assertTrue(ex.getMessage().contains("unknown"));
+    }
 }
@@ -24,11 +24,13 @@ package rapaio.ml.model.boost;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.List;
 import java.util.Random;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import rapaio.data.Mapping;
 import rapaio.data.Var;
 import rapaio.data.VarDouble;
 import rapaio.datasets.Datasets;
@@ -157,4 +159,55 @@ public class GBTRegressionResultTest {
 
         assertEquals(model.toString(), copy.toString());
     }
+
+    @Test
+    void histogramTest() {
+        var advertise = Datasets.loadISLAdvertising().removeVars("ID");
+        var loss = new L2LossFunction();
+        var exact = GBTRegressionModel.newModel()
+                .runs.set(100)
+                .shrinkage.set(0.3)
+                .model.set(RTree.newCART().maxDepth.set(3))
+                .seed.set(1234L);
+        var hist = GBTRegressionModel.newModel()
+                .runs.set(100)
+                .shrinkage.set(0.3)
+                .model.set(RTree.newCART().maxDepth.set(3).histogramBins.set(64))
+                .seed.set(1234L);
+        exact.fit(advertise, "Sales");
+        hist.fit(advertise, "Sales");
+
+        double exactError = loss.errorScore(advertise.rvar("Sales"), exact.predict(advertise).firstPrediction());
+        double histError = loss.errorScore(advertise.rvar("Sales"), hist.predict(advertise).firstPrediction());
+        assertTrue(histError < 2 * exactError + 0.1);
+    }
+
+    @Test
+    void earlyStoppingTest() {
+        var advertise = Datasets.loadISLAdvertising().removeVars("ID");
+        var train = advertise.mapRows(Mapping.range(0, 150));
+        var validation = advertise.mapRows(Mapping.range(150, advertise.rowCount()));
+        var model = GBTRegressionModel.newModel()
+                .runs.set(500)
+                .shrinkage.set(0.6)
+                .eps.set(1e-20)
+                .model.set(RTree.newCART().maxDepth.set(3))
+                .validationDf.set(validation)
+                .patience.set(10)
+                .seed.set(1234L);
+        model.fit(train, "Sales");
+
+        List<Double> scores = model.getValidationScores();
+        int best = model.getBestIteration();
+        assertTrue(scores.size() < 500);
+        assertEquals(best + 10, scores.size());
+        assertEquals(best, model.getTrees().size());
+        for (double score : scores) {
+            assertTrue(scores.get(best - 1) <= score);
+        }
+
+        // incremental validation loss is the loss of the truncated model
+        double loss = new L2LossFunction().errorScore(validation.rvar("Sales"), model.predict(validation).firstPrediction());
+        assertEquals(scores.get(best - 1), loss, 1e-10);
+    }
 }
@@ -41,6 +41,7 @@ import rapaio.data.SolidFrame;
 import rapaio.data.VarType;
 import rapaio.datasets.Datasets;
 import rapaio.io.Csv;
+import rapaio.ml.eval.metric.Confusion;
 
 /**
  * @author <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a> on 8/14/20.
@@ -216,11 +217,11 @@ public class CForestTest {
                 [3]  sepal-width  2.7973776  4.8615338   6.4070161 \s
                                 
                 Permutation Variable Importance:
-                        name        mean        sd     scaled score\s
-                [0]  petal-width 43.6611601 27.5449726 100         \s
-                [1] petal-length 42.5856186 27.7044274  97.5366172 \s
-                [2] sepal-length  9.2340389 13.4677241  21.149321  \s
-                [3]  sepal-width  2.7973776  4.8615338   6.4070161 \s
+                        name     mean      sd      z-score   p-value \s
+                [0] petal-length 17.41 11.2600976 1.5461678 0.1220641\s
+                [1]  petal-width 17.19 11.2696025 1.5253422 0.1271738\s
+                [2] sepal-length  1.59  3.3877229 0.4693418 0.6388253\s
+                [3]  sepal-width  0.41  1.7927745 0.2286958 0.8191054\s
                                 
                 """, model.toFullContent());
     }
@@ -322,4 +323,45 @@ public class CForestTest {
 
         assertTrue(density1.deepEquals(density2));
     }
+
+    @Test
+    void histogramTest() {
+        var model = CForest.newModel().runs.set(20).seed.set(123L);
+        model.model.get().histogramBins.set(32);
+        var prediction = model.fit(iris, "class").predict(iris);
+
+        double accuracy = Confusion.from(iris.rvar("class"), prediction.firstClasses()).accuracy();
+        assertTrue(accuracy > 0.95);
+    }
+
+    @Test
+    void presortedTest() {
+        var exact = CForest.newModel().runs.set(20).seed.set(123L).fit(iris, "class");
+        var presorted = CForest.newModel().runs.set(20).seed.set(123L);
+        presorted.model.get().presorted.set(true);
+        presorted.fit(iris, "class");
+
+        // candidates are the same, thus bootstrapped trees are identical
+        Frame exactDensity = exact.predict(iris).firstDensity();
+        Frame presortedDensity = presorted.predict(iris).firstDensity();
+        for (int i = 0; i < iris.rowCount(); i++) {
+            for (int j = 0; j < exactDensity.varCount(); j++) {
+                assertEquals(exactDensity.getDouble(i, j), presortedDensity.getDouble(i, j), 1e-12);
+            }
+        }
+    }
+
+    @Test
+    void oobParallelTest() {
+        var sequential = CForest.newModel().runs.set(20).oob.set(true).viPerm.set(true).seed.set(42L);
+        var parallel = sequential.newInstance().poolSize.set(4);
+        sequential.fit(iris, "class");
+        parallel.fit(iris, "class");
+
+        assertEquals(sequential.oobError(), parallel.oobError());
+        for (int i = 0; i < iris.rowCount(); i++) {
+            assertEquals(sequential.oobPredictedClasses().getLabel(i), parallel.oobPredictedClasses().getLabel(i));
+        }
+        assertEquals(sequential.getPermVIInfo().toFullContent(), parallel.getPermVIInfo().toFullContent());
+    }
 }
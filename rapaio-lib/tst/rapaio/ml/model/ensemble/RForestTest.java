@@ -22,6 +22,7 @@
 package rapaio.ml.model.ensemble;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -29,6 +30,7 @@ import org.junit.jupiter.api.Test;
 import rapaio.core.SamplingTools;
 import rapaio.data.Frame;
 import rapaio.data.VarDouble;
+import rapaio.data.sample.RowSampler;
 import rapaio.datasets.Datasets;
 import rapaio.ml.eval.metric.RMSE;
 import rapaio.ml.model.RegressionResult;
@@ -94,4 +96,40 @@ public class RForestTest {
             rf.fit(iris, target);
         }
     }
+
+    @Test
+    void histogramTest() {
+        RForest rf = RForest.newRF(RTree.newCART().minCount.set(1).histogramBins.set(32)).runs.set(20).seed.set(123L);
+        rf.fit(advertising, "Sales");
+        assertEquals(20, rf.getFittedModels().size());
+
+        double rmse = RMSE.newMetric().compute(advertising.rvar("Sales"), rf.predict(advertising).firstPrediction()).value();
+        assertTrue(rmse < 1.0);
+    }
+
+    @Test
+    void presortedTest() {
+        RForest rf = RForest.newRF(RTree.newCART().minCount.set(1).presorted.set(true)).runs.set(20).seed.set(123L);
+        rf.fit(advertising, "Sales");
+        assertEquals(20, rf.getFittedModels().size());
+
+        double rmse = RMSE.newMetric().compute(advertising.rvar("Sales"), rf.predict(advertising).firstPrediction()).value();
+        assertTrue(rmse < 1.0);
+    }
+
+    @Test
+    void oobTest() {
+        RForest sequential = RForest.newRF().rowSampler.set(RowSampler.bootstrap()).runs.set(20).oob.set(true).viPerm.set(true).seed.set(42L);
+        RForest parallel = sequential.newInstance().poolSize.set(4);
+        sequential.fit(advertising, "Sales");
+        parallel.fit(advertising, "Sales");
+
+        assertEquals(advertising.rowCount(), sequential.oobPredictions().size());
+        assertTrue(sequential.oobError() > 0);
+        assertEquals(sequential.oobError(), parallel.oobError(), 1e-10);
+
+        Frame permInfo = sequential.getPermVIInfo();
+        assertEquals(advertising.varCount() - 1, permInfo.rowCount());
+        assertEquals(permInfo.toFullContent(), parallel.getPermVIInfo().toFullContent());
+    }
 }
@@ -25,11 +25,17 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.List;
+import java.util.Random;
 import java.util.function.BiFunction;
+import java.util.function.Supplier;
 
 import org.junit.jupiter.api.Test;
 
+import rapaio.core.distributions.Normal;
 import rapaio.darray.DArray;
+import rapaio.darray.DArrays;
+import rapaio.darray.Shape;
 import rapaio.data.Frame;
 import rapaio.data.SolidFrame;
 import rapaio.data.VarDouble;
@@ -132,21 +138,21 @@ public class KMClusterTest {
         assertEquals("""
                 KMCluster{init=PlusPlus,k=2,method=KMeans,nstart=100,runs=100,seed=42}
                 Model fitted=true
-                Inertia:8901.290870880382
-                Iterations:9
+                Inertia:8901.768720947213
+                Iterations:3
                 Learned clusters:2
                 """, model.toSummary());
         assertEquals(model.toContent(), model.toSummary());
         assertEquals("""
                 KMCluster{init=PlusPlus,k=2,method=KMeans,nstart=100,runs=100,seed=42}
                 Model fitted=true
-                Inertia:8901.290870880382
-                Iterations:9
+                Inertia:8901.768720947213
+                Iterations:3
                 Learned clusters:2
                 Centroids:
                     eruptions  waiting  \s
-                [0] 4.2948012 80.2865497\s
-                [1] 2.0964646 54.7474747\s
+                [0] 4.2979302 80.2848837\s
+                [1] 2.09433   54.75     \s
                 """, model.toFullContent());
 
     }
@@ -220,19 +226,78 @@ public class KMClusterTest {
         assertEquals("""
                 Overall errors:\s
                 > count: 272
-                > mean: 32.7273288
-                > var: 1,621.0637918
-                > sd: 40.2624365
-                > inertia/error:8,890.7628278
-                > iterations:10
+                > mean: 32.7270909
+                > var: 1,622.7494621
+                > sd: 40.2833646
+                > inertia/error:8,901.7687209
+                > iterations:4
                                 
                 Per cluster:\s
                     ID count    mean         var      var/total     sd    \s
-                [0]  2   172 31.6607834 1,760.3732065 1.085937  41.9568017\s
-                [1]  1   100 34.5617867 1,391.437297  0.8583483 37.3019744\s
+                [0]  2   172 31.6604119 1,763.2348144 1.0865724 41.9908897\s
+                [1]  1   100 34.5617787 1,391.1074822 0.8572534 37.2975533\s
                 """, result.toSummary());
 
         assertEquals(result.toSummary(), result.toContent());
         assertEquals(result.toSummary(), result.toFullContent());
     }
+
+    @Test
+    void accelerationTest() {
+        Normal normal = Normal.std();
+        Random random = new Random(42);
+        DArray<Double> x = DArrays.zeros(Shape.of(2_000, 4)).apply_(_ -> normal.sampleNext(random));
+        for (int i = 0; i < x.dim(0); i++) {
+            // shift instances in a few well separated groups
+            x.setDouble(x.getDouble(i, 0) + 6 * (i % 5), i, 0);
+        }
+        Frame df = SolidFrame.matrix(x, "a", "b", "c", "d");
+
+        for (Supplier<KMCluster> model : List.<Supplier<KMCluster>>of(KMCluster::newKMeans, KMCluster::newKMedians)) {
+            for (int k : new int[] {5, 40}) {
+                KMCluster none = model.get().k.set(k).runs.set(20).seed.set(7L)
+                        .acceleration.set(KMCluster.Acceleration.None).fit(df);
+                VarInt expected = none.predict(df).assignment();
+                for (var acceleration : new KMCluster.Acceleration[] {
+                        KMCluster.Acceleration.Hamerly, KMCluster.Acceleration.Elkan, KMCluster.Acceleration.Auto}) {
+                    KMCluster accelerated = model.get().k.set(k).runs.set(20).seed.set(7L)
+                            .acceleration.set(acceleration).fit(df);
+                    assertEquals(none.getErrors().size(), accelerated.getErrors().size());
+                    assertEquals(none.getError(), accelerated.getError(), 1e-9 * none.getError());
+                    assertTrue(none.getCentroidsMatrix().deepEquals(accelerated.getCentroidsMatrix(), 1e-9));
+                    assertTrue(expected.deepEquals(accelerated.predict(df).assignment()));
+                }
+            }
+        }
+    }
+
+    @Test
+    void parallelInitTest() {
+        Normal normal = Normal.std();
+        Random random = new Random(42);
+        DArray<Double> x = DArrays.zeros(Shape.of(5_000, 2)).apply_(_ -> normal.sampleNext(random));
+        for (int i = 0; i < x.dim(0); i++) {
+            x.setDouble(x.getDouble(i, 0) + 20 * (i % 8), i, 0);
+        }
+
+        // one centroid is selected from each well separated group
+        DArray<Double> c = KMClusterInit.Parallel.init(new Random(7), KMCluster.KMeans.distance(), x, 8);
+        assertEquals(8, c.dim(0));
+        boolean[] groups = new boolean[8];
+        for (int i = 0; i < c.dim(0); i++) {
+            groups[(int) Math.round(c.getDouble(i, 0) / 20)] = true;
+        }
+        for (boolean group : groups) {
+            assertTrue(group);
+        }
+
+        // when there are not enough distinct candidates the centroids are completed with random instances
+        DArray<Double> same = DArrays.zeros(Shape.of(10, 2));
+        assertEquals(3, KMClusterInit.Parallel.init(new Random(7), KMCluster.KMeans.distance(), same, 3).dim(0));
+
+        var df = Datasets.loadOldFaithful();
+        KMCluster parallel = KMCluster.newKMeans().k.set(2).init.set(KMClusterInit.Parallel).seed.set(42L).fit(df);
+        KMCluster plusPlus = KMCluster.newKMeans().k.set(2).init.set(KMClusterInit.PlusPlus).seed.set(42L).fit(df);
+        assertEquals(plusPlus.getError(), parallel.getError(), 1e-9);
+    }
 }
@@ -34,8 +34,10 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import rapaio.core.distributions.Normal;
+import rapaio.core.stat.Minimum;
 import rapaio.darray.DArray;
 import rapaio.darray.DArrays;
+import rapaio.darray.Shape;
 import rapaio.data.Frame;
 import rapaio.data.SolidFrame;
 import rapaio.data.Var;
@@ -44,6 +46,8 @@ import rapaio.data.VarInt;
 import rapaio.data.VarRange;
 import rapaio.data.VarType;
 import rapaio.datasets.Datasets;
+import rapaio.ml.common.distance.Distance;
+import rapaio.ml.common.distance.EuclideanDistance;
 import rapaio.ml.common.distance.Manhattan;
 import rapaio.ml.common.distance.MinkowskiDistance;
 import rapaio.ml.eval.RandIndex;
@@ -274,4 +278,119 @@ public class KMedoidsTest {
 
         assertEquals(1, km.peekNextCentroid(x, Set.of(4), dv, cache));
     }
+
+    @Test
+    void medoidDistancesTest() {
+        DArray<Double> x = DArrays.random(Shape.of(50, 3), random);
+        for (Distance distance : List.of(new Manhattan(), new EuclideanDistance())) {
+            MedoidDistances condensed = MedoidDistances.condensed(distance, x);
+            MedoidDistances computed = MedoidDistances.computed(distance, x);
+            for (int i = 0; i < x.dim(0); i++) {
+                for (int j = 0; j < x.dim(0); j++) {
+                    assertEquals(computed.get(i, j), condensed.get(i, j), 1e-12);
+                    assertEquals(condensed.get(i, j), condensed.get(j, i));
+                }
+            }
+        }
+    }
+
+    @Test
+    void fastPAMTest() {
+        Frame df = blobs(40);
+        DArray<Double> x = df.darray();
+        Manhattan manhattan = new Manhattan();
+
+        for (KMedoids.Method method : new KMedoids.Method[] {KMedoids.Method.FAST_PAM1, KMedoids.Method.FAST_PAM2}) {
+            KMedoids km = KMedoids.newFastPAMModel(3).method.set(method).fit(df);
+            DArray<Double> c = km.getCentroidsMatrix();
+            double error = totalDeviation(x, c, manhattan);
+            assertEquals(km.getErrors().getDouble(km.getErrors().size() - 1), error, 1e-9);
+
+            // no swap of a medoid with an instance improves the total deviation
+            for (int i = 0; i < c.dim(0); i++) {
+                for (int j = 0; j < x.dim(0); j++) {
+                    DArray<Double> swapped = c.copy();
+                    for (int l = 0; l < x.dim(1); l++) {
+                        swapped.setDouble(x.getDouble(j, l), i, l);
+                    }
+                    assertTrue(totalDeviation(x, swapped, manhattan) >= error - 1e-9);
+                }
+            }
+
+            KMedoids computed = KMedoids.newFastPAMModel(3).method.set(method).precompute.set(false).fit(df);
+            assertTrue(c.deepEquals(computed.getCentroidsMatrix()));
+
+            // a matrix which does not fit in the size limit is not precomputed, which gives the same medoids
+            KMedoids limited = KMedoids.newFastPAMModel(3).method.set(method).precomputeSize.set(0L).fit(df);
+            assertTrue(c.deepEquals(limited.getCentroidsMatrix()));
+        }
+    }
+
+    @Test
+    void precomputeSizeTest() {
+        // 1000 instances need 499500 distances, a little below 4 MB
+        assertEquals(499_500L * Double.BYTES, MedoidDistances.condensedBytes(1_000));
+        // 50k instances would need about 10 GB, above the default limit
+        assertTrue(MedoidDistances.condensedBytes(50_000) > 256L << 20);
+        // matrices which cannot be allocated are never precomputed
+        assertEquals(Long.MAX_VALUE, MedoidDistances.condensedBytes(100_000));
+
+        DArray<Double> x = DArrays.zeros(Shape.of(1_000, 2));
+        Manhattan manhattan = new Manhattan();
+        assertEquals("Condensed", MedoidDistances.of(manhattan, x, true, 4).getClass().getSimpleName());
+        assertEquals("Computed", MedoidDistances.of(manhattan, x, true, 3).getClass().getSimpleName());
+        assertEquals("Computed", MedoidDistances.of(manhattan, x, false, 4).getClass().getSimpleName());
+        assertEquals("Condensed", MedoidDistances.of(manhattan, x, true, Long.MAX_VALUE).getClass().getSimpleName());
+    }
+
+    @Test
+    void samplingMethodsTest() {
+        Frame df = blobs(1_000);
+        Var target = VarInt.from(df.rowCount(), row -> row / 1_000);
+
+        for (KMedoids.Method method : new KMedoids.Method[] {KMedoids.Method.CLARA, KMedoids.Method.CLARANS}) {
+            KMedoids km = KMedoids.newCLARAModel(3).method.set(method).samples.set(4).seed.set(42L);
+            ClusteringResult<KMedoids> result = km.fit(df).predict(df);
+            assertEquals(4, km.getErrors().size());
+            assertTrue(RandIndex.from(target, result.assignment()).getRandIndex() > 0.95);
+
+            // the best sample is kept
+            double error = totalDeviation(df.darray(), km.getCentroidsMatrix(), new Manhattan());
+            assertEquals(Minimum.of(km.getErrors()).value(), error, 1e-6);
+
+            // results do not depend on parallel execution
+            KMedoids copy = km.newInstance().fit(df);
+            assertTrue(km.getCentroidsMatrix().deepEquals(copy.getCentroidsMatrix()));
+        }
+    }
+
+    /**
+     * Three groups of instances around (0,0), (5,5) and (0,5).
+     */
+    private Frame blobs(int size) {
+        VarDouble x1 = VarDouble.empty().name("x1");
+        VarDouble x2 = VarDouble.empty().name("x2");
+        double[] m1 = new double[] {0, 5, 0};
+        double[] m2 = new double[] {0, 5, 5};
+        Normal normal = Normal.std();
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < size; j++) {
+                x1.addDouble(m1[i] + normal.sampleNext(random));
+                x2.addDouble(m2[i] + normal.sampleNext(random));
+            }
+        }
+        return SolidFrame.byVars(x1, x2);
+    }
+
+    private double totalDeviation(DArray<Double> x, DArray<Double> c, Distance distance) {
+        double error = 0;
+        for (int i = 0; i < x.dim(0); i++) {
+            double min = Double.POSITIVE_INFINITY;
+            for (int j = 0; j < c.dim(0); j++) {
+                min = Math.min(min, distance.compute(x.selsq(0, i), c.selsq(0, j)));
+            }
+            error += min;
+        }
+        return error;
+    }
 }
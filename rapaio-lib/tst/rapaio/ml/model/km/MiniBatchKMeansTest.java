@@ -0,0 +1,152 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.model.km;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import rapaio.core.distributions.Normal;
+import rapaio.darray.DArray;
+import rapaio.darray.DArrays;
+import rapaio.darray.Shape;
+import rapaio.data.Frame;
+import rapaio.data.Mapping;
+import rapaio.data.SolidFrame;
+import rapaio.data.VarInt;
+import rapaio.data.VarType;
+import rapaio.datasets.Datasets;
+import rapaio.io.Csv;
+
+public class MiniBatchKMeansTest {
+
+    private static final int GROUPS = 5;
+
+    private Frame df;
+
+    @BeforeEach
+    void beforeEach() {
+        Normal normal = Normal.std();
+        Random random = new Random(42);
+        DArray<Double> x = DArrays.zeros(Shape.of(10_000, 3)).apply_(_ -> normal.sampleNext(random));
+        for (int i = 0; i < x.dim(0); i++) {
+            // shift instances in a few well separated groups
+            x.setDouble(x.getDouble(i, 0) + 10 * (i % GROUPS), i, 0);
+        }
+        df = SolidFrame.matrix(x, "a", "b", "c");
+    }
+
+    @Test
+    void testFit() {
+        MiniBatchKMeans model = MiniBatchKMeans.newMiniBatchKMeans()
+                .k.set(GROUPS).batchSize.set(256).runs.set(200).seed.set(42L).fit(df);
+        KMCluster full = KMCluster.newKMeans().k.set(GROUPS).init.set(KMClusterInit.PlusPlus).seed.set(42L).fit(df);
+
+        assertEquals(200, model.getErrors().size());
+        assertEquals(200 * 256, IntStream.range(0, GROUPS).mapToLong(i -> model.getCounts()[i]).sum());
+
+        // inertia is close to the inertia of full batch kmeans
+        double inertia = 0;
+        for (double score : model.predict(df).scores()) {
+            inertia += score * score;
+        }
+        assertTrue(inertia < full.getError() * 1.02);
+
+        assertTrue(purity(model.predict(df).assignment()) > 0.99);
+
+        // same seed gives the same model
+        MiniBatchKMeans copy = model.newInstance().fit(df);
+        assertTrue(model.getCentroidsMatrix().deepEquals(copy.getCentroidsMatrix()));
+    }
+
+    @Test
+    void testFitBatches() {
+        int batchRows = 1_000;
+        MiniBatchKMeans model = MiniBatchKMeans.newMiniBatchKMeans().k.set(GROUPS).batchSize.set(300).seed.set(42L)
+                .fitBatches(IntStream.range(0, df.rowCount() / batchRows)
+                        .mapToObj(i -> df.mapRows(Mapping.range(i * batchRows, (i + 1) * batchRows))));
+
+        // each batch of 1000 rows is split in 4 mini batches
+        assertEquals(40, model.getErrors().size());
+        assertEquals(df.rowCount(), IntStream.range(0, GROUPS).mapToLong(i -> model.getCounts()[i]).sum());
+        assertTrue(purity(model.predict(df).assignment()) > 0.99);
+
+        // partial fit continues from the current centroids
+        model.partialFit(df.mapRows(Mapping.range(0, 100)));
+        assertEquals(41, model.getErrors().size());
+
+        // fit on a stream starts again
+        model.fitBatches(IntStream.range(0, 2).mapToObj(i -> df.mapRows(Mapping.range(i * batchRows, (i + 1) * batchRows))));
+        assertEquals(8, model.getErrors().size());
+
+        assertThrows(IllegalArgumentException.class, () -> MiniBatchKMeans.newMiniBatchKMeans().k.set(GROUPS)
+                .partialFit(df.mapRows(Mapping.range(0, 3))));
+    }
+
+    @Test
+    void testFitCsvBatches() throws Exception {
+        Frame iris = Datasets.loadIrisDataset().removeVars("class");
+        MiniBatchKMeans model = MiniBatchKMeans.newMiniBatchKMeans().k.set(3).seed.set(42L);
+        try (var batches = Csv.instance().defaultTypes.set(VarType.DOUBLE).varTypes.add(VarType.NOMINAL, "class")
+                .readBatches(Datasets.resourceAsStream("iris-r.csv"), 50)) {
+            model.fitBatches(batches.map(batch -> batch.removeVars("class")));
+        }
+        assertEquals(3, model.getErrors().size());
+        assertEquals(150, IntStream.range(0, 3).mapToLong(i -> model.getCounts()[i]).sum());
+        assertEquals(150, model.predict(iris).assignment().size());
+    }
+
+    @Test
+    void testPrinting() {
+        MiniBatchKMeans model = MiniBatchKMeans.newMiniBatchKMeans().k.set(GROUPS).batchSize.set(100).runs.set(10).seed.set(42L);
+        assertEquals("MiniBatchKMeans{batchSize=100,k=5,runs=10,seed=42}, fitted=false", model.toString());
+        assertEquals("""
+                MiniBatchKMeans{batchSize=100,k=5,runs=10,seed=42}
+                Model fitted=false
+                """, model.toSummary());
+
+        model.fit(df);
+        assertTrue(model.toSummary().contains("Batches:10\nLearned clusters:5\n"));
+        assertTrue(model.toFullContent().startsWith(model.toSummary() + "Centroids:\n"));
+    }
+
+    /**
+     * Fraction of instances which are in the cluster of the majority of their generating group.
+     */
+    private double purity(VarInt assignment) {
+        int[][] counts = new int[GROUPS][GROUPS];
+        for (int i = 0; i < assignment.size(); i++) {
+            counts[i % GROUPS][assignment.getInt(i)]++;
+        }
+        int sum = 0;
+        for (int[] groupCounts : counts) {
+            sum += IntStream.of(groupCounts).max().orElse(0);
+        }
+        return sum / (double) assignment.size();
+    }
+}
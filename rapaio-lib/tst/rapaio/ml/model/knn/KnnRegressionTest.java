@@ -81,4 +81,18 @@ public class KnnRegressionTest {
             }
         }
     }
+
+    @Test
+    void equalDistancesTest() {
+        VarDouble x = VarDouble.wrap(0, 0, 5, 6).name("x");
+        VarDouble y = VarDouble.wrap(1, 3, 10, 20).name("y");
+
+        KnnRegression model = KnnRegression.newModel().k.set(2).kernel.set(KnnRegression.Kernel.RECTANGULAR);
+        model.fit(SolidFrame.byVars(x, y), "y");
+        RegressionResult prediction = model.predict(SolidFrame.byVars(VarDouble.wrap(0, 6).name("x")));
+
+        // both rows at distance zero are neighbours
+        assertEquals(2, prediction.firstPrediction().getDouble(0), 1e-12);
+        assertEquals(15, prediction.firstPrediction().getDouble(1), 1e-12);
+    }
 }
@@ -21,14 +21,19 @@
 
 package rapaio.ml.model.svm;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.Random;
 import java.util.logging.Level;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import rapaio.data.Frame;
+import rapaio.data.SolidFrame;
+import rapaio.data.VarDouble;
+import rapaio.data.VarNominal;
 import rapaio.datasets.Datasets;
 import rapaio.ml.common.kernel.RBFKernel;
 import rapaio.ml.eval.metric.Accuracy;
@@ -98,4 +103,61 @@ public class SvmClassifierTest {
         ClassifierResult cpred = c.fit(iris, "class").predict(iris, true, true);
         assertTrue(Accuracy.newMetric().compute(iris.rvar("class"), cpred).getScore().value()>0.95);
     }
+
+    @Test
+    void testShrinkingWithSmallCache() {
+        // noisy circle, large enough to shrink the active set and evict cached kernel columns
+        Random random = new Random(42);
+        int n = 3_000;
+        VarDouble x1 = VarDouble.from(n, () -> random.nextDouble() * 4 - 2).name("x1");
+        VarDouble x2 = VarDouble.from(n, () -> random.nextDouble() * 4 - 2).name("x2");
+        VarNominal y = VarNominal.from(n, row -> {
+            double r = Math.hypot(x1.getDouble(row), x2.getDouble(row)) + random.nextGaussian() * 0.2;
+            return r < 1.2 ? "in" : "out";
+        }, "in", "out").name("y");
+        Frame df = SolidFrame.byVars(x1, x2, y);
+
+        ClassifierResult[] results = new ClassifierResult[2];
+        for (int k = 0; k < 2; k++) {
+            SvmClassifier c = new SvmClassifier()
+                    .type.set(SvmClassifier.Penalty.C)
+                    .c.set(10.0)
+                    .kernel.set(new RBFKernel(1))
+                    .cacheSize.set(1L)
+                    .shrinking.set(k == 0)
+                    .seed.set(42L);
+            results[k] = c.fit(df, "y").predict(df);
+            assertTrue(Accuracy.newMetric().compute(y, results[k]).getScore().value() > 0.9);
+        }
+        int agree = 0;
+        for (int i = 0; i < n; i++) {
+            if (results[0].firstClasses().getLabel(i).equals(results[1].firstClasses().getLabel(i))) {
+                agree++;
+            }
+        }
+        assertTrue(agree >= 0.99 * n);
+    }
+
+    @Test
+    void testParallelTraining() {
+        for (boolean probability : new boolean[] {false, true}) {
+            ClassifierResult[] results = new ClassifierResult[2];
+            for (int k = 0; k < 2; k++) {
+                SvmClassifier c = new SvmClassifier()
+                        .type.set(SvmClassifier.Penalty.C)
+                        .c.set(10.0)
+                        .probability.set(probability)
+                        .kernel.set(new RBFKernel(0.7))
+                        .poolSize.set(k == 0 ? 0 : 4)
+                        .seed.set(42L);
+                results[k] = c.fit(iris, "class").predict(iris, true, true);
+            }
+            for (int i = 0; i < iris.rowCount(); i++) {
+                assertEquals(results[0].firstClasses().getLabel(i), results[1].firstClasses().getLabel(i));
+                for (int j = 0; j < results[0].firstDensity().varCount(); j++) {
+                    assertEquals(results[0].firstDensity().getDouble(i, j), results[1].firstDensity().getDouble(i, j), TOL);
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,101 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.model.svm.libsvm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+import rapaio.util.Reference;
+
+public class CacheTest {
+
+    private static void fill(float[] data, int start, int column) {
+        for (int j = start; j < data.length; j++) {
+            data[j] = column * 100 + j;
+        }
+    }
+
+    @Test
+    void prefixTest() {
+        Cache cache = new Cache(10, 1 << 20);
+        Reference<float[]> data = new Reference<>();
+
+        assertEquals(0, cache.getData(3, data, 4));
+        assertEquals(4, data.get().length);
+        fill(data.get(), 0, 3);
+
+        // a longer prefix keeps values already computed
+        assertEquals(4, cache.getData(3, data, 10));
+        assertEquals(10, data.get().length);
+        assertEquals(303, data.get()[3]);
+        fill(data.get(), 4, 3);
+
+        // a shorter prefix is already available
+        float[] values = data.get();
+        assertEquals(10, cache.getData(3, data, 6));
+        assertSame(values, data.get());
+    }
+
+    @Test
+    void evictionTest() {
+        // budget for 25 floats
+        Cache cache = new Cache(10, 25 * Float.BYTES);
+        Reference<float[]> data = new Reference<>();
+
+        cache.getData(0, data, 10);
+        float[] first = data.get();
+        cache.getData(1, data, 10);
+        cache.getData(2, data, 10);
+
+        // column 0 is the least recently used and was evicted
+        assertEquals(0, cache.getData(0, data, 10));
+        assertNotSame(first, data.get());
+        assertEquals(10, cache.getData(2, data, 10));
+    }
+
+    @Test
+    void swapIndexTest() {
+        Cache cache = new Cache(5, 1 << 20);
+        Reference<float[]> data = new Reference<>();
+        for (int i = 0; i < 5; i++) {
+            cache.getData(i, data, i == 4 ? 2 : 5);
+            fill(data.get(), 0, i);
+        }
+
+        cache.swapIndex(1, 3);
+
+        // columns are swapped
+        assertEquals(5, cache.getData(1, data, 5));
+        assertEquals(300, data.get()[0]);
+        // values from swapped positions are swapped in all columns
+        assertEquals(303, data.get()[1]);
+        assertEquals(301, data.get()[3]);
+        cache.getData(0, data, 5);
+        assertEquals(3, data.get()[1]);
+        assertEquals(1, data.get()[3]);
+        // columns too short to contain both positions are dropped
+        assertEquals(0, cache.getData(4, data, 2));
+    }
+}
@@ -31,8 +31,11 @@ import rapaio.data.Frame;
 import rapaio.data.SolidFrame;
 import rapaio.data.VarDouble;
 import rapaio.datasets.Datasets;
+import rapaio.ml.common.VarSelector;
+import rapaio.ml.eval.metric.Confusion;
 import rapaio.ml.model.tree.ctree.Candidate;
 import rapaio.ml.model.tree.ctree.Node;
+import rapaio.ml.model.tree.ctree.Splitter;
 
 /**
  * @author <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a> on 8/11/20.
@@ -153,4 +156,138 @@ public class CTreeTest {
 
         assertEquals("CTree{purity=GiniGain,seed=123,splitter=Random,varSelector=VarSelector[ALL]}", model.toString());
     }
+
+    @Test
+    void testHistogramSearch() {
+        Frame df = Datasets.loadIrisDataset();
+        CTree exact = CTree.newCART().seed.set(123L);
+        CTree hist = CTree.newCART().histogramBins.set(64).seed.set(123L);
+        exact.fit(df, "class");
+        hist.fit(df, "class");
+
+        // first split separates setosa in both modes
+        String predicate = hist.getRoot().bestCandidate.groupPredicates().get(0).toString();
+        assertTrue(predicate.startsWith("petal-length<=") || predicate.startsWith("petal-width<="));
+        assertEquals(exact.getRoot().children.get(0).counter.sum(), hist.getRoot().children.get(0).counter.sum());
+
+        double exactAccuracy = Confusion.from(df.rvar("class"), exact.predict(df).firstClasses()).accuracy();
+        double histAccuracy = Confusion.from(df.rvar("class"), hist.predict(df).firstClasses()).accuracy();
+        assertTrue(histAccuracy > 0.95);
+        assertTrue(Math.abs(exactAccuracy - histAccuracy) < 0.05);
+    }
+
+    @Test
+    void testPresortedSearch() {
+        Frame df = Datasets.loadIrisDataset();
+        CTree exact = CTree.newCART().seed.set(123L).fit(df, "class");
+        CTree presorted = CTree.newCART().presorted.set(true).seed.set(123L).fit(df, "class");
+
+        assertEquals(exact.countNodes(false), presorted.countNodes(false));
+        Frame exactDensity = exact.predict(df, true, true).firstDensity();
+        Frame presortedDensity = presorted.predict(df, true, true).firstDensity();
+        for (int i = 0; i < df.rowCount(); i++) {
+            for (int j = 0; j < exactDensity.varCount(); j++) {
+                assertEquals(exactDensity.getDouble(i, j), presortedDensity.getDouble(i, j));
+            }
+        }
+    }
+
+    @Test
+    void testLevelWiseGrowth() {
+        Frame df = Datasets.loadIrisDataset();
+        CTree sequential = CTree.newCART().seed.set(123L).fit(df, "class");
+        CTree levelWise = CTree.newCART().poolSize.set(4).seed.set(123L).fit(df, "class");
+
+        assertEquals(sequential.countNodes(false), levelWise.countNodes(false));
+        Frame sequentialDensity = sequential.predict(df, true, true).firstDensity();
+        Frame levelWiseDensity = levelWise.predict(df, true, true).firstDensity();
+        for (int i = 0; i < df.rowCount(); i++) {
+            for (int j = 0; j < sequentialDensity.varCount(); j++) {
+                assertEquals(sequentialDensity.getDouble(i, j), levelWiseDensity.getDouble(i, j));
+            }
+        }
+
+        // random variable selection is reproducible for a given seed
+        CTree first = CTree.newCART().varSelector.set(VarSelector.auto()).poolSize.set(4).seed.set(42L).fit(df, "class");
+        CTree second = CTree.newCART().varSelector.set(VarSelector.auto()).poolSize.set(4).seed.set(42L).fit(df, "class");
+        assertEquals(first.countNodes(false), second.countNodes(false));
+        assertEquals(first.toSummary(), second.toSummary());
+
+        // weighted splitter on nominal data with missing values
+        Frame play = Datasets.loadPlay();
+        CTree c45 = CTree.newC45().poolSize.set(4).seed.set(42L).fit(play, "class");
+        CTree c45Sequential = CTree.newC45().seed.set(42L).fit(play, "class");
+        assertEquals(c45Sequential.countNodes(false), c45.countNodes(false));
+    }
+
+    @Test
+    void testLevelWiseGrowthInPlaceSplit() {
+        Frame iris = Datasets.loadIrisDataset().copy();
+        for (int i = 0; i < iris.rowCount(); i += 7) {
+            iris.setMissing(i, "sepal-length");
+        }
+        for (int i = 0; i < iris.rowCount(); i += 11) {
+            iris.setMissing(i, "petal-width");
+        }
+        for (int bins : new int[] {0, 16}) {
+            for (boolean presorted : new boolean[] {false, true}) {
+                CTree sequential = CTree.newCART().splitter.set(Splitter.Ignore).histogramBins.set(bins).presorted.set(presorted)
+                        .seed.set(123L).fit(iris, "class");
+                CTree levelWise = CTree.newCART().splitter.set(Splitter.Ignore).histogramBins.set(bins).presorted.set(presorted)
+                        .poolSize.set(4).seed.set(123L).fit(iris, "class");
+                assertEquals(learned(sequential), learned(levelWise));
+
+                // rows with missing values are appended to the largest child
+                sequential = CTree.newCART().splitter.set(Splitter.Majority).histogramBins.set(bins).presorted.set(presorted)
+                        .seed.set(123L).fit(iris, "class");
+                levelWise = CTree.newCART().splitter.set(Splitter.Majority).histogramBins.set(bins).presorted.set(presorted)
+                        .poolSize.set(4).seed.set(123L).fit(iris, "class");
+                assertEquals(sequential.countNodes(false), levelWise.countNodes(false));
+                assertEquals(sequential.getRoot().counter.sum(), levelWise.getRoot().counter.sum());
+            }
+        }
+
+        // nominal and numeric searches on the rows of a node segment
+        Frame play = Datasets.loadPlay();
+        CTree sequential = CTree.newCART().splitter.set(Splitter.Ignore).seed.set(42L).fit(play, "class");
+        CTree levelWise = CTree.newCART().splitter.set(Splitter.Ignore).poolSize.set(4).seed.set(42L).fit(play, "class");
+        assertEquals(learned(sequential), learned(levelWise));
+
+        CTree id3 = CTree.newID3().seed.set(42L).fit(play, "class");
+        CTree id3LevelWise = CTree.newID3().poolSize.set(4).seed.set(42L).fit(play, "class");
+        assertEquals(learned(id3), learned(id3LevelWise));
+    }
+
+    @Test
+    void testLevelWiseGrowthThreadCounts() {
+        Frame iris = Datasets.loadIrisDataset().copy();
+        for (int i = 0; i < iris.rowCount(); i += 7) {
+            iris.setMissing(i, "sepal-length");
+        }
+        Frame play = Datasets.loadPlay();
+        for (Splitter splitter : Splitter.values()) {
+            for (int bins : new int[] {0, 16}) {
+                for (boolean presorted : new boolean[] {false, true}) {
+                    CTree single = CTree.newCART().splitter.set(splitter).varSelector.set(VarSelector.auto())
+                            .histogramBins.set(bins).presorted.set(presorted).poolSize.set(1).seed.set(42L);
+                    single.levelWise = true;
+                    single.fit(iris, "class");
+                    CTree multi = CTree.newCART().splitter.set(splitter).varSelector.set(VarSelector.auto())
+                            .histogramBins.set(bins).presorted.set(presorted).poolSize.set(4).seed.set(42L).fit(iris, "class");
+                    assertEquals(learned(single), learned(multi));
+                }
+            }
+
+            CTree single = CTree.newC45().splitter.set(splitter).poolSize.set(1).seed.set(42L);
+            single.levelWise = true;
+            single.fit(play, "class");
+            CTree multi = CTree.newC45().splitter.set(splitter).poolSize.set(4).seed.set(42L).fit(play, "class");
+            assertEquals(learned(single), learned(multi));
+        }
+    }
+
+    private static String learned(CTree tree) {
+        String summary = tree.toSummary();
+        return summary.substring(summary.indexOf("Learned model:"));
+    }
 }
@@ -0,0 +1,146 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.model.tree;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import rapaio.darray.DArray;
+import rapaio.data.Frame;
+import rapaio.data.VarRange;
+import rapaio.datasets.Datasets;
+import rapaio.ml.model.ClassifierResult;
+import rapaio.ml.model.boost.GBTClassifierModel;
+import rapaio.ml.model.boost.GBTRegressionModel;
+import rapaio.ml.model.ensemble.BaggingMode;
+import rapaio.ml.model.ensemble.CForest;
+import rapaio.ml.model.ensemble.RForest;
+
+public class CompiledTreesTest {
+
+    private static final double TOL = 1e-12;
+
+    private Random random;
+
+    @BeforeEach
+    void beforeEach() {
+        random = new Random(42);
+    }
+
+    @Test
+    void testCTreeNumeric() {
+        Frame iris = Datasets.loadIrisDataset();
+        CTree tree = CTree.newCART().seed.set(42L).fit(iris, "class");
+
+        Frame test = withMissing(iris, 0.2);
+        assertDensities(tree.predict(test, true, true), tree.compile().predict(test));
+    }
+
+    @Test
+    void testCTreeNominal() {
+        Frame mushrooms = Datasets.loadMushrooms();
+        for (CTree tree : new CTree[] {CTree.newCART(), CTree.newC45(), CTree.newID3()}) {
+            tree.maxDepth.set(6).seed.set(42L).fit(mushrooms, "classes");
+            CompiledTrees compiled = tree.compile();
+            assertDensities(tree.predict(mushrooms, true, true), compiled.predict(mushrooms));
+        }
+    }
+
+    @Test
+    void testRTree() {
+        Frame df = Datasets.loadISLAdvertising().removeVars(VarRange.of("ID"));
+        RTree tree = RTree.newCART().maxDepth.set(5).seed.set(42L).fit(df, "Sales");
+
+        Frame test = withMissing(df.removeVars(VarRange.of("Sales")), 0.2);
+        assertPredictions(tree.predict(test, false).firstPrediction().darray_(), tree.compile().predict(test));
+    }
+
+    @Test
+    void testForests() {
+        Frame iris = Datasets.loadIrisDataset();
+        Frame test = withMissing(iris, 0.1);
+        for (BaggingMode mode : BaggingMode.values()) {
+            CForest cf = CForest.newModel().runs.set(20).baggingMode.set(mode).seed.set(42L).fit(iris, "class");
+            assertDensities(cf.predict(test, true, true), cf.compile().predict(test));
+        }
+
+        Frame df = Datasets.loadISLAdvertising().removeVars(VarRange.of("ID"));
+        RForest rf = RForest.newRF().runs.set(20).seed.set(42L).fit(df, "Sales");
+        assertPredictions(rf.predict(df, false).firstPrediction().darray_(), rf.compile().predict(df));
+    }
+
+    @Test
+    void testBoosting() {
+        Frame df = Datasets.loadISLAdvertising().removeVars(VarRange.of("ID"));
+        GBTRegressionModel gbr = GBTRegressionModel.newModel().runs.set(20).shrinkage.set(0.5).seed.set(42L).fit(df, "Sales");
+        assertPredictions(gbr.predict(df, false).firstPrediction().darray_(), gbr.compile().predict(df));
+
+        Frame iris = Datasets.loadIrisDataset();
+        GBTClassifierModel gbc = GBTClassifierModel.newModel().runs.set(10).shrinkage.set(0.3).seed.set(42L).fit(iris, "class");
+        CompiledTrees compiled = gbc.compile();
+        assertEquals(CompiledTrees.Link.SOFTMAX, compiled.link());
+        assertEquals(10 * gbc.getTrees().size(), compiled.treeCount());
+        assertDensities(gbc.predict(iris, true, true), compiled.predict(iris));
+    }
+
+    @Test
+    void testNotFitted() {
+        assertThrows(IllegalStateException.class, () -> CTree.newCART().compile());
+        assertThrows(IllegalStateException.class, () -> RTree.newCART().compile());
+        assertThrows(IllegalStateException.class, () -> CForest.newModel().compile());
+    }
+
+    private Frame withMissing(Frame df, double p) {
+        Frame copy = df.copy();
+        for (int i = 0; i < copy.rowCount(); i++) {
+            for (int j = 0; j < copy.varCount(); j++) {
+                if (copy.rvar(j).type().isNumeric() && random.nextDouble() < p) {
+                    copy.setMissing(i, j);
+                }
+            }
+        }
+        return copy;
+    }
+
+    private void assertDensities(ClassifierResult expected, DArray<Double> actual) {
+        Frame density = expected.firstDensity();
+        assertEquals(density.rowCount(), actual.dim(0));
+        assertEquals(density.varCount(), actual.dim(1));
+        for (int i = 0; i < density.rowCount(); i++) {
+            for (int j = 0; j < density.varCount(); j++) {
+                assertEquals(density.getDouble(i, j), actual.getDouble(i, j), TOL);
+            }
+        }
+    }
+
+    private void assertPredictions(DArray<Double> expected, DArray<Double> actual) {
+        assertEquals(expected.size(), actual.dim(0));
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.getDouble(i), actual.getDouble(i, 0), TOL);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.model.tree;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import rapaio.data.Frame;
+import rapaio.data.SolidFrame;
+import rapaio.data.VarDouble;
+import rapaio.data.VarInt;
+import rapaio.data.VarNominal;
+
+public class FeatureBinsTest {
+
+    private Random random;
+
+    @BeforeEach
+    void beforeEach() {
+        random = new Random(42);
+    }
+
+    @Test
+    void testBinBounds() {
+        int n = 10_000;
+        VarDouble x = VarDouble.from(n, () -> random.nextGaussian()).name("x");
+        for (int i = 0; i < n; i += 100) {
+            x.setMissing(i);
+        }
+        Frame df = SolidFrame.byVars(x);
+        FeatureBins bins = FeatureBins.of(df, new String[] {"x"}, 32);
+
+        assertEquals(n, bins.rowCount());
+        assertEquals(0, bins.featureIndex("x"));
+        assertEquals(-1, bins.featureIndex("y"));
+        assertTrue(bins.binCount(0) <= 32);
+
+        int[] counts = new int[bins.binCount(0)];
+        for (int i = 0; i < n; i++) {
+            int code = bins.code(0, i);
+            if (x.isMissing(i)) {
+                assertEquals(FeatureBins.MISSING, code);
+                continue;
+            }
+            assertTrue(code < bins.binCount(0));
+            double value = x.getDouble(i);
+            if (code < bins.binCount(0) - 1) {
+                assertTrue(value <= bins.threshold(0, code));
+            }
+            if (code > 0) {
+                assertTrue(value > bins.threshold(0, code - 1));
+            }
+            counts[code]++;
+        }
+        // bins have approximately equal frequencies
+        for (int count : counts) {
+            assertTrue(Math.abs(count - (n - 100) / 32.0) < 100, "bin count: " + count);
+        }
+    }
+
+    @Test
+    void testFewDistinctValues() {
+        VarInt x = VarInt.from(1_000, row -> row % 3).name("x");
+        Frame df = SolidFrame.byVars(x);
+        FeatureBins bins = FeatureBins.of(df, new String[] {"x"}, 255);
+
+        // rows with different values always fall into different bins
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 3; j++) {
+                assertEquals(x.getInt(i) == x.getInt(j), bins.code(0, i) == bins.code(0, j));
+            }
+        }
+        assertTrue(bins.code(0, 0) < bins.code(0, 1));
+        assertTrue(bins.code(0, 1) < bins.code(0, 2));
+    }
+
+    @Test
+    void testValidation() {
+        Frame df = SolidFrame.byVars(VarDouble.seq(10).name("x"), VarNominal.copy("a", "b").name("y"));
+        assertThrows(IllegalArgumentException.class, () -> FeatureBins.of(df, new String[] {"x"}, 1));
+        assertThrows(IllegalArgumentException.class, () -> FeatureBins.of(df, new String[] {"x"}, 256));
+        assertThrows(IllegalArgumentException.class, () -> FeatureBins.of(df, new String[] {"y"}, 10));
+    }
+}
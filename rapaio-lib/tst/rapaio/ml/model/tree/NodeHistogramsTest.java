@@ -0,0 +1,90 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.model.tree;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import rapaio.data.Frame;
+import rapaio.data.Mapping;
+import rapaio.data.SolidFrame;
+import rapaio.data.Var;
+import rapaio.data.VarDouble;
+
+public class NodeHistogramsTest {
+
+    @Test
+    void testSiblingSubtraction() {
+        Random random = new Random(42);
+        int n = 1_000;
+        Frame df = SolidFrame.byVars(VarDouble.from(n, () -> random.nextDouble()).name("x"));
+        Var weights = VarDouble.from(n, () -> random.nextDouble()).name("w");
+        FeatureBins bins = FeatureBins.of(df, new String[] {"x"}, 16);
+
+        int[] rows = new int[n];
+        for (int i = 0; i < n; i++) {
+            rows[i] = i;
+        }
+        AtomicInteger scans = new AtomicInteger();
+        NodeHistograms.Builder builder = (node, feature) -> {
+            scans.incrementAndGet();
+            double[] h = new double[(bins.binCount(feature) + 1) * 2];
+            for (int i = 0; i < node.rows().length; i++) {
+                int code = bins.code(feature, node.rows()[i]);
+                h[code * 2] += node.weights().getDouble(i);
+                h[code * 2 + 1] += 1;
+            }
+            return h;
+        };
+
+        NodeHistograms parent = new NodeHistograms(bins, rows, df, weights);
+        parent.histogram(0, builder);
+
+        Mapping leftMap = Mapping.empty();
+        Mapping rightMap = Mapping.empty();
+        for (int i = 0; i < n; i++) {
+            if (df.getDouble(i, 0) < 0.3) {
+                leftMap.add(i);
+            } else {
+                rightMap.add(i);
+            }
+        }
+        NodeHistograms left = new NodeHistograms(bins, leftMap.stream().toArray(), df.mapRows(leftMap), weights.mapRows(leftMap));
+        NodeHistograms right = new NodeHistograms(bins, rightMap.stream().toArray(), df.mapRows(rightMap), weights.mapRows(rightMap));
+        parent.linkChildren(left, right, true);
+
+        // the larger child is derived from parent and its smaller sibling
+        double[] derived = right.histogram(0, builder);
+        assertEquals(2, scans.get());
+        double[] leftHistogram = left.histogram(0, builder);
+        assertEquals(2, scans.get());
+
+        double[] expected = builder.build(right, 0);
+        assertArrayEquals(expected, derived, 1e-9);
+        assertArrayEquals(builder.build(left, 0), leftHistogram, 1e-9);
+    }
+}
@@ -270,4 +270,58 @@ public class RTreeTest {
 
         assertTrue(dsRSquare < treeRSquare);
     }
+
+    @Test
+    void testHistogramSearch() {
+        Frame df = Datasets.loadISLAdvertising().removeVars(VarRange.of("ID"));
+
+        RTree exact = RTree.newCART().maxDepth.set(6).minCount.set(2).seed.set(123L);
+        RTree hist = RTree.newCART().maxDepth.set(6).minCount.set(2).histogramBins.set(64).seed.set(123L);
+        exact.fit(df, "Sales");
+        hist.fit(df, "Sales");
+
+        assertEquals(exact.root().bestCandidate.getTestName(), hist.root().bestCandidate.getTestName());
+
+        double exactRSquare = exact.predict(df, true).rSquare("Sales");
+        double histRSquare = hist.predict(df, true).rSquare("Sales");
+        assertTrue(histRSquare > 0.9);
+        assertTrue(Math.abs(exactRSquare - histRSquare) < 0.05);
+    }
+
+    @Test
+    void testPresortedSearch() {
+        Frame df = Datasets.loadISLAdvertising().removeVars(VarRange.of("ID"));
+
+        RTree exact = RTree.newCART().maxDepth.set(6).minCount.set(2).seed.set(123L);
+        RTree presorted = RTree.newCART().maxDepth.set(6).minCount.set(2).presorted.set(true).seed.set(123L);
+        exact.fit(df, "Sales");
+        presorted.fit(df, "Sales");
+
+        assertEquals(exact.root().bestCandidate.getTestName(), presorted.root().bestCandidate.getTestName());
+
+        var exactPrediction = exact.predict(df, false).firstPrediction();
+        var presortedPrediction = presorted.predict(df, false).firstPrediction();
+        for (int i = 0; i < df.rowCount(); i++) {
+            assertEquals(exactPrediction.getDouble(i), presortedPrediction.getDouble(i), 1e-10);
+        }
+    }
+
+    @Test
+    void testBoostUpdatePredictions() {
+        Frame df = Datasets.loadISLAdvertising().removeVars(VarRange.of("ID")).copy();
+        for (int i = 0; i < df.rowCount(); i += 7) {
+            df.setMissing(i, "TV");
+        }
+        Var fx = VarDouble.fill(df.rowCount(), 0);
+
+        RTree tree = RTree.newCART().maxDepth.set(4).minCount.set(2).seed.set(123L);
+        tree.fit(df, "Sales");
+        double[] predictions = new double[df.rowCount()];
+        tree.boostUpdate(df, df.rvar("Sales"), fx, new L2LossFunction(), predictions);
+
+        var expected = tree.predict(df, false).firstPrediction();
+        for (int i = 0; i < df.rowCount(); i++) {
+            assertEquals(expected.getDouble(i), predictions[i], TOL);
+        }
+    }
 }
@@ -0,0 +1,108 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.model.tree;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import rapaio.data.Frame;
+import rapaio.data.Mapping;
+import rapaio.data.SolidFrame;
+import rapaio.data.VarDouble;
+import rapaio.data.VarNominal;
+
+public class SortedColumnIndexTest {
+
+    @Test
+    void testIndex() {
+        Frame df = SolidFrame.byVars(
+                VarDouble.copy(3, 1, Double.NaN, 2, 1).name("x"),
+                VarNominal.copy("a", "b", "a", "b", "a").name("y"));
+        SortedColumnIndex index = SortedColumnIndex.of(df, new String[] {"x"});
+
+        assertEquals(5, index.rowCount());
+        assertEquals(0, index.featureIndex("x"));
+        assertEquals(-1, index.featureIndex("y"));
+        // equal values are sorted by row, missing values are skipped
+        assertArrayEquals(new int[] {1, 4, 3, 0}, index.order(0));
+
+        assertThrows(IllegalArgumentException.class, () -> SortedColumnIndex.of(df, new String[] {"y"}));
+    }
+
+    @Test
+    void testBootstrapRoot() {
+        Random random = new Random(42);
+        int n = 200;
+        VarDouble x = VarDouble.from(n, () -> random.nextInt(20) < 1 ? Double.NaN : random.nextInt(50)).name("x");
+        Frame df = SolidFrame.byVars(x);
+        SortedColumnIndex index = SortedColumnIndex.of(df, new String[] {"x"});
+
+        int[] rows = new int[n];
+        for (int i = 0; i < n; i++) {
+            rows[i] = random.nextInt(n);
+        }
+        NodeSortedRows root = index.root(rows);
+
+        int nonMissing = 0;
+        for (int row : rows) {
+            nonMissing += x.isMissing(row) ? 0 : 1;
+        }
+        int[] order = root.order(0);
+        assertEquals(nonMissing, order.length);
+        for (int i = 1; i < order.length; i++) {
+            assertTrue(x.getDouble(rows[order[i - 1]]) <= x.getDouble(rows[order[i]]));
+        }
+
+        // children keep the order of the parent
+        Mapping left = Mapping.empty();
+        Mapping right = Mapping.empty();
+        for (int i = 0; i < n; i++) {
+            if (i % 3 == 0) {
+                left.add(i);
+            } else {
+                right.add(i);
+            }
+        }
+        List<NodeSortedRows> children = root.split(List.of(left, right));
+        assertEquals(2, children.size());
+        for (int c = 0; c < 2; c++) {
+            Mapping mapping = c == 0 ? left : right;
+            NodeSortedRows child = children.get(c);
+            assertEquals(mapping.size(), child.rows().length);
+            int[] childOrder = child.order(0);
+            int expectedLen = 0;
+            for (int row : order) {
+                if ((row % 3 == 0) == (c == 0)) {
+                    assertEquals(row, mapping.get(childOrder[expectedLen++]));
+                }
+            }
+            assertEquals(expectedLen, childOrder.length);
+        }
+    }
+}
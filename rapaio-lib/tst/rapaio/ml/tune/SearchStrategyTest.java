@@ -0,0 +1,124 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.tune;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import rapaio.ml.model.tree.CTree;
+
+public class SearchStrategyTest {
+
+    @Test
+    void testSearchSpace() {
+        SearchSpace space = SearchSpace.empty().values("criterion", "a", "b").intRange("depth", 1, 3);
+        assertEquals(List.of("criterion", "depth"), space.names());
+        assertTrue(space.isFinite());
+
+        List<Configuration> grid = space.grid();
+        assertEquals(6, grid.size());
+        assertEquals("{criterion=a,depth=1}", grid.get(0).toString());
+        assertEquals("{criterion=a,depth=3}", grid.get(2).toString());
+        assertEquals("{criterion=b,depth=1}", grid.get(3).toString());
+
+        SearchSpace continuous = SearchSpace.empty().uniform("x", -1, 1).logUniform("y", 1e-4, 1);
+        assertThrows(IllegalStateException.class, continuous::grid);
+        Random random = new Random(42);
+        for (Configuration c : continuous.sample(random, 100)) {
+            double x = (double) c.get("x");
+            double y = (double) c.get("y");
+            assertTrue(x >= -1 && x <= 1);
+            assertTrue(y >= 1e-4 && y <= 1);
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> space.intRange("depth", 1, 2));
+        assertThrows(IllegalArgumentException.class, () -> space.logUniform("z", 0, 1));
+    }
+
+    @Test
+    void testConfigurationApply() {
+        CTree tree = CTree.newCART();
+        Configuration configuration = SearchSpace.empty().values("maxDepth", 3).values("minCount", 5).grid().getFirst();
+        assertEquals(tree, configuration.apply(tree));
+        assertEquals(3, tree.maxDepth.get());
+        assertEquals(5, tree.minCount.get());
+
+        Configuration unknown = SearchSpace.empty().values("unknown", 1).grid().getFirst();
+        assertThrows(IllegalArgumentException.class, () -> unknown.apply(tree));
+    }
+
+    @Test
+    void testGridAndRandomSearch() {
+        SearchSpace space = SearchSpace.empty().intRange("x", 0, 9);
+        List<String> calls = new ArrayList<>();
+        new GridSearch().search(space, new Random(42), recorder(calls));
+        new RandomSearch(4).search(space, new Random(42), recorder(calls));
+        assertEquals(List.of("10@1.0", "4@1.0"), calls);
+    }
+
+    @Test
+    void testSuccessiveHalving() {
+        SearchSpace space = SearchSpace.empty().intRange("x", 0, 1000);
+        List<String> calls = new ArrayList<>();
+        List<List<Configuration>> evaluated = new ArrayList<>();
+        new SuccessiveHalving(27, 3, 1 / 9.).search(space, new Random(42), (configurations, fraction) -> {
+            evaluated.add(configurations);
+            return recorder(calls).evaluate(configurations, fraction);
+        });
+        assertEquals(List.of("27@0.1111111111111111", "9@0.3333333333333333", "3@1.0"), calls);
+
+        // the configurations with the largest scores are kept
+        int min = evaluated.get(0).stream().mapToInt(c -> (int) c.get("x")).sorted().skip(18).findFirst().orElseThrow();
+        assertTrue(evaluated.get(1).stream().allMatch(c -> (int) c.get("x") >= min));
+
+        assertThrows(IllegalArgumentException.class, () -> new SuccessiveHalving(10, 1, 0.1));
+        assertThrows(IllegalArgumentException.class, () -> new SuccessiveHalving(10, 2, 0));
+    }
+
+    @Test
+    void testHyperband() {
+        SearchSpace space = SearchSpace.empty().intRange("x", 0, 1000);
+        List<String> calls = new ArrayList<>();
+        new Hyperband(3, 1 / 9.).search(space, new Random(42), recorder(calls));
+        assertEquals(List.of(
+                "9@0.1111111111111111", "3@0.3333333333333333", "1@1.0",
+                "5@0.3333333333333333", "1@1.0",
+                "3@1.0"), calls);
+    }
+
+    /**
+     * Records the number of configurations and fraction of each call and scores configurations by the value of x.
+     */
+    private SearchStrategy.Evaluator recorder(List<String> calls) {
+        return (configurations, fraction) -> {
+            calls.add(configurations.size() + "@" + fraction);
+            return configurations.stream().mapToDouble(c -> (int) c.get("x")).toArray();
+        };
+    }
+}
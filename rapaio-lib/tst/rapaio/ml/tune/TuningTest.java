@@ -0,0 +1,111 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.tune;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.Test;
+
+import rapaio.data.Frame;
+import rapaio.datasets.Datasets;
+import rapaio.ml.eval.metric.Accuracy;
+import rapaio.ml.eval.metric.RMSE;
+import rapaio.ml.eval.split.KFold;
+import rapaio.ml.model.ensemble.BaggingMode;
+import rapaio.ml.model.ensemble.CForest;
+import rapaio.ml.model.tree.CTree;
+import rapaio.ml.model.tree.RTree;
+
+public class TuningTest {
+
+    @Test
+    void testGridSearchClassifier() {
+        Frame iris = Datasets.loadIrisDataset();
+        Tuning tuning = Tuning.classifier(iris, "class", CTree.newCART().seed.set(42L), Accuracy.newMetric())
+                .space.set(SearchSpace.empty().values("maxDepth", 2, 4, 8).values("minCount", 1, 80))
+                .splitStrategy.set(new KFold(3))
+                .seed.set(42L)
+                .threads.set(1);
+        TuningResult sequential = tuning.run();
+
+        assertEquals(6, sequential.trials().size());
+        assertEquals(3, sequential.trials().getFirst().scores().length);
+        // large leaves on small folds prevent any useful split
+        assertTrue(sequential.trials().get(1).mean() < 0.7);
+        assertTrue(sequential.best().mean() > 0.9);
+        assertEquals(1, sequential.bestConfiguration().get("minCount"));
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            TuningResult concurrent = tuning.threads.set(4).executor.set(executor).run();
+            assertTrue(sequential.trialsFrame().deepEquals(concurrent.trialsFrame()));
+            assertFalse(executor.isShutdown());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testSuccessiveHalvingRuns() {
+        Frame iris = Datasets.loadIrisDataset();
+        TuningResult result = Tuning.classifier(iris, "class", CForest.newModel().runs.set(12).seed.set(42L), Accuracy.newMetric())
+                .space.set(SearchSpace.empty().values("bagging", BaggingMode.values()).values("seed", 1L, 2L, 3L))
+                .search.set(new SuccessiveHalving(0, 3, 0.25))
+                .splitStrategy.set(new KFold(3))
+                .seed.set(42L)
+                .run();
+
+        // 6 configurations on 3 runs and the best 2 on 12 runs
+        assertEquals(8, result.trials().size());
+        assertEquals(0.25, result.trials().getFirst().fraction());
+        assertEquals(1.0, result.best().fraction());
+        assertTrue(result.best().mean() > 0.9);
+    }
+
+    @Test
+    void testHyperbandData() {
+        Frame df = Datasets.loadISLAdvertising();
+        TuningResult result = Tuning.regression(df, "Sales", RTree.newCART(), RMSE.newMetric())
+                .space.set(SearchSpace.empty().intRange("maxDepth", 1, 8).intRange("minCount", 1, 20))
+                .search.set(new Hyperband(2, 0.25))
+                .resource.set(Resource.DATA)
+                .splitStrategy.set(new KFold(4))
+                .seed.set(42L)
+                .run();
+
+        // brackets start 4, 3 and 3 configurations
+        assertEquals(4 + 2 + 1 + 3 + 1 + 3, result.trials().size());
+        TuningResult.Trial best = result.best();
+        assertEquals(1.0, best.fraction());
+        // smaller scores are better for regression
+        assertTrue(result.trials().stream().filter(t -> t.fraction() == 1).allMatch(t -> t.mean() >= best.mean()));
+
+        assertTrue(result.toSummary().contains("Metric: RMSE (minimize)\nTrials: 14\n"));
+        assertTrue(result.toSummary().contains("Best configuration: " + best.configuration()));
+        assertTrue(result.toContent().contains("Trials:\n"));
+    }
+}
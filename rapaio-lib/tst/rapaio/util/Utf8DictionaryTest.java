@@ -0,0 +1,77 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2026 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import rapaio.util.collection.Utf8Dictionary;
+
+public class Utf8DictionaryTest {
+
+    private static final int N = 100_000;
+
+    private Random random;
+
+    @BeforeEach
+    void beforeEach() {
+        random = new Random(42);
+    }
+
+    @Test
+    void smokeTest() {
+        Utf8Dictionary dict = new Utf8Dictionary();
+        Map<String, Integer> map = new HashMap<>();
+        for (int i = 0; i < N; i++) {
+            String value = "id-" + random.nextInt(N / 2);
+            int code = dict.add(value);
+            Integer expected = map.putIfAbsent(value, map.size());
+            assertEquals(expected == null ? map.size() - 1 : expected, code);
+            assertEquals(value, dict.get(code));
+            assertEquals(code, dict.code(value));
+        }
+        assertEquals(map.size(), dict.size());
+        assertEquals(-1, dict.code("missing"));
+        assertThrows(IndexOutOfBoundsException.class, () -> dict.get(dict.size()));
+    }
+
+    @Test
+    void utf8Test() {
+        Utf8Dictionary dict = new Utf8Dictionary(1);
+        String[] values = new String[] {"", "a", "ăîșț", "日本語", "a", "", "😀"};
+        int[] codes = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            codes[i] = dict.add(values[i]);
+        }
+        assertArrayEquals(new int[] {0, 1, 2, 3, 1, 0, 4}, codes);
+        assertArrayEquals(new String[] {"", "a", "ăîșț", "日本語", "😀"}, dict.values());
+        assertEquals(1 + 8 + 9 + 4, dict.arenaSize());
+    }
+}